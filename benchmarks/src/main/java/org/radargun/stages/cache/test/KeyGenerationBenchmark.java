@@ -0,0 +1,73 @@
+package org.radargun.stages.cache.test;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.radargun.stages.cache.generators.StringKeyGenerator;
+
+/**
+ * Cost of selecting key index with the {@link KeySelector key selectors}
+ * and generating the key through {@link StringKeyGenerator}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyGenerationBenchmark {
+   private static final long NUM_ENTRIES = 1_000_000;
+
+   private KeySelector collidingKeys;
+   private KeySelector concurrentKeys;
+   private KeySelector gaussianKeys;
+   private KeySelector uuidKeys;
+   private StringKeyGenerator keyGenerator;
+   private long keyIndex;
+
+   @Setup
+   public void setup() {
+      Random random = ThreadLocalRandom.current();
+      collidingKeys = new CollidingKeysSelector(random, NUM_ENTRIES);
+      concurrentKeys = new ConcurrentKeysSelector(random, 0, NUM_ENTRIES);
+      gaussianKeys = new GaussianKeysSelector(random, NUM_ENTRIES, NUM_ENTRIES / 2, NUM_ENTRIES / 8);
+      uuidKeys = new UUIDKeysSelector();
+      keyGenerator = new StringKeyGenerator();
+   }
+
+   @Benchmark
+   public long collidingKeys() {
+      return collidingKeys.next();
+   }
+
+   @Benchmark
+   public long concurrentKeys() {
+      return concurrentKeys.next();
+   }
+
+   @Benchmark
+   public long gaussianKeys() {
+      return gaussianKeys.next();
+   }
+
+   @Benchmark
+   public long uuidKeys() {
+      return uuidKeys.next();
+   }
+
+   @Benchmark
+   public Object stringKeyGenerator() {
+      return keyGenerator.generateKey(keyIndex++);
+   }
+}
@@ -0,0 +1,47 @@
+package org.radargun.stages.test;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.radargun.Operation;
+import org.radargun.traits.BasicOperations;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RatioOperationSelectorBenchmark {
+   private RatioOperationSelector selector;
+   private Random random;
+
+   @Setup
+   public void setup() {
+      // same mix as BasicOperationsTestStage defaults, plus the rarely used operations
+      selector = new RatioOperationSelector.Builder()
+         .add(BasicOperations.GET, 4)
+         .add(BasicOperations.PUT, 1)
+         .add(BasicOperations.CONTAINS_KEY, 1)
+         .add(BasicOperations.REMOVE, 1)
+         .build();
+      selector.start();
+      random = ThreadLocalRandom.current();
+   }
+
+   @Benchmark
+   public Operation next() {
+      return selector.next(random);
+   }
+}
@@ -0,0 +1,115 @@
+package org.radargun.stages.test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.radargun.Operation;
+import org.radargun.service.ChmService;
+import org.radargun.stages.cache.generators.StringKeyGenerator;
+import org.radargun.stages.cache.test.CacheInvocations;
+import org.radargun.traits.BasicOperations;
+
+/**
+ * Overhead of {@link Stressor#makeRequest(Invocation)}: with an invocation doing nothing,
+ * and with the ConcurrentHashMap-based cache from the chm plugin as a null backend.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StressorBenchmark {
+   private static final int NUM_KEYS = 1024;
+   private static final Operation NOOP = Operation.register("Benchmark.Noop");
+
+   private Stressor stressor;
+   private Invocation<Object> noop;
+   private CacheInvocations.Get<Object, Object> get;
+   private CacheInvocations.Put<Object, Object> put;
+   private Object[] keys;
+   private Object value = new byte[100];
+   private int index;
+
+   @Setup
+   public void setup() {
+      BenchmarkTestStage stage = new BenchmarkTestStage();
+      stressor = new Stressor(stage, stage.createLogic(), 0, 0, new CountDownLatch(1), new AtomicBoolean(true));
+      stressor.startRecording();
+
+      noop = new Invocation<Object>() {
+         @Override
+         public Object invoke() {
+            return null;
+         }
+
+         @Override
+         public Operation operation() {
+            return NOOP;
+         }
+
+         @Override
+         public Operation txOperation() {
+            return NOOP;
+         }
+      };
+      BasicOperations.Cache<Object, Object> cache = new ChmService().createBasicOperations().getCache(null);
+      get = new CacheInvocations.Get<>(cache, null);
+      put = new CacheInvocations.Put<>(cache, null, null);
+      StringKeyGenerator keyGenerator = new StringKeyGenerator();
+      keys = new Object[NUM_KEYS];
+      for (int i = 0; i < NUM_KEYS; ++i) {
+         keys[i] = keyGenerator.generateKey(i);
+         cache.put(keys[i], value);
+      }
+   }
+
+   @Benchmark
+   public Object makeRequestNoop() throws OperationLogic.RequestException {
+      return stressor.makeRequest(noop);
+   }
+
+   @Benchmark
+   public Object makeRequestChmGet() throws OperationLogic.RequestException {
+      return stressor.makeRequest(get.reset(nextKey()));
+   }
+
+   @Benchmark
+   public Object makeRequestChmPut() throws OperationLogic.RequestException {
+      return stressor.makeRequest(put.reset(nextKey(), value));
+   }
+
+   @Benchmark
+   public Object directChmGet() throws Exception {
+      // baseline for makeRequestChmGet: the same invocation without the stressor
+      return get.reset(nextKey()).invoke();
+   }
+
+   private Object nextKey() {
+      return keys[ThreadLocalRandom.current().nextInt(NUM_KEYS)];
+   }
+
+   private static class BenchmarkTestStage extends TestStage {
+      @Override
+      public OperationLogic createLogic() {
+         // the benchmark calls makeRequest directly, the stressor never runs the logic
+         return new OperationLogic() {
+            @Override
+            public void run(Operation operation) {
+            }
+         };
+      }
+   }
+}
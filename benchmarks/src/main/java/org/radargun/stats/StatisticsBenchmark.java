@@ -0,0 +1,107 @@
+package org.radargun.stats;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.radargun.Operation;
+import org.radargun.utils.TimeService;
+
+/**
+ * Cost of recording single request into {@link BasicStatistics} and {@link PeriodicStatistics}
+ * with different {@link OperationStats} implementations, and into {@link ConcurrentStatistics}
+ * shared by multiple threads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+   private static final Operation OPERATION = Operation.register("Benchmark.Record");
+
+   @Param({"basic", "histogram", "log-linear"})
+   public String operationStats;
+
+   private Statistics basicStatistics;
+   private Statistics periodicStatistics;
+   private long duration;
+
+   @Setup
+   public void setup() {
+      basicStatistics = new BasicStatistics(createOperationStats());
+      basicStatistics.begin();
+      periodicStatistics = new PeriodicStatistics(new BasicStatistics(createOperationStats()), 1000);
+      periodicStatistics.begin();
+   }
+
+   private OperationStats createOperationStats() {
+      switch (operationStats) {
+         case "basic":
+            return new BasicOperationStats();
+         case "histogram":
+            HistogramOperationStats histogramOperationStats = new HistogramOperationStats();
+            histogramOperationStats.init();
+            return histogramOperationStats;
+         case "log-linear":
+            return new LogLinearOperationStats();
+         default:
+            throw new IllegalArgumentException(operationStats);
+      }
+   }
+
+   @Benchmark
+   public void basicRecord() {
+      long start = TimeService.nanoTime();
+      basicStatistics.record(start, start + nextDuration(), true, OPERATION);
+   }
+
+   @Benchmark
+   public void basicRecordRequest() {
+      Request request = basicStatistics.startRequest();
+      request.succeeded(OPERATION, request.getRequestStartTime() + nextDuration());
+   }
+
+   @Benchmark
+   @Threads(4)
+   public void concurrentRecord(SharedStatistics shared) {
+      long start = TimeService.nanoTime();
+      shared.statistics.record(start, start + nextDuration(), true, OPERATION);
+   }
+
+   @Benchmark
+   public void periodicRecord() {
+      long start = TimeService.nanoTime();
+      periodicStatistics.record(start, start + nextDuration(), true, OPERATION);
+   }
+
+   @State(Scope.Benchmark)
+   public static class SharedStatistics {
+      private ConcurrentStatistics statistics;
+
+      @Setup
+      public void setup() {
+         HistogramOperationStats histogramOperationStats = new HistogramOperationStats();
+         histogramOperationStats.init();
+         statistics = new ConcurrentStatistics(new BasicStatistics(histogramOperationStats));
+         statistics.begin();
+      }
+   }
+
+   private long nextDuration() {
+      // spread the values over the histogram buckets
+      duration = (duration + 997) & 0xFFFFF;
+      return duration;
+   }
+}
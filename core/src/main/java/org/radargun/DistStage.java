@@ -47,6 +47,13 @@ public interface DistStage extends Stage, Serializable {
     */
    StageResult processAckOnMain(List<DistStageAck> acks);
 
+   /**
+    * Called on the main when a worker sends intermediate results during {@link #executeOnWorker()},
+    * through {@link WorkerState#sendProgress(DistStageProgress)}. By default the progress is ignored.
+    */
+   default void processProgressOnMain(DistStageProgress progress) {
+   }
+
    //TODO: remove the call from stages
 
    /**
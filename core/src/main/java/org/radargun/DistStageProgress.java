@@ -0,0 +1,22 @@
+package org.radargun;
+
+import java.io.Serializable;
+
+import org.radargun.state.WorkerState;
+
+/**
+ * Intermediate result sent from the worker to the main while the stage is still executing.
+ * The main passes it to {@link DistStage#processProgressOnMain(DistStageProgress)} as soon
+ * as it arrives, not waiting for the other workers. The stage is completed only by the {@link DistStageAck}.
+ */
+public class DistStageProgress implements Serializable {
+   private final int workerIndex;
+
+   public DistStageProgress(WorkerState workerState) {
+      workerIndex = workerState.getWorkerIndex();
+   }
+
+   public int getWorkerIndex() {
+      return workerIndex;
+   }
+}
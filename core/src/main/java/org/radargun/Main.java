@@ -260,11 +260,20 @@ public class Main {
          return StageResult.EXIT;
       }
       List<DistStageAck> responses = null;
+      connection.setProgressListener(progress -> {
+         try {
+            stage.processProgressOnMain(progress);
+         } catch (Exception e) {
+            log.error("Processing progress on main failed", e);
+         }
+      });
       try {
          responses = connection.runStage(stageId, mainData, numWorkers);
       } catch (IOException e) {
          log.error("Error when communicating to workers");
          return StageResult.EXIT;
+      } finally {
+         connection.setProgressListener(null);
       }
       if (responses.size() > 1) {
          Collections.sort(responses, new Comparator<DistStageAck>() {
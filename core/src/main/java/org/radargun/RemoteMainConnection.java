@@ -24,6 +24,8 @@ public class RemoteMainConnection {
    private int mainPort;
    private SocketChannel socketChannel;
    private ByteBuffer buffer;
+   // progress of the stage is sent concurrently with receiving
+   private ByteBuffer writeBuffer;
 
    public RemoteMainConnection(String mainHost, int mainPort) {
       this.mainHost = mainHost;
@@ -35,6 +37,7 @@ public class RemoteMainConnection {
          log.error("Couldn't parse byte buffer size, keeping default", e);
       }
       this.buffer = ByteBuffer.allocate(byteBufferSize);
+      this.writeBuffer = ByteBuffer.allocate(byteBufferSize);
    }
 
    /**
@@ -150,24 +153,24 @@ public class RemoteMainConnection {
    }
 
    /**
-    * Send any serializable object to the main node.
+    * Send any serializable object to the main node. Can be called from any thread.
     * @param obj
     * @param nextUuid UUID of the next generation of workers, or null if this worker will continue
     * @throws IOException
     */
-   public void sendObject(Serializable obj, UUID nextUuid) throws IOException {
-      buffer.clear();
-      buffer = SerializationHelper.serializeObjectWithLength(obj, buffer);
+   public synchronized void sendObject(Serializable obj, UUID nextUuid) throws IOException {
+      writeBuffer.clear();
+      writeBuffer = SerializationHelper.serializeObjectWithLength(obj, writeBuffer);
       if (nextUuid == null) {
-         buffer = SerializationHelper.appendLong(0, buffer);
-         buffer = SerializationHelper.appendLong(0, buffer);
+         writeBuffer = SerializationHelper.appendLong(0, writeBuffer);
+         writeBuffer = SerializationHelper.appendLong(0, writeBuffer);
       } else {
-         buffer = SerializationHelper.appendLong(nextUuid.getMostSignificantBits(), buffer);
-         buffer = SerializationHelper.appendLong(nextUuid.getLeastSignificantBits(), buffer);
+         writeBuffer = SerializationHelper.appendLong(nextUuid.getMostSignificantBits(), writeBuffer);
+         writeBuffer = SerializationHelper.appendLong(nextUuid.getLeastSignificantBits(), writeBuffer);
       }
-      log.trace("Sending a message to the main, message has " + buffer.position() + " bytes.");
-      buffer.flip();
-      while (buffer.hasRemaining()) socketChannel.write(buffer);
+      log.trace("Sending a message to the main, message has " + writeBuffer.position() + " bytes.");
+      writeBuffer.flip();
+      while (writeBuffer.hasRemaining()) socketChannel.write(writeBuffer);
       log.info("Message successfully sent to the main");
    }
 
@@ -17,6 +17,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.radargun.config.Cluster;
 import org.radargun.config.Configuration;
@@ -56,6 +57,7 @@ public class RemoteWorkerConnection {
    private Selector discoverySelector;
    private Map<SocketChannel, Integer> channel2Index = new HashMap<>();
    private int reconnections = 0;
+   private Consumer<DistStageProgress> progressListener;
 
    private String host;
    private int port;
@@ -225,6 +227,13 @@ public class RemoteWorkerConnection {
       return list;
    }
 
+   /**
+    * @param progressListener Handles progress messages received from workers, or null if these should be ignored.
+    */
+   public void setProgressListener(Consumer<DistStageProgress> progressListener) {
+      this.progressListener = progressListener;
+   }
+
    public List<Timeline> receiveTimelines(int numWorkers) throws IOException {
       responses.clear();
       mcastObject(new Timeline.Request(), numWorkers);
@@ -297,10 +306,12 @@ public class RemoteWorkerConnection {
       ByteBuffer byteBuffer = readBufferMap.get(socketChannel);
       int value = socketChannel.read(byteBuffer);
 
-      if (byteBuffer.position() >= EXPECTED_SIZE_BYTES) {
+      // the worker can send progress messages before the response, several of them may be read at once
+      while (byteBuffer.position() >= EXPECTED_SIZE_BYTES) {
          int expectedSize = byteBuffer.getInt(0);
-         if ((expectedSize + EXPECTED_SIZE_BYTES + UUID_BYTES) > byteBuffer.capacity()) {
-            ByteBuffer replacer = ByteBuffer.allocate(expectedSize + EXPECTED_SIZE_BYTES + UUID_BYTES);
+         int messageSize = expectedSize + EXPECTED_SIZE_BYTES + UUID_BYTES;
+         if (messageSize > byteBuffer.capacity()) {
+            ByteBuffer replacer = ByteBuffer.allocate(messageSize);
             replacer.put(byteBuffer.array(), 0, byteBuffer.position());
             readBufferMap.put(socketChannel, replacer);
             if (log.isTraceEnabled())
@@ -310,26 +321,39 @@ public class RemoteWorkerConnection {
          }
          if (log.isTraceEnabled())
             log.trace("Expected size: " + expectedSize + ". byteBuffer.position() == " + byteBuffer.position());
-         if (byteBuffer.position() >= expectedSize + EXPECTED_SIZE_BYTES + UUID_BYTES) {
-            log.trace("Received response from " + socketChannel.getRemoteAddress());
-            Object response = SerializationHelper.deserialize(byteBuffer.array(), EXPECTED_SIZE_BYTES, expectedSize);
-            long uuidMsb = byteBuffer.getLong(EXPECTED_SIZE_BYTES + expectedSize);
-            long uuidLsb = byteBuffer.getLong(EXPECTED_SIZE_BYTES + expectedSize + 8);
-            if (uuidMsb != 0 && uuidLsb != 0) {
-               // we should expect reconnection
-               int index = channel2Index.get(socketChannel);
-               UUID uuid = new UUID(uuidMsb, uuidLsb);
-               log.tracef("Worker %d (%s) is going to restart with UUID %s", index, socketChannel.getRemoteAddress(), uuid);
-               WorkerRecord record = workers[index];
-               record.uuid = uuid;
-               record.channel.close();
-               record.channel = null;
-               channel2Index.remove(socketChannel);
-               readBufferMap.remove(socketChannel);
-               reconnections++;
+         if (byteBuffer.position() < messageSize) {
+            break;
+         }
+         log.trace("Received response from " + socketChannel.getRemoteAddress());
+         Object response = SerializationHelper.deserialize(byteBuffer.array(), EXPECTED_SIZE_BYTES, expectedSize);
+         long uuidMsb = byteBuffer.getLong(EXPECTED_SIZE_BYTES + expectedSize);
+         long uuidLsb = byteBuffer.getLong(EXPECTED_SIZE_BYTES + expectedSize + 8);
+         // keep the beginning of the next message, if any
+         byteBuffer.flip();
+         byteBuffer.position(messageSize);
+         byteBuffer.compact();
+         if (response instanceof DistStageProgress) {
+            if (progressListener != null) {
+               progressListener.accept((DistStageProgress) response);
+            } else {
+               log.trace("Ignoring progress " + response);
             }
-            byteBuffer.clear();
-            responses.add(response);
+            continue;
+         }
+         responses.add(response);
+         if (uuidMsb != 0 && uuidLsb != 0) {
+            // we should expect reconnection
+            int index = channel2Index.get(socketChannel);
+            UUID uuid = new UUID(uuidMsb, uuidLsb);
+            log.tracef("Worker %d (%s) is going to restart with UUID %s", index, socketChannel.getRemoteAddress(), uuid);
+            WorkerRecord record = workers[index];
+            record.uuid = uuid;
+            record.channel.close();
+            record.channel = null;
+            channel2Index.remove(socketChannel);
+            readBufferMap.remove(socketChannel);
+            reconnections++;
+            break;
          }
       }
       if (value < 0) {
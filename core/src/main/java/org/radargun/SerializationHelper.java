@@ -1,12 +1,18 @@
 package org.radargun;
 
 import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamConstants;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
 
 /**
  * Helper class holding serialization logic.
@@ -15,6 +21,11 @@ import java.nio.ByteBuffer;
  */
 public final class SerializationHelper {
    private static final int MIN_REMAINING = 32;
+   /**
+    * Serialized objects larger than this (in bytes) are compressed when sent with length.
+    * Negative value disables the compression.
+    */
+   private static final int COMPRESS_THRESHOLD = Integer.getInteger("serialization.compressThreshold", 64 * 1024);
 
    private SerializationHelper() {}
 
@@ -45,6 +56,8 @@ public final class SerializationHelper {
     *
     * Note than the original buffer can be modified even if the object does not fit there.
     *
+    * Large objects are compressed, {@link #deserialize(byte[], int, int)} recognizes this automatically.
+    *
     * @param serializable
     * @param buffer Buffer with appended serialized representation of the object.
     * @return
@@ -59,11 +72,41 @@ public final class SerializationHelper {
       try (ByteBufferOutputStream out = new ByteBufferOutputStream(buffer); ObjectOutputStream oos = new ObjectOutputStream(out)) {
          oos.writeObject(serializable);
          buffer = out.getBuffer();
-         buffer.putInt(sizePosition, buffer.position() - sizePosition - 4);
+         int size = buffer.position() - sizePosition - 4;
+         if (COMPRESS_THRESHOLD >= 0 && size > COMPRESS_THRESHOLD) {
+            size = compress(buffer, sizePosition + 4, size);
+            buffer.position(sizePosition + 4 + size);
+         }
+         buffer.putInt(sizePosition, size);
          return buffer;
       }
    }
 
+   /**
+    * Compresses the data in place, if that makes them shorter.
+    *
+    * @return Length of the data after compression.
+    */
+   private static int compress(ByteBuffer buffer, int offset, int length) {
+      byte[] compressed = new byte[length];
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try {
+         deflater.setInput(buffer.array(), buffer.arrayOffset() + offset, length);
+         deflater.finish();
+         int compressedLength = 0;
+         while (!deflater.finished() && compressedLength < length) {
+            compressedLength += deflater.deflate(compressed, compressedLength, length - compressedLength);
+         }
+         if (!deflater.finished()) {
+            return length;
+         }
+         System.arraycopy(compressed, 0, buffer.array(), buffer.arrayOffset() + offset, compressedLength);
+         return compressedLength;
+      } finally {
+         deflater.end();
+      }
+   }
+
    /**
     * Append long to the end of the buffer, possibly reallocating it.
     *
@@ -79,6 +122,9 @@ public final class SerializationHelper {
 
    /**
     * Deserialize object from given byte array, starting at startPos and using length bytes.
+    * Compressed data are inflated while reading, but the whole object graph is materialized:
+    * the main node keeps statistics of each stressor thread in the report, therefore these are not
+    * merged while reading.
     *
     * @param serializedData
     * @param startPos
@@ -87,13 +133,64 @@ public final class SerializationHelper {
     * @throws IOException
     */
    public static Object deserialize(byte[] serializedData, int startPos, int length) throws IOException {
-      try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serializedData, startPos, length))) {
+      InputStream in = new ByteArrayInputStream(serializedData, startPos, length);
+      if (length >= 2 && (short) ((serializedData[startPos] << 8) | (serializedData[startPos + 1] & 0xFF)) != ObjectStreamConstants.STREAM_MAGIC) {
+         // compressed data are decoded while reading the objects, without inflating the whole message first
+         in = new InflaterInputStream(in);
+      }
+      try (ObjectInputStream ois = new ObjectInputStream(in)) {
          return ois.readObject();
       } catch (ClassNotFoundException e) {
          throw new IllegalStateException("Unmarshalling exception", e);
       }
    }
 
+   /**
+    * Deserialize object from the remaining bytes in the buffer, e.g. from a memory-mapped file region.
+    * Compressed data are recognized as in {@link #deserialize(byte[], int, int)}.
+    *
+    * @param buffer
+    * @return
+    * @throws IOException
+    */
+   public static Object deserialize(ByteBuffer buffer) throws IOException {
+      InputStream in = new ByteBufferInputStream(buffer.slice());
+      if (buffer.remaining() >= 2 && buffer.getShort(buffer.position()) != ObjectStreamConstants.STREAM_MAGIC) {
+         in = new InflaterInputStream(in);
+      }
+      try (ObjectInputStream ois = new ObjectInputStream(in)) {
+         return ois.readObject();
+      } catch (ClassNotFoundException e) {
+         throw new IllegalStateException("Unmarshalling exception", e);
+      }
+   }
+
+   /**
+    * Writes the value using 1 - 10 bytes, small positive values use less space.
+    */
+   public static void writeVarLong(DataOutput out, long value) throws IOException {
+      while ((value & ~0x7FL) != 0) {
+         out.writeByte((int) ((value & 0x7F) | 0x80));
+         value >>>= 7;
+      }
+      out.writeByte((int) value);
+   }
+
+   /**
+    * Reads value written by {@link #writeVarLong(DataOutput, long)}.
+    */
+   public static long readVarLong(DataInput in) throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+         byte b = in.readByte();
+         value |= (long) (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) {
+            return value;
+         }
+      }
+      throw new IOException("Malformed variable-length long");
+   }
+
    private static ByteBuffer grow(ByteBuffer buffer, int minCapacityIncrease) {
       ByteBuffer tmp = ByteBuffer.allocate(Math.max(buffer.capacity() << 1, buffer.capacity() + minCapacityIncrease));
       buffer.flip();
@@ -133,4 +230,32 @@ public final class SerializationHelper {
          return buffer;
       }
    }
+
+   private static class ByteBufferInputStream extends InputStream {
+      private final ByteBuffer buffer;
+
+      private ByteBufferInputStream(ByteBuffer buffer) {
+         this.buffer = buffer;
+      }
+
+      @Override
+      public int read() {
+         return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+         if (!buffer.hasRemaining()) {
+            return -1;
+         }
+         len = Math.min(len, buffer.remaining());
+         buffer.get(b, off, len);
+         return len;
+      }
+
+      @Override
+      public int available() {
+         return buffer.remaining();
+      }
+   }
 }
@@ -29,6 +29,7 @@ public class Worker extends WorkerBase {
 
    public Worker(RemoteMainConnection connection) {
       this.connection = connection;
+      state.setProgressSender(progress -> connection.sendObject(progress, null));
       Runtime.getRuntime().addShutdownHook(new ShutDownHook("Worker process"));
    }
 
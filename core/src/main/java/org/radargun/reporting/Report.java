@@ -179,6 +179,16 @@ public class Report implements Comparable<Report>, Serializable {
          ti.addStatistics(workerIndex, stats);
       }
 
+      /**
+       * Set statistics of all workers in given iteration merged together.
+       * @param iteration
+       * @param aggregated
+       */
+      public void setAggregatedStatistics(int iteration, Statistics aggregated) {
+         ensureIterations(iteration + 1);
+         iterations.get(iteration).setAggregatedStatistics(aggregated);
+      }
+
       /**
        * Add the result to given iteration. Each iteration can contain only one result with the same name.
        * @param iteration
@@ -216,6 +226,8 @@ public class Report implements Comparable<Report>, Serializable {
 
       /* Worker index - Statistics from threads */
       private Map<Integer, List<Statistics>> statistics = new HashMap<>();
+      /* Statistics from all workers merged together, if set by the stage */
+      private Statistics aggregatedStatistics;
       private Map<String, TestResult> results = new TreeMap<>();
       private int threadCount;
 
@@ -259,6 +271,17 @@ public class Report implements Comparable<Report>, Serializable {
          return threadCount;
       }
 
+      public void setAggregatedStatistics(Statistics aggregatedStatistics) {
+         this.aggregatedStatistics = aggregatedStatistics;
+      }
+
+      /**
+       * @return Statistics from all workers merged together, or null if these were not set by the stage.
+       */
+      public Statistics getAggregatedStatistics() {
+         return aggregatedStatistics;
+      }
+
       public Map<String, TestResult> getResults() {
          return results == null ? null : Collections.unmodifiableMap(results);
       }
@@ -2,10 +2,16 @@ package org.radargun.reporting;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.radargun.utils.TimeService;
 
@@ -19,10 +25,10 @@ public class Timeline implements Serializable, Comparable<Timeline> {
    public final int workerIndex;
    /* Events plotted on all charts as marker events. */
    private Map<String, List<MarkerEvent>> events = new HashMap<>();
-   /* Values plotted in separate charts */
-   private Map<Category, List<Value>> values = new HashMap<>();
-   private long firstTimestamp = Long.MAX_VALUE;
-   private long lastTimestamp = Long.MIN_VALUE;
+   /* Values plotted in separate charts; appended without locking */
+   private Map<Category, ValueChunks> values = new ConcurrentHashMap<>();
+   private AtomicLong firstTimestamp = new AtomicLong(Long.MAX_VALUE);
+   private AtomicLong lastTimestamp = new AtomicLong(Long.MIN_VALUE);
 
    public Timeline(int workerIndex) {
       this.workerIndex = workerIndex;
@@ -38,16 +44,30 @@ public class Timeline implements Serializable, Comparable<Timeline> {
       updateTimestamps(e);
    }
 
-   public synchronized void addValue(Category category, Value e) {
-      List<Value> cat = values.get(category);
-      if (cat == null) {
-         cat = new ArrayList<>();
-         values.put(category, cat);
-      }
-      cat.add(e);
+   public void addValue(Category category, Value e) {
+      values.computeIfAbsent(category, c -> new ValueChunks()).add(e.timestamp, e.value.doubleValue());
       updateTimestamps(e);
    }
 
+   /**
+    * Appends the values in the order of the list, claiming the slots for as many values as possible at once.
+    * Values added concurrently by other threads to the same category may be interleaved with these.
+    */
+   public void addValues(Category category, List<Value> list) {
+      if (list.isEmpty()) {
+         return;
+      }
+      long[] timestamps = new long[list.size()];
+      double[] doubles = new double[list.size()];
+      for (int i = 0; i < timestamps.length; ++i) {
+         Value value = list.get(i);
+         timestamps[i] = value.timestamp;
+         doubles[i] = value.value.doubleValue();
+         updateTimestamps(value);
+      }
+      values.computeIfAbsent(category, c -> new ValueChunks()).addAll(timestamps, doubles, timestamps.length);
+   }
+
    public boolean containsValuesOfType(Category.Type type) {
       return values.keySet().stream().anyMatch(e -> e.getType().equals(type));
    }
@@ -110,20 +130,28 @@ public class Timeline implements Serializable, Comparable<Timeline> {
    }
 
    private void updateTimestamps(MarkerEvent e) {
-      firstTimestamp = Math.min(firstTimestamp, e.getStarted());
-      lastTimestamp = Math.max(lastTimestamp, e.getEnded());
+      updateTimestamps(e.getStarted(), e.getEnded());
    }
 
    private void updateTimestamps(Value v) {
-      firstTimestamp = Math.min(firstTimestamp, v.getStarted());
-      lastTimestamp = Math.max(lastTimestamp, v.getEnded());
+      updateTimestamps(v.getStarted(), v.getEnded());
+   }
+
+   private void updateTimestamps(long started, long ended) {
+      // reads are cheaper than the update, and most of the values do not change the range
+      if (started < firstTimestamp.get()) {
+         firstTimestamp.accumulateAndGet(started, Math::min);
+      }
+      if (ended > lastTimestamp.get()) {
+         lastTimestamp.accumulateAndGet(ended, Math::max);
+      }
    }
 
    public synchronized Set<String> getEventCategories() {
       return events.keySet();
    }
 
-   public synchronized Set<Category> getValueCategories() {
+   public Set<Category> getValueCategories() {
       return values.keySet();
    }
 
@@ -131,16 +159,36 @@ public class Timeline implements Serializable, Comparable<Timeline> {
       return events.get(category);
    }
 
-   public synchronized List<Value> getValues(Category category) {
-      return values.get(category);
+   /**
+    * @return Copy of the values in this category, or null if no value was added. The values are stored
+    *         as doubles. Prefer {@link #getSeries(Category)} for long timelines, as this boxes each value.
+    */
+   public List<Value> getValues(Category category) {
+      Series series = getSeries(category);
+      if (series == null) {
+         return null;
+      }
+      List<Value> list = new ArrayList<>(series.size());
+      for (int i = 0; i < series.size(); ++i) {
+         list.add(new Value(series.getTimestamp(i), series.getValue(i)));
+      }
+      return list;
+   }
+
+   /**
+    * @return Copy of the values in this category, or null if no value was added.
+    */
+   public Series getSeries(Category category) {
+      ValueChunks chunks = values.get(category);
+      return chunks == null ? null : chunks.toSeries();
    }
 
    public long getFirstTimestamp() {
-      return firstTimestamp;
+      return firstTimestamp.get();
    }
 
    public long getLastTimestamp() {
-      return lastTimestamp;
+      return lastTimestamp.get();
    }
 
    @Override
@@ -149,6 +197,252 @@ public class Timeline implements Serializable, Comparable<Timeline> {
    }
 
 
+   /**
+    * Values of a single category, stored in linked fixed-size chunks of primitive arrays. Appending thread claims
+    * a slot in the last chunk through an atomic counter, and links a new chunk when the last one is full.
+    * Readers see only the slots that were already written.
+    */
+   private static class ValueChunks implements Serializable {
+      private static final int CHUNK_SIZE = 256;
+
+      private final Chunk head = new Chunk();
+      private final AtomicReference<Chunk> tail = new AtomicReference<>(head);
+
+      void add(long timestamp, double value) {
+         for (;;) {
+            Chunk chunk = tail.get();
+            int index = chunk.claimed.getAndIncrement();
+            if (index < CHUNK_SIZE) {
+               chunk.set(index, timestamp, value);
+               return;
+            }
+            advance(chunk);
+         }
+      }
+
+      void addAll(long[] timestamps, double[] values, int length) {
+         int added = 0;
+         while (added < length) {
+            Chunk chunk = tail.get();
+            int index = chunk.claimed.getAndAdd(length - added);
+            if (index < CHUNK_SIZE) {
+               int count = Math.min(length - added, CHUNK_SIZE - index);
+               for (int i = 0; i < count; ++i) {
+                  chunk.set(index + i, timestamps[added + i], values[added + i]);
+               }
+               added += count;
+            }
+            if (added < length) {
+               advance(chunk);
+            }
+         }
+      }
+
+      private void advance(Chunk full) {
+         Chunk next = full.next.get();
+         if (next == null) {
+            Chunk created = new Chunk();
+            next = full.next.compareAndSet(null, created) ? created : full.next.get();
+         }
+         tail.compareAndSet(full, next);
+      }
+
+      Series toSeries() {
+         int capacity = 0;
+         for (Chunk chunk = head; chunk != null; chunk = chunk.next.get()) {
+            capacity += Math.min(chunk.claimed.get(), CHUNK_SIZE);
+         }
+         long[] timestamps = new long[capacity];
+         double[] values = new double[capacity];
+         int size = 0;
+         for (Chunk chunk = head; chunk != null && size < capacity; chunk = chunk.next.get()) {
+            int claimed = Math.min(chunk.claimed.get(), CHUNK_SIZE);
+            for (int i = 0; i < claimed && size < capacity; ++i) {
+               // the slot was claimed but the value is not written yet
+               if (chunk.written.get(i) != 0) {
+                  timestamps[size] = chunk.timestamps[i];
+                  values[size] = chunk.values[i];
+                  ++size;
+               }
+            }
+         }
+         return size == capacity ? new Series(timestamps, values)
+            : new Series(Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+      }
+
+      private Object writeReplace() {
+         Series series = toSeries();
+         return new SerializedValues(series.timestamps, series.values);
+      }
+
+      private static class Chunk {
+         final long[] timestamps = new long[CHUNK_SIZE];
+         final double[] values = new double[CHUNK_SIZE];
+         // set after the slot is filled, publishing the plain writes to readers
+         final AtomicIntegerArray written = new AtomicIntegerArray(CHUNK_SIZE);
+         final AtomicInteger claimed = new AtomicInteger();
+         final AtomicReference<Chunk> next = new AtomicReference<>();
+
+         void set(int index, long timestamp, double value) {
+            timestamps[index] = timestamp;
+            values[index] = value;
+            written.set(index, 1);
+         }
+      }
+   }
+
+   /**
+    * Serialized form of {@link ValueChunks}: the values are shipped as two primitive arrays.
+    */
+   private static class SerializedValues implements Serializable {
+      private final long[] timestamps;
+      private final double[] values;
+
+      SerializedValues(long[] timestamps, double[] values) {
+         this.timestamps = timestamps;
+         this.values = values;
+      }
+
+      private Object readResolve() {
+         ValueChunks chunks = new ValueChunks();
+         chunks.addAll(timestamps, values, timestamps.length);
+         return chunks;
+      }
+   }
+
+   /**
+    * Snapshot of values in single category, in order of addition.
+    */
+   public static final class Series {
+      private final long[] timestamps;
+      private final double[] values;
+
+      private Series(long[] timestamps, double[] values) {
+         this.timestamps = timestamps;
+         this.values = values;
+      }
+
+      public int size() {
+         return timestamps.length;
+      }
+
+      public long getTimestamp(int index) {
+         return timestamps[index];
+      }
+
+      public double getValue(int index) {
+         return values[index];
+      }
+
+      /**
+       * @return Minimal value, or NaN if the series is empty.
+       */
+      public double getMin() {
+         double min = Double.NaN;
+         for (double value : values) {
+            min = min <= value ? min : value;
+         }
+         return min;
+      }
+
+      /**
+       * @return Maximal value, or NaN if the series is empty.
+       */
+      public double getMax() {
+         double max = Double.NaN;
+         for (double value : values) {
+            max = max >= value ? max : value;
+         }
+         return max;
+      }
+
+      /**
+       * Splits the interval into at most <code>maxPoints</code> buckets of equal length and computes
+       * minimum, maximum and average of values in each non-empty bucket. Series that are not longer than
+       * <code>maxPoints</code> are not aggregated. Values outside the interval fall into the border buckets.
+       */
+      public Downsampled downsample(long startTimestamp, long endTimestamp, int maxPoints) {
+         if (maxPoints <= 0) {
+            throw new IllegalArgumentException("Number of points must be positive: " + maxPoints);
+         }
+         if (size() <= maxPoints) {
+            return new Downsampled(timestamps, values, values, values);
+         }
+         double bucketLength = (double) Math.max(endTimestamp - startTimestamp, 1) / maxPoints;
+         int[] counts = new int[maxPoints];
+         double[] timestampSums = new double[maxPoints];
+         double[] min = new double[maxPoints];
+         double[] max = new double[maxPoints];
+         double[] sums = new double[maxPoints];
+         for (int i = 0; i < timestamps.length; ++i) {
+            int bucket = (int) Math.min(Math.max((timestamps[i] - startTimestamp) / bucketLength, 0), maxPoints - 1);
+            double value = values[i];
+            if (counts[bucket]++ == 0) {
+               min[bucket] = value;
+               max[bucket] = value;
+            } else {
+               min[bucket] = Math.min(min[bucket], value);
+               max[bucket] = Math.max(max[bucket], value);
+            }
+            timestampSums[bucket] += timestamps[i];
+            sums[bucket] += value;
+         }
+         int points = 0;
+         for (int bucket = 0; bucket < maxPoints; ++bucket) {
+            if (counts[bucket] == 0) continue;
+            timestampSums[points] = timestampSums[bucket] / counts[bucket];
+            min[points] = min[bucket];
+            max[points] = max[bucket];
+            sums[points] = sums[bucket] / counts[bucket];
+            ++points;
+         }
+         long[] bucketTimestamps = new long[points];
+         for (int i = 0; i < points; ++i) {
+            bucketTimestamps[i] = Math.round(timestampSums[i]);
+         }
+         return new Downsampled(bucketTimestamps, Arrays.copyOf(min, points), Arrays.copyOf(max, points),
+            Arrays.copyOf(sums, points));
+      }
+   }
+
+   /**
+    * Result of {@link Series#downsample(long, long, int)}; the timestamp of each point is the average
+    * timestamp of the values aggregated into it.
+    */
+   public static final class Downsampled {
+      private final long[] timestamps;
+      private final double[] min;
+      private final double[] max;
+      private final double[] average;
+
+      private Downsampled(long[] timestamps, double[] min, double[] max, double[] average) {
+         this.timestamps = timestamps;
+         this.min = min;
+         this.max = max;
+         this.average = average;
+      }
+
+      public int size() {
+         return timestamps.length;
+      }
+
+      public long getTimestamp(int index) {
+         return timestamps[index];
+      }
+
+      public double getMin(int index) {
+         return min[index];
+      }
+
+      public double getMax(int index) {
+         return max[index];
+      }
+
+      public double getAverage(int index) {
+         return average[index];
+      }
+   }
+
    /**
     * A single value in the chart in time, such as CPU utilization. The value is reported
     * in a single chart dedicated for this type of values.
@@ -8,6 +8,7 @@ import org.radargun.sysmonitor.AbstractMonitors;
 import org.radargun.sysmonitor.CpuUsageMonitor;
 import org.radargun.sysmonitor.GcMonitor;
 import org.radargun.sysmonitor.InternalsMonitor;
+import org.radargun.sysmonitor.JfrEventMonitor;
 import org.radargun.sysmonitor.MemoryUsageMonitor;
 import org.radargun.sysmonitor.NetworkBytesMonitor;
 import org.radargun.sysmonitor.OpenFilesMonitor;
@@ -43,6 +44,21 @@ public abstract class AbstractMonitorStartStage extends AbstractDistStage {
    @Property(doc = "Dump all locked ownable synchronizers. Default is true.")
    private boolean threadDumpLockedSynchronizers = true;
 
+   // related to flight recorder events
+   @Property(doc = "Record JFR events (GC pauses, safepoints, allocation, monitor contention, thread CPU load "
+         + "and socket I/O) in the worker JVM. This is not free: an event is emitted for each new TLAB and each "
+         + "contended monitor or socket operation above jfr-threshold, and in each monitor period the recording "
+         + "is written to a temporary file and parsed on the worker, costing CPU time and allocation. Default is false.")
+   private boolean jfrEvents = false;
+   @Property(doc = "Resolution of the values computed from JFR events. Default is 100 ms.", converter = TimeConverter.class)
+   private long jfrResolution = 100;
+   @Property(doc = "Minimal duration of recorded monitor contention and socket I/O events. "
+         + "Default is 1 ms.", converter = TimeConverter.class)
+   private long jfrThreshold = 1;
+   @Property(doc = "GC with total pause time at least this long is added to the timeline as an event. "
+         + "Default is 10 ms.", converter = TimeConverter.class)
+   private long jfrGcPauseEventThreshold = 10;
+
    @Override
    public DistStageAck executeOnWorker() {
       SystemWorkerMonitor workerMonitors = workerState.get(SystemWorkerMonitor.MONITORS) == null ? new SystemWorkerMonitor(workerState, period)
@@ -59,6 +75,11 @@ public abstract class AbstractMonitorStartStage extends AbstractDistStage {
                threadDumpLockedSynchronizers, this.workerState.getWorkerIndex()));
       }
 
+      if (jfrEvents) {
+         workerMonitors.addMonitor(new JfrEventMonitor(workerState.getTimeline(), jfrResolution, jfrThreshold,
+               jfrGcPauseEventThreshold));
+      }
+
       workerMonitors.start();
       return successfulResponse();
    }
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.radargun.DistStageAck;
 import org.radargun.config.DocumentedValue;
@@ -14,6 +15,7 @@ import org.radargun.config.Stage;
 import org.radargun.reporting.Report;
 import org.radargun.stages.AbstractDistStage;
 import org.radargun.stats.Statistics;
+import org.radargun.stats.StatsUtils;
 import org.radargun.stats.representation.RepresentationType;
 import org.radargun.utils.Utils;
 
@@ -152,16 +154,19 @@ public class AnalyzeTestStage extends AbstractDistStage {
             break;
          case GROUP_BY_NODE:
             for (Map.Entry<Integer, List<Statistics>> entry : statistics) {
-               entry.getValue().stream().reduce(Statistics.MERGE).map(aggregation ->
-                  groups.add(new Group(aggregation, entry.getValue().size(), duration(aggregation), new Origin(iteration, entry.getKey(), -1)))
-               );
+               Statistics aggregation = StatsUtils.mergeHierarchically(entry.getValue(), StatsUtils.DEFAULT_MERGE_FAN_IN);
+               if (aggregation != null) {
+                  groups.add(new Group(aggregation, entry.getValue().size(), duration(aggregation), new Origin(iteration, entry.getKey(), -1)));
+               }
             }
             break;
          case GROUP_ALL:
             int threads = statistics.stream().mapToInt(e -> e.getValue().size()).sum();
-            statistics.stream().flatMap(e -> e.getValue().stream()).reduce(Statistics.MERGE).map(aggregation ->
-               groups.add(new Group(aggregation, threads, duration(aggregation), new Origin(iteration, -1, -1)))
-            );
+            Statistics aggregation = StatsUtils.mergeHierarchically(statistics.stream().flatMap(e -> e.getValue().stream())
+               .collect(Collectors.toList()), StatsUtils.DEFAULT_MERGE_FAN_IN);
+            if (aggregation != null) {
+               groups.add(new Group(aggregation, threads, duration(aggregation), new Origin(iteration, -1, -1)));
+            }
             break;
          default:
             throw new IllegalStateException("Unexpected thread grouping: " + threadGrouping);
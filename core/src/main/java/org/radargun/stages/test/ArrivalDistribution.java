@@ -0,0 +1,37 @@
+package org.radargun.stages.test;
+
+import java.util.Random;
+
+/**
+ * Distribution of intervals between intended starts of requests when the test targets
+ * fixed throughput.
+ */
+public enum ArrivalDistribution {
+   /**
+    * Requests are started in fixed intervals.
+    */
+   CONSTANT,
+   /**
+    * Intervals are exponentially distributed, so the requests of each thread form a Poisson process.
+    * Merged Poisson processes are a Poisson process as well, the arrivals in the whole cluster
+    * therefore keep this distribution.
+    */
+   POISSON;
+
+   /**
+    * @param meanInterval Average interval between requests.
+    * @param random Source of randomness, used only by random distributions.
+    * @return Interval between intended start of the current and next request.
+    */
+   public double nextInterval(double meanInterval, Random random) {
+      switch (this) {
+         case CONSTANT:
+            return meanInterval;
+         case POISSON:
+            // 1 - nextDouble() is in (0, 1], avoiding log(0)
+            return -Math.log(1 - random.nextDouble()) * meanInterval;
+         default:
+            throw new IllegalStateException("Unknown distribution: " + this);
+      }
+   }
+}
@@ -0,0 +1,32 @@
+package org.radargun.stages.test;
+
+import java.util.concurrent.CompletionStage;
+
+import org.radargun.Operation;
+
+/**
+ * Represent an asynchronous operation that the {@link Stressor}
+ * should issue without waiting for its completion. The duration is recorded
+ * when the returned {@link CompletionStage} completes.
+ *
+ * @see Stressor#makeAsyncRequest(AsyncInvocation)
+ */
+public interface AsyncInvocation<T> {
+   /**
+    * Issue the operation. This method should not block.
+    */
+   CompletionStage<T> invoke();
+
+   /**
+    * Operation that was executed; used when the invocation fails.
+    */
+   Operation operation();
+
+   /**
+    * Operation that was executed, possibly refined according to the result.
+    * @param result Value the invocation completed with.
+    */
+   default Operation operation(T result) {
+      return operation();
+   }
+}
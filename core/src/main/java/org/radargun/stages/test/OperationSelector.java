@@ -25,6 +25,12 @@ public interface OperationSelector {
     */
    void start();
 
+   /**
+    * Invoked by every {@link Stressor} when the recorded phase starts, after the warm-up.
+    */
+   default void recordingStarted() {
+   }
+
    /**
     * Potentionally blocks the calling thread, and then returns next operation that should be invoked.
     * @param random
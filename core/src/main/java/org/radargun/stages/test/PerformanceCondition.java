@@ -168,10 +168,10 @@ public abstract class PerformanceCondition {
    @DefinitionElement(name = "errors", doc = "Checks number of executed operations.")
    protected static class Errors extends AbstractCondition {
       @Property(doc = "Test if the percentage of errors (out of total number of requests) is below this value.")
-      protected Integer percentBelow;
+      protected Double percentBelow;
 
       @Property(doc = "Test if the percentage of errors (out of total number of requests) is above this value.")
-      protected Integer percentOver;
+      protected Double percentOver;
 
       @Property(doc = "Test if the total number of errors is below this value.")
       protected Long totalBelow;
@@ -198,7 +198,7 @@ public abstract class PerformanceCondition {
          if (totalBelow != null) return outcome.errors < totalBelow;
          if (totalOver != null) return outcome.errors > totalOver;
          if (percentBelow != null) return outcome.errors * 100 < outcome.requests * percentBelow;
-         if (percentBelow != null) return outcome.errors * 100 > outcome.requests * percentOver;
+         if (percentOver != null) return outcome.errors * 100 > outcome.requests * percentOver;
          throw new IllegalStateException();
       }
    }
@@ -0,0 +1,108 @@
+package org.radargun.stages.test;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * CPU time and memory allocated by stressor threads while the test was measured, retrieved
+ * from {@link ThreadMXBean}. CPU time or allocated bytes are negative when the JVM does not provide them
+ * (e.g. for virtual threads).
+ */
+public final class ResourceUsage implements Serializable {
+   private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+   public final long cpuTime;
+   public final long allocatedBytes;
+   public final long operations;
+   // wall-clock duration of the measurement; when usage of several threads is summed this is the longest one
+   public final long duration;
+
+   public ResourceUsage(long cpuTime, long allocatedBytes, long operations, long duration) {
+      this.cpuTime = cpuTime;
+      this.allocatedBytes = allocatedBytes;
+      this.operations = operations;
+      this.duration = duration;
+   }
+
+   /**
+    * @return Usage of both, CPU time and allocated bytes are unknown if these are unknown in either of them.
+    */
+   public ResourceUsage plus(ResourceUsage other) {
+      return new ResourceUsage(cpuTime < 0 || other.cpuTime < 0 ? -1 : cpuTime + other.cpuTime,
+         allocatedBytes < 0 || other.allocatedBytes < 0 ? -1 : allocatedBytes + other.allocatedBytes,
+         operations + other.operations, Math.max(duration, other.duration));
+   }
+
+   /**
+    * @return CPU time per operation in nanoseconds, or NaN if unknown.
+    */
+   public double getCpuTimePerOperation() {
+      return cpuTime < 0 || operations == 0 ? Double.NaN : (double) cpuTime / operations;
+   }
+
+   /**
+    * @return Allocated bytes per operation, or NaN if unknown.
+    */
+   public double getAllocatedBytesPerOperation() {
+      return allocatedBytes < 0 || operations == 0 ? Double.NaN : (double) allocatedBytes / operations;
+   }
+
+   /**
+    * @return Share of the given number of cores used by the threads, or NaN if unknown.
+    */
+   public double getUtilization(int cores) {
+      return cpuTime < 0 || duration <= 0 || cores <= 0 ? Double.NaN : (double) cpuTime / duration / cores;
+   }
+
+   /**
+    * @return CPU time consumed by the calling thread in nanoseconds, or -1 if not available.
+    */
+   public static long currentThreadCpuTime() {
+      try {
+         return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+      } catch (UnsupportedOperationException e) {
+         return -1;
+      }
+   }
+
+   /**
+    * @return Bytes allocated by the calling thread, or -1 if not available.
+    */
+   public static long currentThreadAllocatedBytes() {
+      return threadAllocatedBytes(Thread.currentThread().getId());
+   }
+
+   /**
+    * @return CPU time consumed by the thread in nanoseconds, or -1 if not available.
+    */
+   public static long threadCpuTime(long threadId) {
+      try {
+         return THREAD_MX_BEAN.isThreadCpuTimeSupported() ? THREAD_MX_BEAN.getThreadCpuTime(threadId) : -1;
+      } catch (UnsupportedOperationException e) {
+         return -1;
+      }
+   }
+
+   /**
+    * @return Bytes allocated by the thread, or -1 if not available.
+    */
+   public static long threadAllocatedBytes(long threadId) {
+      if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) {
+         return -1;
+      }
+      com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+      try {
+         return threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled()
+            ? threadMXBean.getThreadAllocatedBytes(threadId) : -1;
+      } catch (UnsupportedOperationException e) {
+         return -1;
+      }
+   }
+
+   @Override
+   public String toString() {
+      return String.format("ResourceUsage{cpuTime=%d, allocatedBytes=%d, operations=%d, duration=%d}",
+         cpuTime, allocatedBytes, operations, duration);
+   }
+}
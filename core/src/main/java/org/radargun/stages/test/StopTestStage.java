@@ -49,14 +49,16 @@ public class StopTestStage extends AbstractDistStage {
       } catch (InterruptedException e) {
          throw new IllegalStateException("Unexpected interruption", e);
       }
-      for (Thread stressorThread : manager.getStressors()) {
+      for (Stressor stressor : manager.getStressors()) {
          try {
             if (timeout > 0) {
                long waitTime = getWaitTime(manager.getStartTime(), timeout);
                if (waitTime <= 0) throw new TestTimeoutException();
-               stressorThread.join(waitTime);
+               stressor.join(waitTime);
+               // the results of the stressor can be read only after its thread has terminated
+               if (stressor.getThread().isAlive()) throw new TestTimeoutException();
             } else {
-               stressorThread.join();
+               stressor.join();
             }
          } catch (InterruptedException e) {
             throw new TestTimeoutException(e);
@@ -1,10 +1,17 @@
 package org.radargun.stages.test;
 
+import java.util.Arrays;
+import java.util.Queue;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 
 import org.radargun.Operation;
@@ -15,6 +22,7 @@ import org.radargun.stats.RequestSet;
 import org.radargun.stats.Statistics;
 import org.radargun.traits.Transactional;
 import org.radargun.utils.TimeService;
+import org.radargun.utils.VirtualThreads;
 
 /**
  * Each stressor operates according to its {@link OperationLogic logic} - the instance is private to each thread.
@@ -22,11 +30,29 @@ import org.radargun.utils.TimeService;
  * execute logic's {@link OperationLogic#run(org.radargun.Operation) run} method until
  * the {@link Completion#moreToRun()} returns false.
  *
+ * Besides the blocking {@link #makeRequest(Invocation)} the logic can issue requests through
+ * {@link #makeAsyncRequest(AsyncInvocation)}; then the stressor works as an event thread that keeps
+ * up to {@link TestStage#maxInFlightRequests} requests in flight. Responses are recorded
+ * by the stressor thread itself, therefore the statistics don't need to be thread-safe. When the stressor
+ * finishes, it waits at most {@link TestStage#asyncResponseTimeout} for the responses still in flight;
+ * requests not completed by then are recorded as errors.
+ *
+ * When the test targets fixed throughput the requests are started at intended times drawn from
+ * {@link TestStage#arrivalDistribution}. Response time is measured from the intended start, so that
+ * requests delayed by slow responses of previous ones are not excluded from the results (coordinated omission);
+ * service time, measured from the actual start, is recorded under operation derived with {@link #SERVICE_TIME}.
+ *
+ * The stressor runs in its own thread; with {@link TestStage#useVirtualThreads} this is a virtual thread
+ * if the JVM supports these, so that the logic can block without occupying a platform thread.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
-public class Stressor extends Thread {
+public class Stressor implements Runnable {
+   public static final String SERVICE_TIME = "ServiceTime";
+   private static final long RATE_LIMITER_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
    private static Log log = LogFactory.getLog(Stressor.class);
 
+   private final Thread thread;
    private final TestStage stage;
    private final int threadIndex;
    private final int globalThreadIndex;
@@ -46,15 +72,34 @@ public class Stressor extends Thread {
    private CountDownLatch threadCountDown;
    private final AtomicBoolean continueRunning;
 
-   // uniform rate limiter
-   final long uniformRateLimiterOpsPerNano;
-   long uniformRateLimiterOpIndex = 0;
-   long uniformRateLimiterStart = Long.MIN_VALUE;
+   // rate limiter; the offset of next intended start is kept as double to not accumulate rounding errors
+   final double rateLimiterInterval;
+   final ArrivalDistribution arrivalDistribution;
+   double rateLimiterOffset;
+   long rateLimiterStart = Long.MIN_VALUE;
 
    final boolean reportLatencyAsServiceTime;
+   final boolean recordServiceTime;
+   private long serviceStartTime;
+   private Operation[] serviceTimeOperations = new Operation[0];
+
+   // asynchronous requests
+   private final int maxInFlightRequests;
+   private final long asyncResponseTimeout;
+   private final AtomicInteger inFlightRequests = new AtomicInteger();
+   private final Set<AsyncResponse> pendingResponses = ConcurrentHashMap.newKeySet();
+   private final Queue<AsyncResponse> asyncResponses = new ConcurrentLinkedQueue<>();
+
+   // resources used by this thread while the test is measured
+   private int operations;
+   private long beginCpuTime;
+   private long beginAllocatedBytes;
+   private long beginNanos;
+   private volatile ResourceUsage resourceUsage;
 
    public Stressor(TestStage stage, OperationLogic logic, int globalThreadIndex, int threadIndex, CountDownLatch threadCountDown, AtomicBoolean continueRunning) {
-      super("Stressor-" + threadIndex);
+      String name = "Stressor-" + threadIndex;
+      this.thread = stage.useVirtualThreads ? VirtualThreads.newThread(this, name) : new Thread(this, name);
       this.stage = stage;
       this.threadIndex = threadIndex;
       this.globalThreadIndex = globalThreadIndex;
@@ -65,11 +110,55 @@ public class Stressor extends Thread {
       this.logTransactionExceptions = stage.logTransactionExceptions;
       this.threadCountDown = threadCountDown;
       this.thinkTime = stage.thinkTime;
-      this.uniformRateLimiterOpsPerNano = TimeUnit.MILLISECONDS.toNanos(stage.cycleTime);
+      this.rateLimiterInterval = stage.getRequestIntervalNanos();
+      this.arrivalDistribution = stage.arrivalDistribution;
       this.reportLatencyAsServiceTime = stage.reportLatencyAsServiceTime;
+      this.recordServiceTime = stage.recordServiceTime && rateLimiterInterval > 0 && !reportLatencyAsServiceTime;
+      this.maxInFlightRequests = stage.maxInFlightRequests;
+      this.asyncResponseTimeout = stage.asyncResponseTimeout;
       this.continueRunning = continueRunning;
    }
 
+   public void start() {
+      thread.start();
+   }
+
+   public void join() throws InterruptedException {
+      thread.join();
+   }
+
+   public void join(long millis) throws InterruptedException {
+      thread.join(millis);
+   }
+
+   public Thread getThread() {
+      return thread;
+   }
+
+   /**
+    * Starts recording requests issued from the calling thread, without running the logic.
+    * Used by microbenchmarks measuring overhead of {@link #makeRequest(Invocation)}.
+    */
+   void startRecording() {
+      stats = stage.createStatistics();
+      startRateLimiter();
+      stats.begin();
+      started = true;
+   }
+
+   private void startRateLimiter() {
+      if (rateLimiterInterval <= 0) {
+         return;
+      }
+      rateLimiterStart = TimeService.nanoTime();
+      if (arrivalDistribution == ArrivalDistribution.CONSTANT) {
+         // spread the threads over the interval, otherwise they would all start the requests at once
+         rateLimiterOffset = rateLimiterInterval * globalThreadIndex / stage.getTotalThreads();
+      } else {
+         rateLimiterOffset = arrivalDistribution.nextInterval(rateLimiterInterval, ThreadLocalRandom.current());
+      }
+   }
+
    private boolean recording() {
       return this.started;
    }
@@ -116,7 +205,7 @@ public class Stressor extends Thread {
                try {
                   logic.run(operation);
                   if (thinkTime > 0)
-                     sleep(thinkTime);
+                     Thread.sleep(thinkTime);
                } catch (OperationLogic.RequestException e) {
                   if (stage.exitOnFailure) {
                      // it will stop all stressor
@@ -126,23 +215,26 @@ public class Stressor extends Thread {
                   // the exception was already logged in makeRequest
                } catch (InterruptedException e) {
                   log.trace("Stressor interrupted.", e);
-                  interrupt();
+                  thread.interrupt();
                }
             }
          }
 
-         uniformRateLimiterStart = TimeService.nanoTime();
+         operationSelector.recordingStarted();
+         startRateLimiter();
          stats.begin();
          this.started = true;
+         beginNanos = TimeService.nanoTime();
+         beginCpuTime = ResourceUsage.currentThreadCpuTime();
+         beginAllocatedBytes = ResourceUsage.currentThreadAllocatedBytes();
          completion.start();
-         int i = 0;
          while (!stage.isTerminated() && continueRunning.get()) {
             Operation operation = operationSelector.next(random);
             if (!completion.moreToRun()) break;
             try {
                logic.run(operation);
                if (thinkTime > 0)
-                  sleep(thinkTime);
+                  Thread.sleep(thinkTime);
             } catch (OperationLogic.RequestException e) {
                if (stage.exitOnFailure) {
                   // it will stop all stressor
@@ -152,22 +244,38 @@ public class Stressor extends Thread {
                // the exception was already logged in makeRequest
             } catch (InterruptedException e) {
                log.trace("Stressor interrupted.", e);
-               interrupt();
+               thread.interrupt();
             }
-            i++;
-            completion.logProgress(i);
+            operations++;
+            completion.logProgress(operations);
          }
       } finally {
-         // before, the finishCountDown.countDown() was inside the completion.moreToRun() method
-         // if we have a custom logic in the while and the iteration stopped, the CountDownLatch wasn't called
-         stage.getCompletionHandler().run();
-         this.started = false;
-         if (txRemainingOperations > 0) {
-            endTransactionAndRegisterStats(null);
+         try {
+            awaitAsyncResponses();
+            if (this.started) {
+               resourceUsage = measureResourceUsage();
+            }
+            this.started = false;
+            if (txRemainingOperations > 0) {
+               endTransactionAndRegisterStats(null);
+            }
+         } finally {
+            // before, the finishCountDown.countDown() was inside the completion.moreToRun() method
+            // if we have a custom logic in the while and the iteration stopped, the CountDownLatch wasn't called
+            // the handler may release the worker, therefore it runs after the results of this thread are set
+            stage.getCompletionHandler().run();
          }
       }
    }
 
+   private ResourceUsage measureResourceUsage() {
+      long cpuTime = ResourceUsage.currentThreadCpuTime();
+      long allocatedBytes = ResourceUsage.currentThreadAllocatedBytes();
+      return new ResourceUsage(cpuTime < 0 || beginCpuTime < 0 ? -1 : cpuTime - beginCpuTime,
+         allocatedBytes < 0 || beginAllocatedBytes < 0 ? -1 : allocatedBytes - beginAllocatedBytes,
+         operations, TimeService.nanoTime() - beginNanos);
+   }
+
    public <T> T wrap(T resource) {
       return ongoingTx.wrap(resource);
    }
@@ -194,18 +302,20 @@ public class Stressor extends Thread {
          }
       }
 
+      if (!useTransactions) {
+         return makeNonTxRequest(invocation);
+      }
+
       T result = null;
       Exception exception = null;
       Request request = nextRequest();
+      long serviceStartTime = this.serviceStartTime;
       Operation operation = null;
       try {
          result = invocation.invoke();
          operation = invocation.operation();
-         if (useTransactions) {
-            succeeded(request, invocation.txOperation());
-         } else {
-            succeeded(request, operation);
-         }
+         succeeded(request, invocation.txOperation());
+         recordServiceTime(serviceStartTime, true, invocation.txOperation());
          // make sure that the return value cannot be optimized away
          // however, we can't be 100% sure about reordering without
          // volatile writes/reads here
@@ -215,6 +325,7 @@ public class Stressor extends Thread {
          }
       } catch (Exception e) {
          failed(request, invocation.operation());
+         recordServiceTime(serviceStartTime, false, invocation.operation());
          log.warn("Error in request", e);
          txRemainingOperations = 0;
          exception = e;
@@ -223,7 +334,7 @@ public class Stressor extends Thread {
          requests.add(request);
       }
 
-      if (useTransactions && txRemainingOperations <= 0) {
+      if (txRemainingOperations <= 0) {
          endTransactionAndRegisterStats(operation);
       }
       if (exception != null) {
@@ -232,6 +343,141 @@ public class Stressor extends Thread {
       return result;
    }
 
+   /**
+    * Outside transactions the request does not have to be tracked in a {@link RequestSet},
+    * therefore it's recorded straight from the timestamps without allocating a {@link Request}.
+    */
+   private <T> T makeNonTxRequest(Invocation<T> invocation) throws OperationLogic.RequestException {
+      boolean recording = recording();
+      long requestStartTime = recording ? nextRequestStartTime() : 0;
+      long serviceStartTime = this.serviceStartTime;
+      T result;
+      try {
+         result = invocation.invoke();
+      } catch (Exception e) {
+         long responseCompleteTime = TimeService.nanoTime();
+         if (recording && recording()) {
+            stats.record(requestStartTime, responseCompleteTime, false, invocation.operation());
+            recordServiceTime(serviceStartTime, responseCompleteTime, false, invocation.operation());
+         }
+         log.warn("Error in request", e);
+         throw new OperationLogic.RequestException(e);
+      }
+      long responseCompleteTime = TimeService.nanoTime();
+      if (recording && recording()) {
+         stats.record(requestStartTime, responseCompleteTime, true, invocation.operation());
+         recordServiceTime(serviceStartTime, responseCompleteTime, true, invocation.operation());
+      }
+      // make sure that the return value cannot be optimized away
+      Blackhole.consume(result);
+      return result;
+   }
+
+   /**
+    * Issues the request without waiting for the response. If there are already
+    * {@link TestStage#maxInFlightRequests} requests in flight, blocks until some of them complete.
+    * Responses are recorded by this thread, during subsequent invocations of this method
+    * or before the stressor finishes.
+    *
+    * @return Stage completed when the response is received.
+    */
+   public <T> CompletionStage<T> makeAsyncRequest(AsyncInvocation<T> invocation) throws OperationLogic.RequestException {
+      if (useTransactions) {
+         throw new IllegalStateException("Transactions are not supported with asynchronous requests.");
+      }
+      recordAsyncResponses();
+      while (inFlightRequests.get() >= maxInFlightRequests) {
+         LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+         recordAsyncResponses();
+      }
+      Request request = nextRequest();
+      long serviceStartTime = this.serviceStartTime;
+      CompletionStage<T> completionStage;
+      try {
+         completionStage = invocation.invoke();
+      } catch (Exception e) {
+         failed(request, invocation.operation());
+         recordServiceTime(serviceStartTime, false, invocation.operation());
+         log.warn("Error in request", e);
+         throw new OperationLogic.RequestException(e);
+      }
+      AsyncResponse response = new AsyncResponse(request, invocation.operation(), serviceStartTime);
+      pendingResponses.add(response);
+      inFlightRequests.incrementAndGet();
+      completionStage.whenComplete((result, throwable) -> {
+         long responseCompleteTime = TimeService.nanoTime();
+         if (!pendingResponses.remove(response)) {
+            // the stressor has given up waiting for this response
+            return;
+         }
+         response.complete(throwable == null ? invocation.operation(result) : invocation.operation(), throwable, responseCompleteTime);
+         asyncResponses.add(response);
+         if (inFlightRequests.getAndDecrement() >= maxInFlightRequests) {
+            LockSupport.unpark(thread);
+         }
+      });
+      return completionStage;
+   }
+
+   private void recordAsyncResponses() throws OperationLogic.RequestException {
+      Throwable failure = null;
+      AsyncResponse response;
+      while ((response = asyncResponses.poll()) != null) {
+         boolean successful = response.throwable == null && !response.timedOut;
+         if (response.request != null) {
+            if (!recording()) {
+               response.request.discard();
+            } else {
+               if (successful) {
+                  response.request.succeeded(response.operation, response.responseCompleteTime);
+               } else {
+                  response.request.failed(response.operation, response.responseCompleteTime);
+               }
+               recordServiceTime(response.serviceStartTime, response.responseCompleteTime, successful, response.operation);
+            }
+         }
+         if (response.throwable != null) {
+            log.warn("Error in request", response.throwable);
+            failure = response.throwable;
+         }
+      }
+      if (failure != null && stage.exitOnFailure) {
+         throw new OperationLogic.RequestException(failure);
+      }
+   }
+
+   void awaitAsyncResponses() {
+      long deadline = TimeService.nanoTime() + TimeUnit.MILLISECONDS.toNanos(asyncResponseTimeout);
+      while (inFlightRequests.get() > 0 && !stage.isTerminated() && continueRunning.get()
+         && TimeService.nanoTime() < deadline) {
+         LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+         try {
+            recordAsyncResponses();
+         } catch (OperationLogic.RequestException e) {
+            // already logged
+         }
+      }
+      int abandoned = 0;
+      long now = TimeService.nanoTime();
+      for (AsyncResponse response : pendingResponses) {
+         // the response could have arrived in the meantime, in that case it's already queued
+         if (pendingResponses.remove(response)) {
+            response.timedOut(now);
+            asyncResponses.add(response);
+            inFlightRequests.decrementAndGet();
+            abandoned++;
+         }
+      }
+      if (abandoned > 0) {
+         log.warn(abandoned + " asynchronous request(s) have not completed in " + asyncResponseTimeout + " ms, recording them as errors");
+      }
+      try {
+         recordAsyncResponses();
+      } catch (OperationLogic.RequestException e) {
+         // already logged
+      }
+   }
+
    public <T> void succeeded(Request request, Operation operation) {
       if (request != null) {
          if (recording()) {
@@ -316,6 +562,13 @@ public class Stressor extends Thread {
       return stats;
    }
 
+   /**
+    * @return CPU time and memory used by this thread during the measurement, or null if the measurement has not finished.
+    */
+   public ResourceUsage getResourceUsage() {
+      return resourceUsage;
+   }
+
    public OperationLogic getLogic() {
       return logic;
    }
@@ -358,19 +611,85 @@ public class Stressor extends Thread {
       }
    }
 
+   private static final class AsyncResponse {
+      private final Request request;
+      private final long serviceStartTime;
+      // set by the thread completing the request, published through the queue of responses
+      private Operation operation;
+      private Throwable throwable;
+      private boolean timedOut;
+      private long responseCompleteTime;
+
+      private AsyncResponse(Request request, Operation operation, long serviceStartTime) {
+         this.request = request;
+         this.operation = operation;
+         this.serviceStartTime = serviceStartTime;
+      }
+
+      private void complete(Operation operation, Throwable throwable, long responseCompleteTime) {
+         this.operation = operation;
+         this.throwable = throwable;
+         this.responseCompleteTime = responseCompleteTime;
+      }
+
+      private void timedOut(long now) {
+         this.timedOut = true;
+         this.responseCompleteTime = now;
+      }
+   }
+
    private Request nextRequest() {
-      Request request = null;
-      if (recording()) {
-         if (uniformRateLimiterOpsPerNano > 0) {
-            long intendedTime = uniformRateLimiterStart + (uniformRateLimiterOpIndex++) * uniformRateLimiterOpsPerNano;
-            long now;
-            while ((now = System.nanoTime()) < intendedTime)
-               LockSupport.parkNanos(intendedTime - now);
-            request = stats.startRequest(reportLatencyAsServiceTime ? System.nanoTime() : intendedTime);
-         } else {
-            request = stats.startRequest();
+      return recording() ? stats.startRequest(nextRequestStartTime()) : null;
+   }
+
+   /**
+    * Waits until the intended start of next request, if the requests are scheduled.
+    * The actual start is stored in {@link #serviceStartTime}.
+    *
+    * @return Time from which the response time of the request is measured.
+    */
+   private long nextRequestStartTime() {
+      if (rateLimiterInterval > 0) {
+         long intendedTime = rateLimiterStart + (long) rateLimiterOffset;
+         rateLimiterOffset += arrivalDistribution.nextInterval(rateLimiterInterval, ThreadLocalRandom.current());
+         long now;
+         while ((now = TimeService.nanoTime()) < intendedTime) {
+            // parking tends to oversleep by tens of microseconds, spin for the rest of the interval
+            if (intendedTime - now > RATE_LIMITER_SPIN_NANOS) {
+               LockSupport.parkNanos(intendedTime - now - RATE_LIMITER_SPIN_NANOS);
+            } else {
+               Thread.onSpinWait();
+            }
          }
+         serviceStartTime = now;
+         return reportLatencyAsServiceTime ? now : intendedTime;
+      } else {
+         return serviceStartTime = TimeService.nanoTime();
+      }
+   }
+
+   private void recordServiceTime(long serviceStartTime, boolean successful, Operation operation) {
+      if (recordServiceTime && recording()) {
+         recordServiceTime(serviceStartTime, TimeService.nanoTime(), successful, operation);
+      }
+   }
+
+   private void recordServiceTime(long serviceStartTime, long responseCompleteTime, boolean successful, Operation operation) {
+      if (recordServiceTime && operation != null) {
+         stats.record(serviceStartTime, responseCompleteTime, successful, serviceTimeOperation(operation));
+      }
+   }
+
+   private Operation serviceTimeOperation(Operation operation) {
+      // cached to avoid building the name for each request
+      if (operation.id >= serviceTimeOperations.length) {
+         serviceTimeOperations = Arrays.copyOf(serviceTimeOperations, operation.id + 1);
+      }
+      Operation serviceTimeOperation = serviceTimeOperations[operation.id];
+      if (serviceTimeOperation == null) {
+         serviceTimeOperation = operation.derive(SERVICE_TIME);
+         serviceTimeOperations[operation.id] = serviceTimeOperation;
       }
-      return request;
+      return serviceTimeOperation;
    }
 }
@@ -40,4 +40,9 @@ public class SynchronousOperationSelector implements OperationSelector {
       phaser.register();
       delegate.start();
    }
+
+   @Override
+   public void recordingStarted() {
+      delegate.recordingStarted();
+   }
 }
@@ -2,14 +2,23 @@ package org.radargun.stages.test;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
 
 import org.radargun.DistStageAck;
+import org.radargun.DistStageProgress;
 import org.radargun.Operation;
 import org.radargun.StageResult;
 import org.radargun.Version;
@@ -17,13 +26,21 @@ import org.radargun.config.Init;
 import org.radargun.config.Property;
 import org.radargun.config.Stage;
 import org.radargun.reporting.Report;
+import org.radargun.reporting.Timeline;
 import org.radargun.state.WorkerState;
+import org.radargun.stats.ConcurrentStatistics;
 import org.radargun.stats.Statistics;
+import org.radargun.stats.StatsUtils;
+import org.radargun.stats.representation.AbstractSeries;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.radargun.stats.representation.OperationThroughput;
+import org.radargun.stats.representation.Percentile;
 import org.radargun.traits.InjectTrait;
 import org.radargun.traits.Transactional;
 import org.radargun.utils.TimeConverter;
 import org.radargun.utils.TimeService;
 import org.radargun.utils.Utils;
+import org.radargun.utils.VirtualThreads;
 
 /**
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
@@ -74,7 +91,67 @@ public abstract class TestStage extends BaseTestStage {
    @Property(doc = "Enable this property in order to show the difference between latency and service.")
    protected boolean reportLatencyAsServiceTime;
 
-   @Property(doc = "When true the stage will run in background. No stats will be available. Default false")
+   @Property(doc = "Target number of requests per second issued by all stressor threads on this node. " +
+      "The requests are scheduled according to arrivalDistribution and their response time is measured from the intended start. " +
+      "Cannot be combined with cycleTime. Default is 0 (not limited).")
+   protected long throughputPerNode = 0;
+
+   @Property(doc = "Target number of requests per second issued by all stressor threads in the cluster, split evenly " +
+      "between the threads. The requests are scheduled according to arrivalDistribution and their response time " +
+      "is measured from the intended start. Cannot be combined with cycleTime or throughputPerNode. Default is 0 (not limited).")
+   protected long totalThroughput = 0;
+
+   @Property(doc = "Distribution of intervals between scheduled requests when cycleTime, throughputPerNode or totalThroughput " +
+      "is set. Default is CONSTANT.")
+   protected ArrivalDistribution arrivalDistribution = ArrivalDistribution.CONSTANT;
+
+   @Property(doc = "When the requests are scheduled, record also their service time, measured from the actual start " +
+      "of the request, as operation with '." + Stressor.SERVICE_TIME + "' suffix. Default is false.")
+   protected boolean recordServiceTime = false;
+
+   @Property(doc = "Maximum number of requests each stressor thread keeps in flight when the test issues requests " +
+      "asynchronously. Default is 1000.")
+   protected int maxInFlightRequests = 1000;
+
+   @Property(converter = TimeConverter.class, doc = "Maximum time a stressor thread waits for responses to asynchronous " +
+      "requests still in flight when it finishes. Requests without response after this time are recorded as errors. " +
+      "Default is 1 minute.")
+   protected long asyncResponseTimeout = 60000;
+
+   @Property(doc = "Run each stressor in a virtual thread, allowing many more concurrent stressors than platform threads. " +
+      "Requires Java 21 or newer; on older JVMs platform threads are used. Default is false.")
+   protected boolean useVirtualThreads = false;
+
+   @Property(converter = TimeConverter.class, doc = "Period in which the workers send statistics recorded so far " +
+      "to the main node. The main node adds them to the report and logs cluster-wide throughput and response times. " +
+      "The worker keeps only the requests recorded since the last transfer. All stressor threads record into single " +
+      "statistics instance, therefore this requires mergeThreadStats. Default is 0 (results are sent when the test finishes).")
+   protected long liveStatisticsPeriod = 0;
+
+   @Property(doc = "Add throughput and response times of each operation in consecutive intervals of the test to the timeline " +
+      "of the main node, aggregated over all workers. Requires statistics keeping the intervals, such as time-series. Default is false.")
+   protected boolean timelineSeries = false;
+
+   @Property(doc = "Response time percentiles added to the timeline with timelineSeries. The statistics must keep these percentiles. " +
+      "Default is 99.")
+   protected double[] timelinePercentiles = new double[] {99d};
+
+   @Property(doc = "Number of worker statistics merged together in one step when the main node aggregates the results " +
+      "of all workers; the groups are merged in parallel and the results are merged again the same way. " +
+      "Default is 8.")
+   protected int statisticsMergeFanIn = StatsUtils.DEFAULT_MERGE_FAN_IN;
+
+   @Property(doc = "Share of the cores on the worker that, when used by the stressor threads, marks the results of the worker " +
+      "as client-bound: the load generator rather than the tested system may limit the throughput. Default is 0.9.")
+   protected double clientBoundThreshold = 0.9;
+
+   @Property(converter = TimeConverter.class, doc = "Period in which the CPU utilization and allocation rate of stressor threads " +
+      "is added to the timeline of the worker. Default is 0 (only the totals for whole test are reported).")
+   protected long resourceUsagePeriod = 0;
+
+   @Property(doc = "When true the stage will run in background. No stats will be available, unless the stage stopping " +
+      "the test gathers them (StopTestStage does not); in that case the CPU time and allocation of stressors are reported " +
+      "as well, but these are not sampled into the timeline. Default false")
    protected boolean runBackground;
 
    @InjectTrait
@@ -89,6 +166,13 @@ public abstract class TestStage extends BaseTestStage {
 
    protected StressorsManager stressorsManager;
 
+   private Statistics sharedStatistics;
+
+   // main-side state of live statistics
+   private Map<Integer, Statistics> liveStatistics;
+   private Map<Integer, StatisticsProgress> liveInterval;
+   private Report.Test liveTest;
+
    private Runnable completionHandler;
 
    public StressorsManager getStressorsManager() {
@@ -103,7 +187,16 @@ public abstract class TestStage extends BaseTestStage {
          throw new IllegalStateException("You have to set only one ot total-threads, num-threads-per-node");
       if (totalThreads < 0 || numThreadsPerNode < 0) throw new IllegalStateException("Number of threads can't be < 0");
       if (cycleTime > 0 && thinkTime > 0) throw new IllegalStateException("We cannot mix cycleTime and thinkTime");
-      if (reportLatencyAsServiceTime && cycleTime == 0) throw new IllegalStateException("Report Latency as Service Time can be enabled when cycleTime > 0");
+      if (throughputPerNode < 0) throw new IllegalStateException("Throughput per node can't be < 0");
+      if (throughputPerNode > 0 && (cycleTime > 0 || thinkTime > 0)) throw new IllegalStateException("We cannot mix throughputPerNode with cycleTime or thinkTime");
+      if (totalThroughput < 0) throw new IllegalStateException("Total throughput can't be < 0");
+      if (totalThroughput > 0 && (cycleTime > 0 || thinkTime > 0 || throughputPerNode > 0)) throw new IllegalStateException("We cannot mix totalThroughput with cycleTime, thinkTime or throughputPerNode");
+      if (reportLatencyAsServiceTime && cycleTime == 0 && throughputPerNode == 0 && totalThroughput == 0) throw new IllegalStateException("Report Latency as Service Time can be enabled when cycleTime > 0, throughputPerNode > 0 or totalThroughput > 0");
+      if (maxInFlightRequests <= 0) throw new IllegalStateException("Max in-flight requests must be > 0");
+      if (asyncResponseTimeout < 0) throw new IllegalStateException("Async response timeout can't be < 0");
+      if (statisticsMergeFanIn < 2) throw new IllegalStateException("Statistics merge fan-in must be >= 2");
+      if (clientBoundThreshold <= 0) throw new IllegalStateException("Client-bound threshold must be > 0");
+      if (liveStatisticsPeriod > 0 && !mergeThreadStats) throw new IllegalStateException("Live statistics require merge-thread-stats to be enabled");
    }
 
    public DistStageAck executeOnWorker() {
@@ -120,19 +213,37 @@ public abstract class TestStage extends BaseTestStage {
          if (runBackground) {
             return successfulResponse();
          } else {
-            StopTestStage.waitForStressorsToFinish(stressorsManager, timeout);
+            ScheduledExecutorService liveStatisticsExecutor = startLiveStatistics();
+            ScheduledExecutorService resourceUsageExecutor = startResourceUsageSampler(stressorsManager.getStressors());
+            try {
+               StopTestStage.waitForStressorsToFinish(stressorsManager, timeout);
+            } finally {
+               stopExecutor(resourceUsageExecutor, "Sampling of resource usage");
+               stopExecutor(liveStatisticsExecutor, "Sending of live statistics");
+            }
             destroy();
             if (stressorsManager.wasForceStopped()) {
                return errorResponse("Stage was stopped by other stage");
             }
             log.info("Finished test. Test duration is: " + Utils.getNanosDurationString(TimeService.nanoTime() - startNanos));
-            return newStatisticsAck(stressorsManager.getStressors());
+            return newResultAck(stressorsManager.getStressors());
          }
       } catch (Exception e) {
          return errorResponse("Exception while initializing the test", e);
       }
    }
 
+   /**
+    * Creates ack with the results of finished stressors, including the resources used by their threads.
+    */
+   protected DistStageAck newResultAck(List<Stressor> stressors) {
+      DistStageAck ack = newStatisticsAck(stressors);
+      if (ack instanceof StatisticsAck) {
+         ((StatisticsAck) ack).setResourceUsage(getResourceUsage(stressors), Runtime.getRuntime().availableProcessors());
+      }
+      return ack;
+   }
+
    /**
     * To be overridden in inheritors.
     */
@@ -145,19 +256,155 @@ public abstract class TestStage extends BaseTestStage {
    protected void destroy() {
    }
 
+   private ScheduledExecutorService startLiveStatistics() {
+      if (liveStatisticsPeriod <= 0) {
+         return null;
+      }
+      ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+         Thread thread = new Thread(r, "live-statistics");
+         thread.setDaemon(true);
+         return thread;
+      });
+      executor.scheduleAtFixedRate(new LiveStatisticsSender((ConcurrentStatistics) createStatistics()),
+         liveStatisticsPeriod, liveStatisticsPeriod, TimeUnit.MILLISECONDS);
+      return executor;
+   }
+
+   private ScheduledExecutorService startResourceUsageSampler(List<Stressor> stressors) {
+      if (resourceUsagePeriod <= 0) {
+         return null;
+      }
+      ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+         Thread thread = new Thread(r, "resource-usage");
+         thread.setDaemon(true);
+         return thread;
+      });
+      executor.scheduleAtFixedRate(new ResourceUsageSampler(stressors), 0, resourceUsagePeriod, TimeUnit.MILLISECONDS);
+      return executor;
+   }
+
+   private void stopExecutor(ScheduledExecutorService executor, String task) {
+      if (executor == null) {
+         return;
+      }
+      // the last progress must be sent (and the last sample taken) before the ack
+      executor.shutdown();
+      try {
+         if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            log.warn(task + " has not finished in time");
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   @Override
+   public void processProgressOnMain(DistStageProgress progress) {
+      if (!(progress instanceof StatisticsProgress)) {
+         return;
+      }
+      StatisticsProgress statisticsProgress = (StatisticsProgress) progress;
+      int workerIndex = statisticsProgress.getWorkerIndex();
+      if (liveStatistics == null) {
+         liveStatistics = new HashMap<>();
+         liveInterval = new HashMap<>();
+         liveTest = getTest(amendTest, getReportedTestName());
+         testIteration = liveTest == null ? 0 : liveTest.getIterations().size();
+      }
+      Statistics accumulated = liveStatistics.get(workerIndex);
+      if (accumulated == null) {
+         accumulated = statisticsProgress.statistics.copy();
+         liveStatistics.put(workerIndex, accumulated);
+         if (liveTest != null) {
+            liveTest.addStatistics(testIteration, workerIndex, Collections.singletonList(accumulated));
+         }
+      } else {
+         accumulated.merge(statisticsProgress.statistics);
+      }
+      if (liveInterval.containsKey(workerIndex)) {
+         // some worker is late
+         logLiveInterval();
+      }
+      liveInterval.put(workerIndex, statisticsProgress);
+      if (liveInterval.size() >= getExecutingWorkers().size()) {
+         logLiveInterval();
+      }
+   }
+
+   private void logLiveInterval() {
+      // each worker measured its own interval
+      Map<String, Double> throughputs = new HashMap<>();
+      for (StatisticsProgress progress : liveInterval.values()) {
+         if (progress.intervalEnd <= progress.intervalBegin) {
+            continue;
+         }
+         for (String operation : progress.statistics.getOperations()) {
+            DefaultOutcome workerOutcome = progress.statistics.getRepresentation(operation, DefaultOutcome.class);
+            if (workerOutcome != null) {
+               throughputs.merge(operation, TimeUnit.SECONDS.toMillis(1) * (double) workerOutcome.requests
+                  / (progress.intervalEnd - progress.intervalBegin), Double::sum);
+            }
+         }
+      }
+      // the progress statistics have been merged into the live statistics already, we can merge into them
+      Statistics interval = StatsUtils.merge(liveInterval.values().stream().map(p -> p.statistics).collect(Collectors.toList()));
+      StringBuilder sb = new StringBuilder("Test ").append(getReportedTestName()).append(", ")
+         .append(liveInterval.size()).append(" worker(s) in last interval:");
+      for (String operation : new TreeSet<>(interval.getOperations())) {
+         DefaultOutcome outcome = interval.getRepresentation(operation, DefaultOutcome.class);
+         if (outcome == null || outcome.requests == 0) {
+            continue;
+         }
+         double throughput = throughputs.getOrDefault(operation, 0d);
+         sb.append(String.format("%n\t%s: %.1f reqs/s, %d errors, mean %.3f ms", operation, throughput, outcome.errors,
+            outcome.responseTimeMean / TimeUnit.MILLISECONDS.toNanos(1)));
+         for (double percentile : new double[] {95, 99, 99.9}) {
+            Percentile value = interval.getRepresentation(operation, Percentile.class, percentile);
+            if (value != null) {
+               sb.append(String.format(", %s%% %.3f ms", percentile, value.responseTimeMax / TimeUnit.MILLISECONDS.toNanos(1)));
+            }
+         }
+      }
+      log.info(sb.toString());
+      liveInterval.clear();
+   }
+
    public StageResult processAckOnMain(List<DistStageAck> acks) {
-      return processAckOnMain(acks, testName);
+      return processAckOnMain(acks, getReportedTestName());
+   }
+
+   /**
+    * @return Name of the test in the report to which the results of this stage belong.
+    */
+   protected String getReportedTestName() {
+      return testName;
    }
 
    protected StageResult processAckOnMain(List<DistStageAck> acks, String testNameOverride) {
       StageResult result = super.processAckOnMain(acks);
       if (result.isError()) return result;
 
-      Report.Test test = getTest(amendTest, testNameOverride);
-      testIteration = test == null ? 0 : test.getIterations().size();
+      Report.Test test;
+      if (liveStatistics != null) {
+         // the test and iteration were set when the first statistics arrived
+         test = liveTest;
+      } else {
+         test = getTest(amendTest, testNameOverride);
+         testIteration = test == null ? 0 : test.getIterations().size();
+      }
       // we cannot use aggregated = createStatistics() since with PeriodicStatistics the merge would fail
       List<StatisticsAck> statisticsAcks = instancesOf(acks, StatisticsAck.class);
-      Statistics aggregated = statisticsAcks.stream().flatMap(ack -> ack.statistics.stream()).reduce(null, Statistics.MERGE);
+      Map<Integer, List<Statistics>> workerStatistics = new HashMap<>();
+      List<Statistics> allStatistics = new ArrayList<>(statisticsAcks.size());
+      for (StatisticsAck ack : statisticsAcks) {
+         List<Statistics> statistics = withLiveStatistics(ack);
+         workerStatistics.put(ack.getWorkerIndex(), statistics);
+         if (statistics != null) {
+            allStatistics.addAll(statistics);
+         }
+      }
+      // the statistics are added to the report as well, therefore these cannot be modified by the merge
+      Statistics aggregated = StatsUtils.mergeHierarchically(allStatistics, statisticsMergeFanIn);
       for (StatisticsAck ack : statisticsAcks) {
          if (ack.statistics != null) {
             if (test != null) {
@@ -169,12 +416,26 @@ public abstract class TestStage extends BaseTestStage {
                if (test.getGroupOperationsMap() == null) {
                   test.setGroupOperationsMap(ack.getGroupOperationsMap());
                }
-               test.addStatistics(testIteration, ack.getWorkerIndex(), ack.statistics);
+               if (liveStatistics == null || !liveStatistics.containsKey(ack.getWorkerIndex())) {
+                  test.addStatistics(testIteration, ack.getWorkerIndex(), workerStatistics.get(ack.getWorkerIndex()));
+               }
             }
          } else {
             log.trace("No statistics received from worker: " + ack.getWorkerIndex());
          }
       }
+      if (test != null && aggregated != null) {
+         test.setAggregatedStatistics(getTestIteration(), aggregated);
+      }
+      if (test != null) {
+         addResourceUsageResults(test, statisticsAcks);
+      }
+      if (timelineSeries && aggregated != null) {
+         addSeriesToTimeline(aggregated, testNameOverride);
+      }
+      liveStatistics = null;
+      liveInterval = null;
+      liveTest = null;
       if (checkRepeatCondition(aggregated)) {
          return StageResult.SUCCESS;
       } else {
@@ -182,6 +443,128 @@ public abstract class TestStage extends BaseTestStage {
       }
    }
 
+   /**
+    * Reports CPU time and allocated bytes per operation next to the throughput, so that it is apparent
+    * whether the stressors could limit the throughput.
+    */
+   private void addResourceUsageResults(Report.Test test, List<StatisticsAck> acks) {
+      Map<Integer, Report.WorkerResult> cpuResults = new HashMap<>();
+      Map<Integer, Report.WorkerResult> allocationResults = new HashMap<>();
+      Map<Integer, Report.WorkerResult> utilizationResults = new HashMap<>();
+      List<Integer> clientBoundWorkers = new ArrayList<>();
+      ResourceUsage total = null;
+      int totalCores = 0;
+      for (StatisticsAck ack : acks) {
+         ResourceUsage usage = ack.getResourceUsage();
+         if (usage == null) {
+            continue;
+         }
+         double utilization = usage.getUtilization(ack.getAvailableProcessors());
+         boolean clientBound = utilization >= clientBoundThreshold;
+         if (clientBound) {
+            log.warnf("Stressors on worker %d used %.0f%% of %d cores, the results may be client-bound",
+               ack.getWorkerIndex(), 100 * utilization, ack.getAvailableProcessors());
+            clientBoundWorkers.add(ack.getWorkerIndex());
+         }
+         cpuResults.put(ack.getWorkerIndex(), new Report.WorkerResult(formatPerOperation(usage.getCpuTimePerOperation(), "ns"), false));
+         allocationResults.put(ack.getWorkerIndex(), new Report.WorkerResult(formatPerOperation(usage.getAllocatedBytesPerOperation(), "B"), false));
+         utilizationResults.put(ack.getWorkerIndex(), new Report.WorkerResult(formatUtilization(utilization, clientBound), clientBound));
+         total = total == null ? usage : total.plus(usage);
+         totalCores += ack.getAvailableProcessors();
+      }
+      if (total == null) {
+         return;
+      }
+      int iteration = getTestIteration();
+      test.addResult(iteration, new Report.TestResult("Stressor CPU per operation", cpuResults,
+         formatPerOperation(total.getCpuTimePerOperation(), "ns"), false));
+      test.addResult(iteration, new Report.TestResult("Stressor bytes allocated per operation", allocationResults,
+         formatPerOperation(total.getAllocatedBytesPerOperation(), "B"), false));
+      test.addResult(iteration, new Report.TestResult("Stressor CPU utilization", utilizationResults,
+         formatUtilization(total.getUtilization(totalCores), !clientBoundWorkers.isEmpty()), !clientBoundWorkers.isEmpty()));
+   }
+
+   private static String formatPerOperation(double value, String unit) {
+      return Double.isNaN(value) ? "-" : String.format("%.0f %s", value, unit);
+   }
+
+   private static String formatUtilization(double utilization, boolean clientBound) {
+      if (Double.isNaN(utilization)) {
+         return "-";
+      }
+      return String.format("%.1f%%", 100 * utilization) + (clientBound ? " (client-bound)" : "");
+   }
+
+   private static ResourceUsage getResourceUsage(List<Stressor> stressors) {
+      ResourceUsage total = null;
+      for (Stressor stressor : stressors) {
+         ResourceUsage usage = stressor.getResourceUsage();
+         if (usage != null) {
+            total = total == null ? usage : total.plus(usage);
+         }
+      }
+      return total;
+   }
+
+   private void addSeriesToTimeline(Statistics statistics, String testName) {
+      Timeline timeline = mainState.getTimeline();
+      for (String operation : statistics.getOperations()) {
+         OperationThroughput.Series throughput = statistics.getRepresentation(operation, OperationThroughput.Series.class);
+         DefaultOutcome.Series outcomes = statistics.getRepresentation(operation, DefaultOutcome.Series.class);
+         if (throughput == null || outcomes == null) {
+            log.warnf("Statistics %s do not provide series of operation %s", statistics, operation);
+            continue;
+         }
+         String prefix = testName + " " + operation;
+         // intervals without requests have zero throughput but no response times
+         IntPredicate hasRequests = i -> i < outcomes.samples.length && outcomes.samples[i] != null && outcomes.samples[i].requests > 0;
+         addSeriesToTimeline(timeline, prefix + " Throughput", throughput,
+            i -> throughput.samples[i] == null ? 0 : throughput.samples[i].gross);
+         addSeriesToTimeline(timeline, prefix + " Mean response time (ms)", outcomes,
+            i -> hasRequests.test(i) ? toMillis(outcomes.samples[i].responseTimeMean) : null);
+         addSeriesToTimeline(timeline, prefix + " Max response time (ms)", outcomes,
+            i -> hasRequests.test(i) ? toMillis(outcomes.samples[i].responseTimeMax) : null);
+         for (double percentile : timelinePercentiles) {
+            Percentile.Series percentiles = statistics.getRepresentation(operation, Percentile.Series.class, percentile);
+            if (percentiles == null) {
+               log.warnf("Statistics %s do not provide series of %s percentile of operation %s", statistics, percentile, operation);
+               continue;
+            }
+            addSeriesToTimeline(timeline, prefix + " " + percentile + "th percentile response time (ms)", percentiles,
+               i -> hasRequests.test(i) && percentiles.samples[i] != null ? toMillis(percentiles.samples[i].responseTimeMax) : null);
+         }
+      }
+   }
+
+   private static void addSeriesToTimeline(Timeline timeline, String category, AbstractSeries<?> series, IntFunction<Number> value) {
+      Timeline.Category timelineCategory = Timeline.Category.customCategory(category);
+      for (int i = 0; i < series.samples.length; ++i) {
+         Number number = value.apply(i);
+         if (number != null) {
+            timeline.addValue(timelineCategory, new Timeline.Value(series.startTime + i * series.period, number));
+         }
+      }
+   }
+
+   private static double toMillis(double nanos) {
+      return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+   }
+
+   /**
+    * With live statistics the worker sends only the requests recorded since the last transfer,
+    * these are added to statistics already received on main (that are in the report, too).
+    */
+   private List<Statistics> withLiveStatistics(StatisticsAck ack) {
+      Statistics accumulated = liveStatistics == null ? null : liveStatistics.get(ack.getWorkerIndex());
+      if (accumulated == null || ack.statistics == null) {
+         return ack.statistics;
+      }
+      for (Statistics statistics : ack.statistics) {
+         accumulated.merge(statistics);
+      }
+      return Collections.singletonList(accumulated);
+   }
+
    protected StressorsManager setUpAndStartStressors() {
       long startTime = TimeService.currentTimeMillis();
       completion = createCompletion();
@@ -199,6 +582,9 @@ public abstract class TestStage extends BaseTestStage {
       operationSelector = wrapOperationSelector(createOperationSelector());
 
       AtomicBoolean continueRunning = new AtomicBoolean(true);
+      synchronized (this) {
+         sharedStatistics = null;
+      }
       List<Stressor> stressors = startStressors(continueRunning);
       started = true;
 
@@ -240,6 +626,9 @@ public abstract class TestStage extends BaseTestStage {
       int myFirstThread = getFirstThreadOn(workerState.getWorkerIndex());
       int myNumThreads = getNumThreadsOn(workerState.getWorkerIndex());
       CountDownLatch threadCountDown = new CountDownLatch(myNumThreads);
+      if (useVirtualThreads && !VirtualThreads.isSupported()) {
+         log.warn("Virtual threads are not supported by this JVM, stressors will use platform threads.");
+      }
 
       List<Stressor> stressors = new ArrayList<>();
       for (int threadIndex = stressors.size(); threadIndex < myNumThreads; threadIndex++) {
@@ -252,7 +641,7 @@ public abstract class TestStage extends BaseTestStage {
       } catch (InterruptedException e) {
          //FIXME implement me
       }
-      log.info("Started " + stressors.size() + " stressor threads.");
+      log.info("Started " + stressors.size() + (useVirtualThreads && VirtualThreads.isSupported() ? " virtual" : "") + " stressor threads.");
       return stressors;
    }
 
@@ -308,9 +697,33 @@ public abstract class TestStage extends BaseTestStage {
    }
 
    protected Statistics createStatistics() {
+      // live statistics are sent from single instance, init() makes sure that the thread stats are merged anyway
+      if (statisticsPrototype instanceof ConcurrentStatistics || liveStatisticsPeriod > 0) {
+         // all stressors record into single instance
+         synchronized (this) {
+            if (sharedStatistics == null) {
+               sharedStatistics = statisticsPrototype instanceof ConcurrentStatistics ?
+                  statisticsPrototype.newInstance() : new ConcurrentStatistics(statisticsPrototype);
+            }
+            return sharedStatistics;
+         }
+      }
       return statisticsPrototype.copy();
    }
 
+   /**
+    * @return Average intended time between two consecutive requests of one stressor thread, in nanoseconds,
+    * or 0 if the requests are not scheduled.
+    */
+   double getRequestIntervalNanos() {
+      if (totalThroughput > 0) {
+         return (double) TimeUnit.SECONDS.toNanos(getTotalThreads()) / totalThroughput;
+      } else if (throughputPerNode > 0) {
+         return (double) TimeUnit.SECONDS.toNanos(getNumThreadsOn(workerState.getWorkerIndex())) / throughputPerNode;
+      }
+      return TimeUnit.MILLISECONDS.toNanos(cycleTime);
+   }
+
    public boolean isStarted() {
       return started;
    }
@@ -357,30 +770,155 @@ public abstract class TestStage extends BaseTestStage {
    }
 
    protected static class StatisticsResultRetriever implements ResultRetriever<Statistics> {
+      // stressors may share single instance of concurrent statistics
+      private final Set<Statistics> retrieved = Collections.newSetFromMap(new IdentityHashMap<>());
+
       public StatisticsResultRetriever() {}
 
+      /**
+       * The result can be merged in place: statistics of a stressor are returned directly only when
+       * its thread has terminated, otherwise these are copied.
+       */
       @Override
       public Statistics getResult(Stressor stressor) {
-         return stressor.getStats();
+         Statistics stats = stressor.getStats();
+         if (stats instanceof ConcurrentStatistics) {
+            return retrieved.add(stats) ? ((ConcurrentStatistics) stats).snapshot(false) : null;
+         }
+         if (stats != null && stressor.getThread().isAlive()) {
+            // the stressor may be still recording
+            return stats.copy();
+         }
+         return stats;
       }
 
       @Override
       public Statistics merge(Statistics stats1, Statistics stats2) {
-         return Statistics.MERGE.apply(stats1, stats2);
+         if (stats1 == null || stats2 == null) {
+            return stats1 == null ? stats2 : stats1;
+         }
+         stats1.merge(stats2);
+         return stats1;
+      }
+   }
+
+   private class LiveStatisticsSender implements Runnable {
+      private final ConcurrentStatistics statistics;
+      private long lastTransfer = Long.MIN_VALUE;
+
+      private LiveStatisticsSender(ConcurrentStatistics statistics) {
+         this.statistics = statistics;
+      }
+
+      @Override
+      public void run() {
+         if (statistics.getBegin() == Long.MAX_VALUE) {
+            // the stressors have not started the measurement yet
+            return;
+         }
+         long now = TimeService.currentTimeMillis();
+         long intervalBegin = lastTransfer == Long.MIN_VALUE ? statistics.getBegin() : lastTransfer;
+         try {
+            workerState.sendProgress(new StatisticsProgress(workerState, statistics.snapshot(true), intervalBegin, now));
+            lastTransfer = now;
+         } catch (Exception e) {
+            log.error("Failed to send statistics to main", e);
+         }
+      }
+   }
+
+   /**
+    * Adds CPU utilization and allocation rate of all stressor threads to the timeline of the worker.
+    */
+   private class ResourceUsageSampler implements Runnable {
+      private final long[] threadIds;
+      private final int cores = Runtime.getRuntime().availableProcessors();
+      private final Timeline.Category utilizationCategory = Timeline.Category.customCategory(testName + " Stressor CPU utilization");
+      private final Timeline.Category allocationCategory = Timeline.Category.customCategory(testName + " Stressor allocation rate [MB per second]");
+      private long lastNanos = Long.MIN_VALUE;
+      private long lastCpuTime;
+      private long lastAllocatedBytes;
+
+      private ResourceUsageSampler(List<Stressor> stressors) {
+         threadIds = stressors.stream().mapToLong(stressor -> stressor.getThread().getId()).toArray();
+      }
+
+      @Override
+      public void run() {
+         long nanos = TimeService.nanoTime();
+         long cpuTime = -1, allocatedBytes = -1;
+         for (long threadId : threadIds) {
+            // the values are not available for terminated (or virtual) threads
+            long threadCpuTime = ResourceUsage.threadCpuTime(threadId);
+            if (threadCpuTime >= 0) {
+               cpuTime = Math.max(cpuTime, 0) + threadCpuTime;
+            }
+            long threadAllocatedBytes = ResourceUsage.threadAllocatedBytes(threadId);
+            if (threadAllocatedBytes >= 0) {
+               allocatedBytes = Math.max(allocatedBytes, 0) + threadAllocatedBytes;
+            }
+         }
+         if (lastNanos != Long.MIN_VALUE && nanos > lastNanos) {
+            long timestamp = TimeService.currentTimeMillis();
+            Timeline timeline = workerState.getTimeline();
+            if (cpuTime >= 0 && lastCpuTime >= 0) {
+               timeline.addValue(utilizationCategory, new Timeline.Value(timestamp,
+                  Math.max(0d, (double) (cpuTime - lastCpuTime) / (nanos - lastNanos) / cores)));
+            }
+            if (allocatedBytes >= 0 && lastAllocatedBytes >= 0) {
+               timeline.addValue(allocationCategory, new Timeline.Value(timestamp,
+                  Math.max(0d, (double) (allocatedBytes - lastAllocatedBytes) / (1024 * 1024) * TimeUnit.SECONDS.toNanos(1) / (nanos - lastNanos))));
+            }
+         }
+         lastNanos = nanos;
+         lastCpuTime = cpuTime;
+         lastAllocatedBytes = allocatedBytes;
+      }
+   }
+
+   protected static class StatisticsProgress extends DistStageProgress {
+      public final Statistics statistics;
+      public final long intervalBegin;
+      public final long intervalEnd;
+
+      public StatisticsProgress(WorkerState workerState, Statistics statistics, long intervalBegin, long intervalEnd) {
+         super(workerState);
+         this.statistics = statistics;
+         this.intervalBegin = intervalBegin;
+         this.intervalEnd = intervalEnd;
       }
    }
 
    protected static class StatisticsAck extends DistStageAck {
       public final List<Statistics> statistics;
       private final Map<String, Set<Operation>> groupOperationsMap;
+      private ResourceUsage resourceUsage;
+      private int availableProcessors;
 
       public StatisticsAck(WorkerState workerState, List<Statistics> statistics, Map<String, Set<Operation>> groupOperationsMap) {
          super(workerState);
          this.statistics = statistics;
          this.groupOperationsMap = groupOperationsMap;
       }
+
       public Map<String, Set<Operation>> getGroupOperationsMap() {
          return groupOperationsMap;
       }
+
+      public void setResourceUsage(ResourceUsage resourceUsage, int availableProcessors) {
+         this.resourceUsage = resourceUsage;
+         this.availableProcessors = availableProcessors;
+      }
+
+      /**
+       * @return Resources used by all stressor threads on the worker, or null if not measured.
+       */
+      public ResourceUsage getResourceUsage() {
+         return resourceUsage;
+      }
+
+      public int getAvailableProcessors() {
+         return availableProcessors;
+      }
    }
 }
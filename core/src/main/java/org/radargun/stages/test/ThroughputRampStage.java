@@ -0,0 +1,260 @@
+package org.radargun.stages.test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.radargun.DistStageAck;
+import org.radargun.StageResult;
+import org.radargun.config.DocumentedValue;
+import org.radargun.config.Init;
+import org.radargun.config.Property;
+import org.radargun.config.Stage;
+import org.radargun.reporting.Report;
+import org.radargun.stages.AbstractDistStage;
+import org.radargun.state.MainListener;
+import org.radargun.stats.Statistics;
+import org.radargun.stats.StatsUtils;
+
+/**
+ * Searches for the maximum load that satisfies the performance condition. The stage is placed
+ * at the beginning of a repeat, in front of the test stage that uses the load (e.g. as total-throughput
+ * or total-threads) and amends its results to the same test. Each time the stage is executed it evaluates
+ * the last iteration of the test and sets the load for the next one; when the search is finished
+ * it adds the maximum sustainable load to the test results and breaks the repeat.
+ */
+@Stage(doc = "Sets load for the following test stage and adjusts it according to the results of the previous test " +
+   "iteration, until it finds the maximum load satisfying given condition. Must be used as the first stage in a repeat; " +
+   "the test stage must use amend-test=\"true\".")
+public class ThroughputRampStage extends AbstractDistStage {
+   @Property(doc = "Name of the test whose results are evaluated.", optional = false)
+   protected String testName;
+
+   @Property(doc = "Condition that must be satisfied by the test with sustainable load.", optional = false,
+      complexConverter = PerformanceCondition.Converter.class)
+   protected PerformanceCondition condition;
+
+   @Property(doc = "Initial (lowest) load.", optional = false)
+   protected long from;
+
+   @Property(doc = "Maximum load.", optional = false)
+   protected long to;
+
+   @Property(doc = "Increment of the load with STEPPED strategy; the last step is shortened to end at the maximum load. With BINARY_SEARCH the search ends when the difference " +
+      "between sustainable and unsustainable load is at most this value.", optional = false)
+   protected long step;
+
+   @Property(doc = "How the load is changed. Default is STEPPED.")
+   protected Strategy strategy = Strategy.STEPPED;
+
+   @Property(doc = "Name of the property holding the load for the next test. Default is 'ramp.load'.")
+   protected String storeLoadTo = "ramp.load";
+
+   @Property(doc = "Name of the property where the maximum sustainable load is stored when the search finishes. Default is none.")
+   protected String storeResultTo;
+
+   @Property(doc = "Name of the result added to the test. Default is 'Max sustainable load'.")
+   protected String resultName = "Max sustainable load";
+
+   private boolean finished;
+
+   @Init
+   public void init() {
+      if (from <= 0) throw new IllegalStateException("Initial load must be > 0");
+      if (to < from) throw new IllegalStateException("Maximum load must be >= initial load");
+      if (step <= 0) throw new IllegalStateException("Step must be > 0");
+   }
+
+   @Override
+   public Map<String, Object> createMainData() {
+      String sweepName = getSweepName();
+      Sweep sweep = (Sweep) mainState.get(sweepName);
+      if (sweep == null) {
+         sweep = new Sweep(strategy, from, to, step);
+         Report.Test test = mainState.getReport().getTest(testName);
+         sweep.evaluatedIterations = test == null ? 0 : test.getIterations().size();
+         mainState.put(sweepName, sweep);
+         mainState.addListener(new MainListener() {
+            @Override
+            public void afterCluster() {
+               mainState.remove(sweepName);
+               mainState.remove(storeLoadTo);
+               mainState.removeListener(this);
+            }
+         });
+      } else {
+         evaluate(sweep);
+      }
+      if (sweep.isFinished()) {
+         finished = true;
+         mainState.remove(sweepName);
+         reportResult(sweep);
+         return Collections.emptyMap();
+      }
+      log.infof("Running test '%s' with load %d", testName, sweep.getLoad());
+      mainState.put(storeLoadTo, sweep.getLoad());
+      return Collections.singletonMap(storeLoadTo, sweep.getLoad());
+   }
+
+   private void evaluate(Sweep sweep) {
+      Report.Test test = mainState.getReport().getTest(testName);
+      if (test == null || test.getIterations().size() <= sweep.evaluatedIterations) {
+         throw new IllegalStateException("No new iteration of test '" + testName + "' since the last evaluation");
+      }
+      List<Report.TestIteration> iterations = test.getIterations();
+      Report.TestIteration iteration = iterations.get(iterations.size() - 1);
+      sweep.evaluatedIterations = iterations.size();
+      Statistics aggregated = iteration.getAggregatedStatistics();
+      if (aggregated == null) {
+         aggregated = StatsUtils.mergeHierarchically(iteration.getStatistics().stream()
+            .flatMap(entry -> entry.getValue().stream()).collect(Collectors.toList()), StatsUtils.DEFAULT_MERGE_FAN_IN);
+      }
+      boolean sustainable;
+      if (aggregated == null) {
+         log.warn("No statistics in iteration " + iteration.id + " of test '" + testName + "'");
+         sustainable = false;
+      } else {
+         try {
+            sustainable = condition.evaluate(aggregated);
+         } catch (Exception e) {
+            log.info("Condition has thrown exception, the load is considered unsustainable", e);
+            sustainable = false;
+         }
+      }
+      log.infof("Load %d is %s", sweep.getLoad(), sustainable ? "sustainable" : "not sustainable");
+      sweep.record(sustainable, iteration.id);
+   }
+
+   private void reportResult(Sweep sweep) {
+      if (sweep.getMaxSustainable() < 0) {
+         log.warnf("Condition was not satisfied even with the initial load %d", from);
+         return;
+      }
+      if (sweep.getMaxSustainable() >= to) {
+         log.warnf("Condition was satisfied even with the maximum load %d", to);
+      }
+      log.infof("Maximum sustainable load of test '%s' is %d", testName, sweep.getMaxSustainable());
+      Report.Test test = mainState.getReport().getTest(testName);
+      test.addResult(sweep.getMaxSustainableIteration(),
+         new Report.TestResult(resultName, Collections.emptyMap(), String.valueOf(sweep.getMaxSustainable()), false));
+      if (storeResultTo != null) {
+         mainState.put(storeResultTo, sweep.getMaxSustainable());
+      }
+   }
+
+   private String getSweepName() {
+      return ThroughputRampStage.class.getName() + "." + storeLoadTo;
+   }
+
+   @Override
+   public DistStageAck executeOnWorker() {
+      return successfulResponse();
+   }
+
+   @Override
+   public StageResult processAckOnMain(List<DistStageAck> acks) {
+      StageResult result = super.processAckOnMain(acks);
+      if (result.isError()) return result;
+      return finished ? StageResult.BREAK : StageResult.SUCCESS;
+   }
+
+   public enum Strategy {
+      @DocumentedValue("Increase the load by step until the condition is not satisfied or the maximum load is reached.")
+      STEPPED,
+      @DocumentedValue("Test the initial and maximum load, then bisect the interval between the highest sustainable " +
+         "and lowest unsustainable load.")
+      BINARY_SEARCH
+   }
+
+   /**
+    * State of the search, kept in main state between executions of the stage.
+    */
+   protected static class Sweep {
+      private final Strategy strategy;
+      private final long from;
+      private final long to;
+      private final long step;
+      private long load;
+      private long maxSustainable = -1;
+      private int maxSustainableIteration = -1;
+      private long minUnsustainable = Long.MAX_VALUE;
+      private int evaluatedIterations;
+
+      public Sweep(Strategy strategy, long from, long to, long step) {
+         this.strategy = strategy;
+         this.from = from;
+         this.to = to;
+         this.step = step;
+         this.load = from;
+      }
+
+      /**
+       * @return Load that should be tested now, or -1 if the search is finished.
+       */
+      public long getLoad() {
+         return load;
+      }
+
+      public boolean isFinished() {
+         return load < 0;
+      }
+
+      /**
+       * @return Maximum load that satisfied the condition, or -1 if none did.
+       */
+      public long getMaxSustainable() {
+         return maxSustainable;
+      }
+
+      public int getMaxSustainableIteration() {
+         return maxSustainableIteration;
+      }
+
+      /**
+       * Record result of the test with current load and move to the next load.
+       */
+      public void record(boolean sustainable, int iteration) {
+         if (isFinished()) {
+            throw new IllegalStateException("The search is already finished");
+         }
+         if (sustainable) {
+            if (load > maxSustainable) {
+               maxSustainable = load;
+               maxSustainableIteration = iteration;
+            }
+         } else {
+            minUnsustainable = Math.min(minUnsustainable, load);
+         }
+         load = next();
+      }
+
+      private long next() {
+         switch (strategy) {
+            case STEPPED:
+               if (minUnsustainable != Long.MAX_VALUE || load >= to) {
+                  return -1;
+               }
+               // the maximum load is always tested, even if it's not a multiple of the step
+               return Math.min(load + step, to);
+            case BINARY_SEARCH:
+               if (maxSustainable < 0) {
+                  // even the initial load is too high
+                  return -1;
+               } else if (minUnsustainable == Long.MAX_VALUE) {
+                  return maxSustainable < to ? to : -1;
+               } else if (minUnsustainable - maxSustainable <= step) {
+                  return -1;
+               }
+               return maxSustainable + (minUnsustainable - maxSustainable) / 2;
+            default:
+               throw new IllegalStateException("Unknown strategy: " + strategy);
+         }
+      }
+
+      @Override
+      public String toString() {
+         return "Sweep{load=" + load + ", maxSustainable=" + maxSustainable + ", minUnsustainable=" + minUnsustainable + "}";
+      }
+   }
+}
@@ -0,0 +1,163 @@
+package org.radargun.stages.trace;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.HdrHistogram.WriterReaderPhaser;
+import org.radargun.Operation;
+import org.radargun.stats.BasicStatistics;
+import org.radargun.stats.Statistics;
+
+/**
+ * Records durations of traced method calls into thread-local {@link Statistics}. Recording does not
+ * synchronize with other threads; the statistics of all threads are merged on demand in {@link #snapshot()}.
+ * Each traced method is represented by {@link Operation} registered when the method is instrumented.
+ */
+public final class MethodTracer {
+   private static final String OPERATION_PREFIX = "Trace ";
+   // recorders of terminated threads are removed when their statistics are collected
+   private static final List<ThreadRecorder> recorders = new CopyOnWriteArrayList<>();
+   private static final ThreadLocal<ThreadRecorder> threadRecorder = ThreadLocal.withInitial(() -> {
+      ThreadRecorder recorder = new ThreadRecorder(Thread.currentThread());
+      recorders.add(recorder);
+      return recorder;
+   });
+   private static volatile Statistics prototype = new BasicStatistics();
+   // statistics collected from the recorders, guarded by class lock
+   private static Statistics accumulated;
+
+   private MethodTracer() {
+   }
+
+   /**
+    * Sets statistics used by threads that did not record anything yet.
+    */
+   public static void setPrototype(Statistics prototype) {
+      MethodTracer.prototype = prototype;
+   }
+
+   /**
+    * @param method Name of the method, should be the same on all workers.
+    * @return Operation used to record calls of the method.
+    */
+   public static Operation register(String method) {
+      return Operation.register(OPERATION_PREFIX + method);
+   }
+
+   /**
+    * @param startTime Call start in nanoseconds.
+    * @param endTime Call end in nanoseconds.
+    */
+   public static void record(Operation operation, long startTime, long endTime, boolean successful) {
+      threadRecorder.get().record(operation, startTime, endTime, successful);
+   }
+
+   /**
+    * @return Statistics of all calls recorded since the last reset.
+    */
+   public static synchronized Statistics snapshot() {
+      collect();
+      Statistics snapshot = accumulated.copy();
+      snapshot.end();
+      return snapshot;
+   }
+
+   /**
+    * Atomically takes the snapshot and discards the recorded calls: each call is either in the returned
+    * statistics or in the next snapshot.
+    *
+    * @return Statistics of all calls recorded since the last reset.
+    */
+   public static synchronized Statistics snapshotAndReset() {
+      collect();
+      Statistics snapshot = accumulated;
+      accumulated = null;
+      snapshot.end();
+      return snapshot;
+   }
+
+   /**
+    * Discards all recorded calls.
+    */
+   public static synchronized void reset() {
+      for (ThreadRecorder recorder : recorders) {
+         boolean terminated = recorder.isTerminated();
+         recorder.swap();
+         if (terminated) {
+            recorders.remove(recorder);
+         }
+      }
+      accumulated = null;
+   }
+
+   private static void collect() {
+      for (ThreadRecorder recorder : recorders) {
+         // checked before the swap: the thread could record and terminate after it
+         boolean terminated = recorder.isTerminated();
+         Statistics inactive = recorder.swap();
+         if (terminated) {
+            recorders.remove(recorder);
+         }
+         if (accumulated == null) {
+            accumulated = inactive;
+         } else {
+            accumulated.merge(inactive);
+         }
+      }
+      if (accumulated == null) {
+         accumulated = prototype.newInstance();
+         accumulated.begin();
+      }
+   }
+
+   static int numRecorders() {
+      return recorders.size();
+   }
+
+   private static class ThreadRecorder {
+      private final WriterReaderPhaser phaser = new WriterReaderPhaser();
+      private final WeakReference<Thread> thread;
+      private volatile Statistics active = newStatistics();
+
+      ThreadRecorder(Thread thread) {
+         this.thread = new WeakReference<>(thread);
+      }
+
+      boolean isTerminated() {
+         Thread thread = this.thread.get();
+         return thread == null || !thread.isAlive();
+      }
+
+      void record(Operation operation, long startTime, long endTime, boolean successful) {
+         long criticalValue = phaser.writerCriticalSectionEnter();
+         try {
+            active.record(startTime, endTime, successful, operation);
+         } finally {
+            phaser.writerCriticalSectionExit(criticalValue);
+         }
+      }
+
+      /**
+       * @return Statistics recorded so far; the thread does not access them after this call.
+       */
+      Statistics swap() {
+         Statistics next = newStatistics();
+         phaser.readerLock();
+         try {
+            Statistics inactive = active;
+            active = next;
+            phaser.flipPhase();
+            return inactive;
+         } finally {
+            phaser.readerUnlock();
+         }
+      }
+
+      private static Statistics newStatistics() {
+         Statistics statistics = prototype.newInstance();
+         statistics.begin();
+         return statistics;
+      }
+   }
+}
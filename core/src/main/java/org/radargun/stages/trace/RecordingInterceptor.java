@@ -0,0 +1,33 @@
+package org.radargun.stages.trace;
+
+import java.util.concurrent.Callable;
+
+import net.bytebuddy.implementation.bind.annotation.RuntimeType;
+import net.bytebuddy.implementation.bind.annotation.SuperCall;
+import org.radargun.Operation;
+import org.radargun.utils.TimeService;
+
+/**
+ * Interceptor bound to single instrumented method; the operation is resolved when the method
+ * is instrumented and the call is recorded in {@link MethodTracer} with nanosecond precision.
+ */
+public class RecordingInterceptor {
+   private final Operation operation;
+
+   public RecordingInterceptor(Operation operation) {
+      this.operation = operation;
+   }
+
+   @RuntimeType
+   public Object intercept(@SuperCall Callable<?> callable) throws Exception {
+      long start = TimeService.nanoTime();
+      boolean successful = false;
+      try {
+         Object value = callable.call();
+         successful = true;
+         return value;
+      } finally {
+         MethodTracer.record(operation, start, TimeService.nanoTime(), successful);
+      }
+   }
+}
@@ -5,6 +5,7 @@ import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -16,6 +17,9 @@ import org.HdrHistogram.Histogram;
 import org.radargun.config.Property;
 import org.radargun.logging.Log;
 import org.radargun.logging.LogFactory;
+import org.radargun.stats.BasicStatistics;
+import org.radargun.stats.Statistics;
+import org.radargun.stats.representation.DefaultOutcome;
 
 import static net.bytebuddy.matcher.ElementMatchers.named;
 import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
@@ -42,10 +46,20 @@ public class TraceMethodCall {
    @Property(doc = "The scaling factor by which to divide histogram recorded values units in output. Default is 1000")
    private double outputValueUnitScalingRatio = 1000;
 
+   @Property(doc = "HISTOGRAM records millisecond durations into shared histograms that are logged when the service stops. " +
+      "STATISTICS records nanosecond durations into thread-local statistics; these can be added to the report " +
+      "using trace-statistics stage. Default is HISTOGRAM.")
+   private Mode mode = Mode.HISTOGRAM;
+
+   @Property(name = "statistics", doc = "Type of gathered statistics in STATISTICS mode. Default are the 'default' statistics.",
+      complexConverter = Statistics.Converter.class)
+   private Statistics statisticsPrototype = new BasicStatistics();
+
    public void start() {
       // the fields are static, the method that intercept must be static
       MethodInterceptor.highestTrackableValue = highestTrackableValue;
       MethodInterceptor.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+      MethodTracer.setPrototype(statisticsPrototype);
       try {
          String[] methodNameData = methodName.split(";");
          String[] argumentsData = arguments.split(";");
@@ -67,7 +81,15 @@ public class TraceMethodCall {
                            throw new RuntimeException(e);
                         }
                      }
-                     builder = builder.method(named(innerMethodName).and(takesArguments(argumentTypes))).intercept(MethodDelegation.to(interceptor));
+                     MethodDelegation delegation;
+                     if (mode == Mode.STATISTICS) {
+                        // the method is resolved here instead of on each call
+                        String method = innerMethodName + Arrays.toString(argumentTypes) + "::" + type.getSimpleName();
+                        delegation = MethodDelegation.to(new RecordingInterceptor(MethodTracer.register(method)));
+                     } else {
+                        delegation = MethodDelegation.to(interceptor);
+                     }
+                     builder = builder.method(named(innerMethodName).and(takesArguments(argumentTypes))).intercept(delegation);
                   }
                   return builder;
                }).installOn(ByteBuddyAgent.install());
@@ -77,6 +99,10 @@ public class TraceMethodCall {
    }
 
    public void dump() {
+      if (mode == Mode.STATISTICS) {
+         dumpStatistics();
+         return;
+      }
       final ByteArrayOutputStream baos = new ByteArrayOutputStream();
       final String utf8 = StandardCharsets.UTF_8.name();
       try (PrintStream ps = new PrintStream(baos, true, utf8)) {
@@ -106,7 +132,27 @@ public class TraceMethodCall {
       }
    }
 
+   private void dumpStatistics() {
+      Statistics statistics = MethodTracer.snapshot();
+      List<String> operations = new ArrayList<>(statistics.getOperations());
+      Collections.sort(operations);
+      StringBuilder summary = new StringBuilder("Key,Requests,Errors,Mean(us),Max(us)");
+      for (String operation : operations) {
+         DefaultOutcome outcome = statistics.getRepresentation(operation, DefaultOutcome.class);
+         if (outcome != null) {
+            summary.append(String.format("\n%s,%d,%d,%f,%f", operation, outcome.requests, outcome.errors,
+               outcome.responseTimeMean / 1000, outcome.responseTimeMax / 1000d));
+         }
+      }
+      log.info(summary.toString());
+   }
+
    public String getClassName() {
       return className;
    }
+
+   public enum Mode {
+      HISTOGRAM,
+      STATISTICS
+   }
 }
@@ -0,0 +1,59 @@
+package org.radargun.stages.trace;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.radargun.DistStageAck;
+import org.radargun.StageResult;
+import org.radargun.config.Property;
+import org.radargun.config.Stage;
+import org.radargun.reporting.Report;
+import org.radargun.stages.AbstractDistStage;
+import org.radargun.state.WorkerState;
+import org.radargun.stats.Statistics;
+
+/**
+ * Collects statistics of method calls traced in STATISTICS mode of {@link TraceMethodCall}.
+ */
+@Stage(doc = "Adds statistics of traced method calls to the report.")
+public class TraceStatisticsStage extends AbstractDistStage {
+   @Property(doc = "Name of the test used for reports. Default is 'MethodTrace'.")
+   protected String testName = "MethodTrace";
+
+   @Property(doc = "Add the statistics as new iteration of existing test. Default is true.")
+   protected boolean amendTest = true;
+
+   @Property(doc = "Discard the collected statistics, next stage will report only calls traced after this stage. Default is true.")
+   protected boolean reset = true;
+
+   @Override
+   public DistStageAck executeOnWorker() {
+      Statistics statistics = reset ? MethodTracer.snapshotAndReset() : MethodTracer.snapshot();
+      return new StatisticsAck(workerState, statistics);
+   }
+
+   @Override
+   public StageResult processAckOnMain(List<DistStageAck> acks) {
+      StageResult result = super.processAckOnMain(acks);
+      if (result.isError()) return result;
+      if (testName == null || testName.isEmpty()) {
+         log.warn("No test name - results are not recorded");
+         return result;
+      }
+      Report.Test test = mainState.getReport().createTest(testName, null, amendTest);
+      int iteration = test.getIterations().size();
+      for (StatisticsAck ack : instancesOf(acks, StatisticsAck.class)) {
+         test.addStatistics(iteration, ack.getWorkerIndex(), Collections.singletonList(ack.statistics));
+      }
+      return result;
+   }
+
+   private static class StatisticsAck extends DistStageAck {
+      private final Statistics statistics;
+
+      StatisticsAck(WorkerState workerState, Statistics statistics) {
+         super(workerState);
+         this.statistics = statistics;
+      }
+   }
+}
@@ -1,9 +1,11 @@
 package org.radargun.state;
 
+import java.io.IOException;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.Map;
 
+import org.radargun.DistStageProgress;
 import org.radargun.RemoteWorkerConnection;
 import org.radargun.config.Cluster;
 import org.radargun.reporting.Timeline;
@@ -29,6 +31,7 @@ public class WorkerState extends StateBase<ServiceListener> {
 
    private Map<Class<?>, Object> traits;
    private Timeline timeline;
+   private ProgressSender progressSender;
 
    public void setLocalAddress(InetAddress localAddress) {
       this.localAddress = localAddress;
@@ -107,6 +110,21 @@ public class WorkerState extends StateBase<ServiceListener> {
       this.timeline = timeline;
    }
 
+   public void setProgressSender(ProgressSender progressSender) {
+      this.progressSender = progressSender;
+   }
+
+   /**
+    * Sends intermediate results of the currently executed stage to the main.
+    * Can be called from any thread.
+    */
+   public void sendProgress(DistStageProgress progress) throws IOException {
+      if (progressSender == null) {
+         throw new IllegalStateException("No connection to the main");
+      }
+      progressSender.send(progress);
+   }
+
    public void setWorkerAddresses(RemoteWorkerConnection.WorkerAddresses workerAddresses) {
       this.workerAddresses = workerAddresses;
    }
@@ -115,4 +133,8 @@ public class WorkerState extends StateBase<ServiceListener> {
       int indexTotal = (Integer) new ArrayList(cluster.getWorkers(groupName)).get(indexInGroup);
       return workerAddresses.getWorkerAddresses(indexTotal);
    }
+
+   public interface ProgressSender {
+      void send(DistStageProgress progress) throws IOException;
+   }
 }
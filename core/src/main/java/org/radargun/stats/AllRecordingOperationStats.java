@@ -40,9 +40,14 @@ public class AllRecordingOperationStats implements OperationStats {
 
    @Override
    public void record(Request request) {
+      record(request.getRequestStartTime(), request.getResponseCompleteTime(), request.isSuccessful());
+   }
+
+   @Override
+   public void record(long requestStartTime, long responseCompleteTime, boolean successful) {
       ensureCapacity();
-      responseTimes[pos++] = request.duration();
-      if (!request.isSuccessful()) {
+      responseTimes[pos++] = responseCompleteTime - requestStartTime;
+      if (!successful) {
          errors++;
       }
    }
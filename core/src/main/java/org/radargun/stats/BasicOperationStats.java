@@ -69,8 +69,13 @@ public class BasicOperationStats implements OperationStats {
 
    @Override
    public void record(Request request) {
-      record(request.duration());
-      if (!request.isSuccessful()) {
+      record(request.getRequestStartTime(), request.getResponseCompleteTime(), request.isSuccessful());
+   }
+
+   @Override
+   public void record(long requestStartTime, long responseCompleteTime, boolean successful) {
+      record(responseCompleteTime - requestStartTime);
+      if (!successful) {
          errors++;
       }
    }
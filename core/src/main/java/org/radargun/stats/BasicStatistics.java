@@ -85,6 +85,13 @@ public class BasicStatistics extends IntervalStatistics {
       stats.record(request);
    }
 
+   @Override
+   public void record(long requestStartTime, long responseCompleteTime, boolean successful, Operation operation) {
+      ensure(operation.id);
+      OperationStats stats = operationStats[operation.id];
+      stats.record(requestStartTime, responseCompleteTime, successful);
+   }
+
    @Override
    public void record(Message message, Operation operation) {
       ensure(operation.id);
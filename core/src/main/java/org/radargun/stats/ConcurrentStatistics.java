@@ -0,0 +1,308 @@
+package org.radargun.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.radargun.Operation;
+import org.radargun.config.DefinitionElement;
+import org.radargun.config.Property;
+import org.radargun.utils.TimeService;
+
+/**
+ * Statistics shared by all threads recording the requests. Each thread records into its own cell
+ * without any locking; {@link #snapshot(boolean)} drains the cells into an aggregate instance
+ * while the threads keep recording, so that the results can be observed during the test.
+ *
+ * Draining a cell swaps the instance the thread records into for an empty one and waits until
+ * the thread leaves the record call in progress, if any. Every request is therefore accounted
+ * exactly once, either in the returned snapshot or in one of the subsequent ones. The aggregate
+ * keeps single copy of the data, cells hold only the requests recorded since last snapshot.
+ */
+@DefinitionElement(name = "concurrent", doc = "Statistics shared by all stressor threads, allowing to observe the results during the test.")
+public class ConcurrentStatistics implements Statistics {
+   @Property(name = "implementation", doc = "Statistics the threads record into. Default is BasicStatistics.", complexConverter = Statistics.Converter.class)
+   private Statistics prototype = new BasicStatistics();
+
+   private transient ThreadLocal<Cell> localCell;
+   private transient List<Cell> cells;
+   // empty instance with begin set; cells and aggregate are copies of this
+   private Statistics template;
+   private Statistics aggregate;
+   private long endTime = Long.MIN_VALUE;
+
+   public ConcurrentStatistics() {
+   }
+
+   public ConcurrentStatistics(Statistics prototype) {
+      this.prototype = prototype;
+   }
+
+   @Override
+   public ConcurrentStatistics newInstance() {
+      return new ConcurrentStatistics(prototype);
+   }
+
+   @Override
+   public synchronized void begin() {
+      // all threads call begin() on the shared instance, only the first one starts the measurement
+      if (template == null) {
+         start();
+      }
+   }
+
+   @Override
+   public synchronized void end() {
+      endTime = Math.max(endTime, TimeService.currentTimeMillis());
+   }
+
+   @Override
+   public synchronized void reset() {
+      if (template != null) {
+         drain(TimeService.currentTimeMillis());
+      }
+      endTime = Long.MIN_VALUE;
+      start();
+   }
+
+   private void start() {
+      Statistics template = prototype.newInstance();
+      template.begin();
+      start(template);
+   }
+
+   private void start(Statistics template) {
+      this.template = template;
+      aggregate = template.copy();
+      if (cells == null) {
+         cells = new ArrayList<>();
+         localCell = new ThreadLocal<>();
+      }
+   }
+
+   /**
+    * Collects all requests recorded so far, without blocking the recording threads.
+    *
+    * @param reset If true, the returned requests are removed from these statistics.
+    * @return Instance of the configured implementation holding the recorded requests.
+    */
+   public synchronized Statistics snapshot(boolean reset) {
+      if (template == null) {
+         throw new IllegalStateException("Measurement has not begun");
+      }
+      drain(TimeService.currentTimeMillis());
+      Statistics snapshot;
+      if (reset) {
+         snapshot = aggregate;
+         aggregate = template.copy();
+      } else {
+         snapshot = aggregate.copy();
+      }
+      if (endTime != Long.MIN_VALUE) {
+         // let the implementation finish the measurement (e.g. drop incomplete period) but keep the end
+         snapshot.end();
+         seal(snapshot, endTime);
+      }
+      return snapshot;
+   }
+
+   private synchronized Statistics current() {
+      return template == null ? prototype : snapshot(false);
+   }
+
+   private void drain(long now) {
+      seal(aggregate, now);
+      for (Cell cell : cells) {
+         Statistics drained = cell.swap(template.copy());
+         seal(drained, now);
+         aggregate.merge(drained);
+      }
+   }
+
+   private static void seal(Statistics statistics, long now) {
+      // merging interval statistics requires the end to be set
+      if (statistics instanceof IntervalStatistics) {
+         ((IntervalStatistics) statistics).setEnd(now);
+      }
+   }
+
+   private Cell cell() {
+      Cell cell = localCell.get();
+      if (cell == null) {
+         synchronized (this) {
+            if (template == null) {
+               throw new IllegalStateException("Measurement has not begun");
+            }
+            cell = new Cell(template.copy());
+            cells.add(cell);
+         }
+         localCell.set(cell);
+      }
+      return cell;
+   }
+
+   @Override
+   public void record(Request request, Operation operation) {
+      Cell cell = cell();
+      cell.enter().record(request, operation);
+      cell.exit();
+   }
+
+   @Override
+   public void record(long requestStartTime, long responseCompleteTime, boolean successful, Operation operation) {
+      Cell cell = cell();
+      cell.enter().record(requestStartTime, responseCompleteTime, successful, operation);
+      cell.exit();
+   }
+
+   @Override
+   public void record(Message message, Operation operation) {
+      Cell cell = cell();
+      cell.enter().record(message, operation);
+      cell.exit();
+   }
+
+   @Override
+   public void record(RequestSet requestSet, Operation operation) {
+      Cell cell = cell();
+      cell.enter().record(requestSet, operation);
+      cell.exit();
+   }
+
+   @Override
+   public Statistics copy() {
+      ConcurrentStatistics copy = newInstance();
+      synchronized (this) {
+         if (template != null) {
+            copy.start(template.copy());
+            copy.aggregate = snapshot(false);
+            copy.endTime = endTime;
+         }
+      }
+      return copy;
+   }
+
+   @Override
+   public synchronized void merge(Statistics otherStats) {
+      if (!(otherStats instanceof ConcurrentStatistics)) {
+         throw new IllegalArgumentException(String.valueOf(otherStats));
+      }
+      if (template == null) {
+         start();
+      }
+      long now = TimeService.currentTimeMillis();
+      drain(now);
+      Statistics other = ((ConcurrentStatistics) otherStats).snapshot(false);
+      aggregate.merge(other);
+      endTime = Math.max(endTime, otherStats.getEnd());
+   }
+
+   @Override
+   public synchronized long getBegin() {
+      return template == null ? Long.MAX_VALUE : aggregate.getBegin();
+   }
+
+   @Override
+   public synchronized long getEnd() {
+      return endTime;
+   }
+
+   @Override
+   public void registerOperationsGroup(String name, Set<Operation> operations) {
+      prototype.registerOperationsGroup(name, operations);
+   }
+
+   @Override
+   public String getOperationsGroup(Operation operation) {
+      return prototype.getOperationsGroup(operation);
+   }
+
+   @Override
+   public Map<String, Set<Operation>> getGroupOperationsMap() {
+      return prototype.getGroupOperationsMap();
+   }
+
+   @Override
+   public List<Map<String, OperationStats>> getOperationStatsForGroups() {
+      return current().getOperationStatsForGroups();
+   }
+
+   @Override
+   public List<Map<String, OperationStats>> getOperationsStats() {
+      return current().getOperationsStats();
+   }
+
+   @Override
+   public Set<String> getOperations() {
+      return current().getOperations();
+   }
+
+   @Override
+   public OperationStats getOperationStats(String operation) {
+      return current().getOperationStats(operation);
+   }
+
+   @Override
+   public <T> T getRepresentation(String operation, Class<T> clazz, Object... args) {
+      return current().getRepresentation(operation, clazz, args);
+   }
+
+   /**
+    * The recording threads are not serialized, send only the data.
+    */
+   private Object writeReplace() {
+      return template == null ? this : snapshot(false);
+   }
+
+   @Override
+   public String toString() {
+      return "ConcurrentStatistics{prototype=" + prototype + ", cells=" + (cells == null ? 0 : cells.size()) + "}";
+   }
+
+   // Padding to prevent false sharing between cells of different threads.
+   private abstract static class CellPadding {
+      long p01, p02, p03, p04, p05, p06, p07;
+   }
+
+   private abstract static class CellFields extends CellPadding {
+      // odd while the owner thread is recording
+      volatile long sequence;
+      volatile Statistics active;
+   }
+
+   /**
+    * Statistics written by single thread. The owner increments the sequence before and after
+    * each record; the reader swaps the active statistics and waits until the sequence moves
+    * past the record in progress, if any.
+    */
+   private static final class Cell extends CellFields {
+      long p11, p12, p13, p14, p15, p16, p17;
+
+      Cell(Statistics active) {
+         this.active = active;
+      }
+
+      Statistics enter() {
+         // volatile write must precede the read of active, otherwise the reader could miss the record
+         sequence = sequence + 1;
+         return active;
+      }
+
+      void exit() {
+         sequence = sequence + 1;
+      }
+
+      Statistics swap(Statistics fresh) {
+         Statistics previous = active;
+         active = fresh;
+         long seq = sequence;
+         if ((seq & 1) != 0) {
+            while (sequence == seq) {
+               Thread.onSpinWait();
+            }
+         }
+         return previous;
+      }
+   }
+}
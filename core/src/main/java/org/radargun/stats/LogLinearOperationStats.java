@@ -0,0 +1,329 @@
+package org.radargun.stats;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
+import org.radargun.SerializationHelper;
+import org.radargun.config.DefinitionElement;
+import org.radargun.config.Property;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.radargun.stats.representation.Histogram;
+import org.radargun.stats.representation.MeanAndDev;
+import org.radargun.stats.representation.OperationThroughput;
+import org.radargun.stats.representation.Percentile;
+
+/**
+ * Histogram of response times with log-linear bucket layout: each power-of-two range of values
+ * is split into 2^precisionBits buckets of equal width, values below 2^precisionBits are stored exactly.
+ * Bucket width is therefore at most 2^-precisionBits of the value, which bounds the relative error
+ * of percentiles. Buckets for each power-of-two range are allocated when first value from this range
+ * is recorded; afterwards the recording does not allocate any memory.
+ *
+ * Percentiles report upper bound of the bucket (capped by the maximum value), mean, standard deviation
+ * and maximum are exact.
+ */
+@DefinitionElement(name = "log-linear", doc = "Stores response times in buckets with bounded relative error, " +
+   "providing histogram and percentiles with fixed memory footprint.")
+public class LogLinearOperationStats implements OperationStats {
+   @Property(doc = "Each power-of-two range of response times is split into 2^precisionBits buckets. " +
+      "Relative error of the percentiles is at most 2^-precisionBits. Default is 7 (error below 1 %).")
+   private int precisionBits = 7;
+
+   private long requests;
+   private long errors;
+   private long responseTimeMin = Long.MAX_VALUE;
+   private long responseTimeMax = Long.MIN_VALUE;
+   private double responseTimeMean; // first moment
+   private double responseTimeM2; // second moment, var = M2 / (n - 1)
+   // rows[0] holds values 0 .. 2^precisionBits - 1, rows[r] values 2^(precisionBits + r - 1) .. 2^(precisionBits + r) - 1
+   private transient long[][] rows;
+
+   public LogLinearOperationStats() {
+   }
+
+   public LogLinearOperationStats(int precisionBits) {
+      if (precisionBits < 1 || precisionBits > 16) throw new IllegalArgumentException(String.valueOf(precisionBits));
+      this.precisionBits = precisionBits;
+   }
+
+   @Override
+   public LogLinearOperationStats newInstance() {
+      return new LogLinearOperationStats(precisionBits);
+   }
+
+   @Override
+   public LogLinearOperationStats copy() {
+      LogLinearOperationStats copy = newInstance();
+      copy.requests = requests;
+      copy.errors = errors;
+      copy.responseTimeMin = responseTimeMin;
+      copy.responseTimeMax = responseTimeMax;
+      copy.responseTimeMean = responseTimeMean;
+      copy.responseTimeM2 = responseTimeM2;
+      if (rows != null) {
+         copy.rows = new long[rows.length][];
+         for (int i = 0; i < rows.length; ++i) {
+            if (rows[i] != null) {
+               copy.rows[i] = rows[i].clone();
+            }
+         }
+      }
+      return copy;
+   }
+
+   @Override
+   public void merge(OperationStats o) {
+      if (!(o instanceof LogLinearOperationStats)) throw new IllegalArgumentException(String.valueOf(o));
+      LogLinearOperationStats other = (LogLinearOperationStats) o;
+      if (other.precisionBits != precisionBits) {
+         throw new IllegalArgumentException("Cannot merge histograms with different precision: " + precisionBits + " and " + other.precisionBits);
+      }
+      if (other.requests > 0) {
+         long[][] rows = rows();
+         for (int i = 0; i < rows.length; ++i) {
+            long[] otherRow = other.rows[i];
+            if (otherRow == null) {
+               continue;
+            }
+            if (rows[i] == null) {
+               rows[i] = otherRow.clone();
+            } else {
+               long[] row = rows[i];
+               for (int j = 0; j < row.length; ++j) {
+                  row[j] += otherRow[j];
+               }
+            }
+         }
+         if (requests == 0) {
+            responseTimeMean = other.responseTimeMean;
+            responseTimeM2 = other.responseTimeM2;
+         } else {
+            double delta = responseTimeMean - other.responseTimeMean;
+            double n = requests + other.requests;
+            responseTimeM2 += other.responseTimeM2 + delta * delta * requests * other.requests / n;
+            responseTimeMean = (responseTimeMean * requests + other.responseTimeMean * other.requests) / n;
+         }
+         requests += other.requests;
+         responseTimeMin = Math.min(responseTimeMin, other.responseTimeMin);
+         responseTimeMax = Math.max(responseTimeMax, other.responseTimeMax);
+      }
+      errors += other.errors;
+   }
+
+   @Override
+   public void record(Request request) {
+      record(request.getRequestStartTime(), request.getResponseCompleteTime(), request.isSuccessful());
+   }
+
+   @Override
+   public void record(long requestStartTime, long responseCompleteTime, boolean successful) {
+      record(responseCompleteTime - requestStartTime);
+      if (!successful) {
+         errors++;
+      }
+   }
+
+   @Override
+   public void record(Message message) {
+      if (message.isValid()) {
+         record(message.totalTime());
+      } else {
+         errors++;
+      }
+   }
+
+   @Override
+   public void record(RequestSet requestSet) {
+      record(requestSet.sumDurations());
+      if (!requestSet.isSuccessful()) {
+         errors++;
+      }
+   }
+
+   public void record(long duration) {
+      if (duration < 0) {
+         // clock skew between nodes
+         duration = 0;
+      }
+      int row = Math.max(0, 64 - Long.numberOfLeadingZeros(duration) - precisionBits);
+      int column = row == 0 ? (int) duration : (int) (duration >>> (row - 1)) - (1 << precisionBits);
+      long[] counts = rows()[row];
+      if (counts == null) {
+         counts = rows[row] = new long[1 << precisionBits];
+      }
+      counts[column]++;
+      requests++;
+      responseTimeMin = Math.min(responseTimeMin, duration);
+      responseTimeMax = Math.max(responseTimeMax, duration);
+      // see http://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Online_algorithm
+      double delta = (double) duration - responseTimeMean;
+      responseTimeMean += delta / (double) requests;
+      responseTimeM2 += delta * ((double) duration - responseTimeMean);
+   }
+
+   private long[][] rows() {
+      if (rows == null) {
+         rows = new long[64 - precisionBits][];
+      }
+      return rows;
+   }
+
+   private long lowestValue(int row, int column) {
+      return row == 0 ? column : (long) ((1 << precisionBits) + column) << (row - 1);
+   }
+
+   private long highestValue(int row, int column) {
+      return row == 0 ? column : lowestValue(row, column) + (1L << (row - 1)) - 1;
+   }
+
+   /**
+    * @return The lowest value V such that at least given percentage of recorded values are <= V,
+    * with the relative error given by the precision.
+    */
+   public long getValueAtPercentile(double percentile) {
+      if (requests == 0) {
+         return 0;
+      }
+      long target = Math.max(1, (long) Math.ceil(percentile / 100d * requests));
+      long accumulated = 0;
+      for (int row = 0; row < rows.length; ++row) {
+         long[] counts = rows[row];
+         if (counts == null) continue;
+         for (int column = 0; column < counts.length; ++column) {
+            accumulated += counts[column];
+            if (accumulated >= target) {
+               return Math.max(Math.min(highestValue(row, column), responseTimeMax), responseTimeMin);
+            }
+         }
+      }
+      return responseTimeMax;
+   }
+
+   @Override
+   public <T> T getRepresentation(Class<T> clazz, Statistics ownerStatistics, Object... args) {
+      if (clazz == DefaultOutcome.class) {
+         return (T) new DefaultOutcome(requests, errors, responseTimeMean, requests == 0 ? 0 : responseTimeMax);
+      } else if (clazz == MeanAndDev.class) {
+         if (requests < 2) return (T) new MeanAndDev(responseTimeMean, 0);
+         return (T) new MeanAndDev(responseTimeMean, Math.sqrt(responseTimeM2 / (double) (requests - 1)));
+      } else if (clazz == OperationThroughput.class) {
+         return (T) OperationThroughput.compute(requests, errors, ownerStatistics);
+      } else if (clazz == Percentile.class) {
+         return (T) new Percentile(getValueAtPercentile(Percentile.getPercentile(args)));
+      } else if (clazz == Histogram.class) {
+         if (args.length == 0) {
+            return (T) getFullHistogram();
+         } else {
+            return (T) getReformattedHistogram(Histogram.getBuckets(args), Histogram.getPercentile(args));
+         }
+      } else {
+         return null;
+      }
+   }
+
+   private Histogram getFullHistogram() {
+      ArrayList<Long> ranges = new ArrayList<>();
+      ArrayList<Long> counts = new ArrayList<>();
+      if (requests > 0) {
+         for (int row = 0; row < rows.length; ++row) {
+            long[] rowCounts = rows[row];
+            if (rowCounts == null) continue;
+            for (int column = 0; column < rowCounts.length; ++column) {
+               if (rowCounts[column] > 0) {
+                  ranges.add(Math.max(lowestValue(row, column), responseTimeMin));
+                  counts.add(rowCounts[column]);
+               }
+            }
+         }
+         ranges.add(responseTimeMax);
+      }
+      return new Histogram(ranges.stream().mapToLong(l -> l).toArray(), counts.stream().mapToLong(l -> l).toArray());
+   }
+
+   private Histogram getReformattedHistogram(int buckets, double percentile) {
+      ArrayList<Long> ranges = new ArrayList<>();
+      ArrayList<Long> counts = new ArrayList<>();
+      if (requests > 0) {
+         long min = Math.max(responseTimeMin, 1);
+         long max = Math.max(getValueAtPercentile(percentile), 1);
+         if (max <= min) max = Math.max(responseTimeMax, min + 1);
+         double exponent = Math.pow((double) max / (double) min, 1d / buckets);
+         double current = min * exponent;
+         long accCount = 0, lastCount = 0;
+         ranges.add(min);
+         boolean done = false;
+         for (int row = 0; row < rows.length && !done; ++row) {
+            long[] rowCounts = rows[row];
+            if (rowCounts == null) continue;
+            for (int column = 0; column < rowCounts.length && !done; ++column) {
+               if (rowCounts[column] == 0) continue;
+               long value = highestValue(row, column);
+               accCount += rowCounts[column];
+               if (value >= current) {
+                  ranges.add(Math.min(value, max));
+                  counts.add(accCount - lastCount);
+                  lastCount = accCount;
+                  while (current <= value) {
+                     current = current * exponent;
+                  }
+               }
+               done = value >= max;
+            }
+         }
+         if (accCount > lastCount) {
+            ranges.add(max);
+            counts.add(accCount - lastCount);
+         }
+      }
+      return new Histogram(ranges.stream().mapToLong(l -> l).toArray(), counts.stream().mapToLong(l -> l).toArray());
+   }
+
+   @Override
+   public boolean isEmpty() {
+      return requests == 0;
+   }
+
+   @Override
+   public String toString() {
+      return requests == 0 ? "requests=0" : String.format("requests=%d, responseTimeMax=%d, errors=%d, precisionBits=%d",
+         requests, responseTimeMax, errors, precisionBits);
+   }
+
+   private void writeObject(ObjectOutputStream s) throws IOException {
+      s.defaultWriteObject();
+      // only non-empty buckets are written, as index delta and count
+      long previous = -1;
+      if (rows != null) {
+         for (int row = 0; row < rows.length; ++row) {
+            long[] counts = rows[row];
+            if (counts == null) continue;
+            for (int column = 0; column < counts.length; ++column) {
+               if (counts[column] > 0) {
+                  long index = ((long) row << precisionBits) + column;
+                  SerializationHelper.writeVarLong(s, index - previous);
+                  SerializationHelper.writeVarLong(s, counts[column]);
+                  previous = index;
+               }
+            }
+         }
+      }
+      SerializationHelper.writeVarLong(s, 0);
+   }
+
+   private void readObject(ObjectInputStream s) throws IOException, ClassNotFoundException {
+      s.defaultReadObject();
+      long index = -1;
+      for (long delta; (delta = SerializationHelper.readVarLong(s)) != 0; ) {
+         index += delta;
+         int row = (int) (index >>> precisionBits);
+         int column = (int) (index & ((1 << precisionBits) - 1));
+         long[] counts = rows()[row];
+         if (counts == null) {
+            counts = rows[row] = new long[1 << precisionBits];
+         }
+         counts[column] = SerializationHelper.readVarLong(s);
+      }
+   }
+}
@@ -43,6 +43,13 @@ public class MultiOperationStats implements OperationStats {
       }
    }
 
+   @Override
+   public void record(long requestStartTime, long responseCompleteTime, boolean successful) {
+      for (OperationStats impl : impls) {
+         impl.record(requestStartTime, responseCompleteTime, successful);
+      }
+   }
+
    @Override
    public void record(Message message) {
       for (OperationStats impl : impls) {
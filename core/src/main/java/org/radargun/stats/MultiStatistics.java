@@ -50,6 +50,13 @@ public abstract class MultiStatistics implements Statistics {
       }
    }
 
+   @Override
+   public void record(long requestStartTime, long responseCompleteTime, boolean successful, Operation operation) {
+      for (Statistics s : internal) {
+         s.record(requestStartTime, responseCompleteTime, successful, operation);
+      }
+   }
+
    @Override
    public void record(Message message, Operation operation) {
       for (Statistics s : internal) {
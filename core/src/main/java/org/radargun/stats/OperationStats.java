@@ -39,6 +39,15 @@ public interface OperationStats extends Serializable {
     */
    void record(Request request);
 
+   /**
+    * Records finished request using primitive timestamps, without the need to allocate {@link Request}.
+    * Equivalent to {@link #record(Request)}.
+    * @param requestStartTime Request start time in nanoseconds.
+    * @param responseCompleteTime Response complete time in nanoseconds.
+    * @param successful Whether the request succeeded.
+    */
+   void record(long requestStartTime, long responseCompleteTime, boolean successful);
+
    /**
     * @param message
     */
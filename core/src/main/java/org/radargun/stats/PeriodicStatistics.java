@@ -48,6 +48,7 @@ public class PeriodicStatistics extends IntervalStatistics {
       super(other);
       this.prototype = other.prototype;
       this.period = other.period;
+      this.beginNanos = other.beginNanos;
       this.buckets = new ArrayList<>(other.buckets.size());
       for (Statistics s : other.buckets) {
          this.buckets.add(s.copy());
@@ -82,6 +83,11 @@ public class PeriodicStatistics extends IntervalStatistics {
       getCurrentBucket(TimeUnit.NANOSECONDS.toMillis(request.getRequestStartTime() - beginNanos)).record(request, operation);
    }
 
+   @Override
+   public void record(long requestStartTime, long responseCompleteTime, boolean successful, Operation operation) {
+      getCurrentBucket(TimeUnit.NANOSECONDS.toMillis(requestStartTime - beginNanos)).record(requestStartTime, responseCompleteTime, successful, operation);
+   }
+
    @Override
    public void record(Message message, Operation operation) {
       getCurrentBucket(message.getSendStartTime() - getBegin()).record(message, operation);
@@ -7,7 +7,7 @@ import org.radargun.Operation;
 import org.radargun.utils.TimeService;
 
 /**
- * Tracks time for RPC-like operations, possibly asynchronous (TODO).
+ * Tracks time for RPC-like operations, possibly asynchronous.
  * @see Message for tracking messages with different origin and destination.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
@@ -77,12 +77,24 @@ public final class Request {
 //   public void responseStarted() {}
 
    public void succeeded(Operation operation) {
-      this.responseCompleteTime = TimeService.nanoTime();
+      succeeded(operation, TimeService.nanoTime());
+   }
+
+   /**
+    * Records the request with response completed at given time. Used when the response
+    * completes asynchronously, on a different thread than the one owning the statistics.
+    */
+   public void succeeded(Operation operation, long responseCompleteTime) {
+      this.responseCompleteTime = responseCompleteTime;
       record(operation);
    }
 
    public void failed(Operation operation) {
-      this.responseCompleteTime = TimeService.nanoTime();
+      failed(operation, TimeService.nanoTime());
+   }
+
+   public void failed(Operation operation, long responseCompleteTime) {
+      this.responseCompleteTime = responseCompleteTime;
       this.successful = false;
       record(operation);
    }
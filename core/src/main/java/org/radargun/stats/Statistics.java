@@ -97,6 +97,25 @@ public interface Statistics extends Serializable {
     */
    void record(Request request, Operation operation);
 
+   /**
+    * Records finished request without allocating a {@link Request} instance, used on the hot path
+    * of the stressors. Equivalent to {@link #startRequest(long)} followed by
+    * {@link Request#succeeded(Operation, long)} or {@link Request#failed(Operation, long)}.
+    *
+    * @param requestStartTime Request start time in nanoseconds.
+    * @param responseCompleteTime Response complete time in nanoseconds.
+    * @param successful Whether the request succeeded.
+    * @param operation
+    */
+   default void record(long requestStartTime, long responseCompleteTime, boolean successful, Operation operation) {
+      Request request = startRequest(requestStartTime);
+      if (successful) {
+         request.succeeded(operation, responseCompleteTime);
+      } else {
+         request.failed(operation, responseCompleteTime);
+      }
+   }
+
    /**
     * Should be called only from {@link Message#record(Operation)}.
     * @param message
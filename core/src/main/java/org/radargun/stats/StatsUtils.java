@@ -1,6 +1,11 @@
 package org.radargun.stats;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Utilities for statistics
@@ -30,6 +35,74 @@ public class StatsUtils {
       return max;
    }
 
+   public static final int DEFAULT_MERGE_FAN_IN = 8;
+
+   /**
+    * Merges the statistics in place into the first non-null element, which is modified; the other
+    * statistics are not modified. Use {@link #mergeHierarchically(List, int)} when none of the statistics
+    * may be modified.
+    *
+    * @return Merged statistics or null if there are no statistics to merge.
+    */
+   public static Statistics merge(Collection<? extends Statistics> statistics) {
+      Statistics merged = null;
+      for (Statistics s : statistics) {
+         if (s == null) {
+            continue;
+         } else if (merged == null) {
+            merged = s;
+         } else {
+            merged.merge(s);
+         }
+      }
+      return merged;
+   }
+
+   /**
+    * Merges the statistics in a tree: the statistics are split into groups of at most <code>fanIn</code>
+    * elements, each group is merged (in parallel with the other groups) and the results are merged
+    * the same way until single statistics remain. Only the first element of each group on the lowest
+    * level is copied, the intermediate results are merged in place. The statistics passed in are not modified.
+    * Null elements are ignored.
+    *
+    * @return Merged statistics or null if there are no statistics to merge.
+    */
+   public static Statistics mergeHierarchically(List<? extends Statistics> statistics, int fanIn) {
+      if (fanIn < 2) {
+         throw new IllegalArgumentException("Fan-in must be at least 2: " + fanIn);
+      }
+      List<Statistics> leaves = statistics.stream().filter(Objects::nonNull).collect(Collectors.toList());
+      List<Statistics> level = mergeGroups(leaves, fanIn, true);
+      while (level.size() > 1) {
+         level = mergeGroups(level, fanIn, false);
+      }
+      return level.isEmpty() ? null : level.get(0);
+   }
+
+   private static List<Statistics> mergeGroups(List<Statistics> statistics, int fanIn, boolean copy) {
+      int groups = (statistics.size() + fanIn - 1) / fanIn;
+      if (groups <= 1) {
+         // no need to involve other threads
+         List<Statistics> result = new ArrayList<>(1);
+         if (!statistics.isEmpty()) {
+            result.add(mergeInto(statistics, copy));
+         }
+         return result;
+      }
+      return IntStream.range(0, groups).parallel().mapToObj(group -> {
+         List<Statistics> members = statistics.subList(group * fanIn, Math.min(statistics.size(), (group + 1) * fanIn));
+         return mergeInto(members, copy);
+      }).collect(Collectors.toList());
+   }
+
+   private static Statistics mergeInto(List<Statistics> statistics, boolean copy) {
+      Statistics merged = copy ? statistics.get(0).copy() : statistics.get(0);
+      for (int i = 1; i < statistics.size(); ++i) {
+         merged.merge(statistics.get(i));
+      }
+      return merged;
+   }
+
    private static double getAverage(List<Double> values) {
       double sum = 0d;
       for (Double d : values) {
@@ -55,6 +55,12 @@ public class SynchronizedStatistics extends BasicStatistics {
       super.record(request, operation);
    }
 
+   @Override
+   public synchronized void record(long requestStartTime, long responseCompleteTime, boolean successful, Operation operation) {
+      ensureNotSnapshot();
+      super.record(requestStartTime, responseCompleteTime, successful, operation);
+   }
+
    @Override
    public synchronized void record(Message message, Operation operation) {
       ensureNotSnapshot();
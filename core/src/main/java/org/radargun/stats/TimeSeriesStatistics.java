@@ -0,0 +1,525 @@
+package org.radargun.stats;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+import org.radargun.Operation;
+import org.radargun.config.DefinitionElement;
+import org.radargun.config.Init;
+import org.radargun.config.Property;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.radargun.stats.representation.MeanAndDev;
+import org.radargun.stats.representation.OperationThroughput;
+import org.radargun.stats.representation.Percentile;
+import org.radargun.utils.TimeConverter;
+import org.radargun.utils.TimeService;
+
+/**
+ * Keeps summary of each operation in consecutive intervals of the test: number of requests and errors,
+ * mean, deviation and maximum of response time, and response time at configured percentiles.
+ * Requests from the interval in progress are recorded into {@link OperationStats}, which are summarized
+ * when the next interval begins.
+ *
+ * The number of intervals is bounded: when the test runs longer than capacity * period, each pair
+ * of adjacent intervals is merged and the interval duration is doubled. Therefore the memory does not grow
+ * with the duration of the test and the intervals cover the whole test with the same resolution.
+ * Counts, mean, deviation and maximum of merged intervals are exact; percentiles of merged intervals
+ * are the maximum of the percentiles (upper bound).
+ */
+@DefinitionElement(name = "time-series", doc = "Keeps summaries of operations in consecutive intervals with fixed memory footprint, " +
+   "merging adjacent intervals when the test runs long.")
+public class TimeSeriesStatistics extends IntervalStatistics {
+   @Property(doc = "Duration of the shortest interval. Default is 1 second.", converter = TimeConverter.class)
+   private long period = 1000;
+
+   @Property(doc = "Maximum number of intervals. When the test runs longer, adjacent intervals are merged. Default is 1024.")
+   private int capacity = 1024;
+
+   @Property(doc = "Response time percentiles kept for each interval. Default is 50, 90, 99 and 99.9.")
+   private double[] percentiles = new double[] {50d, 90d, 99d, 99.9d};
+
+   @Property(name = "operationStats", doc = "Operation statistics recording the interval in progress, should provide percentiles. " +
+      "Default is log-linear.", complexConverter = OperationStats.Converter.class)
+   private OperationStats prototype = new LogLinearOperationStats();
+
+   // the intervals are (period << shift) milliseconds long
+   private int shift;
+   private long beginNanos = Long.MAX_VALUE;
+   private Map<String, OperationSeries> seriesMap = new HashMap<>();
+   private transient OperationSeries[] seriesById;
+   private Map<String, Set<Operation>> groupOperationsMap = new HashMap<>();
+
+   public TimeSeriesStatistics() {
+   }
+
+   TimeSeriesStatistics(long period, int capacity, double[] percentiles, OperationStats prototype) {
+      this.period = period;
+      this.capacity = capacity;
+      this.percentiles = percentiles;
+      this.prototype = prototype;
+      init();
+   }
+
+   private TimeSeriesStatistics(TimeSeriesStatistics other) {
+      super(other);
+      this.period = other.period;
+      this.capacity = other.capacity;
+      this.percentiles = other.percentiles;
+      this.prototype = other.prototype;
+      this.shift = other.shift;
+      this.beginNanos = other.beginNanos;
+      for (Map.Entry<String, OperationSeries> entry : other.seriesMap.entrySet()) {
+         seriesMap.put(entry.getKey(), new OperationSeries(entry.getValue()));
+      }
+      this.groupOperationsMap = other.groupOperationsMap;
+   }
+
+   @Init
+   public void init() {
+      if (period <= 0) throw new IllegalArgumentException("Period must be > 0: " + period);
+      if (capacity < 2) throw new IllegalArgumentException("Capacity must be >= 2: " + capacity);
+      for (double percentile : percentiles) {
+         if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Invalid percentile: " + percentile);
+      }
+   }
+
+   @Override
+   public Statistics newInstance() {
+      return new TimeSeriesStatistics(period, capacity, percentiles, prototype);
+   }
+
+   @Override
+   public Statistics copy() {
+      return new TimeSeriesStatistics(this);
+   }
+
+   @Override
+   public void begin() {
+      super.begin();
+      beginNanos = TimeService.nanoTime();
+   }
+
+   @Override
+   public void reset() {
+      seriesMap.clear();
+      seriesById = null;
+      shift = 0;
+      begin();
+   }
+
+   @Override
+   public void registerOperationsGroup(String name, Set<Operation> operations) {
+      groupOperationsMap.putIfAbsent(name, new HashSet<>(operations));
+   }
+
+   @Override
+   public String getOperationsGroup(Operation operation) {
+      return groupOperationsMap.entrySet().stream().filter(e -> e.getValue().contains(operation))
+         .map(Map.Entry::getKey).findFirst().orElse(null);
+   }
+
+   @Override
+   public Map<String, Set<Operation>> getGroupOperationsMap() {
+      return groupOperationsMap;
+   }
+
+   @Override
+   public List<Map<String, OperationStats>> getOperationStatsForGroups() {
+      return Collections.singletonList(Collections.emptyMap());
+   }
+
+   @Override
+   public List<Map<String, OperationStats>> getOperationsStats() {
+      return Collections.singletonList(Collections.emptyMap());
+   }
+
+   @Override
+   public OperationStats getOperationStats(String operation) {
+      return null;
+   }
+
+   @Override
+   public Set<String> getOperations() {
+      return seriesMap.keySet();
+   }
+
+   @Override
+   public void record(Request request, Operation operation) {
+      current(operation, slotOfNanos(request.getRequestStartTime())).record(request);
+   }
+
+   @Override
+   public void record(long requestStartTime, long responseCompleteTime, boolean successful, Operation operation) {
+      current(operation, slotOfNanos(requestStartTime)).record(requestStartTime, responseCompleteTime, successful);
+   }
+
+   @Override
+   public void record(Message message, Operation operation) {
+      // message timestamps are in milliseconds
+      current(operation, slotOf(message.getSendStartTime() - getBegin(), period << shift)).record(message);
+   }
+
+   @Override
+   public void record(RequestSet requestSet, Operation operation) {
+      current(operation, slotOfNanos(requestSet.getBegin())).record(requestSet);
+   }
+
+   private long slotOfNanos(long timestamp) {
+      return slotOf(timestamp - beginNanos, TimeUnit.MILLISECONDS.toNanos(period) << shift);
+   }
+
+   private static long slotOf(long sinceBegin, long width) {
+      return sinceBegin < 0 ? 0 : sinceBegin / width;
+   }
+
+   private OperationStats current(Operation operation, long slot) {
+      while (slot >= capacity) {
+         rollUp();
+         slot >>= 1;
+      }
+      OperationSeries series = series(operation);
+      if (slot > series.currentSlot) {
+         series.close(percentiles);
+         series.currentSlot = (int) slot;
+      }
+      // requests started in already closed interval (e.g. asynchronous ones) are accounted to the current one
+      if (series.current == null) {
+         series.current = prototype.newInstance();
+      }
+      return series.current;
+   }
+
+   private OperationSeries series(Operation operation) {
+      OperationSeries[] byId = seriesById;
+      if (byId == null || operation.id >= byId.length) {
+         byId = seriesById = byId == null ? new OperationSeries[operation.id + 1] : Arrays.copyOf(byId, operation.id + 1);
+      }
+      OperationSeries series = byId[operation.id];
+      if (series == null) {
+         series = byId[operation.id] = seriesMap.computeIfAbsent(operation.name, name -> new OperationSeries(percentiles.length));
+      }
+      return series;
+   }
+
+   private void rollUp() {
+      for (OperationSeries series : seriesMap.values()) {
+         series.remap(slot -> slot >> 1);
+      }
+      shift++;
+   }
+
+   @Override
+   public void merge(Statistics otherStats) {
+      if (!(otherStats instanceof TimeSeriesStatistics)) {
+         throw new IllegalArgumentException(String.valueOf(otherStats));
+      }
+      TimeSeriesStatistics other = (TimeSeriesStatistics) otherStats;
+      if (other.period != period || !Arrays.equals(other.percentiles, percentiles)) {
+         throw new IllegalArgumentException("Different configuration: " + this + " vs. " + other);
+      }
+      if (other.getBegin() == Long.MAX_VALUE) {
+         return;
+      } else if (getBegin() == Long.MAX_VALUE) {
+         setBegin(other.getBegin());
+         beginNanos = other.beginNanos;
+         shift = other.shift;
+      }
+      long newBegin = Math.min(getBegin(), other.getBegin());
+      int newShift = Math.max(shift, other.shift);
+      while (lastSlot(newBegin, newShift) >= capacity || other.lastSlot(newBegin, newShift) >= capacity) {
+         newShift++;
+      }
+      rebase(newBegin, newShift);
+      for (Map.Entry<String, OperationSeries> entry : other.seriesMap.entrySet()) {
+         OperationSeries otherSeries = entry.getValue();
+         OperationSeries series = seriesMap.get(entry.getKey());
+         if (series == null) {
+            series = new OperationSeries(percentiles.length);
+            seriesMap.put(entry.getKey(), series);
+            seriesById = null;
+         }
+         for (int i = 0; i < otherSeries.length; ++i) {
+            series.add(other.targetSlot(i, newBegin, newShift), otherSeries, i);
+         }
+         if (otherSeries.current != null) {
+            int slot = other.targetSlot(otherSeries.currentSlot, newBegin, newShift);
+            if (series.current != null && series.currentSlot == slot) {
+               series.current.merge(otherSeries.current);
+            } else if (series.currentSlot < slot) {
+               series.close(percentiles);
+               series.current = otherSeries.current.copy();
+               series.currentSlot = slot;
+            } else {
+               series.add(slot, otherSeries.current, percentiles);
+            }
+         }
+      }
+      super.merge(otherStats);
+   }
+
+   private void rebase(long newBegin, int newShift) {
+      if (newBegin == getBegin() && newShift == shift) {
+         return;
+      }
+      for (OperationSeries series : seriesMap.values()) {
+         series.remap(slot -> targetSlot(slot, newBegin, newShift));
+      }
+      beginNanos -= TimeUnit.MILLISECONDS.toNanos(getBegin() - newBegin);
+      setBegin(newBegin);
+      shift = newShift;
+   }
+
+   /**
+    * @return Index of the interval containing middle of given interval, after rebasing to new begin and shift.
+    */
+   private int targetSlot(int slot, long newBegin, int newShift) {
+      long width = period << shift;
+      long middle = getBegin() + slot * width + width / 2;
+      return (int) ((middle - newBegin) / (period << newShift));
+   }
+
+   private int lastSlot(long newBegin, int newShift) {
+      int lastSlot = -1;
+      for (OperationSeries series : seriesMap.values()) {
+         lastSlot = Math.max(lastSlot, Math.max(series.length - 1, series.currentSlot));
+      }
+      return lastSlot < 0 ? -1 : targetSlot(lastSlot, newBegin, newShift);
+   }
+
+   /**
+    * @return Copy of the series with the interval in progress summarized, or null if the operation was not recorded.
+    */
+   private OperationSeries closedSeries(String operation) {
+      OperationSeries series = seriesMap.get(operation);
+      if (series == null) {
+         return null;
+      } else if (series.current != null) {
+         series = new OperationSeries(series);
+         series.close(percentiles);
+      }
+      return series;
+   }
+
+   @Override
+   public <T> T getRepresentation(String operation, Class<T> clazz, Object... args) {
+      OperationSeries series = closedSeries(operation);
+      if (series == null) {
+         return null;
+      }
+      long width = period << shift;
+      if (clazz == DefaultOutcome.Series.class) {
+         DefaultOutcome[] samples = new DefaultOutcome[series.length];
+         for (int i = 0; i < samples.length; ++i) {
+            samples[i] = new DefaultOutcome(series.requests[i], series.errors[i], series.mean[i], series.max[i]);
+         }
+         return (T) new DefaultOutcome.Series(getBegin(), width, samples);
+      } else if (clazz == MeanAndDev.Series.class) {
+         MeanAndDev[] samples = new MeanAndDev[series.length];
+         for (int i = 0; i < samples.length; ++i) {
+            samples[i] = new MeanAndDev(series.mean[i], deviation(series.requests[i], series.m2[i]));
+         }
+         return (T) new MeanAndDev.Series(getBegin(), width, samples);
+      } else if (clazz == OperationThroughput.Series.class) {
+         OperationThroughput[] samples = new OperationThroughput[series.length];
+         for (int i = 0; i < samples.length; ++i) {
+            samples[i] = new OperationThroughput(TimeUnit.SECONDS.toMillis(1) * (double) series.requests[i] / width,
+               TimeUnit.SECONDS.toMillis(1) * (double) (series.requests[i] - series.errors[i]) / width);
+         }
+         return (T) new OperationThroughput.Series(getBegin(), width, samples);
+      } else if (clazz == Percentile.Series.class) {
+         int index = indexOf(Percentile.getPercentile(args));
+         if (index < 0) return null;
+         Percentile[] samples = new Percentile[series.length];
+         for (int i = 0; i < samples.length; ++i) {
+            samples[i] = new Percentile(series.requests[i] == 0 ? 0 : series.percentileValues[i * percentiles.length + index]);
+         }
+         return (T) new Percentile.Series(getBegin(), width, samples);
+      }
+      // the totals are computed from the intervals
+      long requests = 0, errors = 0, max = 0;
+      double mean = 0, m2 = 0;
+      for (int i = 0; i < series.length; ++i) {
+         if (series.requests[i] > 0) {
+            long n = requests + series.requests[i];
+            double delta = series.mean[i] - mean;
+            m2 += series.m2[i] + delta * delta * requests * series.requests[i] / n;
+            mean += delta * series.requests[i] / n;
+            requests = n;
+            max = Math.max(max, series.max[i]);
+         }
+         errors += series.errors[i];
+      }
+      if (clazz == DefaultOutcome.class) {
+         return (T) new DefaultOutcome(requests, errors, mean, max);
+      } else if (clazz == MeanAndDev.class) {
+         return (T) new MeanAndDev(mean, deviation(requests, m2));
+      } else if (clazz == OperationThroughput.class) {
+         return (T) OperationThroughput.compute(requests, errors, this);
+      }
+      return null;
+   }
+
+   private int indexOf(double percentile) {
+      for (int i = 0; i < percentiles.length; ++i) {
+         if (percentiles[i] == percentile) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   private static double deviation(long requests, double m2) {
+      return requests < 2 ? 0 : Math.sqrt(m2 / (requests - 1));
+   }
+
+   @Override
+   public String toString() {
+      return super.toString() + "{period=" + period + ", shift=" + shift + ", percentiles=" + Arrays.toString(percentiles)
+         + ", operations=" + seriesMap.keySet() + "}";
+   }
+
+   /**
+    * Summaries of the closed intervals of single operation, in primitive arrays grown up to the capacity.
+    */
+   private static class OperationSeries implements Serializable {
+      private static final int INITIAL_LENGTH = 16;
+
+      private final int numPercentiles;
+      private int length;
+      private long[] requests;
+      private long[] errors;
+      private long[] max;
+      private double[] mean;
+      private double[] m2;
+      private double[] percentileValues;
+      private OperationStats current;
+      private int currentSlot = -1;
+
+      OperationSeries(int numPercentiles) {
+         this.numPercentiles = numPercentiles;
+         clear();
+      }
+
+      OperationSeries(OperationSeries other) {
+         this.numPercentiles = other.numPercentiles;
+         this.length = other.length;
+         this.requests = other.requests.clone();
+         this.errors = other.errors.clone();
+         this.max = other.max.clone();
+         this.mean = other.mean.clone();
+         this.m2 = other.m2.clone();
+         this.percentileValues = other.percentileValues.clone();
+         this.current = other.current == null ? null : other.current.copy();
+         this.currentSlot = other.currentSlot;
+      }
+
+      void clear() {
+         length = 0;
+         requests = new long[INITIAL_LENGTH];
+         errors = new long[INITIAL_LENGTH];
+         max = new long[INITIAL_LENGTH];
+         mean = new double[INITIAL_LENGTH];
+         m2 = new double[INITIAL_LENGTH];
+         percentileValues = new double[INITIAL_LENGTH * numPercentiles];
+         current = null;
+         currentSlot = -1;
+      }
+
+      private void ensure(int slot) {
+         if (slot >= requests.length) {
+            int newLength = Math.max(slot + 1, requests.length * 2);
+            requests = Arrays.copyOf(requests, newLength);
+            errors = Arrays.copyOf(errors, newLength);
+            max = Arrays.copyOf(max, newLength);
+            mean = Arrays.copyOf(mean, newLength);
+            m2 = Arrays.copyOf(m2, newLength);
+            percentileValues = Arrays.copyOf(percentileValues, newLength * numPercentiles);
+         }
+         length = Math.max(length, slot + 1);
+      }
+
+      /**
+       * Summarize the interval in progress.
+       */
+      void close(double[] percentiles) {
+         if (current != null) {
+            add(currentSlot, current, percentiles);
+            current = null;
+         }
+      }
+
+      void add(int slot, OperationStats stats, double[] percentiles) {
+         DefaultOutcome outcome = stats.getRepresentation(DefaultOutcome.class, null);
+         if (outcome == null || outcome.requests == 0 && outcome.errors == 0) {
+            return;
+         }
+         MeanAndDev meanAndDev = stats.getRepresentation(MeanAndDev.class, null);
+         double dev = meanAndDev == null ? 0 : meanAndDev.dev;
+         double[] values = new double[numPercentiles];
+         for (int i = 0; i < numPercentiles; ++i) {
+            Percentile percentile = stats.getRepresentation(Percentile.class, null, percentiles[i]);
+            values[i] = percentile == null ? Double.NaN : percentile.responseTimeMax;
+         }
+         add(slot, outcome.requests, outcome.errors, outcome.responseTimeMean,
+            dev * dev * Math.max(0, outcome.requests - 1), outcome.responseTimeMax, values, 0);
+      }
+
+      void add(int slot, OperationSeries other, int otherSlot) {
+         if (other.requests[otherSlot] == 0 && other.errors[otherSlot] == 0) {
+            return;
+         }
+         add(slot, other.requests[otherSlot], other.errors[otherSlot], other.mean[otherSlot], other.m2[otherSlot],
+            other.max[otherSlot], other.percentileValues, otherSlot * numPercentiles);
+      }
+
+      private void add(int slot, long requests, long errors, double mean, double m2, long max, double[] values, int valuesOffset) {
+         ensure(slot);
+         this.errors[slot] += errors;
+         if (requests == 0) {
+            return;
+         }
+         long previous = this.requests[slot];
+         int offset = slot * numPercentiles;
+         if (previous == 0) {
+            this.mean[slot] = mean;
+            this.m2[slot] = m2;
+            this.max[slot] = max;
+            System.arraycopy(values, valuesOffset, percentileValues, offset, numPercentiles);
+         } else {
+            long n = previous + requests;
+            double delta = mean - this.mean[slot];
+            this.m2[slot] += m2 + delta * delta * previous * requests / n;
+            this.mean[slot] += delta * requests / n;
+            this.max[slot] = Math.max(this.max[slot], max);
+            for (int i = 0; i < numPercentiles; ++i) {
+               percentileValues[offset + i] = Math.max(percentileValues[offset + i], values[valuesOffset + i]);
+            }
+         }
+         this.requests[slot] += requests;
+      }
+
+      /**
+       * Move the intervals to new positions, merging those with the same target.
+       */
+      void remap(IntUnaryOperator target) {
+         OperationStats current = this.current;
+         int currentSlot = this.currentSlot;
+         this.current = null;
+         OperationSeries original = new OperationSeries(this);
+         clear();
+         for (int i = 0; i < original.length; ++i) {
+            add(target.applyAsInt(i), original, i);
+         }
+         this.current = current;
+         this.currentSlot = currentSlot < 0 ? -1 : target.applyAsInt(currentSlot);
+      }
+   }
+}
@@ -1,5 +1,7 @@
 package org.radargun.sysmonitor;
 
+import org.radargun.utils.TimeService;
+
 /**
  * 
  * AbstractMonitor is the base class for all system monitors. It manages the lifecycle of the
@@ -8,10 +10,17 @@ package org.radargun.sysmonitor;
  */
 public abstract class AbstractMonitor implements Monitor {
    protected volatile boolean shouldRun = false;
+   private volatile long timestamp;
 
    @Override
    public void run() {
+      run(TimeService.currentTimeMillis());
+   }
+
+   @Override
+   public void run(long timestamp) {
       if (shouldRun) {
+         this.timestamp = timestamp;
          runMonitor();
       }
    }
@@ -26,6 +35,13 @@ public abstract class AbstractMonitor implements Monitor {
       shouldRun = false;
    }
 
+   /**
+    * @return Timestamp of the current tick, the values should be reported with this timestamp.
+    */
+   protected long timestamp() {
+      return timestamp;
+   }
+
    public abstract void runMonitor();
 
 }
@@ -1,23 +1,26 @@
 package org.radargun.sysmonitor;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.radargun.logging.Log;
 import org.radargun.logging.LogFactory;
 import org.radargun.state.StateBase;
 import org.radargun.state.StateListener;
-import org.radargun.utils.Utils;
+import org.radargun.utils.TimeService;
 
 /**
  * Base class for holding and maintaining various worker and main state
  * monitors, extending classes have to implement interface extending
  * {@link StateListener}
+ *
+ * All monitors are sampled in the same tick of the {@link MonitorScheduler}; each monitor runs in its own
+ * thread from shared pool. When the monitor has not finished sampling of previous tick, the tick is skipped
+ * for this monitor.
  * 
  * @author zhostasa
  *
@@ -28,8 +31,13 @@ import org.radargun.utils.Utils;
  */
 public abstract class AbstractMonitors<S extends StateBase<T>, T extends StateListener> implements StateListener {
    protected final long period;
-   protected ScheduledExecutorService exec;
-   protected List<Monitor> monitors = new ArrayList<>();
+   protected ScheduledFuture<?> tick;
+   protected List<Monitor> monitors = new CopyOnWriteArrayList<>();
+   // monitors being sampled
+   private final Set<Monitor> running = ConcurrentHashMap.newKeySet();
+   // the tick dispatches the monitors holding this lock, so that stop can wait for the tick in progress
+   private final Object tickLock = new Object();
+   private boolean ticking; // guarded by tickLock
    private static Log log = LogFactory.getLog(AbstractMonitors.class);
    protected S state;
 
@@ -47,38 +55,64 @@ public abstract class AbstractMonitors<S extends StateBase<T>, T extends StateLi
    }
 
    /**
-    * Retrieves {@link ScheduledExecutorService} and registers monitors to
-    * execute periodically
+    * Starts monitors and schedules their periodic execution in the shared {@link MonitorScheduler}
     */
    protected synchronized void startInternal() {
-      exec = Executors.newScheduledThreadPool(1, new ThreadFactory() {
-         AtomicInteger counter = new AtomicInteger();
-
-         @Override
-         public Thread newThread(Runnable r) {
-            return new Thread(r, "MonitorThread-" + counter.getAndIncrement());
-         }
-      });
+      if (tick != null) return;
+      MonitorScheduler.acquire();
       for (Monitor m : monitors) {
          m.start();
-         exec.scheduleAtFixedRate(m, 0, period, TimeUnit.MILLISECONDS);
       }
+      synchronized (tickLock) {
+         ticking = true;
+      }
+      tick = MonitorScheduler.schedule(this::sample, period);
       log.infof("Gathering statistics every %d ms", period);
    }
 
    /**
-    * Stops monitors and {@link ScheduledExecutorService}
+    * Stops monitors and their periodic execution
     */
    protected synchronized void stopInternal() {
-      if (exec == null) return;
+      if (tick == null) return;
+      tick.cancel(false);
+      tick = null;
+      // cancel does not wait for the tick that is already running
+      synchronized (tickLock) {
+         ticking = false;
+      }
+      try {
+         TimeService.waitFor(running::isEmpty, 1, TimeUnit.MINUTES, 1);
+      } catch (RuntimeException e) {
+         log.warn("Monitors have not finished sampling in time: " + running);
+      }
       for (Monitor m : monitors) {
          m.stop();
       }
-      Utils.shutdownAndWait(exec);
-      if (!exec.isTerminated()) {
-         log.warn("Failed to terminate monitor executor service.");
+      MonitorScheduler.release();
+   }
+
+   private void sample(long timestamp) {
+      synchronized (tickLock) {
+         if (!ticking) {
+            return;
+         }
+         for (Monitor m : monitors) {
+            if (!running.add(m)) {
+               log.tracef("Monitor %s has not finished sampling yet, skipping tick", m);
+               continue;
+            }
+            MonitorScheduler.execute(() -> {
+               try {
+                  m.run(timestamp);
+               } catch (Exception e) {
+                  log.error("Monitor " + m + " failed", e);
+               } finally {
+                  running.remove(m);
+               }
+            });
+         }
       }
-      this.exec = null;
    }
 
    /**
@@ -93,8 +127,8 @@ public abstract class AbstractMonitors<S extends StateBase<T>, T extends StateLi
          return;
       }
       monitors.add(monitor);
-      if (exec != null) {
-         exec.scheduleAtFixedRate(monitor, 0, period, TimeUnit.MILLISECONDS);
+      if (tick != null) {
+         monitor.start();
       }
    }
 
@@ -1,7 +1,6 @@
 package org.radargun.sysmonitor;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.OperatingSystemMXBean;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.radargun.reporting.Timeline;
@@ -33,20 +32,24 @@ public class CpuUsageMonitor extends JmxMonitor {
             return;
          }
 
-         long cpuTimeMultiplier = getCpuMultiplier(connection);
-         OperatingSystemMXBean os = ManagementFactory.newPlatformMXBeanProxy(connection,
-               ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME, OperatingSystemMXBean.class);
-         int procCount = os.getAvailableProcessors();
-
-         long jmxCpuTime = (Long) connection.getAttribute(OS_NAME, PROCESS_CPU_TIME_ATTR);
-         long cpuTime = jmxCpuTime * cpuTimeMultiplier;
-         long upTime = (Long) connection.getAttribute(RUNTIME_NAME, PROCESS_UP_TIME);
+         Map<String, Object> os = getAttributes(OS_NAME);
+         Number jmxCpuTime = (Number) os.get(PROCESS_CPU_TIME_ATTR);
+         Number procCount = (Number) os.get(AVAILABLE_PROCESSORS_ATTR);
+         Number jmxUpTime = (Number) getAttributes(RUNTIME_NAME).get(PROCESS_UP_TIME);
+         if (jmxCpuTime == null || procCount == null || jmxUpTime == null) {
+            log.warn("Failed to read CPU stats");
+            return;
+         }
+         // processing capacity is provided only by some JVMs
+         long cpuTimeMultiplier = ((Number) os.getOrDefault(PROCESSING_CAPACITY_ATTR, 1)).longValue();
+         long cpuTime = jmxCpuTime.longValue() * cpuTimeMultiplier;
+         long upTime = jmxUpTime.longValue();
 
          long upTimeDiff = TimeUnit.MILLISECONDS.toNanos(upTime - prevUpTime);
-         long procTimeDiff = (cpuTime - prevCpuTime) / procCount; // already in nanoseconds
+         long procTimeDiff = (cpuTime - prevCpuTime) / procCount.intValue(); // already in nanoseconds
          double cpuUsage = Math.min(1d, Math.max(0d, (double) procTimeDiff / (double) upTimeDiff));
 
-         timeline.addValue(Timeline.Category.sysCategory(CPU_USAGE), new Timeline.Value(cpuUsage));
+         timeline.addValue(Timeline.Category.sysCategory(CPU_USAGE), new Timeline.Value(timestamp(), cpuUsage));
          log.tracef("Current CPU usage: %.1f%%", 100 * cpuUsage);
          prevCpuTime = cpuTime;
          prevUpTime = upTime;
@@ -58,6 +61,8 @@ public class CpuUsageMonitor extends JmxMonitor {
    @Override
    public synchronized void start() {
       super.start();
+      jmxConnection.register(OS_NAME, PROCESS_CPU_TIME_ATTR, AVAILABLE_PROCESSORS_ATTR, PROCESSING_CAPACITY_ATTR);
+      jmxConnection.register(RUNTIME_NAME, PROCESS_UP_TIME);
       timeline.addValue(Timeline.Category.sysCategory(CPU_USAGE), new Timeline.Value(0));
    }
 
@@ -1,22 +1,16 @@
 package org.radargun.sysmonitor;
 
 import java.io.Serializable;
-import java.lang.management.GarbageCollectorMXBean;
-import java.lang.management.ManagementFactory;
-import java.lang.management.OperatingSystemMXBean;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
-import javax.management.MBeanServerConnection;
 import javax.management.ObjectName;
 
 import org.radargun.reporting.Timeline;
 import org.radargun.traits.JmxConnectionProvider;
 
 import static java.lang.management.ManagementFactory.GARBAGE_COLLECTOR_MXBEAN_DOMAIN_TYPE;
-import static java.lang.management.ManagementFactory.newPlatformMXBeanProxy;
 
 /**
  * In each invocation of the {@link #run()} method, retrieves information about garbage collection
@@ -26,9 +20,11 @@ import static java.lang.management.ManagementFactory.newPlatformMXBeanProxy;
  */
 public class GcMonitor extends JmxMonitor implements Serializable {
    private static final String GC_USAGE = "GC CPU usage";
+   private static final String COLLECTION_TIME_ATTR = "CollectionTime";
 
    private long prevGcTime;
    private long prevUpTime;
+   private Set<ObjectName> gcNames = Collections.emptySet();
 
    public GcMonitor(JmxConnectionProvider jmxConnectionProvider, Timeline timeline) {
       super(jmxConnectionProvider, timeline);
@@ -41,22 +37,27 @@ public class GcMonitor extends JmxMonitor implements Serializable {
             return;
          }
 
-         OperatingSystemMXBean os = ManagementFactory.newPlatformMXBeanProxy(connection,
-               ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME, OperatingSystemMXBean.class);
-         int procCount = os.getAvailableProcessors();
-
-         List<GarbageCollectorMXBean> gcMbeans = getGarbageCollectorMXBeans(connection);
+         Number procCount = (Number) getAttributes(OS_NAME).get(AVAILABLE_PROCESSORS_ATTR);
+         Number jmxUpTime = (Number) getAttributes(RUNTIME_NAME).get(PROCESS_UP_TIME);
+         if (procCount == null || jmxUpTime == null) {
+            log.warn("Failed to read GC stats");
+            return;
+         }
          long gcTime = 0;
-         for (GarbageCollectorMXBean gcBean : gcMbeans)
-            gcTime += gcBean.getCollectionTime();
+         for (ObjectName gcName : gcNames) {
+            Number collectionTime = (Number) getAttributes(gcName).get(COLLECTION_TIME_ATTR);
+            if (collectionTime != null) {
+               gcTime += collectionTime.longValue();
+            }
+         }
 
-         long processGcTimeDiff = TimeUnit.MILLISECONDS.toNanos(gcTime - prevGcTime) / procCount;
-         long upTime = (Long) connection.getAttribute(RUNTIME_NAME, PROCESS_UP_TIME);
+         long processGcTimeDiff = TimeUnit.MILLISECONDS.toNanos(gcTime - prevGcTime) / procCount.intValue();
+         long upTime = jmxUpTime.longValue();
          long upTimeDiff = TimeUnit.MILLISECONDS.toNanos(upTime - prevUpTime);
 
          double gcUsage = Math.min(1d, Math.max(0, (double) processGcTimeDiff / (double) upTimeDiff));
 
-         timeline.addValue(Timeline.Category.sysCategory(GC_USAGE), new Timeline.Value(gcUsage));
+         timeline.addValue(Timeline.Category.sysCategory(GC_USAGE), new Timeline.Value(timestamp(), gcUsage));
          log.tracef("Current GC CPU usage: %.2f%%", 100 * gcUsage);
          prevUpTime = upTime;
          prevGcTime = gcTime;
@@ -65,27 +66,22 @@ public class GcMonitor extends JmxMonitor implements Serializable {
       }
    }
 
-   private List<GarbageCollectorMXBean> getGarbageCollectorMXBeans(MBeanServerConnection con) throws Exception {
-      List<GarbageCollectorMXBean> gcMbeans = null;
-      // TODO: List changes, so can't really cache apparently, but how performant is this?
-      if (con != null) {
-         ObjectName gcName = new ObjectName(GARBAGE_COLLECTOR_MXBEAN_DOMAIN_TYPE + ",*");
-         Set<ObjectName> mbeans = con.queryNames(gcName, null);
-         if (mbeans != null) {
-            gcMbeans = new ArrayList<GarbageCollectorMXBean>();
-            for (ObjectName on : mbeans) {
-               String name = GARBAGE_COLLECTOR_MXBEAN_DOMAIN_TYPE + ",name=" + on.getKeyProperty("name");
-               GarbageCollectorMXBean mbean = newPlatformMXBeanProxy(con, name, GarbageCollectorMXBean.class);
-               gcMbeans.add(mbean);
-            }
-         }
-      }
-      return gcMbeans;
-   }
-
    @Override
    public synchronized void start() {
       super.start();
+      jmxConnection.register(OS_NAME, AVAILABLE_PROCESSORS_ATTR);
+      jmxConnection.register(RUNTIME_NAME, PROCESS_UP_TIME);
+      if (connection != null) {
+         // the collectors do not change while the JVM is running
+         try {
+            gcNames = connection.queryNames(objectName(GARBAGE_COLLECTOR_MXBEAN_DOMAIN_TYPE + ",*"), null);
+         } catch (Exception e) {
+            log.error("Failed to find garbage collectors", e);
+         }
+         for (ObjectName gcName : gcNames) {
+            jmxConnection.register(gcName, COLLECTION_TIME_ATTR);
+         }
+      }
       timeline.addValue(Timeline.Category.sysCategory(GC_USAGE), new Timeline.Value(0));
    }
 
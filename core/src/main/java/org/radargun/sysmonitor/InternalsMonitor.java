@@ -4,7 +4,6 @@ import java.util.Map;
 
 import org.radargun.reporting.Timeline;
 import org.radargun.traits.InternalsExposition;
-import org.radargun.utils.TimeService;
 
 /**
  * Retrieves data from {@link org.radargun.traits.InternalsExposition} and places them into timeline
@@ -22,7 +21,7 @@ public class InternalsMonitor extends AbstractMonitor {
 
    @Override
    public void runMonitor() {
-      long now = TimeService.currentTimeMillis();
+      long now = timestamp();
       for (Map.Entry<String, Number> entry : internalsExposition.getValues().entrySet()) {
          timeline.addValue(Timeline.Category.customCategory(entry.getKey()), new Timeline.Value(now, entry.getValue()));
       }
@@ -0,0 +1,277 @@
+package org.radargun.sysmonitor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.radargun.logging.Log;
+import org.radargun.logging.LogFactory;
+import org.radargun.reporting.Timeline;
+
+/**
+ * Records JFR events in the monitored JVM and reports them into the {@link Timeline} with resolution
+ * finer than the period of the monitor: each invocation of the {@link #run()} method rotates the in-process
+ * recording and aggregates events from the finished one into buckets of configured length, using the timestamps
+ * of the events. GC pauses longer than configured threshold are also added as interval events, so that these
+ * can be matched with the stage intervals.
+ */
+public class JfrEventMonitor extends AbstractMonitor {
+   public static final String GC_PAUSE_EVENTS = "GC pauses";
+   static final String GC_PAUSE = "GC pause time [ms]";
+   static final String SAFEPOINT = "Safepoint time [ms]";
+   static final String ALLOCATION_RATE = "Allocation rate [MB per second]";
+   static final String MONITOR_BLOCKED = "Monitor contention [ms]";
+   static final String JVM_CPU_LOAD = "JVM CPU load";
+   static final String THREAD_CPU_LOAD = "Max thread CPU load";
+   static final String SOCKET_READ = "Socket read [kB per second]";
+   static final String SOCKET_WRITE = "Socket write [kB per second]";
+
+   private static final Log log = LogFactory.getLog(JfrEventMonitor.class);
+
+   // indices into bucket arrays
+   private static final int GC_PAUSE_SUM = 0;
+   private static final int SAFEPOINT_SUM = 1;
+   private static final int ALLOCATED = 2;
+   private static final int MONITOR_BLOCKED_SUM = 3;
+   private static final int SOCKET_READ_BYTES = 4;
+   private static final int SOCKET_WRITE_BYTES = 5;
+   private static final int JVM_CPU_SUM = 6;
+   private static final int JVM_CPU_SAMPLES = 7;
+   private static final int THREAD_CPU_MAX = 8;
+   private static final int THREAD_CPU_SAMPLES = 9;
+   private static final int BUCKET_SIZE = 10;
+   private static final double[] EMPTY_BUCKET = new double[BUCKET_SIZE];
+
+   private final Timeline timeline;
+   private final long resolution;
+   private final Duration threshold;
+   private final long gcPauseEventThreshold;
+
+   private Recording recording;
+   private Instant windowStart;
+   // buckets that may still receive events, keyed by bucket start in milliseconds
+   private final TreeMap<Long, double[]> buckets = new TreeMap<>();
+   // start of the last bucket added to the timeline, buckets without events are reported since this one
+   private long lastFlushed = Long.MIN_VALUE;
+   // safepoints that began in already processed recording
+   private final Map<Long, Instant> safepointBegins = new HashMap<>();
+
+   /**
+    * @param timeline Timeline receiving the values.
+    * @param resolution Length of the aggregation bucket, in milliseconds.
+    * @param threshold Minimal duration of recorded monitor contention and socket I/O events, in milliseconds.
+    * @param gcPauseEventThreshold Minimal pause of a collection reported as interval event, in milliseconds.
+    */
+   public JfrEventMonitor(Timeline timeline, long resolution, long threshold, long gcPauseEventThreshold) {
+      if (resolution <= 0) {
+         throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+      }
+      this.timeline = timeline;
+      this.resolution = resolution;
+      this.threshold = Duration.ofMillis(threshold);
+      this.gcPauseEventThreshold = gcPauseEventThreshold;
+   }
+
+   @Override
+   public synchronized void start() {
+      if (recording != null) {
+         return;
+      }
+      recording = newRecording();
+      windowStart = Instant.now();
+      super.start();
+   }
+
+   @Override
+   public synchronized void runMonitor() {
+      rotate(true);
+   }
+
+   @Override
+   public synchronized void stop() {
+      super.stop();
+      rotate(false);
+   }
+
+   private Recording newRecording() {
+      Recording recording = new Recording();
+      recording.setName("RadarGun monitor");
+      Duration period = Duration.ofMillis(resolution);
+      recording.enable("jdk.GarbageCollection").withoutThreshold();
+      recording.enable("jdk.SafepointBegin").withoutThreshold().withoutStackTrace();
+      recording.enable("jdk.SafepointEnd").withoutThreshold().withoutStackTrace();
+      recording.enable("jdk.ObjectAllocationInNewTLAB").withoutStackTrace();
+      recording.enable("jdk.ObjectAllocationOutsideTLAB").withoutStackTrace();
+      recording.enable("jdk.JavaMonitorEnter").withThreshold(threshold).withoutStackTrace();
+      recording.enable("jdk.SocketRead").withThreshold(threshold).withoutStackTrace();
+      recording.enable("jdk.SocketWrite").withThreshold(threshold).withoutStackTrace();
+      recording.enable("jdk.CPULoad").withPeriod(period);
+      recording.enable("jdk.ThreadCPULoad").withPeriod(period);
+      recording.start();
+      return recording;
+   }
+
+   /**
+    * Replaces current recording with a new one (if the monitor continues) and processes events from the old one.
+    * The recordings overlap; events ending after the new recording was started belong to the next window.
+    */
+   private void rotate(boolean restart) {
+      if (recording == null) {
+         return;
+      }
+      Recording finished = recording;
+      Instant windowEnd = null;
+      if (restart) {
+         recording = newRecording();
+         windowEnd = Instant.now();
+      } else {
+         recording = null;
+      }
+      Path file = null;
+      try {
+         finished.stop();
+         file = Files.createTempFile("radargun-monitor", ".jfr");
+         finished.dump(file);
+         try (RecordingFile recordingFile = new RecordingFile(file)) {
+            process(recordingFile, windowStart, windowEnd);
+         }
+      } catch (Exception e) {
+         log.error("Failed to process flight recording", e);
+      } finally {
+         finished.close();
+         if (file != null) {
+            try {
+               Files.deleteIfExists(file);
+            } catch (IOException e) {
+               log.warn("Failed to delete " + file, e);
+            }
+         }
+      }
+      windowStart = windowEnd;
+   }
+
+   /**
+    * @param windowEnd Events ending at or after this instant are ignored, null processes all events
+    *                  and flushes all buckets.
+    */
+   void process(RecordingFile recordingFile, Instant windowStart, Instant windowEnd) throws IOException {
+      // the events are read one by one, the recording may be too big to hold all events in memory
+      while (recordingFile.hasMoreEvents()) {
+         RecordedEvent event = recordingFile.readEvent();
+         Instant end = event.getEndTime();
+         if (end.isBefore(windowStart) || (windowEnd != null && !end.isBefore(windowEnd))) {
+            continue;
+         }
+         double[] bucket = bucket(end.toEpochMilli());
+         switch (event.getEventType().getName()) {
+            case "jdk.GarbageCollection":
+               Duration pauses = event.getDuration("sumOfPauses");
+               bucket[GC_PAUSE_SUM] += pauses.toNanos() / 1_000_000d;
+               if (pauses.toMillis() >= gcPauseEventThreshold) {
+                  timeline.addEvent(GC_PAUSE_EVENTS, new Timeline.IntervalEvent(event.getStartTime().toEpochMilli(),
+                     String.format("%s (%s): pauses %d ms, longest %d ms", event.getString("name"), event.getString("cause"),
+                        pauses.toMillis(), event.getDuration("longestPause").toMillis()),
+                     event.getDuration().toMillis()));
+               }
+               break;
+            case "jdk.SafepointBegin":
+               safepointBegins.put(event.getLong("safepointId"), event.getStartTime());
+               break;
+            case "jdk.SafepointEnd":
+               Instant begin = safepointBegins.remove(event.getLong("safepointId"));
+               if (begin != null) {
+                  bucket[SAFEPOINT_SUM] += Duration.between(begin, end).toNanos() / 1_000_000d;
+               }
+               break;
+            case "jdk.ObjectAllocationInNewTLAB":
+               bucket[ALLOCATED] += event.getLong("tlabSize");
+               break;
+            case "jdk.ObjectAllocationOutsideTLAB":
+               bucket[ALLOCATED] += event.getLong("allocationSize");
+               break;
+            case "jdk.JavaMonitorEnter":
+               bucket[MONITOR_BLOCKED_SUM] += event.getDuration().toNanos() / 1_000_000d;
+               break;
+            case "jdk.SocketRead":
+               bucket[SOCKET_READ_BYTES] += Math.max(0, event.getLong("bytesRead"));
+               break;
+            case "jdk.SocketWrite":
+               bucket[SOCKET_WRITE_BYTES] += Math.max(0, event.getLong("bytesWritten"));
+               break;
+            case "jdk.CPULoad":
+               bucket[JVM_CPU_SUM] += event.getFloat("jvmUser") + event.getFloat("jvmSystem");
+               bucket[JVM_CPU_SAMPLES]++;
+               break;
+            case "jdk.ThreadCPULoad":
+               bucket[THREAD_CPU_MAX] = Math.max(bucket[THREAD_CPU_MAX], event.getFloat("user") + event.getFloat("system"));
+               bucket[THREAD_CPU_SAMPLES]++;
+               break;
+            default:
+               log.tracef("Ignoring event %s", event.getEventType().getName());
+         }
+      }
+      // buckets ending before the window end cannot receive more events
+      long flushLimit = windowEnd == null ? Long.MAX_VALUE : windowEnd.toEpochMilli() - resolution;
+      Map<String, List<Timeline.Value>> values = new LinkedHashMap<>();
+      for (Iterator<Map.Entry<Long, double[]>> it = buckets.entrySet().iterator(); it.hasNext(); ) {
+         Map.Entry<Long, double[]> entry = it.next();
+         if (entry.getKey() > flushLimit) {
+            break;
+         }
+         // report also the buckets without events so that the chart does not interpolate over quiet periods;
+         // the events are not ordered, therefore the gaps are known only when the buckets are flushed
+         if (lastFlushed != Long.MIN_VALUE) {
+            for (long missing = lastFlushed + resolution; missing < entry.getKey(); missing += resolution) {
+               flush(values, missing, EMPTY_BUCKET);
+            }
+         }
+         flush(values, entry.getKey(), entry.getValue());
+         lastFlushed = entry.getKey();
+         it.remove();
+      }
+      for (Map.Entry<String, List<Timeline.Value>> entry : values.entrySet()) {
+         timeline.addValues(Timeline.Category.sysCategory(entry.getKey()), entry.getValue());
+      }
+      if (windowEnd == null) {
+         safepointBegins.clear();
+         lastFlushed = Long.MIN_VALUE;
+      }
+   }
+
+   private double[] bucket(long timestamp) {
+      long bucketStart = timestamp - timestamp % resolution;
+      return buckets.computeIfAbsent(bucketStart, start -> new double[BUCKET_SIZE]);
+   }
+
+   private void flush(Map<String, List<Timeline.Value>> values, long timestamp, double[] bucket) {
+      double seconds = resolution / 1000d;
+      addValue(values, GC_PAUSE, timestamp, bucket[GC_PAUSE_SUM]);
+      addValue(values, SAFEPOINT, timestamp, bucket[SAFEPOINT_SUM]);
+      addValue(values, ALLOCATION_RATE, timestamp, bucket[ALLOCATED] / (1024 * 1024) / seconds);
+      addValue(values, MONITOR_BLOCKED, timestamp, bucket[MONITOR_BLOCKED_SUM]);
+      addValue(values, SOCKET_READ, timestamp, bucket[SOCKET_READ_BYTES] / 1024 / seconds);
+      addValue(values, SOCKET_WRITE, timestamp, bucket[SOCKET_WRITE_BYTES] / 1024 / seconds);
+      if (bucket[JVM_CPU_SAMPLES] > 0) {
+         addValue(values, JVM_CPU_LOAD, timestamp, bucket[JVM_CPU_SUM] / bucket[JVM_CPU_SAMPLES]);
+      }
+      if (bucket[THREAD_CPU_SAMPLES] > 0) {
+         addValue(values, THREAD_CPU_LOAD, timestamp, bucket[THREAD_CPU_MAX]);
+      }
+   }
+
+   private static void addValue(Map<String, List<Timeline.Value>> values, String category, long timestamp, double value) {
+      values.computeIfAbsent(category, c -> new ArrayList<>()).add(new Timeline.Value(timestamp, value));
+   }
+}
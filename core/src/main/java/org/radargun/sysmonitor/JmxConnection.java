@@ -0,0 +1,136 @@
+package org.radargun.sysmonitor;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.JMException;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+
+import org.radargun.logging.Log;
+import org.radargun.logging.LogFactory;
+import org.radargun.traits.JmxConnectionProvider;
+
+/**
+ * JMX connection shared by all monitors reading from the same service. The attributes that the monitors
+ * {@link #register(ObjectName, String...) register} are read together, with single
+ * {@link MBeanServerConnection#getAttributes(ObjectName, String[])} round-trip per MBean in each tick.
+ */
+public final class JmxConnection {
+   private static final Log log = LogFactory.getLog(JmxConnection.class);
+   // key used for connections to the platform MBean server
+   private static final Object PLATFORM = new Object();
+   private static final Map<Object, JmxConnection> connections = new HashMap<>();
+
+   private final Object key;
+   private final JMXConnector connector;
+   private final MBeanServerConnection connection;
+   private int references;
+
+   private final Map<ObjectName, Set<String>> registered = new HashMap<>();
+   private Map<ObjectName, Map<String, Object>> sampled = Collections.emptyMap();
+   private long sampleTimestamp = Long.MIN_VALUE;
+
+   private JmxConnection(Object key, JMXConnector connector, MBeanServerConnection connection) {
+      this.key = key;
+      this.connector = connector;
+      this.connection = connection;
+   }
+
+   /**
+    * @param provider Provider of the connection, or null to use the platform MBean server.
+    * @return Connection to the service, opened if this is the first user. Must be {@link #release() released}.
+    */
+   public static synchronized JmxConnection acquire(JmxConnectionProvider provider) {
+      Object key = provider == null ? PLATFORM : provider;
+      JmxConnection jmxConnection = connections.get(key);
+      if (jmxConnection == null) {
+         if (provider == null) {
+            jmxConnection = new JmxConnection(key, null, ManagementFactory.getPlatformMBeanServer());
+         } else {
+            JMXConnector connector = provider.getConnector();
+            MBeanServerConnection connection = null;
+            if (connector != null) {
+               try {
+                  connection = connector.getMBeanServerConnection();
+               } catch (IOException e) {
+                  log.error("Failed to connect to MBean server", e);
+               }
+            }
+            jmxConnection = new JmxConnection(key, connector, connection);
+         }
+         connections.put(key, jmxConnection);
+      }
+      jmxConnection.references++;
+      return jmxConnection;
+   }
+
+   public void release() {
+      synchronized (JmxConnection.class) {
+         if (--references > 0) {
+            return;
+         }
+         connections.remove(key);
+      }
+      if (connector != null) {
+         try {
+            connector.close();
+         } catch (IOException e) {
+            log.error("Failed to close JMX connection", e);
+         }
+      }
+   }
+
+   /**
+    * @return Connection to the MBean server, or null if the connection could not be opened.
+    */
+   public MBeanServerConnection getConnection() {
+      return connection;
+   }
+
+   /**
+    * Adds the attributes to those read in each tick.
+    */
+   public synchronized void register(ObjectName name, String... attributes) {
+      Set<String> set = registered.computeIfAbsent(name, n -> new LinkedHashSet<>());
+      Collections.addAll(set, attributes);
+      sampleTimestamp = Long.MIN_VALUE;
+   }
+
+   /**
+    * Reads all registered attributes if these were not read for given timestamp yet.
+    *
+    * @return Values of the registered attributes of the MBean. Attributes that could not be read are missing.
+    */
+   public synchronized Map<String, Object> getAttributes(ObjectName name, long timestamp) throws IOException {
+      if (connection == null) {
+         throw new IllegalStateException("MBean connection is not open");
+      }
+      if (timestamp != sampleTimestamp) {
+         Map<ObjectName, Map<String, Object>> sampled = new HashMap<>();
+         for (Map.Entry<ObjectName, Set<String>> entry : registered.entrySet()) {
+            try {
+               AttributeList list = connection.getAttributes(entry.getKey(), entry.getValue().toArray(new String[0]));
+               Map<String, Object> values = new HashMap<>();
+               for (Attribute attribute : list.asList()) {
+                  values.put(attribute.getName(), attribute.getValue());
+               }
+               sampled.put(entry.getKey(), values);
+            } catch (JMException e) {
+               log.debugf("Failed to read attributes of %s: %s", entry.getKey(), e);
+            }
+         }
+         this.sampled = sampled;
+         this.sampleTimestamp = timestamp;
+      }
+      return sampled.getOrDefault(name, Collections.emptyMap());
+   }
+}
@@ -3,12 +3,11 @@ package org.radargun.sysmonitor;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.text.NumberFormat;
+import java.util.Map;
 
-import javax.management.AttributeNotFoundException;
 import javax.management.MBeanServerConnection;
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
-import javax.management.remote.JMXConnector;
 
 import org.radargun.logging.Log;
 import org.radargun.logging.LogFactory;
@@ -16,85 +15,66 @@ import org.radargun.reporting.Timeline;
 import org.radargun.traits.JmxConnectionProvider;
 
 /**
- * Provides constants for JMX access.
+ * Provides constants for JMX access. The connection is shared with other monitors of the same service;
+ * attributes registered in the {@link JmxConnection} are read in one batch for all of these.
  *
  * @author Mircea Markus &lt;Mircea.Markus@jboss.com&gt;
  */
 public abstract class JmxMonitor extends AbstractMonitor {
    protected final Log log = LogFactory.getLog(getClass());
 
-   static final ObjectName OS_NAME = getOSName();
+   static final ObjectName OS_NAME = objectName(ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME);
    static final String PROCESSING_CAPACITY_ATTR = "ProcessingCapacity";
+   static final String AVAILABLE_PROCESSORS_ATTR = "AvailableProcessors";
    static final String PROCESS_UP_TIME = "Uptime";
-   static final ObjectName RUNTIME_NAME = getRuntimeName();
+   static final ObjectName RUNTIME_NAME = objectName(ManagementFactory.RUNTIME_MXBEAN_NAME);
+   static final ObjectName MEMORY_NAME = objectName(ManagementFactory.MEMORY_MXBEAN_NAME);
    static final NumberFormat PERCENT_FORMATTER = NumberFormat.getPercentInstance();
 
    protected final Timeline timeline;
    protected final JmxConnectionProvider jmxConnectionProvider;
    protected MBeanServerConnection connection;
-   protected JMXConnector connector;
+   protected JmxConnection jmxConnection;
 
    public JmxMonitor(JmxConnectionProvider jmxConnectionProvider, Timeline timeline) {
       this.jmxConnectionProvider = jmxConnectionProvider;
       this.timeline = timeline;
    }
 
-   private static ObjectName getRuntimeName() {
+   static ObjectName objectName(String name) {
       try {
-         return new ObjectName(ManagementFactory.RUNTIME_MXBEAN_NAME);
+         return new ObjectName(name);
       } catch (MalformedObjectNameException ex) {
          throw new RuntimeException(ex);
       }
    }
 
-   private static ObjectName getOSName() {
-      try {
-         return new ObjectName(ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME);
-      } catch (MalformedObjectNameException ex) {
-         throw new RuntimeException(ex);
-      }
-   }
-
-   public static long getCpuMultiplier(MBeanServerConnection con) throws Exception {
-      Number num;
-      try {
-         num = (Number) con.getAttribute(OS_NAME, PROCESSING_CAPACITY_ATTR);
-      } catch (AttributeNotFoundException e) {
-         num = 1;
-      }
-      return num.longValue();
-   }
-
    @Override
    public synchronized void start() {
       super.start();
-      if (jmxConnectionProvider == null) {
-         connection = ManagementFactory.getPlatformMBeanServer();
-      } else {
-         connector = jmxConnectionProvider.getConnector();
-         if (connector != null) {
-            try {
-               connection = connector.getMBeanServerConnection();
-            } catch (IOException e) {
-               log.error("Failed to connect to MBean server", e);
-            }
-         }
+      if (jmxConnection == null) {
+         jmxConnection = JmxConnection.acquire(jmxConnectionProvider);
+         connection = jmxConnection.getConnection();
       }
    }
 
    @Override
    public synchronized void stop() {
       super.stop();
-      if (connector != null) {
-         try {
-            connector.close();
-         } catch (IOException e) {
-            log.error("Failed to close JMX connection", e);
-         }
-         connector = null;
+      if (jmxConnection != null) {
+         jmxConnection.release();
+         jmxConnection = null;
+         connection = null;
       }
    }
 
+   /**
+    * @return Values of attributes registered in {@link #jmxConnection}, read in the current tick.
+    */
+   protected Map<String, Object> getAttributes(ObjectName name) throws IOException {
+      return jmxConnection.getAttributes(name, timestamp());
+   }
+
    @Override
    public boolean equals(Object o) {
       return o != null && o.getClass() == this.getClass();
@@ -1,10 +1,10 @@
 package org.radargun.sysmonitor;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
 import java.text.NumberFormat;
 
+import javax.management.openmbean.CompositeData;
+
 import org.radargun.reporting.Timeline;
 import org.radargun.traits.JmxConnectionProvider;
 
@@ -16,6 +16,7 @@ import org.radargun.traits.JmxConnectionProvider;
  */
 public class MemoryUsageMonitor extends JmxMonitor {
    private static final String MEMORY_USAGE = "Memory usage";
+   private static final String HEAP_MEMORY_USAGE_ATTR = "HeapMemoryUsage";
    private static final NumberFormat DECIMAL_FORMATTER = NumberFormat.getNumberInstance();
 
    static {
@@ -34,11 +35,14 @@ public class MemoryUsageMonitor extends JmxMonitor {
             return;
          }
 
-         MemoryMXBean memMbean = ManagementFactory.newPlatformMXBeanProxy(connection,
-               ManagementFactory.MEMORY_MXBEAN_NAME, MemoryMXBean.class);
-         MemoryUsage mem = memMbean.getHeapMemoryUsage();
+         CompositeData heapMemoryUsage = (CompositeData) getAttributes(MEMORY_NAME).get(HEAP_MEMORY_USAGE_ATTR);
+         if (heapMemoryUsage == null) {
+            log.warn("Failed to read memory stats");
+            return;
+         }
+         MemoryUsage mem = MemoryUsage.from(heapMemoryUsage);
 
-         timeline.addValue(Timeline.Category.sysCategory(MEMORY_USAGE), new Timeline.Value(mem.getUsed() / 1048576));
+         timeline.addValue(Timeline.Category.sysCategory(MEMORY_USAGE), new Timeline.Value(timestamp(), mem.getUsed() / 1048576));
 
          log.trace("Memory usage: used=" + formatDecimal(mem.getUsed()) + " B, size="
                + formatDecimal(mem.getCommitted()) + " B, max=" + formatDecimal(mem.getMax()));
@@ -54,6 +58,7 @@ public class MemoryUsageMonitor extends JmxMonitor {
    @Override
    public synchronized void start() {
       super.start();
+      jmxConnection.register(MEMORY_NAME, HEAP_MEMORY_USAGE_ATTR);
       timeline.addValue(Timeline.Category.sysCategory(MEMORY_USAGE), new Timeline.Value(0));
    }
 
@@ -10,4 +10,14 @@ public interface Monitor extends Runnable {
    void start();
 
    void stop();
+
+   /**
+    * Invoked in each tick of the monitors; all monitors sampled in the same tick
+    * should report the values with the same timestamp.
+    *
+    * @param timestamp Time of the tick, in milliseconds.
+    */
+   default void run(long timestamp) {
+      run();
+   }
 }
@@ -0,0 +1,96 @@
+package org.radargun.sysmonitor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import org.radargun.logging.Log;
+import org.radargun.logging.LogFactory;
+import org.radargun.utils.TimeService;
+
+/**
+ * Scheduler shared by all monitors in this JVM. Ticks are aligned to multiples of the period
+ * (in wall-clock time), so that values sampled on different nodes share the timestamps. The monitors
+ * are sampled in a separate pool, so that a slow monitor does not delay the ticks.
+ */
+final class MonitorScheduler {
+   private static final Log log = LogFactory.getLog(MonitorScheduler.class);
+
+   private static int users;
+   private static ScheduledExecutorService scheduler;
+   private static ExecutorService samplers;
+
+   private MonitorScheduler() {
+   }
+
+   /**
+    * Starts the scheduler if this is the first user. Must be matched by {@link #release()}.
+    */
+   static synchronized void acquire() {
+      if (users++ == 0) {
+         scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "MonitorScheduler");
+            thread.setDaemon(true);
+            return thread;
+         });
+         AtomicInteger counter = new AtomicInteger();
+         samplers = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "MonitorThread-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+         });
+      }
+   }
+
+   /**
+    * Stops the scheduler when there are no more users, waiting for the monitors being sampled.
+    */
+   static void release() {
+      ScheduledExecutorService scheduler;
+      ExecutorService samplers;
+      synchronized (MonitorScheduler.class) {
+         if (--users > 0) {
+            return;
+         }
+         scheduler = MonitorScheduler.scheduler;
+         samplers = MonitorScheduler.samplers;
+         MonitorScheduler.scheduler = null;
+         MonitorScheduler.samplers = null;
+      }
+      scheduler.shutdownNow();
+      samplers.shutdown();
+      try {
+         if (!scheduler.awaitTermination(1, TimeUnit.MINUTES) || !samplers.awaitTermination(1, TimeUnit.MINUTES)) {
+            log.warn("Failed to terminate monitor executor services.");
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /**
+    * @param tick Invoked with the timestamp of the tick, which is a multiple of the period.
+    * @param period Period in milliseconds.
+    */
+   static synchronized ScheduledFuture<?> schedule(LongConsumer tick, long period) {
+      long now = TimeService.currentTimeMillis();
+      return scheduler.scheduleAtFixedRate(() -> {
+         long timestamp = TimeService.currentTimeMillis();
+         // the tick may come slightly before or after the intended time
+         tick.accept(Math.round((double) timestamp / period) * period);
+      }, (period - now % period) % period, period, TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * Runs the task in the sampling pool.
+    */
+   static synchronized void execute(Runnable task) {
+      if (samplers != null) {
+         samplers.execute(task);
+      }
+   }
+}
@@ -1,7 +1,6 @@
 package org.radargun.sysmonitor;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.OperatingSystemMXBean;
+import java.util.Map;
 
 import org.radargun.reporting.Timeline;
 import org.radargun.traits.JmxConnectionProvider;
@@ -27,12 +26,11 @@ public class OpenFilesMonitor extends JmxMonitor {
             return;
          }
 
-         OperatingSystemMXBean osBean = ManagementFactory.newPlatformMXBeanProxy(connection,
-               ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME, OperatingSystemMXBean.class);
-         Long openFiles = (Long) connection.getAttribute(osBean.getObjectName(), OPEN_FILE_DESCRIPTOR_COUNT);
-         Long maxOpenFiles = (Long) connection.getAttribute(osBean.getObjectName(), MAX_FILE_DESCRIPTOR_COUNT);
+         Map<String, Object> os = getAttributes(OS_NAME);
+         Long openFiles = (Long) os.get(OPEN_FILE_DESCRIPTOR_COUNT);
+         Long maxOpenFiles = (Long) os.get(MAX_FILE_DESCRIPTOR_COUNT);
          if (openFiles != null) {
-            timeline.addValue(Timeline.Category.sysCategory(OPEN_FILES), new Timeline.Value(openFiles));
+            timeline.addValue(Timeline.Category.sysCategory(OPEN_FILES), new Timeline.Value(timestamp(), openFiles));
          }
          log.tracef("Open files: open=%s, max=%s", openFiles, maxOpenFiles);
       } catch (Exception e) {
@@ -43,6 +41,7 @@ public class OpenFilesMonitor extends JmxMonitor {
    @Override
    public synchronized void start() {
       super.start();
+      jmxConnection.register(OS_NAME, OPEN_FILE_DESCRIPTOR_COUNT, MAX_FILE_DESCRIPTOR_COUNT);
       timeline.addValue(Timeline.Category.sysCategory(OPEN_FILES), new Timeline.Value(0));
    }
 
@@ -24,7 +24,7 @@ public class RssMonitor extends AbstractMonitor {
       try {
          process = createProcess();
          Long rssUsage = getRssUsageFrom(process);
-         timeline.addValue(Timeline.Category.sysCategory(RSS_MEMORY_USAGE), new Timeline.Value(rssUsage));
+         timeline.addValue(Timeline.Category.sysCategory(RSS_MEMORY_USAGE), new Timeline.Value(timestamp(), rssUsage));
       } finally {
          if (process != null)
             process.destroy();
@@ -0,0 +1,55 @@
+package org.radargun.utils;
+
+import java.lang.reflect.Method;
+
+import org.radargun.logging.Log;
+import org.radargun.logging.LogFactory;
+
+/**
+ * Creates virtual threads on JVMs that support them (Java 21+). The API is accessed
+ * reflectively as RadarGun is compiled for older Java versions.
+ */
+public final class VirtualThreads {
+   private static final Log log = LogFactory.getLog(VirtualThreads.class);
+   private static final Method OF_VIRTUAL;
+   private static final Method BUILDER_NAME;
+   private static final Method BUILDER_UNSTARTED;
+
+   static {
+      Method ofVirtual = null, builderName = null, builderUnstarted = null;
+      try {
+         ofVirtual = Thread.class.getMethod("ofVirtual");
+         Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+         builderName = builderClass.getMethod("name", String.class);
+         builderUnstarted = builderClass.getMethod("unstarted", Runnable.class);
+      } catch (ReflectiveOperationException e) {
+         log.trace("Virtual threads are not supported", e);
+         ofVirtual = null;
+      }
+      OF_VIRTUAL = ofVirtual;
+      BUILDER_NAME = builderName;
+      BUILDER_UNSTARTED = builderUnstarted;
+   }
+
+   private VirtualThreads() {
+   }
+
+   public static boolean isSupported() {
+      return OF_VIRTUAL != null;
+   }
+
+   /**
+    * @return New unstarted virtual thread, or platform thread if virtual threads are not supported.
+    */
+   public static Thread newThread(Runnable runnable, String name) {
+      if (OF_VIRTUAL != null) {
+         try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name);
+            return (Thread) BUILDER_UNSTARTED.invoke(builder, runnable);
+         } catch (ReflectiveOperationException e) {
+            log.warn("Failed to create virtual thread, using platform thread", e);
+         }
+      }
+      return new Thread(runnable, name);
+   }
+}
@@ -0,0 +1,77 @@
+package org.radargun;
+
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.radargun.state.WorkerState;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+@Test
+public class RemoteWorkerConnectionTest {
+   private static final int NUM_PROGRESS = 20;
+
+   @Test(timeOut = 30000)
+   public void testProgressBeforeAck() throws Exception {
+      int port;
+      try (ServerSocket socket = new ServerSocket(0)) {
+         port = socket.getLocalPort();
+      }
+      RemoteWorkerConnection connection = new RemoteWorkerConnection(1, "127.0.0.1", port);
+      AtomicReference<Throwable> workerFailure = new AtomicReference<>();
+      Thread worker = new Thread(() -> {
+         try {
+            RemoteMainConnection mainConnection = new RemoteMainConnection("127.0.0.1", port);
+            WorkerState state = new WorkerState();
+            state.setLocalAddress(mainConnection.connectToMain(-1));
+            state.setWorkerIndex(mainConnection.receiveWorkerIndex());
+            mainConnection.receiveWorkerCount();
+            mainConnection.receiveNextStageId();
+            mainConnection.receiveObject();
+            // the messages are sent back-to-back so that the main reads more of them at once
+            for (int i = 0; i < NUM_PROGRESS; ++i) {
+               mainConnection.sendObject(new Progress(state, i, i % 5 == 0 ? 10000 : 10), null);
+            }
+            mainConnection.sendObject(new DistStageAck(state), null);
+            assertNull(mainConnection.receiveObject());
+            mainConnection.release();
+         } catch (Throwable t) {
+            workerFailure.set(t);
+         }
+      });
+      worker.start();
+      List<Progress> received = new CopyOnWriteArrayList<>();
+      try {
+         connection.establish();
+         connection.setProgressListener(progress -> received.add((Progress) progress));
+         List<DistStageAck> acks = connection.runStage(0, Collections.emptyMap(), 1);
+         assertEquals(acks.size(), 1);
+      } finally {
+         connection.release();
+      }
+      worker.join();
+      if (workerFailure.get() != null) {
+         throw new AssertionError(workerFailure.get());
+      }
+      assertEquals(received.size(), NUM_PROGRESS);
+      for (int i = 0; i < NUM_PROGRESS; ++i) {
+         assertEquals(received.get(i).sequence, i);
+      }
+   }
+
+   private static class Progress extends DistStageProgress {
+      private final int sequence;
+      private final byte[] payload;
+
+      Progress(WorkerState workerState, int sequence, int size) {
+         super(workerState);
+         this.sequence = sequence;
+         this.payload = new byte[size];
+      }
+   }
+}
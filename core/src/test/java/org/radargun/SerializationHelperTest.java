@@ -0,0 +1,53 @@
+package org.radargun;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class SerializationHelperTest {
+
+   public void testVarLong() throws IOException {
+      long[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      for (long value : values) {
+         SerializationHelper.writeVarLong(out, value);
+      }
+      out.flush();
+      // 1 + 1 + 1 + 2 + 2 + 3 + 5 + 9 + 10 + 10
+      assertEquals(bytes.size(), 44);
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+      for (long value : values) {
+         assertEquals(SerializationHelper.readVarLong(in), value);
+      }
+   }
+
+   public void testCompressedObject() throws IOException {
+      ArrayList<String> list = new ArrayList<>();
+      for (int i = 0; i < 100000; ++i) {
+         list.add("value" + (i % 100));
+      }
+      ByteBuffer buffer = SerializationHelper.serializeObjectWithLength(list, ByteBuffer.allocate(1024));
+      int length = buffer.getInt(0);
+      assertEquals(buffer.position(), length + 4);
+      assertTrue(length < 100000, String.valueOf(length));
+      assertEquals(SerializationHelper.deserialize(buffer.array(), 4, length), list);
+   }
+
+   public void testSmallObjectNotCompressed() throws IOException {
+      ByteBuffer buffer = SerializationHelper.serializeObjectWithLength("foo", ByteBuffer.allocate(1024));
+      int length = buffer.getInt(0);
+      assertEquals(buffer.array()[4], (byte) 0xAC);
+      assertEquals(SerializationHelper.deserialize(buffer.array(), 4, length), "foo");
+   }
+}
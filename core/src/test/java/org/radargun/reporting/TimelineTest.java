@@ -0,0 +1,110 @@
+package org.radargun.reporting;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+@Test
+public class TimelineTest {
+   private static final Timeline.Category CATEGORY = Timeline.Category.sysCategory("test");
+
+   public void testConcurrentAppends() throws Exception {
+      Timeline timeline = new Timeline(0);
+      int numThreads = 4, valuesPerThread = 10000;
+      List<Thread> threads = new ArrayList<>();
+      for (int i = 0; i < numThreads; ++i) {
+         int thread = i;
+         threads.add(new Thread(() -> {
+            for (int j = 0; j < valuesPerThread; j += 10) {
+               if (j % 20 == 0) {
+                  timeline.addValue(CATEGORY, new Timeline.Value(thread * valuesPerThread + j, j));
+                  for (int k = 1; k < 10; ++k) {
+                     timeline.addValue(CATEGORY, new Timeline.Value(thread * valuesPerThread + j + k, j + k));
+                  }
+               } else {
+                  List<Timeline.Value> batch = new ArrayList<>();
+                  for (int k = 0; k < 10; ++k) {
+                     batch.add(new Timeline.Value(thread * valuesPerThread + j + k, j + k));
+                  }
+                  timeline.addValues(CATEGORY, batch);
+               }
+            }
+         }));
+      }
+      threads.forEach(Thread::start);
+      for (Thread thread : threads) {
+         thread.join();
+      }
+      List<Timeline.Value> values = timeline.getValues(CATEGORY);
+      assertEquals(values.size(), numThreads * valuesPerThread);
+      Set<Long> timestamps = values.stream().map(v -> v.timestamp).collect(Collectors.toSet());
+      assertEquals(timestamps.size(), numThreads * valuesPerThread);
+      assertEquals(timeline.getFirstTimestamp(), 0);
+      assertEquals(timeline.getLastTimestamp(), numThreads * valuesPerThread - 1);
+      assertNull(timeline.getValues(Timeline.Category.sysCategory("other")));
+   }
+
+   public void testSerialization() throws Exception {
+      Timeline timeline = new Timeline(1);
+      timeline.addValues(CATEGORY, Arrays.asList(new Timeline.Value(1, 10), new Timeline.Value(2, 20)));
+      timeline.addValue(CATEGORY, new Timeline.Value(3, 30));
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+         out.writeObject(timeline);
+      }
+      Timeline read;
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+         read = (Timeline) in.readObject();
+      }
+      List<Timeline.Value> values = read.getValues(CATEGORY);
+      assertEquals(values.size(), 3);
+      assertEquals(values.get(2).value, 30d);
+      assertEquals(read.getFirstTimestamp(), 1);
+      assertEquals(read.getLastTimestamp(), 3);
+      read.addValue(CATEGORY, new Timeline.Value(4, 40));
+      assertEquals(read.getValues(CATEGORY).size(), 4);
+   }
+
+   public void testDownsample() {
+      Timeline timeline = new Timeline(0);
+      for (int i = 0; i < 1000; ++i) {
+         timeline.addValue(CATEGORY, new Timeline.Value(i, i % 10));
+      }
+      Timeline.Series series = timeline.getSeries(CATEGORY);
+      assertEquals(series.size(), 1000);
+      assertEquals(series.getMin(), 0d);
+      assertEquals(series.getMax(), 9d);
+
+      Timeline.Downsampled downsampled = series.downsample(0, 1000, 100);
+      assertEquals(downsampled.size(), 100);
+      for (int i = 0; i < downsampled.size(); ++i) {
+         assertEquals(downsampled.getMin(i), 0d);
+         assertEquals(downsampled.getMax(i), 9d);
+         assertEquals(downsampled.getAverage(i), 4.5d);
+         assertEquals(downsampled.getTimestamp(i), i * 10 + 5);
+      }
+
+      // short series are not aggregated
+      downsampled = series.downsample(0, 1000, 1000);
+      assertEquals(downsampled.size(), 1000);
+      assertEquals(downsampled.getMin(3), 3d);
+      assertEquals(downsampled.getMax(3), 3d);
+
+      // values are clamped into the border buckets
+      downsampled = series.downsample(100, 199, 2);
+      assertEquals(downsampled.size(), 2);
+      assertEquals(downsampled.getMin(0), 0d);
+      assertEquals(downsampled.getMax(1), 9d);
+   }
+}
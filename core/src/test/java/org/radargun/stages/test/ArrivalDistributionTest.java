@@ -0,0 +1,33 @@
+package org.radargun.stages.test;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class ArrivalDistributionTest {
+   private static final int SAMPLES = 1000000;
+
+   public void testConstant() {
+      assertEquals(ArrivalDistribution.CONSTANT.nextInterval(1234.5, new Random(0)), 1234.5);
+   }
+
+   public void testPoisson() {
+      Random random = new Random(42);
+      double sum = 0, sumSquares = 0;
+      for (int i = 0; i < SAMPLES; ++i) {
+         double interval = ArrivalDistribution.POISSON.nextInterval(1000, random);
+         assertTrue(interval >= 0, String.valueOf(interval));
+         sum += interval;
+         sumSquares += interval * interval;
+      }
+      double mean = sum / SAMPLES;
+      // exponential distribution has standard deviation equal to the mean
+      double stddev = Math.sqrt(sumSquares / SAMPLES - mean * mean);
+      assertEquals(mean, 1000, 10);
+      assertEquals(stddev, 1000, 20);
+   }
+}
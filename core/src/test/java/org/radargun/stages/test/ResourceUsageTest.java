@@ -0,0 +1,41 @@
+package org.radargun.stages.test;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class ResourceUsageTest {
+   private static volatile Object sink;
+
+   public void testPerOperation() {
+      ResourceUsage usage = new ResourceUsage(1000, 4000, 10, 500).plus(new ResourceUsage(3000, 0, 10, 1000));
+      assertEquals(usage.getCpuTimePerOperation(), 200d);
+      assertEquals(usage.getAllocatedBytesPerOperation(), 200d);
+      assertEquals(usage.getUtilization(2), 2d);
+      assertEquals(usage.duration, 1000);
+   }
+
+   public void testUnknown() {
+      ResourceUsage usage = new ResourceUsage(-1, 100, 10, 100).plus(new ResourceUsage(100, 100, 10, 100));
+      assertTrue(Double.isNaN(usage.getCpuTimePerOperation()));
+      assertTrue(Double.isNaN(usage.getUtilization(1)));
+      assertEquals(usage.getAllocatedBytesPerOperation(), 10d);
+      assertTrue(Double.isNaN(new ResourceUsage(0, 0, 0, 0).getCpuTimePerOperation()));
+   }
+
+   public void testCurrentThread() {
+      long allocatedBytes = ResourceUsage.currentThreadAllocatedBytes();
+      for (int i = 0; i < 100; ++i) {
+         sink = new byte[1000];
+      }
+      long allocatedAfter = ResourceUsage.currentThreadAllocatedBytes();
+      if (allocatedBytes >= 0) {
+         assertTrue(allocatedAfter - allocatedBytes >= 100 * 1000, allocatedBytes + " -> " + allocatedAfter);
+      }
+      assertEquals(ResourceUsage.threadAllocatedBytes(Thread.currentThread().getId()) >= 0, allocatedBytes >= 0);
+      long cpuTime = ResourceUsage.currentThreadCpuTime();
+      assertEquals(ResourceUsage.threadCpuTime(Thread.currentThread().getId()) >= 0, cpuTime >= 0);
+   }
+}
@@ -0,0 +1,84 @@
+package org.radargun.stages.test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.radargun.Operation;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.testng.SkipException;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verifies that non-transactional requests issued through {@link Stressor#makeRequest(Invocation)}
+ * are recorded without allocation.
+ */
+@Test
+public class StressorAllocationTest {
+   private static final int WARMUP = 100_000;
+   private static final int ITERATIONS = 1_000_000;
+
+   @AfterTest
+   public void cleanup() {
+      Operation.clear();
+   }
+
+   public void testMakeRequest() throws Exception {
+      Operation operation = Operation.register("stressorAllocationTestOp");
+      Invocation<Object> invocation = new NoopInvocation(operation);
+      Stressor stressor = new Stressor(new NoopTestStage(), null, 0, 0, new CountDownLatch(1), new AtomicBoolean(true));
+      stressor.startRecording();
+
+      makeRequests(stressor, invocation, WARMUP);
+      long before = ResourceUsage.currentThreadAllocatedBytes();
+      if (before < 0) {
+         throw new SkipException("Thread allocation accounting is not supported");
+      }
+      makeRequests(stressor, invocation, ITERATIONS);
+      long after = ResourceUsage.currentThreadAllocatedBytes();
+
+      double bytesPerOp = (double) (after - before) / ITERATIONS;
+      assertTrue(bytesPerOp < 1, "Allocated " + bytesPerOp + " bytes per operation");
+      assertEquals(stressor.getStats().getRepresentation(operation.name, DefaultOutcome.class).requests, WARMUP + ITERATIONS);
+   }
+
+   private static void makeRequests(Stressor stressor, Invocation<Object> invocation, int count) throws OperationLogic.RequestException {
+      for (int i = 0; i < count; ++i) {
+         stressor.makeRequest(invocation);
+      }
+   }
+
+   private static class NoopInvocation implements Invocation<Object> {
+      private final Operation operation;
+
+      private NoopInvocation(Operation operation) {
+         this.operation = operation;
+      }
+
+      @Override
+      public Object invoke() {
+         return null;
+      }
+
+      @Override
+      public Operation operation() {
+         return operation;
+      }
+
+      @Override
+      public Operation txOperation() {
+         return operation;
+      }
+   }
+
+   private static class NoopTestStage extends TestStage {
+      @Override
+      public OperationLogic createLogic() {
+         // the stressor is driven directly from the test, the logic is never run
+         return null;
+      }
+   }
+}
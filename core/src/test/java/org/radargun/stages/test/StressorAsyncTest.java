@@ -0,0 +1,76 @@
+package org.radargun.stages.test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.radargun.Operation;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Verifies that the stressor does not wait for asynchronous responses longer than the configured timeout.
+ */
+@Test
+public class StressorAsyncTest {
+   @AfterTest
+   public void cleanup() {
+      Operation.clear();
+   }
+
+   public void testPendingResponsesTimeOut() throws Exception {
+      Operation operation = Operation.register("stressorAsyncTestOp");
+      TestStage stage = new NoopTestStage();
+      stage.asyncResponseTimeout = 100;
+      Stressor stressor = new Stressor(stage, null, 0, 0, new CountDownLatch(1), new AtomicBoolean(true));
+      stressor.startRecording();
+
+      CompletableFuture<Object> pending = new CompletableFuture<>();
+      stressor.makeAsyncRequest(new FutureInvocation(operation, pending));
+      stressor.makeAsyncRequest(new FutureInvocation(operation, CompletableFuture.completedFuture(null)));
+      stressor.awaitAsyncResponses();
+
+      DefaultOutcome outcome = stressor.getStats().getRepresentation(operation.name, DefaultOutcome.class);
+      assertEquals(outcome.requests, 2);
+      assertEquals(outcome.errors, 1);
+
+      // late response must not be recorded again
+      pending.complete(null);
+      stressor.awaitAsyncResponses();
+      outcome = stressor.getStats().getRepresentation(operation.name, DefaultOutcome.class);
+      assertEquals(outcome.requests, 2);
+      assertEquals(outcome.errors, 1);
+   }
+
+   private static class FutureInvocation implements AsyncInvocation<Object> {
+      private final Operation operation;
+      private final CompletionStage<Object> future;
+
+      private FutureInvocation(Operation operation, CompletionStage<Object> future) {
+         this.operation = operation;
+         this.future = future;
+      }
+
+      @Override
+      public CompletionStage<Object> invoke() {
+         return future;
+      }
+
+      @Override
+      public Operation operation() {
+         return operation;
+      }
+   }
+
+   private static class NoopTestStage extends TestStage {
+      @Override
+      public OperationLogic createLogic() {
+         // the stressor is driven directly from the test, the logic is never run
+         return null;
+      }
+   }
+}
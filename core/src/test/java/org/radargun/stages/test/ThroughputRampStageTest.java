@@ -0,0 +1,58 @@
+package org.radargun.stages.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class ThroughputRampStageTest {
+
+   public void testStepped() {
+      ThroughputRampStage.Sweep sweep = new ThroughputRampStage.Sweep(ThroughputRampStage.Strategy.STEPPED, 100, 1000, 100);
+      List<Long> loads = run(sweep, 450);
+      assertEquals(loads.toString(), "[100, 200, 300, 400, 500]");
+      assertEquals(sweep.getMaxSustainable(), 400);
+      assertEquals(sweep.getMaxSustainableIteration(), 3);
+   }
+
+   public void testSteppedAllSustainable() {
+      ThroughputRampStage.Sweep sweep = new ThroughputRampStage.Sweep(ThroughputRampStage.Strategy.STEPPED, 100, 350, 100);
+      assertEquals(run(sweep, Long.MAX_VALUE).toString(), "[100, 200, 300, 350]");
+      assertEquals(sweep.getMaxSustainable(), 350);
+   }
+
+   public void testSteppedMaximumMultipleOfStep() {
+      ThroughputRampStage.Sweep sweep = new ThroughputRampStage.Sweep(ThroughputRampStage.Strategy.STEPPED, 100, 300, 100);
+      assertEquals(run(sweep, Long.MAX_VALUE).toString(), "[100, 200, 300]");
+      assertEquals(sweep.getMaxSustainable(), 300);
+   }
+
+   public void testBinarySearch() {
+      ThroughputRampStage.Sweep sweep = new ThroughputRampStage.Sweep(ThroughputRampStage.Strategy.BINARY_SEARCH, 1000, 1000000, 1000);
+      List<Long> loads = run(sweep, 123456);
+      assertEquals((long) loads.get(0), 1000);
+      assertEquals((long) loads.get(1), 1000000);
+      // bisecting ~1M to resolution of 1000 takes about 10 steps
+      assertTrue(loads.size() <= 13, loads.toString());
+      assertTrue(sweep.getMaxSustainable() <= 123456 && sweep.getMaxSustainable() > 123456 - 1000, loads.toString());
+   }
+
+   public void testBinarySearchNoneSustainable() {
+      ThroughputRampStage.Sweep sweep = new ThroughputRampStage.Sweep(ThroughputRampStage.Strategy.BINARY_SEARCH, 1000, 1000000, 1000);
+      assertEquals(run(sweep, 10).toString(), "[1000]");
+      assertEquals(sweep.getMaxSustainable(), -1);
+   }
+
+   private static List<Long> run(ThroughputRampStage.Sweep sweep, long capacity) {
+      List<Long> loads = new ArrayList<>();
+      while (!sweep.isFinished()) {
+         loads.add(sweep.getLoad());
+         sweep.record(sweep.getLoad() <= capacity, loads.size() - 1);
+      }
+      return loads;
+   }
+}
@@ -0,0 +1,113 @@
+package org.radargun.stages.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.radargun.Operation;
+import org.radargun.stats.Statistics;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class MethodTracerTest {
+
+   @AfterMethod
+   public void reset() {
+      MethodTracer.reset();
+   }
+
+   @AfterTest
+   public void cleanup() {
+      Operation.clear();
+   }
+
+   public void testInterceptorRecords() throws Exception {
+      Operation operation = MethodTracer.register("call[]::Test");
+      RecordingInterceptor interceptor = new RecordingInterceptor(operation);
+      assertEquals(interceptor.intercept(() -> "value"), "value");
+      try {
+         interceptor.intercept(() -> {
+            throw new IllegalStateException();
+         });
+      } catch (IllegalStateException e) {
+         // expected
+      }
+      DefaultOutcome outcome = MethodTracer.snapshot().getRepresentation(operation.name, DefaultOutcome.class);
+      assertEquals(outcome.requests, 2);
+      assertEquals(outcome.errors, 1);
+   }
+
+   public void testConcurrentRecordingAndSnapshots() throws Exception {
+      Operation operation = MethodTracer.register("concurrent[]::Test");
+      int numThreads = 4, callsPerThread = 100000;
+      AtomicBoolean snapshotting = new AtomicBoolean(true);
+      List<Thread> threads = new ArrayList<>();
+      for (int i = 0; i < numThreads; ++i) {
+         Thread thread = new Thread(() -> {
+            for (int j = 0; j < callsPerThread; ++j) {
+               MethodTracer.record(operation, j, j + 1000, true);
+            }
+         });
+         thread.start();
+         threads.add(thread);
+      }
+      Thread snapshotThread = new Thread(() -> {
+         while (snapshotting.get()) {
+            MethodTracer.snapshot();
+         }
+      });
+      snapshotThread.start();
+      for (Thread thread : threads) {
+         thread.join();
+      }
+      snapshotting.set(false);
+      snapshotThread.join();
+      Statistics statistics = MethodTracer.snapshot();
+      DefaultOutcome outcome = statistics.getRepresentation(operation.name, DefaultOutcome.class);
+      assertEquals(outcome.requests, (long) numThreads * callsPerThread);
+      assertEquals(outcome.responseTimeMax, 1000);
+      assertTrue(statistics.getOperations().contains(operation.name));
+
+      MethodTracer.reset();
+      outcome = MethodTracer.snapshot().getRepresentation(operation.name, DefaultOutcome.class);
+      assertTrue(outcome == null || outcome.requests == 0);
+   }
+
+   public void testSnapshotAndReset() throws Exception {
+      Operation operation = MethodTracer.register("snapshotAndReset[]::Test");
+      int callsPerThread = 100000;
+      int numRecorders = MethodTracer.numRecorders();
+      Thread thread = new Thread(() -> {
+         for (int j = 0; j < callsPerThread; ++j) {
+            MethodTracer.record(operation, j, j + 1000, true);
+         }
+      });
+      thread.start();
+      long requests = 0;
+      while (thread.isAlive()) {
+         requests += requests(MethodTracer.snapshotAndReset(), operation);
+      }
+      thread.join();
+      requests += requests(MethodTracer.snapshotAndReset(), operation);
+      // no call is lost between the snapshots
+      assertEquals(requests, callsPerThread);
+      // the recorder of terminated thread has been removed
+      assertEquals(MethodTracer.numRecorders(), numRecorders);
+   }
+
+   public void testEmptySnapshot() {
+      DefaultOutcome outcome = MethodTracer.snapshot().getRepresentation("Trace unknown", DefaultOutcome.class);
+      assertTrue(outcome == null || outcome.requests == 0);
+   }
+
+   private static long requests(Statistics statistics, Operation operation) {
+      DefaultOutcome outcome = statistics.getRepresentation(operation.name, DefaultOutcome.class);
+      return outcome == null ? 0 : outcome.requests;
+   }
+}
@@ -0,0 +1,88 @@
+package org.radargun.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.radargun.Operation;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.radargun.stats.representation.OperationThroughput;
+import org.radargun.utils.TimeService;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(sequential = true)
+public class ConcurrentStatisticsTest {
+   private static final int THREADS = 8;
+   private static final int REQUESTS_PER_THREAD = 100000;
+
+   @AfterTest
+   public void cleanup() {
+      Operation.clear();
+   }
+
+   public void testSnapshotsWhileRecording() throws InterruptedException {
+      Operation operation = Operation.register("ConcurrentStatisticsTest.Op");
+      ConcurrentStatistics statistics = new ConcurrentStatistics(new BasicStatistics(new BasicOperationStats()));
+      statistics.begin();
+
+      AtomicBoolean failed = new AtomicBoolean();
+      List<Thread> threads = new ArrayList<>();
+      for (int i = 0; i < THREADS; ++i) {
+         Thread thread = new Thread(() -> {
+            try {
+               for (int j = 0; j < REQUESTS_PER_THREAD; ++j) {
+                  long start = TimeService.nanoTime();
+                  statistics.record(start, start + 1000, true, operation);
+               }
+            } catch (Throwable t) {
+               failed.set(true);
+               throw t;
+            }
+         });
+         threads.add(thread);
+         thread.start();
+      }
+
+      // reset snapshots take the requests out, the rest is in the final snapshot
+      long requests = 0;
+      while (threads.stream().anyMatch(Thread::isAlive)) {
+         requests += requests(statistics.snapshot(true), operation);
+         long total = requests + requests(statistics.snapshot(false), operation);
+         assertTrue(total <= THREADS * REQUESTS_PER_THREAD, String.valueOf(total));
+      }
+      for (Thread thread : threads) {
+         thread.join();
+      }
+      statistics.end();
+      assertEquals(failed.get(), false);
+      requests += requests(statistics.snapshot(false), operation);
+      assertEquals(requests, THREADS * REQUESTS_PER_THREAD);
+   }
+
+   public void testPeriodic() {
+      Operation operation = Operation.register("ConcurrentStatisticsTest.Periodic");
+      ConcurrentStatistics statistics = new ConcurrentStatistics(new PeriodicStatistics(new BasicStatistics(new BasicOperationStats()), 1000));
+      statistics.begin();
+      long start = TimeService.nanoTime();
+      statistics.record(start, start + 1000, true, operation);
+      // the snapshot must not disturb placing requests into periods
+      statistics.snapshot(false);
+      statistics.record(start + TimeUnit.SECONDS.toNanos(1), start + TimeUnit.SECONDS.toNanos(1) + 1000, true, operation);
+      statistics.record(start + TimeUnit.SECONDS.toNanos(2), start + TimeUnit.SECONDS.toNanos(2) + 1000, false, operation);
+
+      Statistics snapshot = statistics.snapshot(false);
+      assertTrue(snapshot instanceof PeriodicStatistics);
+      OperationThroughput.Series series = snapshot.getRepresentation(operation.name, OperationThroughput.Series.class);
+      assertEquals(series.samples.length, 3);
+   }
+
+   private static long requests(Statistics statistics, Operation operation) {
+      DefaultOutcome outcome = statistics.getRepresentation(operation.name, DefaultOutcome.class);
+      return outcome == null ? 0 : outcome.requests;
+   }
+}
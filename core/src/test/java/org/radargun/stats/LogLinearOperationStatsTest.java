@@ -0,0 +1,97 @@
+package org.radargun.stats;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.radargun.SerializationHelper;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.radargun.stats.representation.Histogram;
+import org.radargun.stats.representation.MeanAndDev;
+import org.radargun.stats.representation.Percentile;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class LogLinearOperationStatsTest {
+   private static final int SAMPLES = 100000;
+
+   public void testPercentiles() {
+      long[] values = new long[SAMPLES];
+      LogLinearOperationStats stats = record(new Random(1), values, 0, SAMPLES);
+      Arrays.sort(values);
+      for (double percentile : new double[] {0, 1, 50, 90, 99, 99.9, 99.99, 100}) {
+         long expected = values[Math.max(0, (int) Math.ceil(percentile / 100 * SAMPLES) - 1)];
+         double actual = stats.getRepresentation(Percentile.class, null, percentile).responseTimeMax;
+         // the reported value is the upper bound of the bucket
+         assertTrue(actual >= expected && actual <= expected * (1 + 1d / 128) + 1,
+            "percentile " + percentile + ": expected " + expected + ", actual " + actual);
+      }
+      DefaultOutcome outcome = stats.getRepresentation(DefaultOutcome.class, null);
+      assertEquals(outcome.requests, SAMPLES);
+      assertEquals(outcome.responseTimeMax, values[SAMPLES - 1]);
+      assertEquals(outcome.responseTimeMean, Arrays.stream(values).average().getAsDouble(), 1);
+   }
+
+   public void testMerge() {
+      long[] values = new long[SAMPLES];
+      LogLinearOperationStats all = record(new Random(2), values, 0, SAMPLES);
+      LogLinearOperationStats first = new LogLinearOperationStats();
+      LogLinearOperationStats second = new LogLinearOperationStats();
+      for (int i = 0; i < SAMPLES; ++i) {
+         (i % 3 == 0 ? first : second).record(values[i]);
+      }
+      first.merge(second);
+      first.merge(new LogLinearOperationStats());
+      assertSame(first, all);
+      MeanAndDev expected = all.getRepresentation(MeanAndDev.class, null);
+      MeanAndDev merged = first.getRepresentation(MeanAndDev.class, null);
+      assertEquals(merged.mean, expected.mean, 0.001);
+      assertEquals(merged.dev, expected.dev, 0.001);
+   }
+
+   public void testHistogram() {
+      LogLinearOperationStats stats = record(new Random(3), new long[SAMPLES], 0, SAMPLES);
+      Histogram full = stats.getRepresentation(Histogram.class, null);
+      assertEquals(full.ranges.length, full.counts.length + 1);
+      assertEquals(Arrays.stream(full.counts).sum(), SAMPLES);
+      Histogram reformatted = stats.getRepresentation(Histogram.class, null, 20, 99d);
+      assertEquals(reformatted.ranges.length, reformatted.counts.length + 1);
+      assertTrue(reformatted.counts.length <= 21, String.valueOf(reformatted.counts.length));
+      for (int i = 1; i < reformatted.ranges.length; ++i) {
+         assertTrue(reformatted.ranges[i - 1] <= reformatted.ranges[i], Arrays.toString(reformatted.ranges));
+      }
+      long counted = Arrays.stream(reformatted.counts).sum();
+      assertTrue(counted >= SAMPLES * 99 / 100 && counted <= SAMPLES, String.valueOf(counted));
+   }
+
+   public void testSerialization() throws IOException {
+      LogLinearOperationStats stats = record(new Random(4), new long[SAMPLES], 0, SAMPLES);
+      stats.record(0, 1000, false);
+      ByteBuffer buffer = SerializationHelper.serializeObjectWithLength(stats, ByteBuffer.allocate(1024));
+      LogLinearOperationStats deserialized = (LogLinearOperationStats) SerializationHelper.deserialize(buffer.array(), 4, buffer.getInt(0));
+      assertSame(deserialized, stats);
+      assertEquals(deserialized.getRepresentation(DefaultOutcome.class, null).errors, 1);
+   }
+
+   private static LogLinearOperationStats record(Random random, long[] values, int from, int to) {
+      LogLinearOperationStats stats = new LogLinearOperationStats();
+      for (int i = from; i < to; ++i) {
+         // log-normal distribution spanning several orders of magnitude
+         values[i] = (long) Math.exp(random.nextGaussian() * 2 + 12);
+         stats.record(values[i]);
+      }
+      return stats;
+   }
+
+   private static void assertSame(LogLinearOperationStats actual, LogLinearOperationStats expected) {
+      assertEquals(actual.getRepresentation(DefaultOutcome.class, null).requests, expected.getRepresentation(DefaultOutcome.class, null).requests);
+      assertEquals(actual.getRepresentation(DefaultOutcome.class, null).responseTimeMax, expected.getRepresentation(DefaultOutcome.class, null).responseTimeMax);
+      for (double percentile = 0; percentile <= 100; percentile += 0.5) {
+         assertEquals(actual.getValueAtPercentile(percentile), expected.getValueAtPercentile(percentile), "percentile " + percentile);
+      }
+   }
+}
@@ -0,0 +1,74 @@
+package org.radargun.stats;
+
+import java.lang.management.ManagementFactory;
+
+import org.radargun.Operation;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.testng.SkipException;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verifies that recording requests through primitive timestamps does not allocate.
+ */
+@Test
+public class RecordingAllocationTest {
+   private static final int WARMUP = 100_000;
+   private static final int ITERATIONS = 1_000_000;
+
+   @AfterTest
+   public void cleanup() {
+      Operation.clear();
+   }
+
+   public void testBasicStatistics() {
+      Operation operation = Operation.register("allocationTestOp");
+      BasicStatistics statistics = new BasicStatistics(new BasicOperationStats());
+      statistics.begin();
+
+      double bytesPerOp = measureAllocation(statistics, operation);
+      assertEquals(statistics.getRepresentation(operation.name, DefaultOutcome.class).requests, WARMUP + ITERATIONS);
+      assertTrue(bytesPerOp < 1, "Allocated " + bytesPerOp + " bytes per operation");
+   }
+
+   public void testMultiOperationStats() {
+      Operation operation = Operation.register("allocationTestMultiOp");
+      BasicStatistics statistics = new BasicStatistics(new MultiOperationStats(new BasicOperationStats(), new BasicOperationStats()));
+      statistics.begin();
+
+      double bytesPerOp = measureAllocation(statistics, operation);
+      assertTrue(bytesPerOp < 1, "Allocated " + bytesPerOp + " bytes per operation");
+   }
+
+   private static double measureAllocation(Statistics statistics, Operation operation) {
+      com.sun.management.ThreadMXBean threadMXBean = getThreadMXBean();
+      long threadId = Thread.currentThread().getId();
+      record(statistics, operation, WARMUP);
+      long before = threadMXBean.getThreadAllocatedBytes(threadId);
+      record(statistics, operation, ITERATIONS);
+      long after = threadMXBean.getThreadAllocatedBytes(threadId);
+      return (double) (after - before) / ITERATIONS;
+   }
+
+   private static void record(Statistics statistics, Operation operation, int count) {
+      for (int i = 0; i < count; ++i) {
+         long start = System.nanoTime();
+         statistics.record(start, start + (i & 1023), (i & 63) != 0, operation);
+      }
+   }
+
+   private static com.sun.management.ThreadMXBean getThreadMXBean() {
+      java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+         throw new SkipException("Thread allocation accounting is not supported");
+      }
+      com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+      if (!sunThreadMXBean.isThreadAllocatedMemorySupported() || !sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+         throw new SkipException("Thread allocation accounting is not supported");
+      }
+      return sunThreadMXBean;
+   }
+}
@@ -0,0 +1,72 @@
+package org.radargun.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.radargun.Operation;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+@Test
+public class StatsUtilsTest {
+
+   @AfterTest
+   public void cleanup() {
+      Operation.clear();
+   }
+
+   public void testMergeHierarchically() {
+      Operation operation = Operation.register("StatsUtilsTest.Op");
+      List<Statistics> statistics = new ArrayList<>();
+      for (int i = 0; i < 21; ++i) {
+         statistics.add(i % 5 == 0 ? null : statistics(operation, i));
+      }
+      Statistics merged = StatsUtils.mergeHierarchically(statistics, 3);
+      DefaultOutcome outcome = merged.getRepresentation(operation.name, DefaultOutcome.class);
+      assertEquals(outcome.requests, 16 * 2);
+      assertEquals(outcome.responseTimeMax, 19 * 1000);
+      assertEquals(merged.getBegin(), 1);
+      assertEquals(merged.getEnd(), 1019);
+      // the statistics passed in are not modified
+      for (int i = 0; i < statistics.size(); ++i) {
+         if (statistics.get(i) != null) {
+            assertEquals(statistics.get(i).getRepresentation(operation.name, DefaultOutcome.class).requests, 2);
+         }
+      }
+   }
+
+   public void testMergeInPlace() {
+      Operation operation = Operation.register("StatsUtilsTest.InPlaceOp");
+      Statistics first = statistics(operation, 1);
+      Statistics second = statistics(operation, 2);
+      Statistics merged = StatsUtils.merge(Arrays.asList(null, first, second));
+      assertSame(merged, first);
+      assertEquals(merged.getRepresentation(operation.name, DefaultOutcome.class).requests, 4);
+      assertEquals(second.getRepresentation(operation.name, DefaultOutcome.class).requests, 2);
+   }
+
+   public void testMergeEmpty() {
+      assertNull(StatsUtils.merge(Arrays.asList(null, null)));
+      assertNull(StatsUtils.mergeHierarchically(new ArrayList<>(), 2));
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testInvalidFanIn() {
+      StatsUtils.mergeHierarchically(new ArrayList<>(), 1);
+   }
+
+   private static Statistics statistics(Operation operation, int index) {
+      BasicStatistics statistics = new BasicStatistics(new BasicOperationStats());
+      statistics.setBegin(index);
+      statistics.record(0, 1000, true, operation);
+      statistics.record(0, index * 1000, true, operation);
+      statistics.setEnd(1000 + index);
+      return statistics;
+   }
+}
@@ -0,0 +1,122 @@
+package org.radargun.stats;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.radargun.Operation;
+import org.radargun.SerializationHelper;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.radargun.stats.representation.MeanAndDev;
+import org.radargun.stats.representation.OperationThroughput;
+import org.radargun.stats.representation.Percentile;
+import org.radargun.utils.TimeService;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+@Test
+public class TimeSeriesStatisticsTest {
+   private static final long PERIOD = 100;
+   private static final int CAPACITY = 8;
+   private static final double[] PERCENTILES = {50d, 99d};
+
+   @AfterTest
+   public void cleanup() {
+      Operation.clear();
+   }
+
+   public void testRollUp() {
+      Operation operation = Operation.register("TimeSeriesStatisticsTest.RollUp");
+      TimeSeriesStatistics statistics = newStatistics();
+      statistics.begin();
+      long begin = TimeService.nanoTime();
+      // 20 intervals with i + 1 requests of i milliseconds
+      for (int i = 0; i < 20; ++i) {
+         for (int j = 0; j <= i; ++j) {
+            long start = begin + TimeUnit.MILLISECONDS.toNanos(i * PERIOD + PERIOD / 2);
+            statistics.record(start, start + TimeUnit.MILLISECONDS.toNanos(i), true, operation);
+         }
+      }
+      statistics.end();
+
+      DefaultOutcome.Series series = statistics.getRepresentation(operation.name, DefaultOutcome.Series.class);
+      // 20 intervals do not fit into 8 or 16 slots of 100 and 200 ms
+      assertEquals(series.period, 4 * PERIOD);
+      assertEquals(series.samples.length, 5);
+      for (int i = 0; i < 5; ++i) {
+         assertEquals(series.samples[i].requests, 16 * i + 10);
+         assertEquals(series.samples[i].responseTimeMax, TimeUnit.MILLISECONDS.toNanos(4 * i + 3));
+      }
+      Percentile.Series percentiles = statistics.getRepresentation(operation.name, Percentile.Series.class, 99d);
+      assertEquals(percentiles.samples.length, 5);
+      assertEquals(percentiles.samples[4].responseTimeMax, TimeUnit.MILLISECONDS.toNanos(19), TimeUnit.MILLISECONDS.toNanos(19) / 100d);
+      assertNull(statistics.getRepresentation(operation.name, Percentile.Series.class, 90d));
+
+      DefaultOutcome total = statistics.getRepresentation(operation.name, DefaultOutcome.class);
+      assertEquals(total.requests, 210);
+      // sum of i * (i + 1) / 210
+      assertEquals(total.responseTimeMean, TimeUnit.MILLISECONDS.toNanos(2660) / 210d, 1);
+      OperationThroughput.Series throughput = statistics.getRepresentation(operation.name, OperationThroughput.Series.class);
+      assertEquals(throughput.samples[0].gross, 10 * 1000d / (4 * PERIOD), 0.001);
+   }
+
+   public void testMerge() {
+      Operation operation = Operation.register("TimeSeriesStatisticsTest.Merge");
+      TimeSeriesStatistics first = newStatistics();
+      TimeSeriesStatistics second = newStatistics();
+      first.begin();
+      second.begin();
+      long begin = TimeService.nanoTime();
+      // the second one records longer, therefore it has coarser intervals
+      record(first, operation, begin, 4, 1000);
+      record(second, operation, begin, 12, 2000);
+      // the second one started a bit later
+      second.setBegin(first.getBegin() + PERIOD / 10);
+      first.end();
+      second.end();
+
+      Statistics merged = Statistics.MERGE.apply(first, second);
+      DefaultOutcome.Series series = merged.getRepresentation(operation.name, DefaultOutcome.Series.class);
+      assertEquals(series.period, 2 * PERIOD);
+      assertEquals(series.samples.length, 6);
+      assertEquals(series.samples[0].requests, 4);
+      assertEquals(series.samples[1].requests, 4);
+      assertEquals(series.samples[2].requests, 2);
+      assertEquals(series.samples[5].requests, 2);
+      MeanAndDev meanAndDev = merged.getRepresentation(operation.name, MeanAndDev.class);
+      assertEquals(meanAndDev.mean, 1750, 0.001);
+      assertEquals(meanAndDev.dev, Math.sqrt(4 * 750 * 750 + 12 * 250 * 250) / Math.sqrt(15), 0.001);
+      // the original statistics are not modified
+      assertEquals(first.getRepresentation(operation.name, DefaultOutcome.Series.class).samples.length, 4);
+   }
+
+   public void testSerialization() throws IOException {
+      Operation operation = Operation.register("TimeSeriesStatisticsTest.Serialization");
+      TimeSeriesStatistics statistics = newStatistics();
+      statistics.begin();
+      record(statistics, operation, TimeService.nanoTime(), 3, 1000);
+      statistics.end();
+      ByteBuffer buffer = SerializationHelper.serializeObjectWithLength(statistics, ByteBuffer.allocate(1024));
+      Statistics deserialized = (Statistics) SerializationHelper.deserialize(buffer.array(), 4, buffer.getInt(0));
+      // the last interval is still in progress
+      DefaultOutcome.Series series = deserialized.getRepresentation(operation.name, DefaultOutcome.Series.class);
+      assertEquals(series.samples.length, 3);
+      assertEquals(series.samples[2].requests, 1);
+      deserialized.record(TimeService.nanoTime(), TimeService.nanoTime(), false, operation);
+      assertEquals(deserialized.getRepresentation(operation.name, DefaultOutcome.class).errors, 1);
+   }
+
+   private static TimeSeriesStatistics newStatistics() {
+      return new TimeSeriesStatistics(PERIOD, CAPACITY, PERCENTILES, new LogLinearOperationStats());
+   }
+
+   private static void record(Statistics statistics, Operation operation, long begin, int intervals, long responseTime) {
+      for (int i = 0; i < intervals; ++i) {
+         long start = begin + TimeUnit.MILLISECONDS.toNanos(i * PERIOD + PERIOD / 2);
+         statistics.record(start, start + responseTime, true, operation);
+      }
+   }
+}
@@ -0,0 +1,44 @@
+package org.radargun.sysmonitor;
+
+import java.util.List;
+
+import org.radargun.reporting.Timeline;
+import org.radargun.utils.Utils;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+@Test(timeOut = 60000)
+public class JfrEventMonitorTest {
+   private static volatile Object sink;
+
+   public void testEventsInTimeline() {
+      Timeline timeline = new Timeline(0);
+      JfrEventMonitor monitor = new JfrEventMonitor(timeline, 100, 0, 0);
+      monitor.start();
+      for (int i = 0; i < 10000; ++i) {
+         sink = new byte[10000];
+      }
+      System.gc();
+      Utils.sleep(300);
+      monitor.run();
+      System.gc();
+      monitor.stop();
+
+      List<Timeline.Value> pauses = timeline.getValues(Timeline.Category.sysCategory(JfrEventMonitor.GC_PAUSE));
+      assertNotNull(pauses);
+      assertTrue(pauses.stream().anyMatch(v -> v.value.doubleValue() > 0));
+      for (int i = 1; i < pauses.size(); ++i) {
+         // buckets are reported only once, in order
+         assertEquals(pauses.get(i).timestamp - pauses.get(i - 1).timestamp, 100);
+      }
+      List<Timeline.Value> allocation = timeline.getValues(Timeline.Category.sysCategory(JfrEventMonitor.ALLOCATION_RATE));
+      assertTrue(allocation.stream().anyMatch(v -> v.value.doubleValue() > 0));
+      List<Timeline.MarkerEvent> gcEvents = timeline.getEvents(JfrEventMonitor.GC_PAUSE_EVENTS);
+      assertNotNull(gcEvents);
+      assertFalse(gcEvents.isEmpty());
+   }
+}
@@ -0,0 +1,43 @@
+package org.radargun.sysmonitor;
+
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class JmxConnectionTest {
+
+   public void testSharedBatch() throws Exception {
+      JmxConnection first = JmxConnection.acquire(null);
+      JmxConnection second = JmxConnection.acquire(null);
+      try {
+         assertSame(first, second);
+         first.register(JmxMonitor.RUNTIME_NAME, JmxMonitor.PROCESS_UP_TIME);
+         second.register(JmxMonitor.OS_NAME, JmxMonitor.AVAILABLE_PROCESSORS_ATTR, "NonExistentAttribute");
+
+         Map<String, Object> runtime = first.getAttributes(JmxMonitor.RUNTIME_NAME, 1000);
+         Map<String, Object> os = second.getAttributes(JmxMonitor.OS_NAME, 1000);
+         assertNotNull(runtime.get(JmxMonitor.PROCESS_UP_TIME));
+         assertEquals(((Number) os.get(JmxMonitor.AVAILABLE_PROCESSORS_ATTR)).intValue(), Runtime.getRuntime().availableProcessors());
+         assertFalse(os.containsKey("NonExistentAttribute"));
+         // values are read once per tick
+         assertSame(first.getAttributes(JmxMonitor.RUNTIME_NAME, 1000), runtime);
+         assertTrue(first.getAttributes(JmxMonitor.RUNTIME_NAME, 2000) != runtime);
+      } finally {
+         second.release();
+         first.release();
+      }
+      JmxConnection third = JmxConnection.acquire(null);
+      try {
+         assertTrue(third != first);
+      } finally {
+         third.release();
+      }
+   }
+}
@@ -14,6 +14,7 @@ import org.radargun.reporting.Timeline;
 import org.radargun.state.ServiceListener;
 import org.radargun.state.WorkerState;
 import org.radargun.stats.Statistics;
+import org.radargun.stats.StatsUtils;
 import org.radargun.stats.representation.OperationThroughput;
 import org.radargun.utils.TimeService;
 import org.radargun.utils.Utils;
@@ -150,12 +151,15 @@ public final class BackgroundStatisticsManager implements ServiceListener {
                }
             }
          } else {
-            Statistics aggregated = stats.stream().reduce(Statistics.MERGE)
-                  .orElseThrow(() -> new IllegalStateException("No statistics!"));
+            // the snapshots are kept in the iteration, these must not be modified
+            Statistics aggregated = StatsUtils.mergeHierarchically(stats, StatsUtils.DEFAULT_MERGE_FAN_IN);
+            if (aggregated == null) {
+               throw new IllegalStateException("No statistics!");
+            }
             for (String operation : aggregated.getOperations()) {
                OperationThroughput throughput = aggregated.getRepresentation(operation, OperationThroughput.class);
                Timeline.Category category = Timeline.Category.customCategory(operation + " Throughput");
-               if (throughput != null && (throughput.gross != 0 || timeline.getValues(category) != null)) {
+               if (throughput != null && (throughput.gross != 0 || timeline.getValueCategories().contains(category))) {
                   timeline.addValue(category, new Timeline.Value(now, throughput.gross));
                }
             }
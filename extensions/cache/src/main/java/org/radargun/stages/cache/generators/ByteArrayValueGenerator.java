@@ -1,16 +1,60 @@
 package org.radargun.stages.cache.generators;
 
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.radargun.config.DefinitionElement;
+import org.radargun.config.Init;
+import org.radargun.config.Property;
+import org.radargun.utils.SizeConverter;
 
 /**
+ * By default generates new random array for each value. With {@link #poolSize} or {@link #regionSize}
+ * the content is pre-generated and selected by the key: the cost of generating the value does not depend
+ * on its size and the content of the value can be verified on any worker.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 @DefinitionElement(name = "byte-array", doc = "Generates random byte arrays.")
 public class ByteArrayValueGenerator implements ValueGenerator {
+   @Property(doc = "Number of pre-generated arrays for each value size. The value for given key is one of these shared " +
+      "instances; neither memory allocation nor random generation is needed (when the value size changes, looking up " +
+      "the pool may box the size). Default is 0 - the pool is not used.")
+   protected int poolSize = 0;
+
+   @Property(doc = "Size of pre-generated random region. The value for given key is a copy of region slice; this requires " +
+      "allocation and copying but not random generation. The region must be larger than any value. " +
+      "Ignored when pool-size is set. Default is 0 - the region is not used.", converter = SizeConverter.class)
+   protected long regionSize = 0;
+
+   @Property(doc = "Seed for the pre-generated content; all workers generate the same content. Default is 0.")
+   protected long seed = 0;
+
+   // value size -> arrays of this size
+   private final ConcurrentHashMap<Integer, byte[][]> pools = new ConcurrentHashMap<>();
+   // pool of the last requested size; with fixed value size the lookup does not box the size
+   private volatile byte[][] lastPool;
+   private volatile byte[] region;
+
+   @Init
+   public void init() {
+      if (poolSize < 0) {
+         throw new IllegalArgumentException("Pool size must not be negative: " + poolSize);
+      }
+      if (regionSize < 0 || regionSize > Integer.MAX_VALUE - 8) {
+         throw new IllegalArgumentException("Region size must be between 0 and 2 GB: " + regionSize);
+      }
+   }
+
    @Override
    public Object generateValue(Object key, int size, Random random) {
+      if (poolSize > 0) {
+         return pool(size)[poolIndex(key)];
+      } else if (regionSize > 0) {
+         int offset = regionOffset(key, size);
+         return Arrays.copyOfRange(region(), offset, offset + size);
+      }
       return generateArray(size, random);
    }
 
@@ -21,7 +65,20 @@ public class ByteArrayValueGenerator implements ValueGenerator {
 
    @Override
    public boolean checkValue(Object value, Object key, int expectedSize) {
-      return value instanceof byte[] && (expectedSize <= 0 || ((byte[]) value).length == expectedSize);
+      if (!(value instanceof byte[])) {
+         return false;
+      }
+      byte[] array = (byte[]) value;
+      if (expectedSize > 0 && array.length != expectedSize) {
+         return false;
+      }
+      if (poolSize > 0) {
+         return Arrays.equals(array, pool(array.length)[poolIndex(key)]);
+      } else if (regionSize > 0) {
+         int offset = regionOffset(key, array.length);
+         return Arrays.equals(array, 0, array.length, region(), offset, offset + array.length);
+      }
+      return true;
    }
 
    public static byte[] generateArray(int size, Random random) {
@@ -29,4 +86,55 @@ public class ByteArrayValueGenerator implements ValueGenerator {
       random.nextBytes(array);
       return array;
    }
+
+   private byte[][] pool(int size) {
+      byte[][] pool = lastPool;
+      // all arrays in the pool have the same size and the pool is never empty
+      if (pool != null && pool[0].length == size) {
+         return pool;
+      }
+      pool = pools.computeIfAbsent(size, s -> {
+         Random random = new Random(seed + 31 * s);
+         byte[][] arrays = new byte[poolSize][];
+         for (int i = 0; i < poolSize; ++i) {
+            arrays[i] = generateArray(s, random);
+         }
+         return arrays;
+      });
+      lastPool = pool;
+      return pool;
+   }
+
+   private byte[] region() {
+      byte[] region = this.region;
+      if (region == null) {
+         synchronized (this) {
+            region = this.region;
+            if (region == null) {
+               this.region = region = generateArray((int) regionSize, new Random(seed));
+            }
+         }
+      }
+      return region;
+   }
+
+   private int poolIndex(Object key) {
+      return Math.floorMod(keyHash(key), poolSize);
+   }
+
+   private int regionOffset(Object key, int size) {
+      if (size > regionSize) {
+         throw new IllegalArgumentException("Value size " + size + " exceeds region size " + regionSize);
+      }
+      return (int) Math.floorMod((long) keyHash(key), regionSize - size + 1);
+   }
+
+   /**
+    * Hash code of byte array keys is identity-based, content is used instead to get the same hash on all workers.
+    */
+   private static int keyHash(Object key) {
+      int hash = key instanceof byte[] ? Arrays.hashCode((byte[]) key) : key.hashCode();
+      hash *= 0x9E3779B9;
+      return hash ^ (hash >>> 16);
+   }
 }
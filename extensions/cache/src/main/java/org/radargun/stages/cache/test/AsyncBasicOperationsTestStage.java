@@ -0,0 +1,79 @@
+package org.radargun.stages.cache.test;
+
+import java.util.Random;
+
+import org.radargun.Operation;
+import org.radargun.config.Namespace;
+import org.radargun.config.PropertyDelegate;
+import org.radargun.config.Stage;
+import org.radargun.stages.test.AsyncInvocation;
+import org.radargun.stages.test.OperationLogic;
+import org.radargun.stages.test.OperationSelector;
+import org.radargun.stages.test.Stressor;
+import org.radargun.stages.test.TestStage;
+import org.radargun.traits.AsyncBasicOperations;
+import org.radargun.traits.InjectTrait;
+
+/**
+ * Issues {@link AsyncBasicOperations} without waiting for the responses; each stressor
+ * keeps up to {@link #maxInFlightRequests} requests in flight and the recorded duration
+ * is the time until the returned stage completes.
+ */
+@Namespace(name = TestStage.NAMESPACE, deprecatedName = TestStage.DEPRECATED_NAMESPACE)
+@Stage(doc = "Test using AsyncBasicOperations, measuring latency until the completion of each request.")
+public class AsyncBasicOperationsTestStage extends CacheOperationsTestStage {
+   @PropertyDelegate
+   protected BasicOperationsRatios ratios = new BasicOperationsRatios();
+
+   @InjectTrait(dependency = InjectTrait.Dependency.MANDATORY)
+   protected AsyncBasicOperations asyncBasicOperations;
+
+   @Override
+   protected OperationSelector createOperationSelector() {
+      return ratios.createSelector(AsyncBasicOperations.GET, AsyncBasicOperations.CONTAINS_KEY, AsyncBasicOperations.PUT,
+         AsyncBasicOperations.GET_AND_PUT, AsyncBasicOperations.REMOVE, AsyncBasicOperations.GET_AND_REMOVE);
+   }
+
+   @Override
+   public OperationLogic createLogic() {
+      return new Logic();
+   }
+
+   protected class Logic extends OperationLogic {
+      protected AsyncBasicOperations.Cache cache;
+      protected KeySelector keySelector;
+
+      @Override
+      public void init(Stressor stressor) {
+         super.init(stressor);
+         String cacheName = cacheSelector.getCacheName(stressor.getGlobalThreadIndex());
+         if (useTransactions(cacheName)) {
+            throw new IllegalStateException("Asynchronous operations cannot be executed in transactions; set use-transactions to NEVER");
+         }
+         this.cache = asyncBasicOperations.getCache(cacheName);
+         this.keySelector = getKeySelector(stressor);
+      }
+
+      @Override
+      public void run(Operation operation) throws RequestException {
+         Object key = keyGenerator.generateKey(keySelector.next());
+         Random random = stressor.getRandom();
+
+         AsyncInvocation invocation;
+         if (operation == AsyncBasicOperations.GET) {
+            invocation = new AsyncCacheInvocations.Get(cache, key);
+         } else if (operation == AsyncBasicOperations.PUT) {
+            invocation = new AsyncCacheInvocations.Put(cache, key, valueGenerator.generateValue(key, entrySize.next(random), random));
+         } else if (operation == AsyncBasicOperations.REMOVE) {
+            invocation = new AsyncCacheInvocations.Remove(cache, key);
+         } else if (operation == AsyncBasicOperations.CONTAINS_KEY) {
+            invocation = new AsyncCacheInvocations.ContainsKey(cache, key);
+         } else if (operation == AsyncBasicOperations.GET_AND_PUT) {
+            invocation = new AsyncCacheInvocations.GetAndPut(cache, key, valueGenerator.generateValue(key, entrySize.next(random), random));
+         } else if (operation == AsyncBasicOperations.GET_AND_REMOVE) {
+            invocation = new AsyncCacheInvocations.GetAndRemove(cache, key);
+         } else throw new IllegalArgumentException(operation.name);
+         stressor.makeAsyncRequest(invocation);
+      }
+   }
+}
@@ -0,0 +1,143 @@
+package org.radargun.stages.cache.test;
+
+import java.util.concurrent.CompletionStage;
+
+import org.radargun.Operation;
+import org.radargun.stages.test.AsyncInvocation;
+import org.radargun.traits.AsyncBasicOperations;
+
+/**
+ * Provides {@link org.radargun.stages.test.AsyncInvocation} implementations for
+ * operations from trait {@link org.radargun.traits.AsyncBasicOperations}.
+ */
+public class AsyncCacheInvocations {
+   public static final class Get<K, V> implements AsyncInvocation<V> {
+      public static final Operation GET_NULL = AsyncBasicOperations.GET.derive("Null");
+      private final AsyncBasicOperations.Cache<K, V> cache;
+      private final K key;
+
+      public Get(AsyncBasicOperations.Cache cache, K key) {
+         this.cache = cache;
+         this.key = key;
+      }
+
+      @Override
+      public CompletionStage<V> invoke() {
+         return cache.get(key);
+      }
+
+      @Override
+      public Operation operation() {
+         return AsyncBasicOperations.GET;
+      }
+
+      @Override
+      public Operation operation(V result) {
+         return result == null ? GET_NULL : AsyncBasicOperations.GET;
+      }
+   }
+
+   public static final class ContainsKey<K> implements AsyncInvocation<Boolean> {
+      private final AsyncBasicOperations.Cache<K, ?> cache;
+      private final K key;
+
+      public ContainsKey(AsyncBasicOperations.Cache<K, ?> cache, K key) {
+         this.cache = cache;
+         this.key = key;
+      }
+
+      @Override
+      public CompletionStage<Boolean> invoke() {
+         return cache.containsKey(key);
+      }
+
+      @Override
+      public Operation operation() {
+         return AsyncBasicOperations.CONTAINS_KEY;
+      }
+   }
+
+   public static final class Put<K, V> implements AsyncInvocation<Void> {
+      private final AsyncBasicOperations.Cache<K, V> cache;
+      private final K key;
+      private final V value;
+
+      public Put(AsyncBasicOperations.Cache<K, V> cache, K key, V value) {
+         this.cache = cache;
+         this.key = key;
+         this.value = value;
+      }
+
+      @Override
+      public CompletionStage<Void> invoke() {
+         return cache.put(key, value);
+      }
+
+      @Override
+      public Operation operation() {
+         return AsyncBasicOperations.PUT;
+      }
+   }
+
+   public static final class GetAndPut<K, V> implements AsyncInvocation<V> {
+      private final AsyncBasicOperations.Cache<K, V> cache;
+      private final K key;
+      private final V value;
+
+      public GetAndPut(AsyncBasicOperations.Cache<K, V> cache, K key, V value) {
+         this.cache = cache;
+         this.key = key;
+         this.value = value;
+      }
+
+      @Override
+      public CompletionStage<V> invoke() {
+         return cache.getAndPut(key, value);
+      }
+
+      @Override
+      public Operation operation() {
+         return AsyncBasicOperations.GET_AND_PUT;
+      }
+   }
+
+   public static final class Remove<K, V> implements AsyncInvocation<Boolean> {
+      private final AsyncBasicOperations.Cache<K, V> cache;
+      private final K key;
+
+      public Remove(AsyncBasicOperations.Cache cache, K key) {
+         this.cache = cache;
+         this.key = key;
+      }
+
+      @Override
+      public CompletionStage<Boolean> invoke() {
+         return cache.remove(key);
+      }
+
+      @Override
+      public Operation operation() {
+         return AsyncBasicOperations.REMOVE;
+      }
+   }
+
+   public static final class GetAndRemove<K, V> implements AsyncInvocation<V> {
+      private final AsyncBasicOperations.Cache<K, V> cache;
+      private final K key;
+
+      public GetAndRemove(AsyncBasicOperations.Cache cache, K key) {
+         this.cache = cache;
+         this.key = key;
+      }
+
+      @Override
+      public CompletionStage<V> invoke() {
+         return cache.getAndRemove(key);
+      }
+
+      @Override
+      public Operation operation() {
+         return AsyncBasicOperations.GET_AND_REMOVE;
+      }
+   }
+}
@@ -0,0 +1,40 @@
+package org.radargun.stages.cache.test;
+
+import org.radargun.Operation;
+import org.radargun.config.Property;
+import org.radargun.stages.test.RatioOperationSelector;
+
+/**
+ * Ratios of operations shared by the stages testing blocking and asynchronous basic operations.
+ */
+public class BasicOperationsRatios {
+   @Property(doc = "Ratio of GET requests. Default is 4.")
+   protected int getRatio = 4;
+
+   @Property(doc = "Ratio of CONTAINS requests. Default is 0.")
+   protected int containsRatio = 0;
+
+   @Property(doc = "Ratio of PUT requests. Default is 1.")
+   protected int putRatio = 1;
+
+   @Property(doc = "Ratio of GET_AND_PUT requests. Default is 0.")
+   protected int getAndPutRatio = 0;
+
+   @Property(doc = "Ratio of REMOVE requests. Default is 0.")
+   protected int removeRatio = 0;
+
+   @Property(doc = "Ratio of GET_AND_REMOVE requests. Default is 0.")
+   protected int getAndRemoveRatio = 0;
+
+   public RatioOperationSelector createSelector(Operation get, Operation containsKey, Operation put,
+                                                Operation getAndPut, Operation remove, Operation getAndRemove) {
+      return new RatioOperationSelector.Builder()
+         .add(get, getRatio)
+         .add(containsKey, containsRatio)
+         .add(put, putRatio)
+         .add(getAndPut, getAndPutRatio)
+         .add(remove, removeRatio)
+         .add(getAndRemove, getAndRemoveRatio)
+         .build();
+   }
+}
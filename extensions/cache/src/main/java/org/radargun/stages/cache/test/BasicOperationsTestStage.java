@@ -1,18 +1,25 @@
 package org.radargun.stages.cache.test;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
+import org.radargun.DistStageAck;
 import org.radargun.Operation;
+import org.radargun.StageResult;
 import org.radargun.config.Namespace;
-import org.radargun.config.Property;
+import org.radargun.config.PropertyDelegate;
 import org.radargun.config.Stage;
+import org.radargun.reporting.Report;
 import org.radargun.stages.test.Invocation;
 import org.radargun.stages.test.OperationLogic;
 import org.radargun.stages.test.OperationSelector;
-import org.radargun.stages.test.RatioOperationSelector;
 import org.radargun.stages.test.Stressor;
 import org.radargun.stages.test.TestStage;
+import org.radargun.state.WorkerState;
 import org.radargun.traits.BasicOperations;
+import org.radargun.traits.CacheInformation;
 import org.radargun.traits.InjectTrait;
 
 /**
@@ -21,39 +28,26 @@ import org.radargun.traits.InjectTrait;
 @Namespace(name = TestStage.NAMESPACE, deprecatedName = TestStage.DEPRECATED_NAMESPACE)
 @Stage(doc = "Test using BasicOperations")
 public class BasicOperationsTestStage extends CacheOperationsTestStage {
-   @Property(doc = "Ratio of GET requests. Default is 4.")
-   protected int getRatio = 4;
-
-   @Property(doc = "Ratio of CONTAINS requests. Default is 0.")
-   protected int containsRatio = 0;
-
-   @Property(doc = "Ratio of PUT requests. Default is 1.")
-   protected int putRatio = 1;
-
-   @Property(doc = "Ratio of GET_AND_PUT requests. Default is 0.")
-   protected int getAndPutRatio = 0;
-
-   @Property(doc = "Ratio of REMOVE requests. Default is 0.")
-   protected int removeRatio = 0;
-
-   @Property(doc = "Ratio of GET_AND_REMOVE requests. Default is 0.")
-   protected int getAndRemoveRatio = 0;
+   @PropertyDelegate
+   protected BasicOperationsRatios ratios = new BasicOperationsRatios();
 
    @InjectTrait
    protected BasicOperations basicOperations;
 
+   @InjectTrait
+   protected CacheInformation cacheInformation;
+
+   // hits and misses of the caches before the test started
+   private Map<String, long[]> initialLookups;
+
    @Override
    protected OperationSelector createOperationSelector() {
-      RatioOperationSelector operationSelector = new RatioOperationSelector.Builder()
-         .add(BasicOperations.GET, getRatio)
-         .add(BasicOperations.CONTAINS_KEY, containsRatio)
-         .add(BasicOperations.PUT, putRatio)
-         .add(BasicOperations.GET_AND_PUT, getAndPutRatio)
-         .add(BasicOperations.REMOVE, removeRatio)
-         .add(BasicOperations.GET_AND_REMOVE, getAndRemoveRatio)
-         .build();
-
-      return operationSelector;
+      if (keySelectorFactory instanceof TraceKeysSelector.Factory) {
+         // the ratios are ignored, operations are replayed from the trace
+         return ((TraceKeysSelector.Factory) keySelectorFactory).createOperationSelector();
+      }
+      return ratios.createSelector(BasicOperations.GET, BasicOperations.CONTAINS_KEY, BasicOperations.PUT,
+         BasicOperations.GET_AND_PUT, BasicOperations.REMOVE, BasicOperations.GET_AND_REMOVE);
    }
 
    @Override
@@ -61,10 +55,112 @@ public class BasicOperationsTestStage extends CacheOperationsTestStage {
       return new Logic();
    }
 
+   @Override
+   protected void prepare() {
+      super.prepare();
+      initialLookups = getLookups();
+   }
+
+   @Override
+   protected DistStageAck newStatisticsAck(List<Stressor> stressors) {
+      DistStageAck ack = super.newStatisticsAck(stressors);
+      if (!(ack instanceof StatisticsAck)) {
+         return ack;
+      }
+      Map<String, long[]> finalLookups = getLookups();
+      long hits = -1, misses = -1;
+      if (initialLookups != null && finalLookups != null) {
+         hits = 0;
+         misses = 0;
+         for (Map.Entry<String, long[]> entry : finalLookups.entrySet()) {
+            long[] initial = initialLookups.getOrDefault(entry.getKey(), new long[2]);
+            hits += entry.getValue()[0] - initial[0];
+            misses += entry.getValue()[1] - initial[1];
+         }
+      }
+      return new HitRatioAck(workerState, (StatisticsAck) ack, hits, misses);
+   }
+
+   /**
+    * @return Hits and misses of the caches used by stressors on this worker, or null if the service does not count these.
+    */
+   private Map<String, long[]> getLookups() {
+      if (cacheInformation == null) {
+         return null;
+      }
+      Map<String, long[]> lookups = new HashMap<>();
+      int firstThread = getFirstThreadOn(workerState.getWorkerIndex());
+      int numThreads = getNumThreadsOn(workerState.getWorkerIndex());
+      for (int threadIndex = firstThread; threadIndex < firstThread + numThreads; ++threadIndex) {
+         String cacheName = cacheSelector.getCacheName(threadIndex);
+         if (lookups.containsKey(cacheName)) {
+            continue;
+         }
+         CacheInformation.Cache cache = cacheInformation.getCache(cacheName);
+         if (cache == null || cache.getHits() < 0 || cache.getMisses() < 0) {
+            return null;
+         }
+         lookups.put(cacheName, new long[] {cache.getHits(), cache.getMisses()});
+      }
+      return lookups;
+   }
+
+   @Override
+   public StageResult processAckOnMain(List<DistStageAck> acks) {
+      StageResult result = super.processAckOnMain(acks);
+      if (result.isError()) return result;
+
+      Map<Integer, Report.WorkerResult> workerResults = new HashMap<>();
+      long totalHits = 0, totalMisses = 0;
+      for (HitRatioAck ack : instancesOf(acks, HitRatioAck.class)) {
+         if (ack.hits < 0) {
+            continue;
+         }
+         workerResults.put(ack.getWorkerIndex(), new Report.WorkerResult(hitRatio(ack.hits, ack.misses), false));
+         totalHits += ack.hits;
+         totalMisses += ack.misses;
+      }
+      if (workerResults.isEmpty()) {
+         return result;
+      }
+      String aggregated = hitRatio(totalHits, totalMisses);
+      log.info("Hit ratio: " + aggregated);
+      // the test was already created in super.processAckOnMain, under the reported name
+      Report.Test test = getTest(true, getReportedTestName());
+      if (test != null) {
+         test.addResult(getTestIteration(), new Report.TestResult("Hit ratio", workerResults, aggregated, false));
+      }
+      return result;
+   }
+
+   private static String hitRatio(long hits, long misses) {
+      return hits + misses == 0 ? "-" : String.format("%.2f%%", 100d * hits / (hits + misses));
+   }
+
+   protected static class HitRatioAck extends StatisticsAck {
+      private final long hits;
+      private final long misses;
+
+      public HitRatioAck(WorkerState workerState, StatisticsAck statisticsAck, long hits, long misses) {
+         super(workerState, statisticsAck.statistics, statisticsAck.getGroupOperationsMap());
+         this.hits = hits;
+         this.misses = misses;
+      }
+   }
+
    protected class Logic extends OperationLogic {
       protected BasicOperations.Cache nonTxCache;
       protected BasicOperations.Cache cache;
       protected KeySelector keySelector;
+      // set when replaying the value sizes from trace
+      protected TraceKeysSelector traceKeySelector;
+      // invocations are reused to avoid allocation on each request
+      protected CacheInvocations.Get get;
+      protected CacheInvocations.Put put;
+      protected CacheInvocations.Remove remove;
+      protected CacheInvocations.ContainsKey containsKey;
+      protected CacheInvocations.GetAndPut getAndPut;
+      protected CacheInvocations.GetAndRemove getAndRemove;
 
       @Override
       public void init(Stressor stressor) {
@@ -78,6 +174,15 @@ public class BasicOperationsTestStage extends CacheOperationsTestStage {
          }
          stressor.setUseTransactions(useTransactions(cacheName));
          keySelector = getKeySelector(stressor);
+         if (keySelector instanceof TraceKeysSelector) {
+            traceKeySelector = (TraceKeysSelector) keySelector;
+         }
+         get = new CacheInvocations.Get(cache, null);
+         put = new CacheInvocations.Put(cache, null, null);
+         remove = new CacheInvocations.Remove(cache, null);
+         containsKey = new CacheInvocations.ContainsKey(cache, null);
+         getAndPut = new CacheInvocations.GetAndPut(cache, null, null);
+         getAndRemove = new CacheInvocations.GetAndRemove(cache, null);
       }
 
       @Override
@@ -97,19 +202,23 @@ public class BasicOperationsTestStage extends CacheOperationsTestStage {
 
          Invocation invocation;
          if (operation == BasicOperations.GET) {
-            invocation = new CacheInvocations.Get(cache, key);
+            invocation = get.reset(key);
          } else if (operation == BasicOperations.PUT) {
-            invocation = new CacheInvocations.Put(cache, key, valueGenerator.generateValue(key, entrySize.next(random), random));
+            invocation = put.reset(key, valueGenerator.generateValue(key, nextEntrySize(random), random));
          } else if (operation == BasicOperations.REMOVE) {
-            invocation = new CacheInvocations.Remove(cache, key);
+            invocation = remove.reset(key);
          } else if (operation == BasicOperations.CONTAINS_KEY) {
-            invocation = new CacheInvocations.ContainsKey(cache, key);
+            invocation = containsKey.reset(key);
          } else if (operation == BasicOperations.GET_AND_PUT) {
-            invocation = new CacheInvocations.GetAndPut(cache, key, valueGenerator.generateValue(key, entrySize.next(random), random));
+            invocation = getAndPut.reset(key, valueGenerator.generateValue(key, nextEntrySize(random), random));
          } else if (operation == BasicOperations.GET_AND_REMOVE) {
-            invocation = new CacheInvocations.GetAndRemove(cache, key);
+            invocation = getAndRemove.reset(key);
          } else throw new IllegalArgumentException(operation.name);
          stressor.makeRequest(invocation);
       }
+
+      private int nextEntrySize(Random random) {
+         return traceKeySelector != null ? traceKeySelector.getValueSize() : entrySize.next(random);
+      }
    }
 }
@@ -19,6 +19,8 @@ import org.radargun.traits.TemporalOperations;
  * operations from traits {@link org.radargun.traits.BasicOperations},
  * {@link org.radargun.traits.ConditionalOperations}, and
  * {@link org.radargun.traits.BulkOperations}.
+ * Invocations of {@link org.radargun.traits.BasicOperations} can be reused
+ * for subsequent requests in the same thread through their {@code reset} methods.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -27,7 +29,7 @@ public class CacheInvocations {
       public static final Operation GET_NULL = BasicOperations.GET.derive("Null");
       public static final Operation TX = BasicOperations.GET.derive("tx");
       private final BasicOperations.Cache<K, V> cache;
-      private final K key;
+      private K key;
       private V value;
 
       public Get(BasicOperations.Cache cache, K key) {
@@ -35,6 +37,12 @@ public class CacheInvocations {
          this.key = key;
       }
 
+      public Get<K, V> reset(K key) {
+         this.key = key;
+         this.value = null;
+         return this;
+      }
+
       @Override
       public V invoke() {
          return value = cache.get(key);
@@ -54,8 +62,8 @@ public class CacheInvocations {
    public static final class Put<K, V> implements Invocation<Void> {
       public static final Operation TX = BasicOperations.PUT.derive("tx");
       private final BasicOperations.Cache<K, V> cache;
-      private final K key;
-      private final V value;
+      private K key;
+      private V value;
 
       public Put(BasicOperations.Cache<K, V> cache, K key, V value) {
          this.cache = cache;
@@ -63,6 +71,12 @@ public class CacheInvocations {
          this.value = value;
       }
 
+      public Put<K, V> reset(K key, V value) {
+         this.key = key;
+         this.value = value;
+         return this;
+      }
+
       @Override
       public Void invoke() {
          cache.put(key, value);
@@ -147,13 +161,18 @@ public class CacheInvocations {
    public static final class Remove<K, V> implements Invocation<Boolean> {
       public static final Operation TX = BasicOperations.REMOVE.derive("tx");
       private final BasicOperations.Cache<K, V> cache;
-      private final K key;
+      private K key;
 
       public Remove(BasicOperations.Cache cache, K key) {
          this.cache = cache;
          this.key = key;
       }
 
+      public Remove<K, V> reset(K key) {
+         this.key = key;
+         return this;
+      }
+
       @Override
       public Boolean invoke() {
          return cache.remove(key);
@@ -173,13 +192,18 @@ public class CacheInvocations {
    public static final class ContainsKey<K> implements Invocation<Boolean> {
       public static final Operation TX = BasicOperations.CONTAINS_KEY.derive("tx");
       private final BasicOperations.Cache<K, ?> cache;
-      private final K key;
+      private K key;
 
       public ContainsKey(BasicOperations.Cache<K, ?> cache, K key) {
          this.cache = cache;
          this.key = key;
       }
 
+      public ContainsKey<K> reset(K key) {
+         this.key = key;
+         return this;
+      }
+
       @Override
       public Boolean invoke() {
          return cache.containsKey(key);
@@ -199,8 +223,8 @@ public class CacheInvocations {
    public static final class GetAndPut<K, V> implements Invocation<V> {
       public static final Operation TX = BasicOperations.GET_AND_PUT.derive("tx");
       private final BasicOperations.Cache<K, V> cache;
-      private final K key;
-      private final V value;
+      private K key;
+      private V value;
 
       public GetAndPut(BasicOperations.Cache<K, V> cache, K key, V value) {
          this.cache = cache;
@@ -208,6 +232,12 @@ public class CacheInvocations {
          this.value = value;
       }
 
+      public GetAndPut<K, V> reset(K key, V value) {
+         this.key = key;
+         this.value = value;
+         return this;
+      }
+
       @Override
       public V invoke() {
          return cache.getAndPut(key, value);
@@ -289,13 +319,18 @@ public class CacheInvocations {
    public static final class GetAndRemove<K, V> implements Invocation<V> {
       public static final Operation TX = BasicOperations.GET_AND_REMOVE.derive("tx");
       private final BasicOperations.Cache<K, V> cache;
-      private final K key;
+      private K key;
 
       public GetAndRemove(BasicOperations.Cache<K, V> cache, K key) {
          this.cache = cache;
          this.key = key;
       }
 
+      public GetAndRemove<K, V> reset(K key) {
+         this.key = key;
+         return this;
+      }
+
       @Override
       public V invoke() {
          return cache.getAndRemove(key);
@@ -0,0 +1,67 @@
+package org.radargun.stages.cache.test;
+
+import java.util.Random;
+
+import org.radargun.config.DefinitionElement;
+import org.radargun.config.Namespace;
+import org.radargun.config.Property;
+import org.radargun.config.PropertyHelper;
+import org.radargun.stages.test.TestStage;
+
+/**
+ * Selects keys from the hot set (key IDs <code>0 .. hotEntries - 1</code>) with given probability,
+ * otherwise from the remaining keys; the keys are selected uniformly within each set.
+ */
+public class HotspotKeysSelector implements KeySelector {
+   private final Random random;
+   private final long numEntries;
+   private final long hotEntries;
+   private final double hotProbability;
+
+   public HotspotKeysSelector(Random random, long numEntries, long hotEntries, double hotProbability) {
+      this.random = random;
+      this.numEntries = numEntries;
+      this.hotEntries = hotEntries;
+      this.hotProbability = hotProbability;
+   }
+
+   @Override
+   public long next() {
+      if (hotEntries == numEntries || (hotEntries > 0 && random.nextDouble() < hotProbability)) {
+         return (random.nextLong() & Long.MAX_VALUE) % hotEntries;
+      } else {
+         return hotEntries + (random.nextLong() & Long.MAX_VALUE) % (numEntries - hotEntries);
+      }
+   }
+
+   @Namespace(name = TestStage.NAMESPACE, deprecatedName = TestStage.DEPRECATED_NAMESPACE)
+   @DefinitionElement(name = "hotspot-keys", doc = "In the test fixed set of entries is used and this is shared among all stressor threads. " +
+      "Given fraction of operations targets small hot set of keys.")
+   public static class Factory implements KeySelectorFactory {
+      @Property(doc = "Total number of key-value entries.", optional = false)
+      private long numEntries = 0;
+
+      @Property(doc = "Fraction of the entries that form the hot set. Default is 0.2.")
+      private double hotEntriesFraction = 0.2;
+
+      @Property(doc = "Fraction of the operations that target the hot set. Default is 0.8.")
+      private double hotOperationsFraction = 0.8;
+
+      @Override
+      public KeySelector newInstance(CacheOperationsTestStage stage, Random random, int globalThreadId, int threadId) {
+         if (numEntries <= 0) {
+            throw new IllegalStateException("Number of entries must be positive.");
+         }
+         if (hotEntriesFraction < 0 || hotEntriesFraction > 1 || hotOperationsFraction < 0 || hotOperationsFraction > 1) {
+            throw new IllegalStateException("Fractions must be between 0 and 1.");
+         }
+         long hotEntries = (long) (numEntries * hotEntriesFraction);
+         return new HotspotKeysSelector(random, numEntries, hotEntries, hotOperationsFraction);
+      }
+
+      @Override
+      public String toString() {
+         return HotspotKeysSelector.class.getSimpleName() + PropertyHelper.toString(this);
+      }
+   }
+}
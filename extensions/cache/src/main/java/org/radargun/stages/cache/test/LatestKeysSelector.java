@@ -0,0 +1,68 @@
+package org.radargun.stages.cache.test;
+
+import java.util.Random;
+
+import org.radargun.config.DefinitionElement;
+import org.radargun.config.Namespace;
+import org.radargun.config.Property;
+import org.radargun.config.PropertyHelper;
+import org.radargun.stages.test.TestStage;
+import org.radargun.utils.TimeService;
+
+/**
+ * Selects keys with Zipfian distribution over their recency: the latest key is the most frequent one,
+ * the key before it the second most frequent and so on. The latest key can move forward (wrapping around
+ * the key space) at constant rate, simulating insertion of new keys; the position is computed from time
+ * so that the threads do not need to share any mutable state.
+ */
+public class LatestKeysSelector implements KeySelector {
+   private final Random random;
+   private final ZipfianDistribution distribution;
+   private final long numEntries;
+   private final long startNanos;
+   private final double keysPerNano;
+
+   public LatestKeysSelector(Random random, ZipfianDistribution distribution, long startNanos, double keysPerSecond) {
+      this.random = random;
+      this.distribution = distribution;
+      this.numEntries = distribution.getNumEntries();
+      this.startNanos = startNanos;
+      this.keysPerNano = keysPerSecond / 1_000_000_000d;
+   }
+
+   @Override
+   public long next() {
+      long latest = numEntries - 1;
+      if (keysPerNano > 0) {
+         latest += (long) ((TimeService.nanoTime() - startNanos) * keysPerNano);
+      }
+      return Math.floorMod(latest - distribution.sample(random), numEntries);
+   }
+
+   @Namespace(name = TestStage.NAMESPACE, deprecatedName = TestStage.DEPRECATED_NAMESPACE)
+   @DefinitionElement(name = "latest-keys", doc = "In the test fixed set of entries is used and this is shared among all stressor threads. " +
+      "The keys are selected using Zipfian distribution, the most recent key IDs being the most frequent.")
+   public static class Factory extends ZipfianKeysSelector.Factory {
+      @Property(doc = "Rate (keys per second) at which the latest key ID moves forward. Default is 0 - the latest key ID is numEntries - 1.")
+      protected double insertRate = 0;
+
+      private Long startNanos;
+
+      @Override
+      public KeySelector newInstance(CacheOperationsTestStage stage, Random random, int globalThreadId, int threadId) {
+         return new LatestKeysSelector(random, getDistribution(), getStartNanos(), insertRate);
+      }
+
+      private synchronized long getStartNanos() {
+         if (startNanos == null) {
+            startNanos = TimeService.nanoTime();
+         }
+         return startNanos;
+      }
+
+      @Override
+      public String toString() {
+         return LatestKeysSelector.class.getSimpleName() + PropertyHelper.toString(this);
+      }
+   }
+}
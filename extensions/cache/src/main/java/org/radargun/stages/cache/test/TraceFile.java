@@ -0,0 +1,97 @@
+package org.radargun.stages.cache.test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.radargun.Operation;
+import org.radargun.traits.BasicOperations;
+
+/**
+ * Recorded access trace, memory-mapped read-only. The file starts with {@link #HEADER_SIZE} bytes header
+ * (int magic {@link #MAGIC}, int version {@link #VERSION}) followed by fixed-size big-endian records:
+ * <ul>
+ *    <li>long timestamp in nanoseconds, records are ordered by timestamp</li>
+ *    <li>long key ID</li>
+ *    <li>int value size in bytes, used for writes</li>
+ *    <li>byte operation: index into {@link #OPERATIONS}</li>
+ *    <li>3 bytes padding</li>
+ * </ul>
+ * The records are read using absolute methods, therefore the instance can be shared by all threads.
+ */
+public class TraceFile {
+   public static final int MAGIC = 0x52475452; // "RGTR"
+   public static final int VERSION = 1;
+   public static final int HEADER_SIZE = 8;
+   public static final int RECORD_SIZE = 24;
+   public static final Operation[] OPERATIONS = new Operation[] {
+      BasicOperations.GET, BasicOperations.CONTAINS_KEY, BasicOperations.PUT,
+      BasicOperations.GET_AND_PUT, BasicOperations.REMOVE, BasicOperations.GET_AND_REMOVE
+   };
+   // single mapping is limited to 2 GB
+   private static final int RECORDS_PER_CHUNK = Integer.MAX_VALUE / RECORD_SIZE;
+
+   private final MappedByteBuffer[] chunks;
+   private final long numRecords;
+
+   public TraceFile(Path path) throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+         long size = channel.size();
+         if (size < HEADER_SIZE) {
+            throw new IllegalArgumentException("Trace file " + path + " is too short");
+         }
+         ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+         if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("File " + path + " is not a trace in version " + VERSION);
+         }
+         if ((size - HEADER_SIZE) % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("Trace file " + path + " contains incomplete record");
+         }
+         numRecords = (size - HEADER_SIZE) / RECORD_SIZE;
+         if (numRecords == 0) {
+            throw new IllegalArgumentException("Trace file " + path + " contains no records");
+         }
+         chunks = new MappedByteBuffer[(int) ((numRecords + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK)];
+         for (int i = 0; i < chunks.length; ++i) {
+            long records = Math.min(RECORDS_PER_CHUNK, numRecords - (long) i * RECORDS_PER_CHUNK);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+               HEADER_SIZE + (long) i * RECORDS_PER_CHUNK * RECORD_SIZE, records * RECORD_SIZE);
+         }
+      }
+   }
+
+   public long getNumRecords() {
+      return numRecords;
+   }
+
+   public long getTimestamp(long record) {
+      return chunk(record).getLong(offset(record));
+   }
+
+   public long getKeyId(long record) {
+      return chunk(record).getLong(offset(record) + 8);
+   }
+
+   public int getValueSize(long record) {
+      return chunk(record).getInt(offset(record) + 16);
+   }
+
+   public Operation getOperation(long record) {
+      int code = chunk(record).get(offset(record) + 20);
+      if (code < 0 || code >= OPERATIONS.length) {
+         throw new IllegalStateException("Record " + record + " has invalid operation " + code);
+      }
+      return OPERATIONS[code];
+   }
+
+   private MappedByteBuffer chunk(long record) {
+      return chunks[(int) (record / RECORDS_PER_CHUNK)];
+   }
+
+   private static int offset(long record) {
+      return (int) (record % RECORDS_PER_CHUNK) * RECORD_SIZE;
+   }
+}
@@ -0,0 +1,175 @@
+package org.radargun.stages.cache.test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import org.radargun.Operation;
+import org.radargun.config.DefinitionElement;
+import org.radargun.config.Namespace;
+import org.radargun.config.Property;
+import org.radargun.config.PropertyHelper;
+import org.radargun.stages.test.TestStage;
+
+/**
+ * Replays key IDs from recorded {@link TraceFile}. Each stressor thread (across all workers) replays its
+ * own partition of the records; when the end of the trace is reached the replay starts from the beginning.
+ * The selector is moved to next record either by {@link TraceOperationSelector}, which provides the recorded
+ * operation, or by {@link #next()} itself when it is used without the operation selector.
+ */
+public class TraceKeysSelector implements KeySelector {
+   private final TraceFile trace;
+   private final Partitioning partitioning;
+   private final int partition;
+   private final int numPartitions;
+   private final long firstTimestamp;
+   private final long traceDuration;
+   private long record = -1;
+   private long loops;
+   // the record was selected by operation selector and its key was not returned yet
+   private boolean prepared;
+
+   public TraceKeysSelector(TraceFile trace, Partitioning partitioning, int partition, int numPartitions) {
+      if (partitioning == Partitioning.ROUND_ROBIN && partition >= trace.getNumRecords()) {
+         throw new IllegalStateException("Trace with " + trace.getNumRecords() + " records cannot be split among " + numPartitions + " threads");
+      }
+      this.trace = trace;
+      this.partitioning = partitioning;
+      this.partition = partition;
+      this.numPartitions = numPartitions;
+      this.firstTimestamp = trace.getTimestamp(0);
+      this.traceDuration = trace.getTimestamp(trace.getNumRecords() - 1) - firstTimestamp + 1;
+   }
+
+   @Override
+   public long next() {
+      if (!prepared) {
+         advance();
+      }
+      prepared = false;
+      return trace.getKeyId(record);
+   }
+
+   /**
+    * Moves to next record; the key is returned by subsequent {@link #next()} call.
+    *
+    * @return Operation of the record.
+    */
+   public Operation nextOperation() {
+      advance();
+      prepared = true;
+      return trace.getOperation(record);
+   }
+
+   /**
+    * @return Nanoseconds since the start of the replay when the current record should be executed.
+    */
+   public long getScheduledNanos() {
+      return trace.getTimestamp(record) - firstTimestamp + loops * traceDuration;
+   }
+
+   /**
+    * @return Value size of the current record.
+    */
+   public int getValueSize() {
+      return trace.getValueSize(record);
+   }
+
+   /**
+    * Restarts the replay from the first record of this partition.
+    */
+   public void rewind() {
+      record = -1;
+      loops = 0;
+      prepared = false;
+   }
+
+   private void advance() {
+      long numRecords = trace.getNumRecords();
+      if (partitioning == Partitioning.ROUND_ROBIN) {
+         record = record < 0 ? partition : record + numPartitions;
+         if (record >= numRecords) {
+            record = partition;
+            ++loops;
+         }
+         return;
+      }
+      for (long scanned = 0; scanned <= numRecords; ++scanned) {
+         if (++record >= numRecords) {
+            record = 0;
+            ++loops;
+         }
+         if (Math.floorMod((int) ((trace.getKeyId(record) * 0x9E3779B97F4A7C15L) >>> 32), numPartitions) == partition) {
+            return;
+         }
+      }
+      throw new IllegalStateException("Trace does not contain any key for thread " + partition);
+   }
+
+   public enum Partitioning {
+      /**
+       * Thread N of T replays records N, N + T, N + 2T...
+       */
+      ROUND_ROBIN,
+      /**
+       * Records are assigned to threads according to hash of the key ID; all operations on one key
+       * are executed by the same thread in the recorded order.
+       */
+      KEY_HASH
+   }
+
+   @Namespace(name = TestStage.NAMESPACE, deprecatedName = TestStage.DEPRECATED_NAMESPACE)
+   @DefinitionElement(name = "trace-keys", doc = "Replays key IDs recorded in a binary trace file, split among all stressor threads. " +
+      "When used in BasicOperationsTestStage, the recorded operations and value sizes are replayed, too.")
+   public static class Factory implements KeySelectorFactory {
+      @Property(doc = "Path to the trace file.", optional = false)
+      protected String file;
+
+      @Property(doc = "How the records are split among stressor threads on all workers. Default is ROUND_ROBIN.")
+      protected Partitioning partitioning = Partitioning.ROUND_ROBIN;
+
+      @Property(doc = "Replay the operations with the recorded timing instead of as fast as possible. The trace is replayed " +
+         "from the beginning when the measurement starts after warm-up. Default is false.")
+      protected boolean originalTiming = false;
+
+      private TraceFile trace;
+      private volatile TraceOperationSelector operationSelector;
+
+      /**
+       * Called on the stressor thread, the selector is registered in current operation selector.
+       */
+      @Override
+      public KeySelector newInstance(CacheOperationsTestStage stage, Random random, int globalThreadId, int threadId) {
+         TraceKeysSelector selector = new TraceKeysSelector(getTrace(), partitioning, globalThreadId, stage.getTotalThreads());
+         if (operationSelector != null) {
+            operationSelector.register(selector);
+         }
+         return selector;
+      }
+
+      /**
+       * @return New operation selector replaying the operations from key selectors created after this call.
+       */
+      public TraceOperationSelector createOperationSelector() {
+         getTrace();
+         operationSelector = new TraceOperationSelector(originalTiming);
+         return operationSelector;
+      }
+
+      private synchronized TraceFile getTrace() {
+         if (trace == null) {
+            try {
+               trace = new TraceFile(Paths.get(file));
+            } catch (IOException e) {
+               throw new IllegalStateException("Cannot open trace file " + file, e);
+            }
+         }
+         return trace;
+      }
+
+      @Override
+      public String toString() {
+         return TraceKeysSelector.class.getSimpleName() + PropertyHelper.toString(this);
+      }
+   }
+}
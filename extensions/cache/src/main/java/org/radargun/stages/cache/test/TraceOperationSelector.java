@@ -0,0 +1,72 @@
+package org.radargun.stages.cache.test;
+
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import org.radargun.Operation;
+import org.radargun.stages.test.OperationSelector;
+import org.radargun.utils.TimeService;
+
+/**
+ * Replays operations recorded in trace file. The operation selector is shared by all stressors,
+ * each stressor thread replays operations from its own {@link TraceKeysSelector}. With original timing
+ * the selector blocks until the time when the operation was recorded, relative to the start of the replay.
+ * The warm-up replays the beginning of the trace; when the recorded phase starts, the trace is replayed
+ * from the beginning again, with the clock restarted.
+ */
+public class TraceOperationSelector implements OperationSelector {
+   private final ThreadLocal<TraceKeysSelector> keySelectors = new ThreadLocal<>();
+   private final boolean originalTiming;
+   private boolean started;
+   private boolean recording;
+   private volatile long startNanos;
+
+   public TraceOperationSelector(boolean originalTiming) {
+      this.originalTiming = originalTiming;
+   }
+
+   /**
+    * Binds key selector to the calling thread.
+    */
+   public void register(TraceKeysSelector keySelector) {
+      keySelectors.set(keySelector);
+   }
+
+   @Override
+   public synchronized void start() {
+      if (!started) {
+         startNanos = TimeService.nanoTime();
+         started = true;
+      }
+   }
+
+   @Override
+   public synchronized void recordingStarted() {
+      // the stressors start recording at the same time, the clock is restarted only by the first one
+      if (!recording) {
+         startNanos = TimeService.nanoTime();
+         recording = true;
+      }
+      TraceKeysSelector keySelector = keySelectors.get();
+      if (keySelector != null) {
+         keySelector.rewind();
+      }
+   }
+
+   @Override
+   public Operation next(Random random) {
+      TraceKeysSelector keySelector = keySelectors.get();
+      if (keySelector == null) {
+         throw new IllegalStateException("Replaying operations requires trace key selector");
+      }
+      Operation operation = keySelector.nextOperation();
+      if (originalTiming) {
+         long scheduled = startNanos + keySelector.getScheduledNanos();
+         long now;
+         while ((now = TimeService.nanoTime()) < scheduled && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(scheduled - now);
+         }
+      }
+      return operation;
+   }
+}
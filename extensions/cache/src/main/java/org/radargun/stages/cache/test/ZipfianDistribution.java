@@ -0,0 +1,144 @@
+package org.radargun.stages.cache.test;
+
+import java.util.Random;
+
+/**
+ * Zipfian distribution over ranks <code>0 .. numEntries - 1</code>, rank <code>r</code> having probability
+ * proportional to <code>1 / (r + 1)^exponent</code>. The most frequent ranks are sampled exactly using
+ * Walker's alias table; the remaining ranks form one bucket of the table and are sampled from continuous
+ * power-law approximation. Sampling takes constant time and does not allocate.
+ *
+ * The instance is immutable and can be shared by all stressor threads.
+ */
+public class ZipfianDistribution {
+   private final long numEntries;
+   private final double exponent;
+   private final double[] probability;
+   private final int[] alias;
+   // index of the bucket with tail ranks, or -1 if all ranks have own bucket
+   private final int tailBucket;
+   private final double tailLow;
+   private final double tailHigh;
+
+   /**
+    * @param numEntries Number of ranks
+    * @param exponent Skew of the distribution; the higher the more skewed.
+    * @param tableSize Maximum number of ranks sampled exactly.
+    */
+   public ZipfianDistribution(long numEntries, double exponent, int tableSize) {
+      if (numEntries <= 0) {
+         throw new IllegalArgumentException("Number of entries must be positive: " + numEntries);
+      }
+      if (exponent <= 0) {
+         throw new IllegalArgumentException("Exponent must be positive: " + exponent);
+      }
+      if (tableSize <= 0) {
+         throw new IllegalArgumentException("Table size must be positive: " + tableSize);
+      }
+      this.numEntries = numEntries;
+      this.exponent = exponent;
+      int exactRanks = (int) Math.min(numEntries, tableSize);
+      double[] weights = new double[exactRanks < numEntries ? exactRanks + 1 : exactRanks];
+      for (int rank = 0; rank < exactRanks; ++rank) {
+         weights[rank] = Math.pow(rank + 1, -exponent);
+      }
+      if (exactRanks < numEntries) {
+         // tail rank r covers x = r + 1 +- 0.5
+         tailBucket = exactRanks;
+         tailLow = exactRanks + 0.5;
+         tailHigh = numEntries + 0.5;
+         weights[tailBucket] = integral(tailLow, tailHigh);
+      } else {
+         tailBucket = -1;
+         tailLow = 0;
+         tailHigh = 0;
+      }
+      probability = new double[weights.length];
+      alias = new int[weights.length];
+      buildAliasTable(weights);
+   }
+
+   /**
+    * @return Rank between 0 (inclusive) and numEntries (exclusive).
+    */
+   public long sample(Random random) {
+      int bucket = random.nextInt(probability.length);
+      if (random.nextDouble() >= probability[bucket]) {
+         bucket = alias[bucket];
+      }
+      if (bucket != tailBucket) {
+         return bucket;
+      }
+      long rank = (long) (inverseIntegral(random.nextDouble()) + 0.5) - 1;
+      return Math.max(tailBucket, Math.min(numEntries - 1, rank));
+   }
+
+   public long getNumEntries() {
+      return numEntries;
+   }
+
+   private double integral(double low, double high) {
+      if (exponent == 1) {
+         return Math.log(high / low);
+      }
+      return (Math.pow(high, 1 - exponent) - Math.pow(low, 1 - exponent)) / (1 - exponent);
+   }
+
+   /**
+    * @return Point x in the tail for which the integral from tail start to x is <code>fraction</code> of the total.
+    */
+   private double inverseIntegral(double fraction) {
+      if (exponent == 1) {
+         return tailLow * Math.pow(tailHigh / tailLow, fraction);
+      }
+      double low = Math.pow(tailLow, 1 - exponent);
+      double high = Math.pow(tailHigh, 1 - exponent);
+      return Math.pow(low + fraction * (high - low), 1 / (1 - exponent));
+   }
+
+   /**
+    * Vose's variant of the alias method construction.
+    */
+   private void buildAliasTable(double[] weights) {
+      int n = weights.length;
+      double sum = 0;
+      for (double weight : weights) {
+         sum += weight;
+      }
+      double[] scaled = new double[n];
+      int[] small = new int[n];
+      int[] large = new int[n];
+      int numSmall = 0, numLarge = 0;
+      for (int i = 0; i < n; ++i) {
+         scaled[i] = weights[i] * n / sum;
+         if (scaled[i] < 1) {
+            small[numSmall++] = i;
+         } else {
+            large[numLarge++] = i;
+         }
+      }
+      while (numSmall > 0 && numLarge > 0) {
+         int less = small[--numSmall];
+         int more = large[--numLarge];
+         probability[less] = scaled[less];
+         alias[less] = more;
+         scaled[more] = scaled[more] + scaled[less] - 1;
+         if (scaled[more] < 1) {
+            small[numSmall++] = more;
+         } else {
+            large[numLarge++] = more;
+         }
+      }
+      // remaining buckets are full, up to rounding errors
+      while (numLarge > 0) {
+         int bucket = large[--numLarge];
+         probability[bucket] = 1;
+         alias[bucket] = bucket;
+      }
+      while (numSmall > 0) {
+         int bucket = small[--numSmall];
+         probability[bucket] = 1;
+         alias[bucket] = bucket;
+      }
+   }
+}
@@ -0,0 +1,117 @@
+package org.radargun.stages.cache.test;
+
+import java.util.Random;
+
+import org.radargun.config.DefinitionElement;
+import org.radargun.config.Namespace;
+import org.radargun.config.Property;
+import org.radargun.config.PropertyHelper;
+import org.radargun.stages.test.TestStage;
+
+/**
+ * Selects keys with Zipfian distribution: key with rank <code>r</code> is selected with probability
+ * proportional to <code>1 / (r + 1)^exponent</code>. Without scrambling the rank is the key ID, with
+ * scrambling the ranks are spread over the key space using a fixed permutation.
+ */
+public class ZipfianKeysSelector implements KeySelector {
+   private final Random random;
+   private final ZipfianDistribution distribution;
+   private final long numEntries;
+   private final long multiplier;
+   private final long offset;
+
+   public ZipfianKeysSelector(Random random, ZipfianDistribution distribution, boolean scrambled) {
+      this.random = random;
+      this.distribution = distribution;
+      this.numEntries = distribution.getNumEntries();
+      if (scrambled) {
+         if (numEntries > 1L << 32) {
+            throw new IllegalArgumentException("Scrambling supports at most 2^32 entries");
+         }
+         this.multiplier = coprimeMultiplier(numEntries);
+         this.offset = Long.remainderUnsigned(0x9E3779B97F4A7C15L, numEntries);
+      } else {
+         this.multiplier = 1;
+         this.offset = 0;
+      }
+   }
+
+   @Override
+   public long next() {
+      long rank = distribution.sample(random);
+      if (multiplier == 1) {
+         return rank;
+      }
+      // rank * multiplier < 2^32 * 2^31 does not overflow
+      return (rank * multiplier % numEntries + offset) % numEntries;
+   }
+
+   /**
+    * Multiplying by number coprime with numEntries is bijection on <code>0 .. numEntries - 1</code>.
+    */
+   private static long coprimeMultiplier(long numEntries) {
+      long multiplier = 1_500_000_001L;
+      while (gcd(multiplier, numEntries) != 1) {
+         multiplier += 2;
+      }
+      return multiplier;
+   }
+
+   private static long gcd(long a, long b) {
+      while (b != 0) {
+         long t = a % b;
+         a = b;
+         b = t;
+      }
+      return a;
+   }
+
+   @Namespace(name = TestStage.NAMESPACE, deprecatedName = TestStage.DEPRECATED_NAMESPACE)
+   @DefinitionElement(name = "zipfian-keys", doc = "In the test fixed set of entries is used and this is shared among all stressor threads. " +
+      "The keys are selected using Zipfian distribution, key IDs with lowest values being the most frequent.")
+   public static class Factory implements KeySelectorFactory {
+      @Property(doc = "Total number of key-value entries.", optional = false)
+      protected long numEntries = 0;
+
+      @Property(doc = "Skew of the distribution; the higher the more skewed. Default is 0.99.")
+      protected double exponent = 0.99;
+
+      @Property(doc = "Number of the most frequent keys that are selected with exact probability, the probability " +
+         "of the remaining keys is approximated. The table takes 12 bytes per key and is shared by all threads. Default is 1048576.")
+      protected int tableSize = 1 << 20;
+
+      private ZipfianDistribution distribution;
+
+      @Override
+      public KeySelector newInstance(CacheOperationsTestStage stage, Random random, int globalThreadId, int threadId) {
+         return new ZipfianKeysSelector(random, getDistribution(), false);
+      }
+
+      protected synchronized ZipfianDistribution getDistribution() {
+         if (distribution == null) {
+            distribution = new ZipfianDistribution(numEntries, exponent, tableSize);
+         }
+         return distribution;
+      }
+
+      @Override
+      public String toString() {
+         return ZipfianKeysSelector.class.getSimpleName() + PropertyHelper.toString(this);
+      }
+   }
+
+   @Namespace(name = TestStage.NAMESPACE, deprecatedName = TestStage.DEPRECATED_NAMESPACE)
+   @DefinitionElement(name = "scrambled-zipfian-keys", doc = "In the test fixed set of entries is used and this is shared among all stressor threads. " +
+      "The keys are selected using Zipfian distribution, the frequent key IDs are spread over the whole key space.")
+   public static class ScrambledFactory extends Factory {
+      @Override
+      public KeySelector newInstance(CacheOperationsTestStage stage, Random random, int globalThreadId, int threadId) {
+         return new ZipfianKeysSelector(random, getDistribution(), true);
+      }
+
+      @Override
+      public String toString() {
+         return "Scrambled" + super.toString();
+      }
+   }
+}
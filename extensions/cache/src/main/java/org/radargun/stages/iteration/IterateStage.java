@@ -2,6 +2,7 @@ package org.radargun.stages.iteration;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -21,6 +22,7 @@ import org.radargun.stages.test.TestStage;
 import org.radargun.state.WorkerState;
 import org.radargun.stats.Request;
 import org.radargun.stats.Statistics;
+import org.radargun.stats.StatsUtils;
 import org.radargun.traits.CacheInformation;
 import org.radargun.traits.InjectTrait;
 import org.radargun.traits.Iterable;
@@ -333,12 +335,17 @@ public class IterateStage extends TestStage {
       @Override
       public IterationResult getResult(Stressor stressor) {
          Logic logic = (Logic) stressor.getLogic();
-         return new IterationResult(stressor.getStats(), logic.minElements, logic.maxElements, logic.failed);
+         Statistics stats = stressor.getStats();
+         if (stats != null && stressor.getThread().isAlive()) {
+            // the stressor may be still recording, the statistics are merged in place
+            stats = stats.copy();
+         }
+         return new IterationResult(stats, logic.minElements, logic.maxElements, logic.failed);
       }
 
       @Override
       public IterationResult merge(IterationResult result1, IterationResult result2) {
-         return new IterationResult(Statistics.MERGE.apply(result1.stats, result2.stats),
+         return new IterationResult(StatsUtils.merge(Arrays.asList(result1.stats, result2.stats)),
             Math.min(result1.minElements, result2.minElements),
             Math.max(result1.maxElements, result2.maxElements),
             result1.failed || result2.failed);
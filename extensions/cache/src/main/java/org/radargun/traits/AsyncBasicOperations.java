@@ -0,0 +1,62 @@
+package org.radargun.traits;
+
+import java.util.concurrent.CompletionStage;
+
+import org.radargun.Operation;
+
+/**
+ * Non-blocking variant of {@link BasicOperations}. The methods issue the request
+ * and return immediately; the returned {@link CompletionStage} is completed
+ * when the response arrives.
+ */
+@Trait(doc = "The most basic operations on cache, executed asynchronously.")
+public interface AsyncBasicOperations {
+   String TRAIT = AsyncBasicOperations.class.getSimpleName();
+   Operation GET = Operation.register(TRAIT + ".Get");
+   Operation CONTAINS_KEY = Operation.register(TRAIT + ".ContainsKey");
+   Operation PUT = Operation.register(TRAIT + ".Put");
+   Operation GET_AND_PUT = Operation.register(TRAIT + ".GetAndPut");
+   Operation REMOVE = Operation.register(TRAIT + ".Remove");
+   Operation GET_AND_REMOVE = Operation.register(TRAIT + ".GetAndRemove");
+
+   <K, V> Cache<K, V> getCache(String cacheName);
+
+   interface Cache<K, V> {
+      /**
+       * @return stage completed with the element, or null, if it does not exist.
+       * @see BasicOperations.Cache#get(Object)
+       */
+      CompletionStage<V> get(K key);
+
+      /**
+       * @return stage completed with <tt>true</tt> if the cache contains a mapping for the specified key
+       * @see BasicOperations.Cache#containsKey(Object)
+       */
+      CompletionStage<Boolean> containsKey(K key);
+
+      /**
+       * @return stage completed when the value is stored.
+       * @see BasicOperations.Cache#put(Object, Object)
+       */
+      CompletionStage<Void> put(K key, V value);
+
+      /**
+       * @return stage completed with the value associated with the key before the operation
+       * or null if none was associated.
+       * @see BasicOperations.Cache#getAndPut(Object, Object)
+       */
+      CompletionStage<V> getAndPut(K key, V value);
+
+      /**
+       * @return stage completed with false if there was no matching key
+       * @see BasicOperations.Cache#remove(Object)
+       */
+      CompletionStage<Boolean> remove(K key);
+
+      /**
+       * @return stage completed with the removed value or null if no mapping existed for this key
+       * @see BasicOperations.Cache#getAndRemove(Object)
+       */
+      CompletionStage<V> getAndRemove(K key);
+   }
+}
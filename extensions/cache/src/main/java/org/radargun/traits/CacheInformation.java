@@ -62,5 +62,29 @@ public interface CacheInformation {
        *         into the cache, or negative number if the information is not available.
        */
       int getEntryOverhead();
+
+      /**
+       * @return Number of lookups that found the entry since the cache was created,
+       *         or negative number if the information is not available.
+       */
+      default long getHits() {
+         return -1;
+      }
+
+      /**
+       * @return Number of lookups that did not find the entry since the cache was created,
+       *         or negative number if the information is not available.
+       */
+      default long getMisses() {
+         return -1;
+      }
+
+      /**
+       * @return Number of entries evicted since the cache was created,
+       *         or negative number if the information is not available.
+       */
+      default long getEvictions() {
+         return -1;
+      }
    }
 }
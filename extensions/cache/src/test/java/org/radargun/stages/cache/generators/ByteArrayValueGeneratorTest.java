@@ -0,0 +1,63 @@
+package org.radargun.stages.cache.generators;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class ByteArrayValueGeneratorTest {
+
+   public void testRandom() {
+      ByteArrayValueGenerator generator = new ByteArrayValueGenerator();
+      byte[] value = (byte[]) generator.generateValue("key", 100, new Random(42));
+      assertEquals(value.length, 100);
+      assertTrue(generator.checkValue(value, "key", 100));
+      assertFalse(generator.checkValue(value, "key", 99));
+   }
+
+   public void testPool() {
+      ByteArrayValueGenerator generator = new ByteArrayValueGenerator();
+      generator.poolSize = 4;
+      byte[] value = (byte[]) generator.generateValue("key", 100, null);
+      assertEquals(value.length, 100);
+      assertSame(generator.generateValue("key", 100, null), value);
+      assertTrue(generator.checkValue(value, "key", 100));
+      assertTrue(generator.checkValue(value.clone(), "key", 0));
+      // switching between sizes uses the pool of the requested size
+      assertEquals(((byte[]) generator.generateValue("key", 1000, null)).length, 1000);
+      assertSame(generator.generateValue("key", 100, null), value);
+      // another generator with the same seed produces the same content
+      ByteArrayValueGenerator other = new ByteArrayValueGenerator();
+      other.poolSize = 4;
+      assertTrue(other.checkValue(value.clone(), "key", 100));
+      value = value.clone();
+      value[0]++;
+      assertFalse(generator.checkValue(value, "key", 100));
+   }
+
+   public void testRegion() {
+      ByteArrayValueGenerator generator = new ByteArrayValueGenerator();
+      generator.regionSize = 1000;
+      byte[] value = (byte[]) generator.generateValue(new byte[] {1, 2, 3}, 200, null);
+      assertEquals(value.length, 200);
+      byte[] again = (byte[]) generator.generateValue(new byte[] {1, 2, 3}, 200, null);
+      assertNotSame(again, value);
+      assertEquals(again, value);
+      assertTrue(generator.checkValue(value, new byte[] {1, 2, 3}, 200));
+      value[199]++;
+      assertFalse(generator.checkValue(value, new byte[] {1, 2, 3}, 200));
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testValueLargerThanRegion() {
+      ByteArrayValueGenerator generator = new ByteArrayValueGenerator();
+      generator.regionSize = 100;
+      generator.generateValue("key", 101, null);
+   }
+}
@@ -0,0 +1,56 @@
+package org.radargun.stages.cache.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.radargun.DistStageAck;
+import org.radargun.StageResult;
+import org.radargun.stages.cache.generators.ByteArrayValueGenerator;
+import org.radargun.stages.cache.generators.KeyGenerator;
+import org.radargun.stages.cache.generators.StringKeyGenerator;
+import org.radargun.stages.cache.generators.ValueGenerator;
+import org.radargun.stages.helpers.CacheSelector;
+import org.radargun.stages.test.TransactionMode;
+import org.radargun.state.WorkerState;
+import org.radargun.traits.AsyncBasicOperations;
+import org.radargun.traits.Lifecycle;
+import org.radargun.util.CacheStageRunner;
+import org.radargun.util.CacheTraitRepository;
+import org.radargun.utils.Utils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(timeOut = 30000)
+public class AsyncBasicOperationsTestStageTest {
+
+   public void smokeTest() throws Exception {
+      CacheStageRunner stageRunner = new CacheStageRunner(1);
+      WorkerState workerState = stageRunner.getWorkerState();
+      workerState.put(KeyGenerator.KEY_GENERATOR, new StringKeyGenerator());
+      workerState.put(ValueGenerator.VALUE_GENERATOR, new ByteArrayValueGenerator());
+      workerState.put(CacheSelector.CACHE_SELECTOR, new CacheSelector.Default());
+
+      Lifecycle lifecycle = stageRunner.getTraitImpl(Lifecycle.class);
+      lifecycle.start();
+      AsyncBasicOperationsTestStage stage = new AsyncBasicOperationsTestStage();
+      KeySelectorFactory keySelectorFactory = new ConcurrentKeysSelector.Factory();
+      Utils.setField(ConcurrentKeysSelector.Factory.class, "totalEntries", keySelectorFactory, 100);
+      Utils.setField(AsyncBasicOperationsTestStage.class, "keySelectorFactory", stage, keySelectorFactory);
+      Utils.setField(AsyncBasicOperationsTestStage.class, "duration", stage, 1000);
+      Utils.setField(AsyncBasicOperationsTestStage.class, "totalThreads", stage, 2);
+      Utils.setField(AsyncBasicOperationsTestStage.class, "maxInFlightRequests", stage, 16);
+      Utils.setField(AsyncBasicOperationsTestStage.class, "useTransactions", stage, TransactionMode.NEVER);
+      Utils.setField(BasicOperationsRatios.class, "removeRatio", stage.ratios, 1);
+
+      AsyncBasicOperations asyncBasicOperations = stageRunner.getTraitImpl(AsyncBasicOperations.class);
+      CacheTraitRepository.AsyncBasicOperationsCache cache = (CacheTraitRepository.AsyncBasicOperationsCache) asyncBasicOperations.getCache(null);
+      Assert.assertEquals(cache.size(), 0);
+
+      List<DistStageAck> acks = new ArrayList<>(1);
+      acks.add(stageRunner.executeOnWorker(stage, 0));
+      Assert.assertFalse(acks.get(0).isError());
+      Assert.assertTrue(cache.size() > 0);
+
+      Assert.assertEquals(stageRunner.processAckOnMain(stage, acks), StageResult.SUCCESS);
+   }
+}
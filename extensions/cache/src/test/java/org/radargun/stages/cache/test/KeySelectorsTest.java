@@ -0,0 +1,172 @@
+package org.radargun.stages.cache.test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.radargun.utils.TimeService;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class KeySelectorsTest {
+   private static final int SAMPLES = 1_000_000;
+
+   public void testZipfianExact() {
+      // with exponent 1 the frequency of the first rank is 1 / H(n), H(1000) = 7.485
+      long[] counts = sample(new ZipfianKeysSelector(new Random(42), new ZipfianDistribution(1000, 1, 1000), false), 1000);
+      assertEquals(counts[0] / (double) SAMPLES, 1 / 7.485, 0.005);
+      assertEquals(counts[1] / (double) SAMPLES, 1 / 7.485 / 2, 0.005);
+      assertTrue(counts[10] > counts[100]);
+      assertTrue(counts[100] > counts[999]);
+   }
+
+   public void testZipfianApproximatedTail() {
+      long[] exact = sample(new ZipfianKeysSelector(new Random(42), new ZipfianDistribution(10000, 0.99, 10000), false), 10000);
+      long[] approximated = sample(new ZipfianKeysSelector(new Random(42), new ZipfianDistribution(10000, 0.99, 100), false), 10000);
+      assertEquals(approximated[0] / (double) SAMPLES, exact[0] / (double) SAMPLES, 0.005);
+      assertEquals(sum(approximated, 100, 1000) / (double) SAMPLES, sum(exact, 100, 1000) / (double) SAMPLES, 0.01);
+      assertEquals(sum(approximated, 1000, 10000) / (double) SAMPLES, sum(exact, 1000, 10000) / (double) SAMPLES, 0.01);
+   }
+
+   public void testScrambledZipfian() {
+      long[] counts = sample(new ZipfianKeysSelector(new Random(42), new ZipfianDistribution(1000, 1, 1000), true), 1000);
+      int hottest = 0;
+      for (int i = 0; i < counts.length; ++i) {
+         // the permutation is bijection, every key is selected
+         assertTrue(counts[i] > 0, "Key " + i);
+         if (counts[i] > counts[hottest]) {
+            hottest = i;
+         }
+      }
+      assertTrue(hottest != 0);
+      assertEquals(counts[hottest] / (double) SAMPLES, 1 / 7.485, 0.005);
+   }
+
+   public void testHotspot() {
+      long[] counts = sample(new HotspotKeysSelector(new Random(42), 1000, 200, 0.8), 1000);
+      assertEquals(sum(counts, 0, 200) / (double) SAMPLES, 0.8, 0.005);
+   }
+
+   public void testLatest() {
+      long[] counts = sample(new LatestKeysSelector(new Random(42), new ZipfianDistribution(1000, 1, 1000), 0, 0), 1000);
+      assertEquals(counts[999] / (double) SAMPLES, 1 / 7.485, 0.005);
+      assertTrue(counts[998] > counts[0]);
+   }
+
+   public void testTraceRoundRobin() throws IOException {
+      TraceFile trace = writeTrace(10, 1000);
+      TraceKeysSelector first = new TraceKeysSelector(trace, TraceKeysSelector.Partitioning.ROUND_ROBIN, 0, 3);
+      TraceKeysSelector second = new TraceKeysSelector(trace, TraceKeysSelector.Partitioning.ROUND_ROBIN, 1, 3);
+      for (long key : new long[] {0, 3, 6, 9, 0}) {
+         assertEquals(first.next(), key);
+      }
+      for (long key : new long[] {1, 4, 7, 1}) {
+         assertEquals(second.next(), key);
+      }
+   }
+
+   public void testTraceKeyHash() throws IOException {
+      TraceFile trace = writeTrace(100, 1000);
+      List<Set<Long>> partitions = new ArrayList<>();
+      for (int partition = 0; partition < 4; ++partition) {
+         TraceKeysSelector selector = new TraceKeysSelector(trace, TraceKeysSelector.Partitioning.KEY_HASH, partition, 4);
+         Set<Long> keys = new HashSet<>();
+         for (int i = 0; i < 100; ++i) {
+            keys.add(selector.next());
+         }
+         for (Set<Long> other : partitions) {
+            for (long key : keys) {
+               assertFalse(other.contains(key));
+            }
+         }
+         partitions.add(keys);
+      }
+      assertEquals(partitions.stream().mapToInt(Set::size).sum(), 100);
+   }
+
+   public void testTraceOperations() throws IOException {
+      // records 2 ms apart
+      TraceFile trace = writeTrace(4, 2_000_000);
+      TraceKeysSelector keySelector = new TraceKeysSelector(trace, TraceKeysSelector.Partitioning.ROUND_ROBIN, 0, 1);
+      TraceOperationSelector operationSelector = new TraceOperationSelector(true);
+      operationSelector.register(keySelector);
+      operationSelector.start();
+      long start = TimeService.nanoTime();
+      for (int i = 0; i < 8; ++i) {
+         assertSame(operationSelector.next(null), TraceFile.OPERATIONS[i % 4]);
+         assertEquals(keySelector.getValueSize(), i % 4 * 10);
+         assertEquals(keySelector.next(), i % 4);
+      }
+      // the second loop starts 1 ns after the last record
+      assertTrue(TimeService.nanoTime() - start >= 6_000_000 + 1 + 6_000_000);
+   }
+
+   public void testTraceRestartedWithRecording() throws Exception {
+      TraceFile trace = writeTrace(4, 2_000_000);
+      TraceKeysSelector keySelector = new TraceKeysSelector(trace, TraceKeysSelector.Partitioning.ROUND_ROBIN, 0, 1);
+      TraceOperationSelector operationSelector = new TraceOperationSelector(true);
+      operationSelector.register(keySelector);
+      operationSelector.start();
+      // warm-up
+      for (int i = 0; i < 2; ++i) {
+         operationSelector.next(null);
+         keySelector.next();
+      }
+      Thread.sleep(20);
+      operationSelector.recordingStarted();
+      long start = TimeService.nanoTime();
+      for (int i = 0; i < 4; ++i) {
+         assertSame(operationSelector.next(null), TraceFile.OPERATIONS[i]);
+         assertEquals(keySelector.next(), i);
+      }
+      // the records are not replayed in a burst to catch up with the warm-up
+      assertTrue(TimeService.nanoTime() - start >= 6_000_000);
+   }
+
+   /**
+    * Record i has key ID i, operation i and value size 10 * i.
+    */
+   private static TraceFile writeTrace(int numRecords, long period) throws IOException {
+      Path file = Files.createTempFile("trace", ".bin");
+      file.toFile().deleteOnExit();
+      try (DataOutputStream stream = new DataOutputStream(Files.newOutputStream(file))) {
+         stream.writeInt(TraceFile.MAGIC);
+         stream.writeInt(TraceFile.VERSION);
+         for (int i = 0; i < numRecords; ++i) {
+            stream.writeLong(1000 + i * period);
+            stream.writeLong(i);
+            stream.writeInt(10 * i);
+            stream.writeByte(i % TraceFile.OPERATIONS.length);
+            stream.write(new byte[3]);
+         }
+      }
+      return new TraceFile(file);
+   }
+
+   private static long[] sample(KeySelector selector, int numEntries) {
+      long[] counts = new long[numEntries];
+      for (int i = 0; i < SAMPLES; ++i) {
+         counts[(int) selector.next()]++;
+      }
+      return counts;
+   }
+
+   private static long sum(long[] counts, int from, int to) {
+      long sum = 0;
+      for (int i = from; i < to; ++i) {
+         sum += counts[i];
+      }
+      return sum;
+   }
+}
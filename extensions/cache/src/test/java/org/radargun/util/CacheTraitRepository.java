@@ -5,6 +5,8 @@ import org.radargun.traits.Debugable;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
@@ -22,6 +24,7 @@ public class CacheTraitRepository extends CoreTraitRepository {
       Map<Class<?>, Object> traitMap = new HashMap<>(CoreTraitRepository.getAllTraits());
       ConcurrentHashMap concurrentHashMap = new ConcurrentHashMap();
       traitMap.put(org.radargun.traits.BasicOperations.class, new BasicOperations(new BasicOperationsCache(concurrentHashMap)));
+      traitMap.put(org.radargun.traits.AsyncBasicOperations.class, new AsyncBasicOperations(new AsyncBasicOperationsCache(concurrentHashMap)));
       traitMap.put(org.radargun.traits.BulkOperations.class, new BulkOperations(new BulkOperationsCache(concurrentHashMap)));
       traitMap.put(org.radargun.traits.ConditionalOperations.class, new ConditionalOperations(new ConditionalOperations.ConditionalOperationsCache(concurrentHashMap)));
       traitMap.put(org.radargun.traits.Iterable.class, new Iterable<>(concurrentHashMap));
@@ -191,6 +194,66 @@ public class CacheTraitRepository extends CoreTraitRepository {
       }
    }
 
+   public static class AsyncBasicOperations implements org.radargun.traits.AsyncBasicOperations {
+
+      private final AsyncBasicOperationsCache cache;
+
+      public AsyncBasicOperations(AsyncBasicOperationsCache cache) {
+         this.cache = cache;
+      }
+
+      @Override
+      public <K, V> Cache<K, V> getCache(String cacheName) {
+         return cache;
+      }
+   }
+
+   /**
+    * Completes the operations in the common pool, so that the responses arrive from other threads.
+    */
+   public static class AsyncBasicOperationsCache<K, V> implements AsyncBasicOperations.Cache<K, V> {
+
+      protected ConcurrentHashMap<K, V> cache;
+
+      public AsyncBasicOperationsCache(ConcurrentHashMap<K, V> cache) {
+         this.cache = cache;
+      }
+
+      @Override
+      public CompletionStage<V> get(K key) {
+         return CompletableFuture.supplyAsync(() -> cache.get(key));
+      }
+
+      @Override
+      public CompletionStage<Boolean> containsKey(K key) {
+         return CompletableFuture.supplyAsync(() -> cache.containsKey(key));
+      }
+
+      @Override
+      public CompletionStage<Void> put(K key, V value) {
+         return CompletableFuture.runAsync(() -> cache.put(key, value));
+      }
+
+      @Override
+      public CompletionStage<V> getAndPut(K key, V value) {
+         return CompletableFuture.supplyAsync(() -> cache.put(key, value));
+      }
+
+      @Override
+      public CompletionStage<Boolean> remove(K key) {
+         return CompletableFuture.supplyAsync(() -> cache.remove(key) != null);
+      }
+
+      @Override
+      public CompletionStage<V> getAndRemove(K key) {
+         return CompletableFuture.supplyAsync(() -> cache.remove(key));
+      }
+
+      public int size() {
+         return cache.size();
+      }
+   }
+
    public static class BulkOperations implements org.radargun.traits.BulkOperations {
 
       private final BulkOperationsCache cache;
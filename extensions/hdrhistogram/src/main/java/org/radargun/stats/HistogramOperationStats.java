@@ -9,6 +9,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.HdrHistogram.AbstractHistogram;
 import org.HdrHistogram.HistogramIterationValue;
+import org.radargun.SerializationHelper;
 import org.radargun.config.DefinitionElement;
 import org.radargun.config.Init;
 import org.radargun.config.Property;
@@ -87,8 +88,13 @@ public final class HistogramOperationStats implements OperationStats {
 
    @Override
    public void record(Request request) {
-      histogram.recordValue(request.duration());
-      if (!request.isSuccessful()) {
+      record(request.getRequestStartTime(), request.getResponseCompleteTime(), request.isSuccessful());
+   }
+
+   @Override
+   public void record(long requestStartTime, long responseCompleteTime, boolean successful) {
+      histogram.recordValue(responseCompleteTime - requestStartTime);
+      if (!successful) {
          errors++;
       }
    }
@@ -230,10 +236,13 @@ public final class HistogramOperationStats implements OperationStats {
       s.writeInt(digits);
       s.writeLong(errors);
       compact();
-      s.writeInt(compacted.ranges.length);
+      // negative length marks the variable-length encoding; ranges are increasing so we store only the deltas
+      s.writeInt(-1 - compacted.ranges.length);
+      long previous = 0;
       for (int i = 0; i < compacted.ranges.length; ++i) {
-         s.writeLong(compacted.ranges[i]);
-         s.writeLong(compacted.counts[i]);
+         SerializationHelper.writeVarLong(s, compacted.ranges[i] - previous);
+         SerializationHelper.writeVarLong(s, compacted.counts[i]);
+         previous = compacted.ranges[i];
       }
    }
 
@@ -242,12 +251,26 @@ public final class HistogramOperationStats implements OperationStats {
       digits = s.readInt();
       errors = s.readLong();
       int length = s.readInt();
-      long[] ranges = new long[length];
-      long[] counts = new long[length];
-      for (int i = 0; i < length; ++i) {
-         ranges[i] = s.readLong();
-         counts[i] = s.readLong();
+      if (length < 0) {
+         length = -1 - length;
+         long[] ranges = new long[length];
+         long[] counts = new long[length];
+         long previous = 0;
+         for (int i = 0; i < length; ++i) {
+            ranges[i] = previous + SerializationHelper.readVarLong(s);
+            counts[i] = SerializationHelper.readVarLong(s);
+            previous = ranges[i];
+         }
+         compacted = new Histogram(ranges, counts);
+      } else {
+         // written with fixed-length encoding
+         long[] ranges = new long[length];
+         long[] counts = new long[length];
+         for (int i = 0; i < length; ++i) {
+            ranges[i] = s.readLong();
+            counts[i] = s.readLong();
+         }
+         compacted = new Histogram(ranges, counts);
       }
-      compacted = new Histogram(ranges, counts);
    }
 }
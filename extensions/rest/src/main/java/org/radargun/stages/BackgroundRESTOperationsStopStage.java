@@ -1,9 +1,6 @@
 package org.radargun.stages;
 
-import java.util.List;
-
 import org.radargun.DistStageAck;
-import org.radargun.StageResult;
 import org.radargun.config.Namespace;
 import org.radargun.config.Property;
 import org.radargun.config.Stage;
@@ -61,14 +58,14 @@ public class BackgroundRESTOperationsStopStage extends RESTOperationsTestStage {
 
          StopTestStage.waitForStressorsToFinish(startedStage.getStressorsManager(), timeout);
          log.info("Finished test. Test duration is: " + Utils.getMillisDurationString(TimeService.currentTimeMillis() - startedStage.getStressorsManager().getStartTime()));
-         return newStatisticsAck(startedStage.getStressorsManager().getStressors());
+         return newResultAck(startedStage.getStressorsManager().getStressors());
       } catch (Exception e) {
          return errorResponse("Exception while initializing the test", e);
       }
    }
 
    @Override
-   public StageResult processAckOnMain(List<DistStageAck> acks) {
-      return processAckOnMain(acks, testNameToStop);
+   protected String getReportedTestName() {
+      return testNameToStop;
    }
 }
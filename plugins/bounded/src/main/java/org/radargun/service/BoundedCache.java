@@ -0,0 +1,315 @@
+package org.radargun.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.radargun.traits.BasicOperations;
+import org.radargun.traits.CacheInformation;
+import org.radargun.traits.ConditionalOperations;
+
+/**
+ * Local cache with limited capacity, evicting the entries according to {@link EvictionPolicy}. The cache is
+ * split into segments with own lock, map and policy; each segment holds equal part of the capacity.
+ * The capacity is either the number of entries or an estimate of the memory used by keys and values.
+ */
+public class BoundedCache implements BasicOperations.Cache, ConditionalOperations.Cache, CacheInformation.Cache {
+   private final String name;
+   private final boolean weighBytes;
+   private final Segment[] segments;
+   // lookups by get and by the operations returning previous value
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+
+   /**
+    * @param name Name of the cache
+    * @param policyType Eviction policy used in each segment
+    * @param capacity Maximum number of entries, or bytes if <code>weighBytes</code> is set
+    * @param weighBytes Whether the capacity is in bytes
+    * @param numSegments Number of segments
+    */
+   public BoundedCache(String name, EvictionPolicy.Type policyType, long capacity, boolean weighBytes, int numSegments) {
+      if (capacity < numSegments) {
+         throw new IllegalArgumentException("Capacity " + capacity + " is too low for " + numSegments + " segments");
+      }
+      this.name = name;
+      this.weighBytes = weighBytes;
+      this.segments = new Segment[numSegments];
+      for (int i = 0; i < numSegments; ++i) {
+         long segmentCapacity = capacity / numSegments + (i < capacity % numSegments ? 1 : 0);
+         segments[i] = new Segment(policyType.create(segmentCapacity), segmentCapacity);
+      }
+   }
+
+   @Override
+   public Object get(Object key) {
+      int hash = hash(key);
+      return countLookup(segment(hash).get(key));
+   }
+
+   @Override
+   public boolean containsKey(Object key) {
+      // neither counts as hit or miss nor affects the eviction
+      return segment(hash(key)).containsKey(key);
+   }
+
+   @Override
+   public void put(Object key, Object value) {
+      int hash = hash(key);
+      segment(hash).put(key, hash, value, null, false);
+   }
+
+   @Override
+   public Object getAndPut(Object key, Object value) {
+      int hash = hash(key);
+      return countLookup(segment(hash).put(key, hash, value, null, false));
+   }
+
+   @Override
+   public boolean putIfAbsent(Object key, Object value) {
+      int hash = hash(key);
+      return segment(hash).putIfAbsent(key, hash, value);
+   }
+
+   @Override
+   public boolean remove(Object key) {
+      return segment(hash(key)).remove(key, null) != null;
+   }
+
+   @Override
+   public boolean remove(Object key, Object oldValue) {
+      Objects.requireNonNull(oldValue);
+      return segment(hash(key)).remove(key, oldValue) != null;
+   }
+
+   @Override
+   public Object getAndRemove(Object key) {
+      return countLookup(segment(hash(key)).remove(key, null));
+   }
+
+   @Override
+   public boolean replace(Object key, Object value) {
+      int hash = hash(key);
+      return segment(hash).put(key, hash, value, null, true) != null;
+   }
+
+   @Override
+   public boolean replace(Object key, Object oldValue, Object newValue) {
+      Objects.requireNonNull(oldValue);
+      int hash = hash(key);
+      return segment(hash).put(key, hash, newValue, oldValue, true) != null;
+   }
+
+   @Override
+   public Object getAndReplace(Object key, Object value) {
+      int hash = hash(key);
+      return countLookup(segment(hash).put(key, hash, value, null, true));
+   }
+
+   private Object countLookup(Object value) {
+      (value == null ? misses : hits).increment();
+      return value;
+   }
+
+   @Override
+   public void clear() {
+      for (Segment segment : segments) {
+         segment.clear();
+      }
+   }
+
+   @Override
+   public long getOwnedSize() {
+      return getTotalSize();
+   }
+
+   @Override
+   public long getLocallyStoredSize() {
+      return getTotalSize();
+   }
+
+   @Override
+   public long getMemoryStoredSize() {
+      return getTotalSize();
+   }
+
+   @Override
+   public long getTotalSize() {
+      long size = 0;
+      for (Segment segment : segments) {
+         size += segment.size();
+      }
+      return size;
+   }
+
+   @Override
+   public Map<?, Long> getStructuredSize() {
+      return Collections.singletonMap(name, getTotalSize());
+   }
+
+   @Override
+   public int getNumReplicas() {
+      return 1;
+   }
+
+   @Override
+   public int getEntryOverhead() {
+      return -1;
+   }
+
+   @Override
+   public long getHits() {
+      return hits.sum();
+   }
+
+   @Override
+   public long getMisses() {
+      return misses.sum();
+   }
+
+   @Override
+   public long getEvictions() {
+      return evictions.sum();
+   }
+
+   private Segment segment(int hash) {
+      return segments[Math.floorMod(hash, segments.length)];
+   }
+
+   private static int hash(Object key) {
+      int h = key.hashCode() * 0x9E3779B9;
+      return h ^ (h >>> 16);
+   }
+
+   private long weigh(Object key, Object value) {
+      return weighBytes ? weighBytes(key) + weighBytes(value) : 1;
+   }
+
+   /**
+    * Rough estimate of the memory used by the object; it is exact for byte arrays.
+    */
+   private static long weighBytes(Object object) {
+      if (object instanceof byte[]) {
+         return ((byte[]) object).length;
+      } else if (object instanceof String) {
+         return 2L * ((String) object).length();
+      } else {
+         return 16;
+      }
+   }
+
+   private final class Segment {
+      private final Map<Object, EvictionPolicy.Node> map = new HashMap<>();
+      private final EvictionPolicy policy;
+      private final long capacity;
+      private long weight;
+
+      Segment(EvictionPolicy policy, long capacity) {
+         this.policy = policy;
+         this.capacity = capacity;
+      }
+
+      synchronized Object get(Object key) {
+         EvictionPolicy.Node node = map.get(key);
+         if (node == null) {
+            return null;
+         }
+         policy.onAccess(node);
+         return node.value;
+      }
+
+      synchronized boolean containsKey(Object key) {
+         return map.containsKey(key);
+      }
+
+      /**
+       * @param expected If not null, the value is replaced only if the current value is equal to this.
+       * @param onlyIfPresent If true, new entry is not inserted.
+       * @return Previous value or null if there was no entry or the value was not replaced.
+       */
+      synchronized Object put(Object key, int hash, Object value, Object expected, boolean onlyIfPresent) {
+         EvictionPolicy.Node node = map.get(key);
+         if (node == null) {
+            if (!onlyIfPresent) {
+               insert(key, hash, value);
+            }
+            return null;
+         }
+         Object previous = node.value;
+         if (expected != null && !expected.equals(previous)) {
+            return null;
+         }
+         long oldWeight = node.weight;
+         node.value = value;
+         node.weight = weigh(key, value);
+         weight += node.weight - oldWeight;
+         if (node.weight != oldWeight) {
+            policy.onWeightChange(node, oldWeight);
+         }
+         policy.onAccess(node);
+         evictIfNeeded();
+         return previous;
+      }
+
+      synchronized boolean putIfAbsent(Object key, int hash, Object value) {
+         if (map.containsKey(key)) {
+            return false;
+         }
+         insert(key, hash, value);
+         return true;
+      }
+
+      /**
+       * @param expected If not null, the entry is removed only if the current value is equal to this.
+       * @return Removed value or null if nothing was removed.
+       */
+      synchronized Object remove(Object key, Object expected) {
+         EvictionPolicy.Node node = map.get(key);
+         if (node == null || (expected != null && !expected.equals(node.value))) {
+            return null;
+         }
+         removeNode(node);
+         return node.value;
+      }
+
+      synchronized void clear() {
+         for (EvictionPolicy.Node node : map.values()) {
+            policy.onRemove(node);
+         }
+         map.clear();
+         weight = 0;
+      }
+
+      synchronized int size() {
+         return map.size();
+      }
+
+      private void insert(Object key, int hash, Object value) {
+         EvictionPolicy.Node node = new EvictionPolicy.Node(key, hash, value, weigh(key, value));
+         map.put(key, node);
+         weight += node.weight;
+         policy.onInsert(node);
+         evictIfNeeded();
+      }
+
+      private void evictIfNeeded() {
+         while (weight > capacity) {
+            EvictionPolicy.Node victim = policy.victim();
+            if (victim == null) {
+               return;
+            }
+            removeNode(victim);
+            evictions.increment();
+         }
+      }
+
+      private void removeNode(EvictionPolicy.Node node) {
+         map.remove(node.key);
+         weight -= node.weight;
+         policy.onRemove(node);
+      }
+   }
+}
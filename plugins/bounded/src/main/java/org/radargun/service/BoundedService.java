@@ -0,0 +1,99 @@
+package org.radargun.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.radargun.Service;
+import org.radargun.config.Init;
+import org.radargun.config.Property;
+import org.radargun.traits.BasicOperations;
+import org.radargun.traits.CacheInformation;
+import org.radargun.traits.ConditionalOperations;
+import org.radargun.traits.ProvidesTrait;
+import org.radargun.utils.SizeConverter;
+
+@Service(doc = "Local cache with bounded capacity and configurable eviction policy - not a distributed cache.")
+public class BoundedService {
+
+   @Property(doc = "Maximum number of entries in each cache. Exactly one of maxEntries and maxBytes must be set.")
+   protected long maxEntries = -1;
+
+   @Property(doc = "Maximum size of keys and values in each cache, estimated from byte array and string lengths. " +
+      "Exactly one of maxEntries and maxBytes must be set.", converter = SizeConverter.class)
+   protected long maxBytes = -1;
+
+   @Property(doc = "Policy selecting the evicted entries. Default is W_TINY_LFU.")
+   protected EvictionPolicy.Type evictionPolicy = EvictionPolicy.Type.W_TINY_LFU;
+
+   @Property(doc = "Number of independently locked segments of each cache; each segment evicts from its own part " +
+      "of the capacity. More segments reduce contention but make the policy less accurate. Default is 16.")
+   protected int segments = 16;
+
+   protected ConcurrentHashMap<String, BoundedCache> caches = new ConcurrentHashMap<>();
+   // ConcurrentHashMap does not permit null keys
+   protected BoundedCache defaultCache;
+
+   @Init
+   public void init() {
+      if ((maxEntries > 0) == (maxBytes > 0)) {
+         throw new IllegalArgumentException("Exactly one of maxEntries and maxBytes must be set to a positive value.");
+      }
+      if (segments <= 0) {
+         throw new IllegalArgumentException("Number of segments must be positive: " + segments);
+      }
+      defaultCache = createCache(null);
+   }
+
+   public BoundedCache getCache(String cacheName) {
+      if (cacheName == null) {
+         return defaultCache;
+      }
+      return caches.computeIfAbsent(cacheName, this::createCache);
+   }
+
+   private BoundedCache createCache(String cacheName) {
+      return maxEntries > 0 ? new BoundedCache(cacheName, evictionPolicy, maxEntries, false, segments)
+         : new BoundedCache(cacheName, evictionPolicy, maxBytes, true, segments);
+   }
+
+   @ProvidesTrait
+   public BasicOperations createBasicOperations() {
+      return new BasicOperations() {
+         @Override
+         public <K, V> Cache<K, V> getCache(String cacheName) {
+            return BoundedService.this.getCache(cacheName);
+         }
+      };
+   }
+
+   @ProvidesTrait
+   public ConditionalOperations createConditionalOperations() {
+      return new ConditionalOperations() {
+         @Override
+         public <K, V> Cache<K, V> getCache(String cacheName) {
+            return BoundedService.this.getCache(cacheName);
+         }
+      };
+   }
+
+   @ProvidesTrait
+   public CacheInformation createCacheInformation() {
+      return new CacheInformation() {
+         @Override
+         public String getDefaultCacheName() {
+            return null;
+         }
+
+         @Override
+         public Collection<String> getCacheNames() {
+            return Collections.unmodifiableSet(caches.keySet());
+         }
+
+         @Override
+         public Cache getCache(String cacheName) {
+            return BoundedService.this.getCache(cacheName);
+         }
+      };
+   }
+}
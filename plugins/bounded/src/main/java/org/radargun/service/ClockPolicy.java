@@ -0,0 +1,39 @@
+package org.radargun.service;
+
+/**
+ * Approximation of LRU: accessed entries are only marked as referenced and the hand sweeping over
+ * the entries in insertion order gives them second chance, evicting the first entry that is not referenced.
+ */
+class ClockPolicy implements EvictionPolicy {
+   // the list is kept in the order of the hand sweep, head is under the hand
+   private final NodeList list = new NodeList();
+
+   @Override
+   public void onInsert(Node node) {
+      node.referenced = false;
+      list.addLast(node);
+   }
+
+   @Override
+   public void onAccess(Node node) {
+      node.referenced = true;
+   }
+
+   @Override
+   public void onRemove(Node node) {
+      list.remove(node);
+   }
+
+   @Override
+   public Node victim() {
+      for (Node node = list.first(); node != null; node = list.first()) {
+         if (!node.referenced) {
+            return node;
+         }
+         // second chance: clear the bit and advance the hand
+         node.referenced = false;
+         list.moveToLast(node);
+      }
+      return null;
+   }
+}
@@ -0,0 +1,144 @@
+package org.radargun.service;
+
+/**
+ * Decides which entry should be evicted from {@link BoundedCache} segment. The policy keeps the entries
+ * in its own intrusive structures built from {@link Node}s; all methods are called under segment lock.
+ */
+public interface EvictionPolicy {
+
+   /**
+    * New entry was inserted.
+    */
+   void onInsert(Node node);
+
+   /**
+    * Existing entry was read or overwritten.
+    */
+   void onAccess(Node node);
+
+   /**
+    * Entry was removed, either explicitly or as the result of eviction.
+    */
+   void onRemove(Node node);
+
+   /**
+    * Entry was overwritten with value of different weight.
+    */
+   default void onWeightChange(Node node, long oldWeight) {
+   }
+
+   /**
+    * Called when the cache is over capacity. The policy does not remove the entry itself,
+    * {@link #onRemove(Node)} is called when the cache removes it.
+    *
+    * @return Entry that should be evicted, or null if the policy does not hold any entries.
+    */
+   Node victim();
+
+   enum Type {
+      LRU {
+         @Override
+         EvictionPolicy create(long capacity) {
+            return new LruPolicy();
+         }
+      },
+      SEGMENTED_LRU {
+         @Override
+         EvictionPolicy create(long capacity) {
+            return new SegmentedLruPolicy(capacity);
+         }
+      },
+      CLOCK {
+         @Override
+         EvictionPolicy create(long capacity) {
+            return new ClockPolicy();
+         }
+      },
+      W_TINY_LFU {
+         @Override
+         EvictionPolicy create(long capacity) {
+            return new WTinyLfuPolicy(capacity);
+         }
+      };
+
+      abstract EvictionPolicy create(long capacity);
+   }
+
+   /**
+    * Entry of the cache, linked into the structures of the policy.
+    */
+   final class Node {
+      final Object key;
+      final int hash;
+      Object value;
+      long weight;
+      // links and state maintained by the policy
+      Node prev;
+      Node next;
+      byte queue;
+      boolean referenced;
+
+      Node(Object key, int hash, Object value, long weight) {
+         this.key = key;
+         this.hash = hash;
+         this.value = value;
+         this.weight = weight;
+      }
+   }
+
+   /**
+    * Doubly-linked list of nodes ordered from the least recently used (head) to the most recently used (tail).
+    */
+   final class NodeList {
+      private Node head;
+      private Node tail;
+      private long weight;
+
+      void addLast(Node node) {
+         node.prev = tail;
+         node.next = null;
+         if (tail == null) {
+            head = node;
+         } else {
+            tail.next = node;
+         }
+         tail = node;
+         weight += node.weight;
+      }
+
+      void remove(Node node) {
+         if (node.prev == null) {
+            head = node.next;
+         } else {
+            node.prev.next = node.next;
+         }
+         if (node.next == null) {
+            tail = node.prev;
+         } else {
+            node.next.prev = node.prev;
+         }
+         node.prev = null;
+         node.next = null;
+         weight -= node.weight;
+      }
+
+      void moveToLast(Node node) {
+         if (node != tail) {
+            remove(node);
+            addLast(node);
+         }
+      }
+
+      void updateWeight(long delta) {
+         weight += delta;
+      }
+
+      Node first() {
+         return head;
+      }
+
+      long weight() {
+         return weight;
+      }
+   }
+}
@@ -0,0 +1,81 @@
+package org.radargun.service;
+
+/**
+ * Count-min sketch with 4-bit counters (capped at 15) estimating how often a key was accessed. After the number
+ * of recorded accesses reaches ten times the width of the sketch, all counters are halved, so that the estimate
+ * reflects recent history.
+ */
+final class FrequencySketch {
+   private static final int DEPTH = 4;
+   private static final int MAX_COUNT = 15;
+   private static final int[] SEEDS = {0x97CB3127, 0xB4B82E39, 0x2D6B2A07, 0x6E1F7C5D};
+
+   private byte[] table;
+   private int width;
+   private int additions;
+
+   FrequencySketch(long expectedEntries) {
+      width = width(expectedEntries);
+      table = new byte[DEPTH * width];
+   }
+
+   /**
+    * Grows the sketch if it is too small for given number of entries. As the width is a power of two,
+    * the counter for a hash in the grown row is at the same position modulo old width, therefore
+    * each counter is copied to all its positions and the estimates are preserved.
+    */
+   void ensureCapacity(long entries) {
+      if (entries <= width) {
+         return;
+      }
+      int newWidth = width(entries * 2);
+      if (newWidth <= width) {
+         return;
+      }
+      byte[] newTable = new byte[DEPTH * newWidth];
+      for (int row = 0; row < DEPTH; ++row) {
+         for (int offset = 0; offset < newWidth; offset += width) {
+            System.arraycopy(table, row * width, newTable, row * newWidth + offset, width);
+         }
+      }
+      table = newTable;
+      width = newWidth;
+   }
+
+   void increment(int hash) {
+      for (int i = 0; i < DEPTH; ++i) {
+         int index = index(hash, i);
+         if (table[index] < MAX_COUNT) {
+            ++table[index];
+         }
+      }
+      if (++additions >= 10 * width) {
+         reset();
+      }
+   }
+
+   int frequency(int hash) {
+      int frequency = MAX_COUNT;
+      for (int i = 0; i < DEPTH; ++i) {
+         frequency = Math.min(frequency, table[index(hash, i)]);
+      }
+      return frequency;
+   }
+
+   private static int width(long expectedEntries) {
+      return (int) Math.min(1 << 30, Math.max(16, Long.highestOneBit(Math.max(1, expectedEntries - 1)) << 1));
+   }
+
+   private void reset() {
+      for (int i = 0; i < table.length; ++i) {
+         table[i] >>= 1;
+      }
+      additions /= 2;
+   }
+
+   private int index(int hash, int row) {
+      int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+      h ^= h >>> 15;
+      return row * width + (h & (width - 1));
+   }
+}
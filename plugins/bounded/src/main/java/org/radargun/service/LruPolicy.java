@@ -0,0 +1,28 @@
+package org.radargun.service;
+
+/**
+ * Evicts the least recently used entry.
+ */
+class LruPolicy implements EvictionPolicy {
+   private final NodeList list = new NodeList();
+
+   @Override
+   public void onInsert(Node node) {
+      list.addLast(node);
+   }
+
+   @Override
+   public void onAccess(Node node) {
+      list.moveToLast(node);
+   }
+
+   @Override
+   public void onRemove(Node node) {
+      list.remove(node);
+   }
+
+   @Override
+   public Node victim() {
+      return list.first();
+   }
+}
@@ -0,0 +1,63 @@
+package org.radargun.service;
+
+/**
+ * Keeps the entries in probationary and protected LRU segments. New entries are inserted into probationary
+ * segment and promoted to the protected segment when these are accessed again; the protected segment holds
+ * up to 80 % of the capacity and its least recently used entries are demoted back to probationary segment.
+ * Victims are selected from the probationary segment first.
+ */
+class SegmentedLruPolicy implements EvictionPolicy {
+   private static final byte PROBATION = 0;
+   private static final byte PROTECTED = 1;
+
+   private final long maxProtected;
+   private final NodeList probation = new NodeList();
+   private final NodeList protectedList = new NodeList();
+
+   SegmentedLruPolicy(long capacity) {
+      this.maxProtected = capacity * 8 / 10;
+   }
+
+   @Override
+   public void onInsert(Node node) {
+      node.queue = PROBATION;
+      probation.addLast(node);
+   }
+
+   @Override
+   public void onAccess(Node node) {
+      if (node.queue == PROTECTED) {
+         protectedList.moveToLast(node);
+         return;
+      }
+      probation.remove(node);
+      node.queue = PROTECTED;
+      protectedList.addLast(node);
+      while (protectedList.weight() > maxProtected && protectedList.first() != node) {
+         Node demoted = protectedList.first();
+         protectedList.remove(demoted);
+         demoted.queue = PROBATION;
+         probation.addLast(demoted);
+      }
+   }
+
+   @Override
+   public void onRemove(Node node) {
+      list(node).remove(node);
+   }
+
+   @Override
+   public void onWeightChange(Node node, long oldWeight) {
+      list(node).updateWeight(node.weight - oldWeight);
+   }
+
+   @Override
+   public Node victim() {
+      Node victim = probation.first();
+      return victim != null ? victim : protectedList.first();
+   }
+
+   private NodeList list(Node node) {
+      return node.queue == PROTECTED ? protectedList : probation;
+   }
+}
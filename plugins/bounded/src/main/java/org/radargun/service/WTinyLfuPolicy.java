@@ -0,0 +1,126 @@
+package org.radargun.service;
+
+/**
+ * Window TinyLFU: new entries are inserted into small LRU window (1 % of the capacity). Entries leaving
+ * the window are candidates for the main space managed as segmented LRU; a candidate is admitted only if
+ * its estimated access frequency is higher than the frequency of the main space's victim, otherwise
+ * the candidate is evicted. The frequencies are estimated by {@link FrequencySketch}.
+ */
+class WTinyLfuPolicy implements EvictionPolicy {
+   private static final byte WINDOW = 0;
+   private static final byte PROBATION = 1;
+   private static final byte PROTECTED = 2;
+
+   private final long maxWindow;
+   private final long maxMain;
+   private final long maxProtected;
+   private final NodeList window = new NodeList();
+   private final NodeList probation = new NodeList();
+   private final NodeList protectedList = new NodeList();
+   private final FrequencySketch sketch;
+   private long entries;
+
+   WTinyLfuPolicy(long capacity) {
+      this.maxWindow = Math.max(1, capacity / 100);
+      this.maxMain = capacity - maxWindow;
+      this.maxProtected = maxMain * 8 / 10;
+      // the capacity may be in bytes, the sketch grows when there are more entries
+      this.sketch = new FrequencySketch(Math.min(capacity, 1 << 16));
+   }
+
+   @Override
+   public void onInsert(Node node) {
+      sketch.ensureCapacity(++entries);
+      sketch.increment(node.hash);
+      node.queue = WINDOW;
+      window.addLast(node);
+      drainWindow();
+   }
+
+   @Override
+   public void onAccess(Node node) {
+      sketch.increment(node.hash);
+      switch (node.queue) {
+         case WINDOW:
+            window.moveToLast(node);
+            break;
+         case PROBATION:
+            probation.remove(node);
+            node.queue = PROTECTED;
+            protectedList.addLast(node);
+            while (protectedList.weight() > maxProtected && protectedList.first() != node) {
+               Node demoted = protectedList.first();
+               protectedList.remove(demoted);
+               demoted.queue = PROBATION;
+               probation.addLast(demoted);
+            }
+            break;
+         default:
+            protectedList.moveToLast(node);
+      }
+   }
+
+   @Override
+   public void onRemove(Node node) {
+      --entries;
+      list(node).remove(node);
+   }
+
+   @Override
+   public void onWeightChange(Node node, long oldWeight) {
+      list(node).updateWeight(node.weight - oldWeight);
+      if (node.queue == WINDOW) {
+         drainWindow();
+      }
+   }
+
+   @Override
+   public Node victim() {
+      if (window.weight() > maxWindow) {
+         // the least recently used entry from window competes with the victim from main space
+         Node candidate = window.first();
+         window.remove(candidate);
+         Node mainVictim = probation.first();
+         if (mainVictim == null) {
+            mainVictim = protectedList.first();
+         }
+         candidate.queue = PROBATION;
+         probation.addLast(candidate);
+         if (mainVictim == null) {
+            return candidate;
+         }
+         return sketch.frequency(candidate.hash) > sketch.frequency(mainVictim.hash) ? mainVictim : candidate;
+      }
+      Node victim = probation.first();
+      if (victim == null) {
+         victim = protectedList.first();
+      }
+      return victim != null ? victim : window.first();
+   }
+
+   /**
+    * While the main space is not full the entries leaving the window are admitted without competing.
+    */
+   private void drainWindow() {
+      while (window.weight() > maxWindow) {
+         Node candidate = window.first();
+         if (probation.weight() + protectedList.weight() + candidate.weight > maxMain) {
+            return;
+         }
+         window.remove(candidate);
+         candidate.queue = PROBATION;
+         probation.addLast(candidate);
+      }
+   }
+
+   private NodeList list(Node node) {
+      switch (node.queue) {
+         case WINDOW:
+            return window;
+         case PROBATION:
+            return probation;
+         default:
+            return protectedList;
+      }
+   }
+}
@@ -0,0 +1,146 @@
+package org.radargun.service;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class BoundedCacheTest {
+
+   public void testBasicAndConditionalOperations() {
+      BoundedCache cache = new BoundedCache("test", EvictionPolicy.Type.LRU, 100, false, 4);
+      cache.put("key", "value");
+      assertEquals(cache.get("key"), "value");
+      assertNull(cache.get("other"));
+      assertFalse(cache.putIfAbsent("key", "other"));
+      assertTrue(cache.replace("key", "value", "value2"));
+      assertFalse(cache.replace("key", "value", "value3"));
+      assertEquals(cache.getAndReplace("key", "value4"), "value2");
+      assertFalse(cache.replace("other", "value"));
+      assertFalse(cache.remove("key", "value"));
+      assertEquals(cache.getAndRemove("key"), "value4");
+      assertFalse(cache.remove("key"));
+      assertNull(cache.getAndRemove("key"));
+      assertNull(cache.getAndPut("key", "value5"));
+      assertEquals(cache.getAndPut("key", "value6"), "value5");
+      assertTrue(cache.remove("key"));
+      assertEquals(cache.getTotalSize(), 0);
+      // operations returning the previous value count as lookups, too
+      assertEquals(cache.getHits(), 4);
+      assertEquals(cache.getMisses(), 3);
+   }
+
+   public void testCapacityBound() {
+      for (EvictionPolicy.Type type : EvictionPolicy.Type.values()) {
+         BoundedCache cache = new BoundedCache("test", type, 1000, false, 4);
+         Random random = new Random(42);
+         for (int i = 0; i < 20000; ++i) {
+            int key = random.nextInt(5000);
+            if (cache.get(key) == null) {
+               cache.put(key, key);
+            }
+            if (random.nextInt(10) == 0) {
+               cache.remove(random.nextInt(5000));
+            }
+         }
+         assertTrue(cache.getTotalSize() <= 1000, type.name());
+         assertTrue(cache.getEvictions() > 0, type.name());
+         assertEquals(cache.getHits() + cache.getMisses(), 20000, type.name());
+      }
+   }
+
+   public void testByteCapacity() {
+      BoundedCache cache = new BoundedCache("test", EvictionPolicy.Type.SEGMENTED_LRU, 10000, true, 1);
+      for (int i = 0; i < 100; ++i) {
+         cache.put(new byte[] {(byte) i}, new byte[999]);
+      }
+      assertEquals(cache.getTotalSize(), 10);
+      assertEquals(cache.getEvictions(), 90);
+      // growing the value evicts other entries
+      byte[] key = new byte[] {99};
+      cache.put(key, new byte[5999]);
+      assertEquals(cache.getTotalSize(), 5);
+   }
+
+   public void testLruOrder() {
+      BoundedCache cache = new BoundedCache("test", EvictionPolicy.Type.LRU, 3, false, 1);
+      cache.put(1, 1);
+      cache.put(2, 2);
+      cache.put(3, 3);
+      cache.get(1);
+      cache.put(4, 4);
+      assertNotNull(cache.get(1));
+      assertNull(cache.get(2));
+   }
+
+   public void testContainsKeyDoesNotAffectEviction() {
+      BoundedCache cache = new BoundedCache("test", EvictionPolicy.Type.LRU, 3, false, 1);
+      cache.put(1, 1);
+      cache.put(2, 2);
+      cache.put(3, 3);
+      assertTrue(cache.containsKey(1));
+      assertFalse(cache.containsKey(5));
+      assertEquals(cache.getHits(), 0);
+      assertEquals(cache.getMisses(), 0);
+      cache.put(4, 4);
+      assertFalse(cache.containsKey(1));
+      assertTrue(cache.containsKey(2));
+   }
+
+   public void testSketchGrowthKeepsFrequencies() {
+      FrequencySketch sketch = new FrequencySketch(16);
+      for (int i = 0; i < 5; ++i) {
+         sketch.increment(42);
+      }
+      sketch.increment(7);
+      sketch.ensureCapacity(1000);
+      assertEquals(sketch.frequency(42), 5);
+      assertEquals(sketch.frequency(7), 1);
+   }
+
+   public void testClockSecondChance() {
+      BoundedCache cache = new BoundedCache("test", EvictionPolicy.Type.CLOCK, 3, false, 1);
+      cache.put(1, 1);
+      cache.put(2, 2);
+      cache.put(3, 3);
+      cache.get(1);
+      cache.get(2);
+      cache.put(4, 4);
+      assertNull(cache.get(3));
+      assertNotNull(cache.get(1));
+      assertNotNull(cache.get(2));
+   }
+
+   public void testFrequencyBasedAdmission() {
+      // frequently accessed keys survive a scan of one-time keys under W-TinyLFU but not under LRU
+      assertTrue(hitRatioAfterScan(EvictionPolicy.Type.W_TINY_LFU) > 0.9);
+      assertTrue(hitRatioAfterScan(EvictionPolicy.Type.LRU) < 0.1);
+   }
+
+   private static double hitRatioAfterScan(EvictionPolicy.Type type) {
+      BoundedCache cache = new BoundedCache("test", type, 1000, false, 1);
+      for (int round = 0; round < 10; ++round) {
+         for (int i = 0; i < 500; ++i) {
+            if (cache.get(i) == null) {
+               cache.put(i, i);
+            }
+         }
+      }
+      for (int i = 0; i < 10000; ++i) {
+         cache.put("scan" + i, i);
+      }
+      int hits = 0;
+      for (int i = 0; i < 500; ++i) {
+         if (cache.get(i) != null) {
+            ++hits;
+         }
+      }
+      return hits / 500d;
+   }
+}
@@ -14,12 +14,13 @@ import org.radargun.traits.ProvidesTrait;
 public class ChmService {
 
    protected ConcurrentHashMap<String, ChmCache> caches = new ConcurrentHashMap<String, ChmCache>();
-
-   public ChmService() {
-      caches.put(null, new ChmCache(null));
-   }
+   // ConcurrentHashMap does not permit null keys
+   protected final ChmCache defaultCache = new ChmCache(null);
 
    public ChmCache getCache(String cacheName) {
+      if (cacheName == null) {
+         return defaultCache;
+      }
       ChmCache cache = caches.get(cacheName);
       if (cache == null) {
          cache = new ChmCache(cacheName);
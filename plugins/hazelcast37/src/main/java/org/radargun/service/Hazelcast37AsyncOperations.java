@@ -0,0 +1,87 @@
+package org.radargun.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.ICompletableFuture;
+import com.hazelcast.core.IMap;
+import org.radargun.traits.AsyncBasicOperations;
+
+/**
+ * Since 3.7 the asynchronous map operations return {@link ICompletableFuture}
+ * which notifies registered callbacks, so we don't have to block any thread
+ * while waiting for the response.
+ */
+public class Hazelcast37AsyncOperations implements AsyncBasicOperations {
+   protected final Function<String, IMap> mapProvider;
+
+   public Hazelcast37AsyncOperations(Hazelcast36Service service) {
+      this.mapProvider = service::getMap;
+   }
+
+   public Hazelcast37AsyncOperations(Hazelcast37ClientService service) {
+      this.mapProvider = service::getMap;
+   }
+
+   @Override
+   public <K, V> AsyncBasicOperations.Cache<K, V> getCache(String cacheName) {
+      return new Cache<>(mapProvider.apply(cacheName));
+   }
+
+   protected static <T> CompletionStage<T> toCompletionStage(ICompletableFuture<T> future) {
+      CompletableFuture<T> cf = new CompletableFuture<>();
+      future.andThen(new ExecutionCallback<T>() {
+         @Override
+         public void onResponse(T response) {
+            cf.complete(response);
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            cf.completeExceptionally(t);
+         }
+      });
+      return cf;
+   }
+
+   protected static class Cache<K, V> implements AsyncBasicOperations.Cache<K, V> {
+      protected final IMap<K, V> map;
+
+      public Cache(IMap<K, V> map) {
+         this.map = map;
+      }
+
+      @Override
+      public CompletionStage<V> get(K key) {
+         return toCompletionStage(map.getAsync(key));
+      }
+
+      @Override
+      public CompletionStage<Boolean> containsKey(K key) {
+         // there's no containsKeyAsync
+         return toCompletionStage(map.getAsync(key)).thenApply(value -> value != null);
+      }
+
+      @Override
+      public CompletionStage<Void> put(K key, V value) {
+         return toCompletionStage(map.setAsync(key, value));
+      }
+
+      @Override
+      public CompletionStage<V> getAndPut(K key, V value) {
+         return toCompletionStage(map.putAsync(key, value));
+      }
+
+      @Override
+      public CompletionStage<Boolean> remove(K key) {
+         return toCompletionStage(map.removeAsync(key)).thenApply(value -> value != null);
+      }
+
+      @Override
+      public CompletionStage<V> getAndRemove(K key) {
+         return toCompletionStage(map.removeAsync(key));
+      }
+   }
+}
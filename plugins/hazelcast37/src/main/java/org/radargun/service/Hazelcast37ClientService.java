@@ -65,6 +65,11 @@ public class Hazelcast37ClientService implements Lifecycle {
       return new Hazelcast37ClientOperations(this);
    }
 
+   @ProvidesTrait
+   public Hazelcast37AsyncOperations createAsyncOperations() {
+      return new Hazelcast37AsyncOperations(this);
+   }
+
    @ProvidesTrait
    public Hazelcast37ClientService getSelf() {
       return this;
@@ -0,0 +1,16 @@
+package org.radargun.service;
+
+import org.radargun.Service;
+import org.radargun.traits.ProvidesTrait;
+
+/**
+ * Adds asynchronous operations available since Hazelcast 3.7.
+ */
+@Service(doc = HazelcastService.SERVICE_DESCRIPTION)
+public class Hazelcast37Service extends Hazelcast36Service {
+
+   @ProvidesTrait
+   public Hazelcast37AsyncOperations createAsyncOperations() {
+      return new Hazelcast37AsyncOperations(this);
+   }
+}
@@ -9,7 +9,7 @@ import org.radargun.traits.ProvidesTrait;
  * @author Martin Gencur
  */
 @Service(doc = HazelcastService.SERVICE_DESCRIPTION)
-public class Hazelcast39Service extends Hazelcast36Service {
+public class Hazelcast39Service extends Hazelcast37Service {
 
    @ProvidesTrait
    public CounterOperations createCounterOperations() {
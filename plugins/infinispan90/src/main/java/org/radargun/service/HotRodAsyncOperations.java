@@ -0,0 +1,81 @@
+package org.radargun.service;
+
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.client.hotrod.RemoteCache;
+import org.radargun.logging.Log;
+import org.radargun.logging.LogFactory;
+import org.radargun.traits.AsyncBasicOperations;
+
+/**
+ * Implementation of {@link AsyncBasicOperations} through the HotRod protocol.
+ * The requests are issued over the client's non-blocking transport and the returned
+ * futures complete when the response is received.
+ */
+public class HotRodAsyncOperations implements AsyncBasicOperations {
+   protected static final Log log = LogFactory.getLog(HotRodAsyncOperations.class);
+   protected static final boolean trace = log.isTraceEnabled();
+   protected final InfinispanHotrodService service;
+
+   public HotRodAsyncOperations(InfinispanHotrodService service) {
+      this.service = service;
+   }
+
+   @Override
+   public <K, V> AsyncBasicOperations.Cache<K, V> getCache(String cacheName) {
+      if (cacheName == null) {
+         cacheName = service.cacheName;
+      }
+      if (cacheName == null) {
+         return new HotRodAsyncCache<>((RemoteCache<K, V>) service.managerNoReturn.getCache(false), (RemoteCache<K, V>) service.managerForceReturn.getCache(true));
+      } else {
+         return new HotRodAsyncCache<>((RemoteCache<K, V>) service.managerNoReturn.getCache(cacheName, false), (RemoteCache<K, V>) service.managerForceReturn.getCache(cacheName, true));
+      }
+   }
+
+   protected static class HotRodAsyncCache<K, V> implements AsyncBasicOperations.Cache<K, V> {
+      protected final RemoteCache<K, V> noReturn;
+      protected final RemoteCache<K, V> forceReturn;
+
+      public HotRodAsyncCache(RemoteCache<K, V> noReturn, RemoteCache<K, V> forceReturn) {
+         this.noReturn = noReturn;
+         this.forceReturn = forceReturn;
+      }
+
+      @Override
+      public CompletionStage<V> get(K key) {
+         if (trace) log.tracef("GET_ASYNC cache=%s key=%s", noReturn.getName(), key);
+         return noReturn.getAsync(key);
+      }
+
+      @Override
+      public CompletionStage<Boolean> containsKey(K key) {
+         if (trace) log.tracef("CONTAINS_ASYNC cache=%s key=%s", noReturn.getName(), key);
+         return noReturn.getAsync(key).thenApply(value -> value != null);
+      }
+
+      @Override
+      public CompletionStage<Void> put(K key, V value) {
+         if (trace) log.tracef("PUT_ASYNC cache=%s key=%s value=%s", noReturn.getName(), key, value);
+         return noReturn.putAsync(key, value).thenApply(prev -> null);
+      }
+
+      @Override
+      public CompletionStage<V> getAndPut(K key, V value) {
+         if (trace) log.tracef("GET_AND_PUT_ASYNC cache=%s key=%s value=%s", forceReturn.getName(), key, value);
+         return forceReturn.putAsync(key, value);
+      }
+
+      @Override
+      public CompletionStage<Boolean> remove(K key) {
+         if (trace) log.tracef("REMOVE_ASYNC cache=%s key=%s", forceReturn.getName(), key);
+         return forceReturn.removeAsync(key).thenApply(prev -> prev != null);
+      }
+
+      @Override
+      public CompletionStage<V> getAndRemove(K key) {
+         if (trace) log.tracef("GET_AND_REMOVE_ASYNC cache=%s key=%s", forceReturn.getName(), key);
+         return forceReturn.removeAsync(key);
+      }
+   }
+}
@@ -24,6 +24,11 @@ public class Infinispan90EmbeddedService extends Infinispan82EmbeddedService {
       return new Infinispan90CacheInfo(this);
    }
 
+   @ProvidesTrait
+   public InfinispanAsyncOperations createAsyncOperations() {
+      return new InfinispanAsyncOperations(this);
+   }
+
    @Override
    protected TP getTransportProtocol() {
       JGroupsTransport transport = (JGroupsTransport) cacheManager.getTransport();
@@ -21,6 +21,11 @@ public class Infinispan90HotrodService extends Infinispan81HotrodService {
       return new Infinispan90HotRodOperations(this);
    }
 
+   @ProvidesTrait
+   public HotRodAsyncOperations createAsyncOperations() {
+      return new HotRodAsyncOperations(this);
+   }
+
    @ProvidesTrait
    public ContinuousQuery createContinuousQuery() {
       return new Infinispan90HotrodContinuousQuery(this);
@@ -0,0 +1,79 @@
+package org.radargun.service;
+
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.context.Flag;
+import org.radargun.logging.Log;
+import org.radargun.logging.LogFactory;
+import org.radargun.traits.AsyncBasicOperations;
+
+/**
+ * Implementation of {@link AsyncBasicOperations} using the asynchronous API
+ * of embedded cache, which returns {@link java.util.concurrent.CompletableFuture}.
+ */
+public class InfinispanAsyncOperations implements AsyncBasicOperations {
+
+   protected final InfinispanEmbeddedService service;
+
+   public InfinispanAsyncOperations(InfinispanEmbeddedService service) {
+      this.service = service;
+   }
+
+   @Override
+   public <K, V> AsyncBasicOperations.Cache<K, V> getCache(String cacheName) {
+      if (service.getCache(cacheName) == null) {
+         throw new IllegalStateException("Cache named '" + cacheName + "' does not exist");
+      }
+      return new Cache<K, V>((AdvancedCache<K, V>) service.getCache(cacheName).getAdvancedCache());
+   }
+
+   protected static class Cache<K, V> implements AsyncBasicOperations.Cache<K, V> {
+      protected final Log log = LogFactory.getLog(getClass());
+      protected final boolean trace = log.isTraceEnabled();
+
+      protected final AdvancedCache<K, V> impl;
+      protected final AdvancedCache<K, V> ignoreReturnValueImpl;
+
+      public Cache(AdvancedCache<K, V> impl) {
+         this.impl = impl;
+         this.ignoreReturnValueImpl = impl.withFlags(Flag.SKIP_REMOTE_LOOKUP, Flag.SKIP_CACHE_LOAD);
+      }
+
+      @Override
+      public CompletionStage<V> get(K key) {
+         if (trace) log.tracef("GET_ASYNC cache=%s key=%s", impl.getName(), key);
+         return impl.getAsync(key);
+      }
+
+      @Override
+      public CompletionStage<Boolean> containsKey(K key) {
+         if (trace) log.tracef("CONTAINS_ASYNC cache=%s key=%s", impl.getName(), key);
+         return impl.getAsync(key).thenApply(value -> value != null);
+      }
+
+      @Override
+      public CompletionStage<Void> put(K key, V value) {
+         if (trace) log.tracef("PUT_ASYNC cache=%s key=%s value=%s", impl.getName(), key, value);
+         return ignoreReturnValueImpl.putAsync(key, value).thenApply(prev -> null);
+      }
+
+      @Override
+      public CompletionStage<V> getAndPut(K key, V value) {
+         if (trace) log.tracef("GET_AND_PUT_ASYNC cache=%s key=%s value=%s", impl.getName(), key, value);
+         return impl.putAsync(key, value);
+      }
+
+      @Override
+      public CompletionStage<Boolean> remove(K key) {
+         if (trace) log.tracef("REMOVE_ASYNC cache=%s key=%s", impl.getName(), key);
+         return impl.removeAsync(key).thenApply(prev -> prev != null);
+      }
+
+      @Override
+      public CompletionStage<V> getAndRemove(K key) {
+         if (trace) log.tracef("GET_AND_REMOVE_ASYNC cache=%s key=%s", impl.getName(), key);
+         return impl.removeAsync(key);
+      }
+   }
+}
@@ -0,0 +1,525 @@
+package org.radargun.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.radargun.traits.BasicOperations;
+import org.radargun.traits.BulkOperations;
+import org.radargun.traits.CacheInformation;
+import org.radargun.traits.ConditionalOperations;
+
+/**
+ * Cache storing marshalled keys and values in direct memory, outside of Java heap. The cache is split
+ * into segments with their own lock, hash index and slab allocator. The index is an open-addressing
+ * table kept in primitive arrays, therefore the number of objects on heap does not grow with the number
+ * of entries.
+ *
+ * Entry consists of 4-byte key length, 4-byte value length, key type, value type, key and value bytes.
+ * Byte arrays and strings are stored as they are, other objects are serialized using Java serialization.
+ * The keys are compared by their marshalled form and the same applies to values in conditional operations.
+ */
+public class OffHeapCache implements BasicOperations.Cache, ConditionalOperations.Cache, BulkOperations.Cache, CacheInformation.Cache {
+   static final int ENTRY_HEADER = 10;
+   private static final byte TYPE_BYTES = 0;
+   private static final byte TYPE_STRING = 1;
+   private static final byte TYPE_SERIALIZED = 2;
+
+   private final String name;
+   private final Segment[] segments;
+   private final int segmentShift;
+   private final int segmentMask;
+
+   /**
+    * @param name Name of the cache
+    * @param numSegments Number of segments, must be power of two.
+    * @param slabSize Size of slabs allocated by each segment.
+    * @param availableMemory Memory that can be allocated by this cache, possibly shared with other caches.
+    */
+   public OffHeapCache(String name, int numSegments, int slabSize, AtomicLong availableMemory) {
+      if (Integer.bitCount(numSegments) != 1) {
+         throw new IllegalArgumentException("Number of segments must be power of two: " + numSegments);
+      }
+      this.name = name;
+      this.segments = new Segment[numSegments];
+      // for single segment the shift is 32, which Java treats as 0; the mask is 0 then
+      this.segmentShift = 32 - Integer.numberOfTrailingZeros(numSegments);
+      this.segmentMask = numSegments - 1;
+      for (int i = 0; i < numSegments; ++i) {
+         segments[i] = new Segment(new OffHeapSlabAllocator(slabSize, availableMemory));
+      }
+   }
+
+   @Override
+   public Object get(Object key) {
+      Marshalled k = Marshalled.key(key);
+      return segment(k.hash).get(k);
+   }
+
+   @Override
+   public boolean containsKey(Object key) {
+      Marshalled k = Marshalled.key(key);
+      return segment(k.hash).containsKey(k);
+   }
+
+   @Override
+   public void put(Object key, Object value) {
+      Marshalled k = Marshalled.key(key);
+      segment(k.hash).put(k, new Marshalled(value), null, false, false);
+   }
+
+   @Override
+   public Object getAndPut(Object key, Object value) {
+      Marshalled k = Marshalled.key(key);
+      return segment(k.hash).put(k, new Marshalled(value), null, false, true);
+   }
+
+   @Override
+   public boolean putIfAbsent(Object key, Object value) {
+      Marshalled k = Marshalled.key(key);
+      return segment(k.hash).putIfAbsent(k, new Marshalled(value));
+   }
+
+   @Override
+   public boolean remove(Object key) {
+      Marshalled k = Marshalled.key(key);
+      return segment(k.hash).remove(k, null, false) != null;
+   }
+
+   @Override
+   public boolean remove(Object key, Object oldValue) {
+      Marshalled k = Marshalled.key(key);
+      return segment(k.hash).remove(k, new Marshalled(oldValue), false) != null;
+   }
+
+   @Override
+   public Object getAndRemove(Object key) {
+      Marshalled k = Marshalled.key(key);
+      return segment(k.hash).remove(k, null, true);
+   }
+
+   @Override
+   public boolean replace(Object key, Object value) {
+      Marshalled k = Marshalled.key(key);
+      return segment(k.hash).put(k, new Marshalled(value), null, true, false) != null;
+   }
+
+   @Override
+   public boolean replace(Object key, Object oldValue, Object newValue) {
+      Marshalled k = Marshalled.key(key);
+      return segment(k.hash).put(k, new Marshalled(newValue), new Marshalled(oldValue), true, false) != null;
+   }
+
+   @Override
+   public Object getAndReplace(Object key, Object value) {
+      Marshalled k = Marshalled.key(key);
+      return segment(k.hash).put(k, new Marshalled(value), null, true, true);
+   }
+
+   @Override
+   public Map getAll(Set keys) {
+      Map<Object, Object> entries = new HashMap<>();
+      for (Object key : keys) {
+         Object value = get(key);
+         if (value != null) {
+            entries.put(key, value);
+         }
+      }
+      return entries;
+   }
+
+   @Override
+   public void putAll(Map entries) {
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) entries).entrySet()) {
+         put(entry.getKey(), entry.getValue());
+      }
+   }
+
+   @Override
+   public void removeAll(Set keys) {
+      for (Object key : keys) {
+         remove(key);
+      }
+   }
+
+   @Override
+   public void clear() {
+      for (Segment segment : segments) {
+         segment.clear();
+      }
+   }
+
+   @Override
+   public long getOwnedSize() {
+      return getTotalSize();
+   }
+
+   @Override
+   public long getLocallyStoredSize() {
+      return getTotalSize();
+   }
+
+   @Override
+   public long getMemoryStoredSize() {
+      // no entries are stored on heap
+      return 0;
+   }
+
+   @Override
+   public long getTotalSize() {
+      long size = 0;
+      for (Segment segment : segments) {
+         size += segment.size();
+      }
+      return size;
+   }
+
+   @Override
+   public Map<?, Long> getStructuredSize() {
+      return Collections.singletonMap(name, getTotalSize());
+   }
+
+   @Override
+   public int getNumReplicas() {
+      return 1;
+   }
+
+   @Override
+   public int getEntryOverhead() {
+      // header in the slab, address and hash in the index
+      return ENTRY_HEADER + 12;
+   }
+
+   /**
+    * @return Memory allocated for slabs of this cache.
+    */
+   public long getAllocatedMemory() {
+      long memory = 0;
+      for (Segment segment : segments) {
+         memory += segment.allocatedMemory();
+      }
+      return memory;
+   }
+
+   private Segment segment(int hash) {
+      // lower bits are used by the index in segment, the segment is selected by the highest bits
+      return segments[(hash >>> segmentShift) & segmentMask];
+   }
+
+   private static final class Marshalled {
+      final byte type;
+      final byte[] bytes;
+      // computed only for keys
+      int hash;
+
+      Marshalled(Object object) {
+         if (object == null) {
+            throw new NullPointerException("Null keys and values are not supported");
+         } else if (object instanceof byte[]) {
+            type = TYPE_BYTES;
+            bytes = (byte[]) object;
+         } else if (object instanceof String) {
+            type = TYPE_STRING;
+            bytes = ((String) object).getBytes(StandardCharsets.UTF_8);
+         } else {
+            type = TYPE_SERIALIZED;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+               oos.writeObject(object);
+            } catch (IOException e) {
+               throw new IllegalArgumentException("Cannot serialize " + object, e);
+            }
+            bytes = out.toByteArray();
+         }
+      }
+
+      static Marshalled key(Object key) {
+         Marshalled marshalled = new Marshalled(key);
+         int h = marshalled.type;
+         for (byte b : marshalled.bytes) {
+            h = 31 * h + b;
+         }
+         h *= 0x9E3779B9;
+         marshalled.hash = h ^ (h >>> 16);
+         return marshalled;
+      }
+
+      static Object unmarshall(byte type, byte[] bytes) {
+         switch (type) {
+            case TYPE_BYTES:
+               return bytes;
+            case TYPE_STRING:
+               return new String(bytes, StandardCharsets.UTF_8);
+            case TYPE_SERIALIZED:
+               try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                  return ois.readObject();
+               } catch (IOException | ClassNotFoundException e) {
+                  throw new IllegalStateException("Cannot deserialize value", e);
+               }
+            default:
+               throw new IllegalStateException("Unknown type " + type);
+         }
+      }
+   }
+
+   private static final class Segment {
+      private static final int INITIAL_CAPACITY = 64;
+
+      private final ReentrantLock lock = new ReentrantLock();
+      private final OffHeapSlabAllocator allocator;
+      // address 0 marks empty slot
+      private long[] addresses = new long[INITIAL_CAPACITY];
+      private int[] hashes = new int[INITIAL_CAPACITY];
+      private int size;
+
+      Segment(OffHeapSlabAllocator allocator) {
+         this.allocator = allocator;
+      }
+
+      Object get(Marshalled key) {
+         lock.lock();
+         try {
+            int slot = find(key);
+            return slot < 0 ? null : readValue(addresses[slot]);
+         } finally {
+            lock.unlock();
+         }
+      }
+
+      boolean containsKey(Marshalled key) {
+         lock.lock();
+         try {
+            return find(key) >= 0;
+         } finally {
+            lock.unlock();
+         }
+      }
+
+      /**
+       * @param expected If not null, the entry is replaced only if current value is equal to this.
+       * @param onlyIfPresent If true, new entry is not inserted.
+       * @param returnPrevious If true, previous value is returned, otherwise the method returns
+       *                       {@link Boolean#TRUE} when the value was replaced.
+       * @return Previous value or null if the entry was not written or replaced.
+       */
+      Object put(Marshalled key, Marshalled value, Marshalled expected, boolean onlyIfPresent, boolean returnPrevious) {
+         lock.lock();
+         try {
+            int slot = find(key);
+            if (slot < 0) {
+               if (!onlyIfPresent) {
+                  insert(-slot - 1, key, value);
+               }
+               return null;
+            }
+            long address = addresses[slot];
+            if (expected != null && !valueEquals(address, expected)) {
+               return null;
+            }
+            Object previous = returnPrevious ? readValue(address) : Boolean.TRUE;
+            ByteBuffer slab = allocator.slabOf(address);
+            int offset = OffHeapSlabAllocator.offset(address);
+            int oldSize = ENTRY_HEADER + slab.getInt(offset) + slab.getInt(offset + 4);
+            int newSize = ENTRY_HEADER + key.bytes.length + value.bytes.length;
+            if (allocator.fits(oldSize, newSize)) {
+               // rewrite in place
+               write(address, key, value);
+            } else {
+               long newAddress = allocator.allocate(newSize);
+               write(newAddress, key, value);
+               allocator.free(address, oldSize);
+               addresses[slot] = newAddress;
+            }
+            return previous;
+         } finally {
+            lock.unlock();
+         }
+      }
+
+      boolean putIfAbsent(Marshalled key, Marshalled value) {
+         lock.lock();
+         try {
+            int slot = find(key);
+            if (slot >= 0) {
+               return false;
+            }
+            insert(-slot - 1, key, value);
+            return true;
+         } finally {
+            lock.unlock();
+         }
+      }
+
+      /**
+       * @param expected If not null, the entry is removed only if current value is equal to this.
+       * @return Previous value if returnPrevious is true, {@link Boolean#TRUE} if the entry was removed
+       *         otherwise, or null if the entry was not removed.
+       */
+      Object remove(Marshalled key, Marshalled expected, boolean returnPrevious) {
+         lock.lock();
+         try {
+            int slot = find(key);
+            if (slot < 0) {
+               return null;
+            }
+            long address = addresses[slot];
+            if (expected != null && !valueEquals(address, expected)) {
+               return null;
+            }
+            Object previous = returnPrevious ? readValue(address) : Boolean.TRUE;
+            ByteBuffer slab = allocator.slabOf(address);
+            int offset = OffHeapSlabAllocator.offset(address);
+            allocator.free(address, ENTRY_HEADER + slab.getInt(offset) + slab.getInt(offset + 4));
+            deleteSlot(slot);
+            --size;
+            return previous;
+         } finally {
+            lock.unlock();
+         }
+      }
+
+      void clear() {
+         lock.lock();
+         try {
+            allocator.clear();
+            addresses = new long[INITIAL_CAPACITY];
+            hashes = new int[INITIAL_CAPACITY];
+            size = 0;
+         } finally {
+            lock.unlock();
+         }
+      }
+
+      int size() {
+         lock.lock();
+         try {
+            return size;
+         } finally {
+            lock.unlock();
+         }
+      }
+
+      long allocatedMemory() {
+         lock.lock();
+         try {
+            return allocator.getAllocatedMemory();
+         } finally {
+            lock.unlock();
+         }
+      }
+
+      /**
+       * @return Slot with the key, or (-slot - 1) where slot is the empty slot where the key should be inserted.
+       */
+      private int find(Marshalled key) {
+         int mask = addresses.length - 1;
+         for (int slot = key.hash & mask; ; slot = (slot + 1) & mask) {
+            long address = addresses[slot];
+            if (address == 0) {
+               return -slot - 1;
+            }
+            if (hashes[slot] == key.hash && keyEquals(address, key)) {
+               return slot;
+            }
+         }
+      }
+
+      private void insert(int slot, Marshalled key, Marshalled value) {
+         long address = allocator.allocate(ENTRY_HEADER + key.bytes.length + value.bytes.length);
+         write(address, key, value);
+         addresses[slot] = address;
+         hashes[slot] = key.hash;
+         if (++size > addresses.length * 3 / 4) {
+            resize();
+         }
+      }
+
+      private void resize() {
+         long[] oldAddresses = addresses;
+         int[] oldHashes = hashes;
+         addresses = new long[oldAddresses.length * 2];
+         hashes = new int[oldHashes.length * 2];
+         int mask = addresses.length - 1;
+         for (int i = 0; i < oldAddresses.length; ++i) {
+            if (oldAddresses[i] != 0) {
+               int slot = oldHashes[i] & mask;
+               while (addresses[slot] != 0) {
+                  slot = (slot + 1) & mask;
+               }
+               addresses[slot] = oldAddresses[i];
+               hashes[slot] = oldHashes[i];
+            }
+         }
+      }
+
+      /**
+       * Removes the slot and shifts following entries of the probe sequence back, so that no tombstones are needed.
+       */
+      private void deleteSlot(int slot) {
+         int mask = addresses.length - 1;
+         int empty = slot;
+         for (int current = (slot + 1) & mask; addresses[current] != 0; current = (current + 1) & mask) {
+            int home = hashes[current] & mask;
+            // move the entry if its home slot is not in the cyclic range (empty, current]
+            boolean movable = empty <= current ? (home <= empty || home > current) : (home <= empty && home > current);
+            if (movable) {
+               addresses[empty] = addresses[current];
+               hashes[empty] = hashes[current];
+               empty = current;
+            }
+         }
+         addresses[empty] = 0;
+         hashes[empty] = 0;
+      }
+
+      private void write(long address, Marshalled key, Marshalled value) {
+         ByteBuffer slab = allocator.slabOf(address);
+         slab.position(OffHeapSlabAllocator.offset(address));
+         slab.putInt(key.bytes.length).putInt(value.bytes.length).put(key.type).put(value.type);
+         slab.put(key.bytes).put(value.bytes);
+      }
+
+      private Object readValue(long address) {
+         ByteBuffer slab = allocator.slabOf(address);
+         int offset = OffHeapSlabAllocator.offset(address);
+         int keyLength = slab.getInt(offset);
+         byte[] bytes = new byte[slab.getInt(offset + 4)];
+         slab.position(offset + ENTRY_HEADER + keyLength);
+         slab.get(bytes);
+         return Marshalled.unmarshall(slab.get(offset + 9), bytes);
+      }
+
+      private boolean keyEquals(long address, Marshalled key) {
+         ByteBuffer slab = allocator.slabOf(address);
+         int offset = OffHeapSlabAllocator.offset(address);
+         return slab.getInt(offset) == key.bytes.length && slab.get(offset + 8) == key.type
+            && bytesEqual(slab, offset + ENTRY_HEADER, key.bytes);
+      }
+
+      private boolean valueEquals(long address, Marshalled value) {
+         ByteBuffer slab = allocator.slabOf(address);
+         int offset = OffHeapSlabAllocator.offset(address);
+         return slab.getInt(offset + 4) == value.bytes.length && slab.get(offset + 9) == value.type
+            && bytesEqual(slab, offset + ENTRY_HEADER + slab.getInt(offset), value.bytes);
+      }
+
+      private static boolean bytesEqual(ByteBuffer slab, int offset, byte[] bytes) {
+         for (int i = 0; i < bytes.length; ++i) {
+            if (slab.get(offset + i) != bytes[i]) {
+               return false;
+            }
+         }
+         return true;
+      }
+   }
+}
@@ -0,0 +1,114 @@
+package org.radargun.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.radargun.Service;
+import org.radargun.config.Init;
+import org.radargun.config.Property;
+import org.radargun.traits.BasicOperations;
+import org.radargun.traits.BulkOperations;
+import org.radargun.traits.CacheInformation;
+import org.radargun.traits.ConditionalOperations;
+import org.radargun.traits.ProvidesTrait;
+import org.radargun.utils.SizeConverter;
+
+@Service(doc = "Local cache storing keys and values off-heap in slab-allocated direct memory - not a distributed cache.")
+public class OffHeapService {
+
+   @Property(doc = "Number of independently locked segments of each cache; rounded up to power of two. Default is 64.")
+   protected int segments = 64;
+
+   @Property(doc = "Size of the memory slabs the segments allocate. This is also the maximum size of an entry. Default is 4 MB.",
+      converter = SizeConverter.class)
+   protected long slabSize = 4 * 1024 * 1024;
+
+   @Property(doc = "Maximum memory allocated for slabs of all caches; writes fail when the memory is exhausted. " +
+      "Note that the direct memory is limited by -XX:MaxDirectMemorySize, too. Default is unlimited.",
+      converter = SizeConverter.class)
+   protected long maxMemory = Long.MAX_VALUE;
+
+   protected ConcurrentHashMap<String, OffHeapCache> caches = new ConcurrentHashMap<>();
+   // ConcurrentHashMap does not permit null keys
+   protected OffHeapCache defaultCache;
+   protected AtomicLong availableMemory;
+
+   @Init
+   public void init() {
+      if (slabSize <= 0 || slabSize > Integer.MAX_VALUE) {
+         throw new IllegalArgumentException("Slab size must be positive and lower than 2 GB: " + slabSize);
+      }
+      if (segments <= 0) {
+         throw new IllegalArgumentException("Number of segments must be positive: " + segments);
+      }
+      if (Integer.bitCount(segments) != 1) {
+         segments = Integer.highestOneBit(segments) << 1;
+      }
+      availableMemory = new AtomicLong(maxMemory);
+      defaultCache = createCache(null);
+   }
+
+   public OffHeapCache getCache(String cacheName) {
+      if (cacheName == null) {
+         return defaultCache;
+      }
+      return caches.computeIfAbsent(cacheName, this::createCache);
+   }
+
+   private OffHeapCache createCache(String cacheName) {
+      return new OffHeapCache(cacheName, segments, (int) slabSize, availableMemory);
+   }
+
+   @ProvidesTrait
+   public BasicOperations createBasicOperations() {
+      return new BasicOperations() {
+         @Override
+         public <K, V> Cache<K, V> getCache(String cacheName) {
+            return OffHeapService.this.getCache(cacheName);
+         }
+      };
+   }
+
+   @ProvidesTrait
+   public ConditionalOperations createConditionalOperations() {
+      return new ConditionalOperations() {
+         @Override
+         public <K, V> Cache<K, V> getCache(String cacheName) {
+            return OffHeapService.this.getCache(cacheName);
+         }
+      };
+   }
+
+   @ProvidesTrait
+   public BulkOperations createBulkOperations() {
+      return new BulkOperations() {
+         @Override
+         public <K, V> Cache<K, V> getCache(String cacheName, boolean preferAsync) {
+            // all operations are local, there's no difference between native and asynchronous version
+            return OffHeapService.this.getCache(cacheName);
+         }
+      };
+   }
+
+   @ProvidesTrait
+   public CacheInformation createCacheInformation() {
+      return new CacheInformation() {
+         @Override
+         public String getDefaultCacheName() {
+            return null;
+         }
+
+         @Override
+         public Collection<String> getCacheNames() {
+            return Collections.unmodifiableSet(caches.keySet());
+         }
+
+         @Override
+         public Cache getCache(String cacheName) {
+            return OffHeapService.this.getCache(cacheName);
+         }
+      };
+   }
+}
@@ -0,0 +1,132 @@
+package org.radargun.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates chunks of memory from direct (off-heap) slabs. The chunks are rounded up to one of the size classes
+ * growing by factor 1.25; freed chunks are kept in per-class free lists and reused for chunks of the same class.
+ * Each chunk is identified by an address composed of slab index and offset within that slab.
+ *
+ * Not thread-safe, the caller must provide synchronization.
+ */
+final class OffHeapSlabAllocator {
+   private static final int MIN_CHUNK_SIZE = 16;
+
+   private final int slabSize;
+   private final AtomicLong availableMemory;
+   private final int[] chunkSizes;
+   private final long[][] freeChunks;
+   private final int[] freeCounts;
+   private final List<ByteBuffer> slabs = new ArrayList<>();
+   private ByteBuffer currentSlab;
+   private int currentOffset;
+
+   /**
+    * @param slabSize Size of one slab; also the maximum size of a chunk.
+    * @param availableMemory Memory that can be allocated for slabs, shared with other allocators.
+    */
+   OffHeapSlabAllocator(int slabSize, AtomicLong availableMemory) {
+      this.slabSize = slabSize;
+      this.availableMemory = availableMemory;
+      List<Integer> sizes = new ArrayList<>();
+      for (long size = MIN_CHUNK_SIZE; size < slabSize; size = (size * 5 / 4 + 7) & ~7L) {
+         sizes.add((int) size);
+      }
+      sizes.add(slabSize);
+      chunkSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+      freeChunks = new long[chunkSizes.length][];
+      freeCounts = new int[chunkSizes.length];
+   }
+
+   static long address(int slab, int offset) {
+      // zero is reserved for 'no address'
+      return ((long) (slab + 1) << 32) | (offset & 0xFFFFFFFFL);
+   }
+
+   static int slab(long address) {
+      return (int) (address >>> 32) - 1;
+   }
+
+   static int offset(long address) {
+      return (int) address;
+   }
+
+   ByteBuffer slabOf(long address) {
+      return slabs.get(slab(address));
+   }
+
+   /**
+    * @return Address of a chunk that can hold given number of bytes.
+    * @throws IllegalArgumentException if the size exceeds slab size.
+    * @throws IllegalStateException if there is not enough memory for a new slab.
+    */
+   long allocate(int size) {
+      int sizeClass = sizeClass(size);
+      if (freeCounts[sizeClass] > 0) {
+         return freeChunks[sizeClass][--freeCounts[sizeClass]];
+      }
+      int chunkSize = chunkSizes[sizeClass];
+      if (currentSlab == null || currentOffset + chunkSize > slabSize) {
+         if (availableMemory.addAndGet(-slabSize) < 0) {
+            availableMemory.addAndGet(slabSize);
+            throw new IllegalStateException("Cannot allocate " + size + " bytes: off-heap memory is exhausted");
+         }
+         // the rest of the previous slab is wasted
+         currentSlab = ByteBuffer.allocateDirect(slabSize);
+         slabs.add(currentSlab);
+         currentOffset = 0;
+      }
+      long address = address(slabs.size() - 1, currentOffset);
+      currentOffset += chunkSize;
+      return address;
+   }
+
+   /**
+    * Returns the chunk allocated with the same size to the free list.
+    */
+   void free(long address, int size) {
+      int sizeClass = sizeClass(size);
+      long[] chunks = freeChunks[sizeClass];
+      if (chunks == null) {
+         freeChunks[sizeClass] = chunks = new long[16];
+      } else if (freeCounts[sizeClass] == chunks.length) {
+         freeChunks[sizeClass] = chunks = Arrays.copyOf(chunks, chunks.length * 2);
+      }
+      chunks[freeCounts[sizeClass]++] = address;
+   }
+
+   /**
+    * @return True if the chunk allocated for <code>oldSize</code> can hold <code>newSize</code> bytes, too.
+    */
+   boolean fits(int oldSize, int newSize) {
+      return sizeClass(oldSize) == sizeClass(newSize);
+   }
+
+   /**
+    * Drops all slabs and returns their memory to the available memory.
+    */
+   void clear() {
+      availableMemory.addAndGet((long) slabs.size() * slabSize);
+      slabs.clear();
+      currentSlab = null;
+      currentOffset = 0;
+      Arrays.fill(freeChunks, null);
+      Arrays.fill(freeCounts, 0);
+   }
+
+   long getAllocatedMemory() {
+      return (long) slabs.size() * slabSize;
+   }
+
+   private int sizeClass(int size) {
+      if (size > slabSize) {
+         throw new IllegalArgumentException("Entry of " + size + " bytes is larger than slab size " + slabSize);
+      }
+      int index = Arrays.binarySearch(chunkSizes, size);
+      return index >= 0 ? index : -index - 1;
+   }
+}
@@ -0,0 +1,109 @@
+package org.radargun.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class OffHeapCacheTest {
+
+   public void testBasicAndConditionalOperations() {
+      OffHeapCache cache = new OffHeapCache("test", 4, 4096, new AtomicLong(Long.MAX_VALUE));
+      byte[] value = new byte[] {1, 2, 3};
+      cache.put("key", value);
+      assertEquals(cache.get("key"), value);
+      assertTrue(cache.containsKey("key"));
+      assertNull(cache.get("other"));
+      assertFalse(cache.putIfAbsent("key", new byte[1]));
+      assertTrue(cache.putIfAbsent(42L, "value"));
+      assertEquals(cache.get(42L), "value");
+      // values are compared by content
+      assertTrue(cache.replace("key", new byte[] {1, 2, 3}, new byte[100]));
+      assertFalse(cache.replace("key", value, new byte[1]));
+      assertEquals(cache.getAndReplace("key", new byte[] {4}), new byte[100]);
+      assertFalse(cache.replace("other", value));
+      assertFalse(cache.remove("key", value));
+      assertEquals(cache.getAndRemove("key"), new byte[] {4});
+      assertFalse(cache.remove("key"));
+      assertTrue(cache.remove(42L));
+      assertEquals(cache.getTotalSize(), 0);
+   }
+
+   public void testBulkOperations() {
+      OffHeapCache cache = new OffHeapCache("test", 1, 4096, new AtomicLong(Long.MAX_VALUE));
+      Map<Object, Object> entries = new HashMap<>();
+      entries.put("a", "1");
+      entries.put("b", "2");
+      cache.putAll(entries);
+      assertEquals(cache.getAll(new HashSet<>(Arrays.asList("a", "b", "c"))), entries);
+      cache.removeAll(Collections.singleton("a"));
+      assertEquals(cache.getAll(new HashSet<>(Arrays.asList("a", "b"))), Collections.singletonMap("b", "2"));
+   }
+
+   public void testManySegments() {
+      int numSegments = 1024;
+      int slabSize = 4096;
+      OffHeapCache cache = new OffHeapCache("test", numSegments, slabSize, new AtomicLong(Long.MAX_VALUE));
+      for (int i = 0; i < 10000; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      for (int i = 0; i < 10000; ++i) {
+         assertEquals(cache.get("key" + i), "value" + i);
+      }
+      // each segment allocates its own slab on first write, with 8 bits of hash only 256 would be used
+      assertTrue(cache.getAllocatedMemory() / slabSize > 256, "Used segments: " + cache.getAllocatedMemory() / slabSize);
+   }
+
+   public void testManyEntries() {
+      OffHeapCache cache = new OffHeapCache("test", 2, 64 * 1024, new AtomicLong(Long.MAX_VALUE));
+      Map<String, byte[]> expected = new HashMap<>();
+      Random random = new Random(42);
+      for (int i = 0; i < 20000; ++i) {
+         String key = "key" + random.nextInt(5000);
+         int operation = random.nextInt(3);
+         if (operation == 0) {
+            cache.remove(key);
+            expected.remove(key);
+         } else {
+            byte[] value = new byte[random.nextInt(500)];
+            random.nextBytes(value);
+            cache.put(key, value);
+            expected.put(key, value);
+         }
+      }
+      assertEquals(cache.getTotalSize(), expected.size());
+      for (int i = 0; i < 5000; ++i) {
+         String key = "key" + i;
+         byte[] value = expected.get(key);
+         if (value == null) {
+            assertNull(cache.get(key), key);
+         } else {
+            assertEquals(cache.get(key), value, key);
+         }
+      }
+      long allocated = cache.getAllocatedMemory();
+      cache.clear();
+      assertEquals(cache.getTotalSize(), 0);
+      assertTrue(allocated > 0);
+      assertEquals(cache.getAllocatedMemory(), 0);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testMemoryExhausted() {
+      OffHeapCache cache = new OffHeapCache("test", 1, 1024, new AtomicLong(2048));
+      for (int i = 0; i < 3; ++i) {
+         cache.put("key" + i, new byte[1000]);
+      }
+   }
+}
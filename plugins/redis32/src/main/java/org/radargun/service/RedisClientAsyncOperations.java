@@ -0,0 +1,63 @@
+package org.radargun.service;
+
+import java.util.concurrent.CompletionStage;
+
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import org.radargun.traits.AsyncBasicOperations;
+
+/**
+ * Implements {@link AsyncBasicOperations} using Lettuce, since Jedis does not provide
+ * non-blocking API. The commands are pipelined over a single shared connection.
+ */
+public class RedisClientAsyncOperations implements AsyncBasicOperations {
+
+   protected final RedisClientService service;
+
+   public RedisClientAsyncOperations(RedisClientService service) {
+      this.service = service;
+   }
+
+   @Override
+   public <K, V> Cache<K, V> getCache(String cacheName) {
+      return (Cache<K, V>) new RedisAsyncCacheAdapter(service.getAsyncConnection().async());
+   }
+
+   private static class RedisAsyncCacheAdapter implements AsyncBasicOperations.Cache<byte[], byte[]> {
+      private final RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands;
+
+      RedisAsyncCacheAdapter(RedisAdvancedClusterAsyncCommands<byte[], byte[]> commands) {
+         this.commands = commands;
+      }
+
+      @Override
+      public CompletionStage<byte[]> get(byte[] key) {
+         return commands.get(key);
+      }
+
+      @Override
+      public CompletionStage<Boolean> containsKey(byte[] key) {
+         return commands.exists(key).thenApply(count -> count > 0);
+      }
+
+      @Override
+      public CompletionStage<Void> put(byte[] key, byte[] value) {
+         return commands.set(key, value).thenApply(status -> null);
+      }
+
+      @Override
+      public CompletionStage<byte[]> getAndPut(byte[] key, byte[] value) {
+         return commands.getset(key, value);
+      }
+
+      @Override
+      public CompletionStage<Boolean> remove(byte[] key) {
+         return commands.del(key).thenApply(count -> count > 0);
+      }
+
+      @Override
+      public CompletionStage<byte[]> getAndRemove(byte[] key) {
+         return commands.eval(RedisClientOperations.GET_AND_REMOVE_SCRIPT, ScriptOutputType.VALUE, key);
+      }
+   }
+}
@@ -1,9 +1,15 @@
 package org.radargun.service;
 
+import java.nio.charset.StandardCharsets;
+
 import org.radargun.traits.BasicOperations;
 import redis.clients.jedis.JedisCluster;
 
 public class RedisClientOperations implements BasicOperations {
+   // GETDEL is available since Redis 6.2, the script executes GET and DEL atomically
+   static final String GET_AND_REMOVE_SCRIPT = "local value = redis.call('GET', KEYS[1]); "
+      + "redis.call('DEL', KEYS[1]); return value";
+   private static final byte[] GET_AND_REMOVE_SCRIPT_BYTES = GET_AND_REMOVE_SCRIPT.getBytes(StandardCharsets.UTF_8);
 
    protected final RedisClientService service;
 
@@ -50,9 +56,7 @@ public class RedisClientOperations implements BasicOperations {
 
       @Override
       public byte[] getAndRemove(byte[] key) {
-         byte[] bytes = jedisCluster.get(key);
-         jedisCluster.del(key);
-         return bytes;
+         return (byte[]) jedisCluster.eval(GET_AND_REMOVE_SCRIPT_BYTES, 1, key);
       }
 
       @Override
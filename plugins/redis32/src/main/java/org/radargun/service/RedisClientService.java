@@ -1,10 +1,15 @@
 package org.radargun.service;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
 import org.radargun.Service;
 import org.radargun.config.Property;
 import org.radargun.traits.Lifecycle;
@@ -16,12 +21,15 @@ import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPoolConfig;
 
 /**
- * This only works with clustered redis.
+ * This only works with clustered redis. Blocking operations use Jedis, asynchronous
+ * operations use Lettuce client which is connected on first use.
  */
 @Service(doc = "Redis client")
 public class RedisClientService implements Lifecycle {
 
    protected JedisCluster jedisCluster;
+   protected RedisClusterClient asyncClient;
+   protected StatefulRedisClusterConnection<byte[], byte[]> asyncConnection;
 
    @Property(doc = "List of server addresses (in host:port format) the clients should connect to, separated by semicolons (;).", converter = RedisAddressListConverter.class)
    protected List<InetSocketAddress> servers;
@@ -49,9 +57,17 @@ public class RedisClientService implements Lifecycle {
    }
 
    @Override
-   public void stop() {
+   public synchronized void stop() {
       Utils.close(jedisCluster);
       jedisCluster = null;
+      if (asyncConnection != null) {
+         asyncConnection.close();
+         asyncConnection = null;
+      }
+      if (asyncClient != null) {
+         asyncClient.shutdown();
+         asyncClient = null;
+      }
    }
 
    @Override
@@ -64,9 +80,28 @@ public class RedisClientService implements Lifecycle {
       return new RedisClientOperations(this);
    }
 
+   @ProvidesTrait
+   public RedisClientAsyncOperations createAsyncOperations() {
+      return new RedisClientAsyncOperations(this);
+   }
+
    @ProvidesTrait
    public RedisClientService getSelf() {
       return this;
    }
 
+   protected synchronized StatefulRedisClusterConnection<byte[], byte[]> getAsyncConnection() {
+      if (jedisCluster == null) {
+         throw new IllegalStateException("Service is not running");
+      }
+      if (asyncConnection == null) {
+         List<RedisURI> uris = new ArrayList<>(servers.size());
+         for (InetSocketAddress server : servers) {
+            uris.add(RedisURI.create(server.getHostName(), server.getPort()));
+         }
+         asyncClient = RedisClusterClient.create(uris);
+         asyncConnection = asyncClient.connect(ByteArrayCodec.INSTANCE);
+      }
+      return asyncConnection;
+   }
 }
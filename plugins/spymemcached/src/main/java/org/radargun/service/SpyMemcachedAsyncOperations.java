@@ -0,0 +1,123 @@
+package org.radargun.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import net.spy.memcached.CASResponse;
+import net.spy.memcached.CASValue;
+import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.internal.GetFuture;
+import net.spy.memcached.internal.OperationFuture;
+import org.radargun.traits.AsyncBasicOperations;
+
+/**
+ * Implementation of {@link AsyncBasicOperations} through the listenable futures
+ * returned by SpyMemcached. Similar to {@link SpyMemcachedOperations}, operations
+ * returning the previous value are implemented by chaining GETS and CAS,
+ * therefore these may require multiple actual calls.
+ */
+public class SpyMemcachedAsyncOperations implements AsyncBasicOperations {
+   private final SpyMemcachedService service;
+
+   public SpyMemcachedAsyncOperations(SpyMemcachedService service) {
+      this.service = service;
+   }
+
+   @Override
+   public <K, V> SpyMemcachedAsyncCache<K, V> getCache(String cacheName) {
+      if (cacheName != null && (service.cacheName == null || !service.cacheName.equals(cacheName))) {
+         throw new UnsupportedOperationException();
+      }
+      return new SpyMemcachedAsyncCache();
+   }
+
+   private static <T> CompletionStage<T> toCompletionStage(OperationFuture<T> future) {
+      CompletableFuture<T> cf = new CompletableFuture<>();
+      future.addListener(f -> complete(cf, (Future<T>) f));
+      return cf;
+   }
+
+   private static <T> CompletionStage<T> toCompletionStage(GetFuture<T> future) {
+      CompletableFuture<T> cf = new CompletableFuture<>();
+      future.addListener(f -> complete(cf, (Future<T>) f));
+      return cf;
+   }
+
+   private static <T> void complete(CompletableFuture<T> cf, Future<T> future) {
+      // the listener is invoked only after the future is done, get() does not block
+      try {
+         cf.complete(future.get());
+      } catch (ExecutionException e) {
+         cf.completeExceptionally(e.getCause());
+      } catch (Throwable t) {
+         cf.completeExceptionally(t);
+      }
+   }
+
+   protected class SpyMemcachedAsyncCache<K, V> implements AsyncBasicOperations.Cache<K, V> {
+
+      private final MemcachedClient client;
+
+      public SpyMemcachedAsyncCache() {
+         client = service.nextClient();
+      }
+
+      @Override
+      public CompletionStage<V> get(K key) {
+         return toCompletionStage((GetFuture<V>) (GetFuture) client.asyncGet(key.toString()));
+      }
+
+      @Override
+      public CompletionStage<Boolean> containsKey(K key) {
+         return toCompletionStage(client.asyncGet(key.toString())).thenApply(value -> value != null);
+      }
+
+      @Override
+      public CompletionStage<Void> put(K key, V value) {
+         return toCompletionStage(client.set(key.toString(), 0, value)).thenApply(success -> {
+            if (!success) {
+               throw new IllegalStateException("PUT failed");
+            }
+            return null;
+         });
+      }
+
+      @Override
+      public CompletionStage<V> getAndPut(K key, V value) {
+         String stringKey = key.toString();
+         return toCompletionStage(client.asyncGets(stringKey)).thenCompose(prev -> {
+            CompletionStage<Boolean> stored;
+            if (prev == null || prev.getValue() == null) {
+               stored = toCompletionStage(client.add(stringKey, 0, value));
+            } else {
+               stored = toCompletionStage(client.asyncCAS(stringKey, prev.getCas(), value))
+                  .thenApply(response -> response == CASResponse.OK);
+            }
+            return stored.thenCompose(success -> success ? CompletableFuture.completedFuture(previousValue(prev)) : getAndPut(key, value));
+         });
+      }
+
+      @Override
+      public CompletionStage<Boolean> remove(K key) {
+         return toCompletionStage(client.delete(key.toString()));
+      }
+
+      @Override
+      public CompletionStage<V> getAndRemove(K key) {
+         String stringKey = key.toString();
+         return toCompletionStage(client.asyncGets(stringKey)).thenCompose(prev -> {
+            if (prev == null || prev.getValue() == null) {
+               return CompletableFuture.completedFuture(null);
+            }
+            return toCompletionStage(client.delete(stringKey, prev.getCas()))
+               .thenCompose(success -> success ? CompletableFuture.completedFuture(previousValue(prev)) : getAndRemove(key));
+         });
+      }
+
+      private V previousValue(CASValue<Object> prev) {
+         return prev == null ? null : (V) prev.getValue();
+      }
+   }
+}
@@ -57,6 +57,11 @@ public class SpyMemcachedService implements Lifecycle {
       return new SpyMemcachedOperations(this);
    }
 
+   @ProvidesTrait
+   public SpyMemcachedAsyncOperations createAsyncOperations() {
+      return new SpyMemcachedAsyncOperations(this);
+   }
+
    @ProvidesTrait
    public Lifecycle getLifecycle() {
       return this;
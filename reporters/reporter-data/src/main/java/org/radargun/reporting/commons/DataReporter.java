@@ -17,6 +17,7 @@ import org.radargun.logging.Log;
 import org.radargun.logging.LogFactory;
 import org.radargun.reporting.Report;
 import org.radargun.stats.Statistics;
+import org.radargun.stats.StatsUtils;
 import org.radargun.stats.representation.DataThroughput;
 import org.radargun.stats.representation.DefaultOutcome;
 import org.radargun.stats.representation.MeanAndDev;
@@ -42,7 +43,10 @@ public class DataReporter {
       long firstTimestamp = Long.MAX_VALUE;
       long lastTimestamp = Long.MIN_VALUE;
       for (Report.TestIteration iteration : test.getIterations()) {
-         Statistics aggregated = null;
+         List<Statistics> nodeSummaries = new ArrayList<>();
+         // the total merged on main can be used only if no worker is ignored
+         Statistics total = ignore != null && iteration.getStatistics().stream().anyMatch(e -> ignore.contains(e.getKey()))
+            ? null : iteration.getAggregatedStatistics();
          for (Map.Entry<Integer, List<Statistics>> workerStats : iteration.getStatistics()) {
             if (ignore != null && ignore.contains(workerStats.getKey())) {
                continue;
@@ -51,15 +55,14 @@ public class DataReporter {
                continue;
             }
             Statistics nodeSummary = processRow(it, columns, rows, workerStats, percentiles);
-            if (computeTotal) {
-               if (aggregated == null)
-                  aggregated = nodeSummary.copy();
-               else
-                  aggregated.merge(nodeSummary);
+            if (computeTotal && total == null) {
+               nodeSummaries.add(nodeSummary);
             }
             firstTimestamp = Math.min(firstTimestamp, nodeSummary.getBegin());
             lastTimestamp = Math.max(lastTimestamp, nodeSummary.getEnd());
          }
+         // node summaries may be the statistics from the report, these must not be modified
+         Statistics aggregated = total != null ? total : StatsUtils.mergeHierarchically(nodeSummaries, StatsUtils.DEFAULT_MERGE_FAN_IN);
          if (computeTotal && aggregated != null) {
             Map<String, String> rowData = new HashMap<String, String>();
             rows.add(rowData);
@@ -81,8 +84,11 @@ public class DataReporter {
    private static Statistics processRow(int it, Set<String> columns, List<Map<String, String>> rows,
                                  Map.Entry<Integer, List<Statistics>> workerStats, double[] percentiles) {
       // this reporter is merging statistics from all threads on each node
-      Statistics summary = workerStats.getValue().stream().filter(o -> o != null).reduce(Statistics.MERGE)
-            .orElseThrow(() -> new IllegalStateException("No statistics!"));
+      List<Statistics> threadStats = workerStats.getValue();
+      Statistics summary = threadStats.size() == 1 ? threadStats.get(0) : StatsUtils.mergeHierarchically(threadStats, StatsUtils.DEFAULT_MERGE_FAN_IN);
+      if (summary == null) {
+         throw new IllegalStateException("No statistics!");
+      }
       Map<String, String> rowData = new HashMap<String, String>();
       rows.add(rowData);
       for (String operation : summary.getOperations()) {
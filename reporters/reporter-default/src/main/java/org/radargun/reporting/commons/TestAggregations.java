@@ -9,6 +9,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.radargun.Operation;
 import org.radargun.config.Cluster;
@@ -16,6 +17,7 @@ import org.radargun.logging.Log;
 import org.radargun.logging.LogFactory;
 import org.radargun.reporting.Report;
 import org.radargun.stats.Statistics;
+import org.radargun.stats.StatsUtils;
 import org.radargun.stats.representation.DefaultOutcome;
 
 /**
@@ -79,12 +81,13 @@ public class TestAggregations {
       AtomicInteger totalThreads = new AtomicInteger();
       List<Statistics> nodeStats = new ArrayList<>();
       List<Integer> nodeThreads = new ArrayList<>();
-      Optional<Statistics> totalStats = it.getStatistics().stream()
+      List<Statistics> mergedNodeStats = it.getStatistics().stream()
          .map(entry -> {
             int workerIndex = entry.getKey();
             List<Statistics> list = entry.getValue();
             totalThreads.addAndGet(list.size());
-            return list.stream().reduce(Statistics.MERGE).map(ns -> {
+            // the thread statistics belong to the report, only the merged copy is modified
+            return Optional.ofNullable(StatsUtils.mergeHierarchically(list, StatsUtils.DEFAULT_MERGE_FAN_IN)).map(ns -> {
                while (nodeStats.size() <= workerIndex) {
                   nodeStats.add(null);
                   nodeThreads.add(0);
@@ -94,7 +97,9 @@ public class TestAggregations {
                return ns;
             });
          })
-         .filter(Optional::isPresent).map(Optional::get).reduce(Statistics.MERGE);
+         .filter(Optional::isPresent).map(Optional::get).collect(Collectors.toList());
+      // node statistics are kept in the aggregation as well, the total is merged into a copy
+      Optional<Statistics> totalStats = Optional.ofNullable(StatsUtils.mergeHierarchically(mergedNodeStats, StatsUtils.DEFAULT_MERGE_FAN_IN));
 
       if (!totalStats.isPresent()) {
          log.warn("There are no stats for this iteration");
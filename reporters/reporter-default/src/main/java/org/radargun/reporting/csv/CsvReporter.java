@@ -116,17 +116,19 @@ public class CsvReporter extends AbstractReporter {
    }
 
    private static class ValueAndWorker implements Comparable<ValueAndWorker> {
-      Timeline.Value value;
+      long timestamp;
+      double value;
       int workerIndex;
 
-      private ValueAndWorker(Timeline.Value value, int workerIndex) {
+      private ValueAndWorker(long timestamp, double value, int workerIndex) {
+         this.timestamp = timestamp;
          this.value = value;
          this.workerIndex = workerIndex;
       }
 
       @Override
       public int compareTo(ValueAndWorker o) {
-         int c = Long.compare(value.timestamp, o.value.timestamp);
+         int c = Long.compare(timestamp, o.timestamp);
          return c == 0 ? Integer.compare(workerIndex, o.workerIndex) : c;
       }
    }
@@ -150,18 +152,18 @@ public class CsvReporter extends AbstractReporter {
             writer.write('\n');
             List<ValueAndWorker> values = new ArrayList<ValueAndWorker>();
             for (Timeline t : report.getTimelines()) {
-               List<Timeline.Value> list = t.getValues(valueCategory);
-               if (list == null)
+               Timeline.Series series = t.getSeries(valueCategory);
+               if (series == null)
                   continue;
-               for (Timeline.Value v : list) {
-                  values.add(new ValueAndWorker(v, t.workerIndex));
+               for (int i = 0; i < series.size(); ++i) {
+                  values.add(new ValueAndWorker(series.getTimestamp(i), series.getValue(i), t.workerIndex));
                }
             }
             Collections.sort(values);
             long currTimestamp = Long.MIN_VALUE;
             int nextIndex = -1;
             for (ValueAndWorker vas : values) {
-               if (currTimestamp != vas.value.timestamp) {
+               if (currTimestamp != vas.timestamp) {
                   if (nextIndex >= 0) {
                      for (int i = nextIndex; i <= maxWorkerIndex; ++i) {
                         writer.write(separator);
@@ -169,14 +171,14 @@ public class CsvReporter extends AbstractReporter {
                      writer.write('\n');
                   }
                   nextIndex = 0;
-                  writer.write(String.format("%d%s", vas.value.timestamp, separator));
+                  writer.write(String.format("%d%s", vas.timestamp, separator));
                }
                for (int i = nextIndex; i < vas.workerIndex; ++i) {
                   writer.write(separator);
                }
-               writer.write(vas.value.value.toString());
+               writer.write(formatValue(vas.value));
                writer.write(separator);
-               currTimestamp = vas.value.timestamp;
+               currTimestamp = vas.timestamp;
                nextIndex = vas.workerIndex + 1;
             }
          } catch (IOException e) {
@@ -193,6 +195,16 @@ public class CsvReporter extends AbstractReporter {
       }
    }
 
+   /**
+    * Timeline stores the values as doubles; integral ones are written without the fraction.
+    */
+   private static String formatValue(double value) {
+      if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+         return Long.toString((long) value);
+      }
+      return Double.toString(value);
+   }
+
    /**
     * Comparator for sorting rows based on column value
     * 
@@ -1,6 +1,5 @@
 package org.radargun.reporting.html;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -100,18 +99,10 @@ public class CombinedReportDocument extends ReportDocument {
       for (String target : targets) {
          if (maxClusters > 1 && configuration.separateClusterCharts) {
             for (Integer clusterSize : clusterSizes) {
-               try {
-                  createCharts(target, clusterSize);
-               } catch (IOException e) {
-                  log.error("Exception while creating test charts", e);
-               }
+               createCharts(target, clusterSize);
             }
          } else {
-            try {
-               createCharts(target, 0);
-            } catch (IOException e) {
-               log.error("Exception while creating test charts", e);
-            }
+            createCharts(target, 0);
          }
       }
    }
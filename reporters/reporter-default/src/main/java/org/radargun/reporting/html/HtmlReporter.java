@@ -15,8 +15,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import freemarker.cache.ClassTemplateLoader;
 import freemarker.template.DefaultObjectWrapper;
@@ -38,18 +39,20 @@ import org.radargun.reporting.commons.TestAggregations;
  * Reporter presenting the statistics and timelines in form of directory
  * with several linked HTML pages and image files displayed on those pages.
  *
+ * The pages and charts are generated in parallel in a fork-join pool; each test page is written
+ * as soon as its statistics are aggregated, and the aggregations are released afterwards.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 public class HtmlReporter extends AbstractReporter {
    private static final Log log = LogFactory.getLog(HtmlReporter.class);
-   /**
-    * Shared executor used for long-running tasks when the report is generated.
-    */
-   public static final ExecutorService executor = Executors.newFixedThreadPool(2 * Runtime.getRuntime().availableProcessors());
 
    @Property(doc = "Directory to put the reports. Default is results/html.")
    private String targetDir = "results" + File.separator + "html";
 
+   @Property(doc = "Number of threads generating the pages and charts. Default is the number of available processors.")
+   private int threads = Runtime.getRuntime().availableProcessors();
+
    @PropertyDelegate(prefix = "testReport.")
    private ReportDocument.Configuration testReportConfig = new ReportDocument.Configuration();
 
@@ -71,13 +74,33 @@ public class HtmlReporter extends AbstractReporter {
 
       this.allTests = allTests;
 
-      writeIndexDocument(mainConfig, reports);
-      writeTimelineDocuments(reports, Timeline.Category.Type.CUSTOM);
-      writeTimelineDocuments(reports, Timeline.Category.Type.SYSMONITOR);
-      writeTestReportDocuments(combinedTests, testsByName);
-      writeCombinedReportDocuments(testsByName);
-      writeNormalizedConfigDocuments(reports);
-
+      // Charts are forked from the page tasks and joined before the page is written; joining
+      // within the pool executes other tasks instead of blocking the thread.
+      ForkJoinPool pool = new ForkJoinPool(Math.max(threads, 1));
+      try {
+         pool.submit(() -> {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            tasks.add(ForkJoinTask.adapt(() -> writeIndexDocument(mainConfig, reports)).fork());
+            writeTimelineDocuments(reports, tasks);
+            writeTestReportDocuments(combinedTests, testsByName, tasks);
+            writeCombinedReportDocuments(testsByName, tasks);
+            writeNormalizedConfigDocuments(reports, tasks);
+            for (ForkJoinTask<?> task : tasks) {
+               try {
+                  task.join();
+               } catch (Exception e) {
+                  log.error("Failed to generate report page", e);
+               }
+            }
+         }).get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         log.error("Interrupted while generating the report", e);
+      } catch (ExecutionException e) {
+         log.error("Failed to generate the report", e.getCause());
+      } finally {
+         pool.shutdown();
+      }
    }
 
    private void resolveCombinedTests(Set<String> allTests, Set<String> combinedTests) {
@@ -108,7 +131,7 @@ public class HtmlReporter extends AbstractReporter {
       }
    }
 
-   private void writeNormalizedConfigDocuments(Collection<Report> reports) {
+   private void writeNormalizedConfigDocuments(Collection<Report> reports, List<ForkJoinTask<?>> tasks) {
       for (Report report : reports) {
          for (Configuration.Setup setup : report.getConfiguration().getSetups()) {
             Set<Integer> workers = report.getCluster().getWorkers(setup.group);
@@ -119,90 +142,114 @@ public class HtmlReporter extends AbstractReporter {
                }
             }
             for (String config : normalized) {
-               NormalizedConfigDocument document = new NormalizedConfigDocument(
-                  targetDir, report.getConfiguration().name, setup.group, report.getCluster(), config, report.getNormalizedServiceConfigs(), workers);
-
-               document.createReportDirectory();
-
-               Map root = new HashMap();
-               root.put("normalized", document);
-
-               processTemplate(root, targetDir, document.getFileName(), "normalizedReport.ftl");
+               tasks.add(ForkJoinTask.adapt(() -> writeNormalizedConfigDocument(report, setup, workers, config)).fork());
             }
          }
       }
    }
 
-   private void writeCombinedReportDocuments(Map<String, List<Report.Test>> testsByName) {
-      for (List<String> combined : testReportConfig.combinedTests) {
-         List<TestAggregations> testAggregations = new ArrayList<>();
-         StringBuilder sb = new StringBuilder();
-         for (String testName : combined) {
-            if (sb.length() != 0) sb.append('_');
-            sb.append(testName);
-            List<Report.Test> reportedTests = testsByName.get(testName);
-            if (reportedTests == null) {
-               log.warn("Test " + testName + " was not found!");
-               continue;
-            }
-            TestAggregations ta = new TestAggregations(testName, reportedTests);
-            testAggregations.add(ta);
-         }
-         if (testAggregations.isEmpty()) {
-            log.warn("No tests to combine");
-            return;
-         }
-         CombinedReportDocument testReport = new CombinedReportDocument(testAggregations, sb.toString(), combined, targetDir, testReportConfig);
+   private void writeNormalizedConfigDocument(Report report, Configuration.Setup setup, Set<Integer> workers, String config) {
+      NormalizedConfigDocument document = new NormalizedConfigDocument(
+         targetDir, report.getConfiguration().name, setup.group, report.getCluster(), config, report.getNormalizedServiceConfigs(), workers);
 
-         testReport.createReportDirectory();
-         testReport.calculateClusterSizes();
-         testReport.createTestCharts();
+      document.createReportDirectory();
+
+      Map root = new HashMap();
+      root.put("normalized", document);
 
-         Map root = new HashMap();
-         root.put("testReport", testReport);
-         root.put("enums", DefaultObjectWrapper.getDefaultInstance().getEnumModels());
+      processTemplate(root, targetDir, document.getFileName(), "normalizedReport.ftl");
+   }
 
-         processTemplate(root, targetDir, "test_" + testReport.testName + ".html", "testReport.ftl");
+   private void writeCombinedReportDocuments(Map<String, List<Report.Test>> testsByName, List<ForkJoinTask<?>> tasks) {
+      // the same test can be part of several combinations and the aggregation modifies its statistics,
+      // therefore the combined documents are written sequentially (the charts are still generated in parallel)
+      tasks.add(ForkJoinTask.adapt(() -> {
+         for (List<String> combined : testReportConfig.combinedTests) {
+            writeCombinedReportDocument(testsByName, combined);
+         }
+      }).fork());
+   }
 
+   private void writeCombinedReportDocument(Map<String, List<Report.Test>> testsByName, List<String> combined) {
+      List<TestAggregations> testAggregations = new ArrayList<>();
+      StringBuilder sb = new StringBuilder();
+      for (String testName : combined) {
+         if (sb.length() != 0) sb.append('_');
+         sb.append(testName);
+         List<Report.Test> reportedTests = testsByName.get(testName);
+         if (reportedTests == null) {
+            log.warn("Test " + testName + " was not found!");
+            continue;
+         }
+         TestAggregations ta = new TestAggregations(testName, reportedTests);
+         testAggregations.add(ta);
       }
+      if (testAggregations.isEmpty()) {
+         log.warn("No tests to combine");
+         return;
+      }
+      CombinedReportDocument testReport = new CombinedReportDocument(testAggregations, sb.toString(), combined, targetDir, testReportConfig);
+
+      testReport.createReportDirectory();
+      testReport.calculateClusterSizes();
+      testReport.createTestCharts();
+
+      Map root = new HashMap();
+      root.put("testReport", testReport);
+      root.put("enums", DefaultObjectWrapper.getDefaultInstance().getEnumModels());
+
+      processTemplate(root, targetDir, "test_" + testReport.testName + ".html", "testReport.ftl");
    }
 
-   private void writeTestReportDocuments(Set<String> combinedTests, Map<String, List<Report.Test>> testsByName) {
+   private void writeTestReportDocuments(Set<String> combinedTests, Map<String, List<Report.Test>> testsByName, List<ForkJoinTask<?>> tasks) {
       for (Map.Entry<String, List<Report.Test>> entry : testsByName.entrySet()) {
          if (combinedTests.contains(entry.getKey())) {
             // do not write TestReportDocument for combined test
             continue;
          }
-         TestAggregations ta = new TestAggregations(entry.getKey(), entry.getValue());
-         TestReportDocument testReport = new TestReportDocument(ta, targetDir, testReportConfig);
+         tasks.add(ForkJoinTask.adapt(() -> writeTestReportDocument(entry.getKey(), entry.getValue())).fork());
+      }
+   }
 
-         testReport.createReportDirectory();
-         testReport.createTestCharts();
+   private void writeTestReportDocument(String testName, List<Report.Test> tests) {
+      // the aggregations are not referenced after the page is written
+      TestAggregations ta = new TestAggregations(testName, tests);
+      TestReportDocument testReport = new TestReportDocument(ta, targetDir, testReportConfig);
 
-         Map root = new HashMap();
-         root.put("testReport", testReport);
-         root.put("enums", DefaultObjectWrapper.getDefaultInstance().getEnumModels());
+      testReport.createReportDirectory();
+      testReport.createTestCharts();
 
-         processTemplate(root, targetDir, "test_" + testReport.testName + ".html", "testReport.ftl");
-      }
+      Map root = new HashMap();
+      root.put("testReport", testReport);
+      root.put("enums", DefaultObjectWrapper.getDefaultInstance().getEnumModels());
+
+      processTemplate(root, targetDir, "test_" + testReport.testName + ".html", "testReport.ftl");
    }
 
-   private void writeTimelineDocuments(Collection<Report> reports, Timeline.Category.Type categoryType) {
+   private void writeTimelineDocuments(Collection<Report> reports, List<ForkJoinTask<?>> tasks) {
       for (Report report : reports) {
-         String configName = report.getConfiguration().name;
-         TimelineDocument timelineDocument = new TimelineDocument(timelineConfig, targetDir,
-            configName + "_" + report.getCluster().getClusterIndex(), configName + " on " + report.getCluster(), report.getTimelines(), categoryType, report.getCluster());
+         // both documents write the same domain charts, therefore these cannot run in parallel
+         tasks.add(ForkJoinTask.adapt(() -> {
+            writeTimelineDocument(report, Timeline.Category.Type.CUSTOM);
+            writeTimelineDocument(report, Timeline.Category.Type.SYSMONITOR);
+         }).fork());
+      }
+   }
 
-         timelineDocument.createReportDirectory();
-         timelineDocument.createTestCharts();
+   private void writeTimelineDocument(Report report, Timeline.Category.Type categoryType) {
+      String configName = report.getConfiguration().name;
+      TimelineDocument timelineDocument = new TimelineDocument(timelineConfig, targetDir,
+         configName + "_" + report.getCluster().getClusterIndex(), configName + " on " + report.getCluster(), report.getTimelines(), categoryType, report.getCluster());
 
-         Map root = new HashMap();
-         root.put("timelineDocument", timelineDocument);
-         root.put("categoryType", categoryType.toString());
+      timelineDocument.createReportDirectory();
+      timelineDocument.createTestCharts();
 
-         exposeStaticMethods(root, "java.lang.String", "String");
-         processTemplate(root, targetDir, timelineDocument.getFileName(), "timelineReport.ftl");
-      }
+      Map root = new HashMap();
+      root.put("timelineDocument", timelineDocument);
+      root.put("categoryType", categoryType.toString());
+
+      exposeStaticMethods(root, "java.lang.String", "String");
+      processTemplate(root, targetDir, timelineDocument.getFileName(), "timelineReport.ftl");
    }
 
    private void writeIndexDocument(MainConfig mainConfig, Collection<Report> reports) {
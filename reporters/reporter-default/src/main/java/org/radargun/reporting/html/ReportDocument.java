@@ -7,10 +7,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.stream.Collector;
@@ -45,7 +46,7 @@ public abstract class ReportDocument extends HtmlDocument {
    protected static final Log log = LogFactory.getLog(ReportDocument.class);
 
    private int elementCounter = 0;
-   private List<Future> chartTaskFutures = new ArrayList<>();
+   private Map<String, List<ForkJoinTask<ChartDescription>>> chartTasks = new LinkedHashMap<>();
    private Map<String, List<ChartDescription>> generatedCharts = new HashMap<>();
 
    protected final int maxConfigurations;
@@ -303,14 +304,16 @@ public abstract class ReportDocument extends HtmlDocument {
       return false;
    }
 
-   public void createCharts(String target, int clusterSize) throws IOException {
+   /**
+    * Starts generating the charts for given target in parallel; the charts are added
+    * to {@link #getGeneratedCharts(String)} in {@link #waitForChartsGeneration()}.
+    * Must be called from within the pool of {@link HtmlReporter}.
+    */
+   public void createCharts(String target, int clusterSize) {
       String suffix = clusterSize > 0 ? "_" + clusterSize : "";
       String directory = this.directory.endsWith(File.separator) ? this.directory : this.directory + File.separator;
 
-      List<ChartDescription> charts = generatedCharts.get(target);
-      if (charts == null) {
-         generatedCharts.put(target, charts = new ArrayList<>());
-      }
+      List<ForkJoinTask<ChartDescription>> tasks = chartTasks.computeIfAbsent(target, t -> new ArrayList<>());
       for (ChartDescription cd : new ChartDescription[] {
          new ChartDescription(ChartType.MEAN_AND_DEV, "mean_dev" + "_" + target, "Response time mean", "Response time (ms)"),
          new ChartDescription(ChartType.OPERATION_THROUGHPUT_NET, "throughput_net" + "_" + target, "Operation throughput", "Operations/sec"),
@@ -319,22 +322,26 @@ public abstract class ReportDocument extends HtmlDocument {
          new ChartDescription(ChartType.REQUESTS_SERIES, "requests_series" + "_" + target, "Requests progression", "Number of requests"),
          new ChartDescription(ChartType.OPERATION_THROUGHPUT_NET_SERIES, "throughput_net_series" + "_" + target, "Operation throughput over time", "Operations/sec"),
       }) {
-         if (createChart(String.format("%s%s%s_%s%s_%s.png", directory, File.separator, testName, target, suffix, cd.name),
-            clusterSize, target, cd.yLabel, cd.type)) {
-            charts.add(cd);
-         }
+         String filename = String.format("%s%s%s_%s%s_%s.png", directory, File.separator, testName, target, suffix, cd.name);
+         tasks.add(ForkJoinTask.adapt(() -> createChart(filename, clusterSize, target, cd.yLabel, cd.type) ? cd : null).fork());
       }
    }
 
    protected void waitForChartsGeneration() {
-      for (Future f : chartTaskFutures) {
-         try {
-            f.get();
-         } catch (Exception e) {
-            log.error("Failed to create chart", e);
+      for (Map.Entry<String, List<ForkJoinTask<ChartDescription>>> entry : chartTasks.entrySet()) {
+         List<ChartDescription> charts = generatedCharts.computeIfAbsent(entry.getKey(), target -> new ArrayList<>());
+         for (ForkJoinTask<ChartDescription> task : entry.getValue()) {
+            try {
+               ChartDescription cd = task.join();
+               if (cd != null) {
+                  charts.add(cd);
+               }
+            } catch (Exception e) {
+               log.error("Failed to create chart", e);
+            }
          }
       }
-      chartTaskFutures.clear();
+      chartTasks.clear();
    }
 
    /**
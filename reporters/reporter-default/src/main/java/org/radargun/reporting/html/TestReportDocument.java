@@ -1,6 +1,5 @@
 package org.radargun.reporting.html;
 
-import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -78,18 +77,10 @@ public class TestReportDocument extends ReportDocument {
       for (String target : targets) {
          if (maxClusters > 1 && configuration.separateClusterCharts) {
             for (Integer clusterSize : testAggregations.byClusterSize().keySet()) {
-               try {
-                  createCharts(target, clusterSize);
-               } catch (IOException e) {
-                  log.error("Exception while creating test charts", e);
-               }
+               createCharts(target, clusterSize);
             }
          } else {
-            try {
-               createCharts(target, 0);
-            } catch (IOException e) {
-               log.error("Exception while creating test charts", e);
-            }
+            createCharts(target, 0);
          }
       }
    }
@@ -22,13 +22,14 @@ import org.jfree.chart.encoders.ImageFormat;
 import org.jfree.chart.plot.IntervalMarker;
 import org.jfree.chart.plot.ValueMarker;
 import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.DeviationRenderer;
 import org.jfree.data.time.Hour;
 import org.jfree.data.time.Millisecond;
 import org.jfree.data.time.Minute;
 import org.jfree.data.time.RegularTimePeriod;
 import org.jfree.data.time.Second;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
+import org.jfree.data.xy.YIntervalSeries;
+import org.jfree.data.xy.YIntervalSeriesCollection;
 import org.jfree.ui.RectangleAnchor;
 import org.jfree.ui.RectangleInsets;
 import org.jfree.ui.TextAnchor;
@@ -48,11 +49,9 @@ public class TimelineChart {
    private static final Paint[] DEFAULT_PAINTS = ChartColor.createDefaultPaintArray();
    private static final int LABEL_OFFSET = 15;
    private static final int DOMAIN_OFFSET = 3;
-   private static final int MAX_EVENT_VALUES = 1000;
 
    private int width = 1024;
    private int height = 768;
-   private Class<? extends RegularTimePeriod> timePeriodClass = Second.class;
 
    private Paint paint;
    //private Shape shape;
@@ -61,6 +60,7 @@ public class TimelineChart {
    private long startTimestamp;
    private long endTimestamp;
    private JFreeChart chart;
+   private YIntervalSeries series;
 
    public TimelineChart() {
       this(Color.RED);
@@ -70,54 +70,31 @@ public class TimelineChart {
       this.paint = paint;
    }
 
-   public void setEvents(List<? extends Object> events, int workerIndex, long startTimestamp, long endTimestamp, double lowerBound, double upperBound) {
-      int paintIndex = workerIndex % DEFAULT_PAINTS.length;
-      if (paintIndex < 0) paintIndex += DEFAULT_PAINTS.length;
-      paint = DEFAULT_PAINTS[paintIndex];
-      this.startTimestamp = startTimestamp;
-      this.endTimestamp = endTimestamp + (startTimestamp == endTimestamp ? 1 : 0);
-
-      TimeSeries series = new TimeSeries("Worker " + workerIndex);
-      TimeSeriesCollection dataset = new TimeSeriesCollection(series, GMT);
-      chart = ChartFactory.createTimeSeriesChart(null, "Time from start", null, dataset, false, false, false);
-      chart.setBackgroundPaint(new Color(0, 0, 0, 0));
-
-      XYPlot plot = chart.getXYPlot();
-      plot.getRenderer().setSeriesPaint(0, paint);
-      plot.setBackgroundAlpha(0);
-      plot.setDomainGridlinesVisible(false);
-      plot.setDomainZeroBaselineVisible(true);
-      plot.setRangeGridlinesVisible(false);
-      plot.setRangeZeroBaselineVisible(true);
+   /**
+    * Plots the values as a line of averages, with the band between minimum and maximum.
+    *
+    * @param maxPoints Maximum number of points; the values are downsampled if there are more of them.
+    */
+   public void setValues(Timeline.Series values, int workerIndex, long startTimestamp, long endTimestamp, double lowerBound, double upperBound, int maxPoints) {
+      XYPlot plot = createChart(workerIndex, startTimestamp, endTimestamp, lowerBound, upperBound);
+      if (values == null) {
+         return;
+      }
+      Timeline.Downsampled downsampled = values.downsample(startTimestamp, this.endTimestamp, maxPoints);
+      for (int i = 0; i < downsampled.size(); ++i) {
+         series.add(downsampled.getTimestamp(i) - startTimestamp, downsampled.getAverage(i), downsampled.getMin(i), downsampled.getMax(i));
+      }
+      DeviationRenderer renderer = new DeviationRenderer(true, false);
+      renderer.setSeriesPaint(0, paint);
+      renderer.setSeriesFillPaint(0, paint);
+      renderer.setSeriesStroke(0, stroke);
+      plot.setRenderer(renderer);
+   }
 
-      Number[] minValues = new Number[MAX_EVENT_VALUES];
-      Number[] maxValues = new Number[MAX_EVENT_VALUES];
-      long[] minTimestamps = new long[MAX_EVENT_VALUES];
-      long[] maxTimestamps = new long[MAX_EVENT_VALUES];
-
-      for (Object event : events) {
-         if (event instanceof Timeline.Value) {
-            Timeline.Value value = (Timeline.Value) event;
-            if (value.timestamp > this.endTimestamp) {
-               throw new IllegalStateException(String.format("Current timestamp %d is bigger then end timestamp %d", value.timestamp, this.endTimestamp));
-            }
-            int bucket = (int) ((value.timestamp - startTimestamp) * (MAX_EVENT_VALUES-1) / (this.endTimestamp - startTimestamp));
-            if (minValues[bucket] == null) {
-               minValues[bucket] = value.value;
-               maxValues[bucket] = value.value;
-               minTimestamps[bucket] = value.timestamp;
-               maxTimestamps[bucket] = value.timestamp;
-            } else {
-               if (minValues[bucket].doubleValue() > value.value.doubleValue()) {
-                  minValues[bucket] = value.value;
-               }
-               if (maxValues[bucket].doubleValue() < value.value.doubleValue()) {
-                  maxValues[bucket] = value.value;
-               }
-               minTimestamps[bucket] = Math.min(minTimestamps[bucket], value.timestamp);
-               maxTimestamps[bucket] = Math.max(maxTimestamps[bucket], value.timestamp);
-            }
-         } else if (event instanceof Timeline.IntervalEvent) {
+   public void setEvents(List<? extends Timeline.MarkerEvent> events, int workerIndex, long startTimestamp, long endTimestamp, double lowerBound, double upperBound) {
+      XYPlot plot = createChart(workerIndex, startTimestamp, endTimestamp, lowerBound, upperBound);
+      for (Timeline.MarkerEvent event : events) {
+         if (event instanceof Timeline.IntervalEvent) {
             Timeline.IntervalEvent intervalEvent = (Timeline.IntervalEvent) event;
             IntervalMarker marker = new IntervalMarker(intervalEvent.timestamp - startTimestamp, intervalEvent.timestamp + intervalEvent.duration - startTimestamp, paint, stroke, paint, stroke, 0.3f);
             marker.setLabel(intervalEvent.description);
@@ -135,12 +112,29 @@ public class TimelineChart {
             plot.addDomainMarker(marker);
          }
       }
+   }
 
-      for (int bucket = 0; bucket < MAX_EVENT_VALUES; ++bucket) {
-         if (minValues[bucket] == null) continue;
-         series.addOrUpdate(time(minTimestamps[bucket] - startTimestamp), minValues[bucket]);
-         series.addOrUpdate(time(maxTimestamps[bucket] - startTimestamp), maxValues[bucket]);
-      }
+   private XYPlot createChart(int workerIndex, long startTimestamp, long endTimestamp, double lowerBound, double upperBound) {
+      int paintIndex = workerIndex % DEFAULT_PAINTS.length;
+      if (paintIndex < 0) paintIndex += DEFAULT_PAINTS.length;
+      paint = DEFAULT_PAINTS[paintIndex];
+      this.startTimestamp = startTimestamp;
+      this.endTimestamp = endTimestamp + (startTimestamp == endTimestamp ? 1 : 0);
+
+      // the x values are milliseconds from the start, presented as dates in GMT
+      series = new YIntervalSeries("Worker " + workerIndex);
+      YIntervalSeriesCollection dataset = new YIntervalSeriesCollection();
+      dataset.addSeries(series);
+      chart = ChartFactory.createTimeSeriesChart(null, "Time from start", null, dataset, false, false, false);
+      chart.setBackgroundPaint(new Color(0, 0, 0, 0));
+
+      XYPlot plot = chart.getXYPlot();
+      plot.getRenderer().setSeriesPaint(0, paint);
+      plot.setBackgroundAlpha(0);
+      plot.setDomainGridlinesVisible(false);
+      plot.setDomainZeroBaselineVisible(true);
+      plot.setRangeGridlinesVisible(false);
+      plot.setRangeZeroBaselineVisible(true);
 
       DateAxis dateAxis = (DateAxis) plot.getDomainAxis();
       dateAxis.setTimeZone(GMT);
@@ -149,6 +143,7 @@ public class TimelineChart {
       if (upperBound > lowerBound) {
          plot.getRangeAxis().setRange(lowerBound, upperBound);
       }
+      return plot;
    }
 
    public void saveChart(String filename) throws IOException {
@@ -199,11 +194,6 @@ public class TimelineChart {
       }
    }
 
-   private RegularTimePeriod time(long timestamp) {
-      Date date = new Date(timestamp);
-      return RegularTimePeriod.createInstance(timePeriodClass, date, GMT);
-   }
-
    public static int getColorForIndex(int workerIndex) {
       if (workerIndex < 0) return 0;
       return ((Color) DEFAULT_PAINTS[workerIndex % DEFAULT_PAINTS.length]).getRGB() & 0xFFFFFF;
@@ -8,7 +8,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -62,13 +62,8 @@ public class TimelineDocument extends HtmlDocument {
                valueCategories.put(category, valueCategories.size());
             }
 
-            List<Timeline.Value> values = timeline.getValues(category);
-            double min = Long.MAX_VALUE, max = Long.MIN_VALUE;
-            for (Timeline.Value value : values) {
-               double d = value.value.doubleValue();
-               max = Math.max(max, d);
-               min = Math.min(min, d);
-            }
+            Timeline.Series values = timeline.getSeries(category);
+            double min = values.getMin(), max = values.getMax();
             if (min <= max) {
                Double prevMin = minValues.get(category);
                Double prevMax = maxValues.get(category);
@@ -118,7 +113,7 @@ public class TimelineDocument extends HtmlDocument {
       final AtomicBoolean firstDomain = new AtomicBoolean(true);
       final String relativeDomainFile = "domain_" + configName + "_relative.png";
       final String absoluteDomainFile = "domain_" + configName + "_absolute.png";
-      ArrayList<Future> chartTaskFutures = new ArrayList<>();
+      ArrayList<ForkJoinTask<Void>> chartTasks = new ArrayList<>();
       for (Map.Entry<Timeline.Category, Integer> valueEntry : getValueCategoriesOfType(categoryType.toString()).entrySet()) {
          final Timeline.Category valueCategory = valueEntry.getKey();
          final int valueCategoryId = valueEntry.getValue();
@@ -129,19 +124,18 @@ public class TimelineDocument extends HtmlDocument {
          /* Charts */
          final AtomicBoolean firstRange = new AtomicBoolean(true);
          for (Timeline timeline : timelines) {
-            List<Timeline.Value> categoryValues = timeline.getValues(valueCategory);
-            final List<Timeline.Value> values = categoryValues != null ? categoryValues : Collections.EMPTY_LIST;
+            final Timeline.Series values = timeline.getSeries(valueCategory);
             final int workerIndex = timeline.workerIndex;
             final String valueChartFile = getValueChartFile(valueCategoryId, workerIndex);
 
-            chartTaskFutures.add(HtmlReporter.executor.submit(new Callable<Void>() {
+            chartTasks.add(ForkJoinTask.adapt(new Callable<Void>() {
                @Override
                public Void call() throws Exception {
                   log.info("Generating chart for " + valueCategory);
                   TimelineChart chart = new TimelineChart();
                   chart.setDimensions(configuration.width, configuration.height);
 
-                  chart.setEvents(values, workerIndex, startTimestamp, endTimestamp, minValues.get(valueCategory) * 1.1, maxValues.get(valueCategory) * 1.1);
+                  chart.setValues(values, workerIndex, startTimestamp, endTimestamp, minValues.get(valueCategory) * 1.1, maxValues.get(valueCategory) * 1.1, configuration.maxPoints);
 
 
                   chart.saveChart(directory + File.separator + valueChartFile);
@@ -155,7 +149,7 @@ public class TimelineDocument extends HtmlDocument {
                   }
                   return null;
                }
-            }));
+            }).fork());
          }
       }
 
@@ -166,7 +160,7 @@ public class TimelineDocument extends HtmlDocument {
             final List<Timeline.MarkerEvent> events = timeline.getEvents(eventCategory);
             if (events == null) continue;
 
-            chartTaskFutures.add(HtmlReporter.executor.submit(new Callable<Void>() {
+            chartTasks.add(ForkJoinTask.adapt(new Callable<Void>() {
                @Override
                public Void call() throws Exception {
                   TimelineChart chart = new TimelineChart();
@@ -177,14 +171,14 @@ public class TimelineDocument extends HtmlDocument {
                   chart.saveChart(directory + File.separator + chartFile);
                   return null;
                }
-            }));
+            }).fork());
          }
       }
       /* wait until all charts are generated */
 
-      for (Future f : chartTaskFutures) {
+      for (ForkJoinTask<Void> task : chartTasks) {
          try {
-            f.get();
+            task.join();
          } catch (Exception e) {
             log.error("Failed to generate on of the charts: ", e);
          }
@@ -251,6 +245,10 @@ public class TimelineDocument extends HtmlDocument {
       @Property(name = "chart.height", doc = "Height of the chart in pixels. Default is 500.")
       private int height = 500;
 
+      @Property(name = "chart.maxPoints", doc = "Maximum number of points plotted for each worker in a chart; " +
+         "longer series are downsampled to average, minimum and maximum. Default is 1000.")
+      private int maxPoints = 1000;
+
       /**
        * The following methods are used in Freemarker templates
        * e.g. method getPercentiles() can be used as getPercentiles() or percentiles in template
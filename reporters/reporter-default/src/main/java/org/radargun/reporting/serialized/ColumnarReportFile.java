@@ -0,0 +1,237 @@
+package org.radargun.reporting.serialized;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.radargun.SerializationHelper;
+import org.radargun.reporting.Report;
+import org.radargun.reporting.Timeline;
+import org.radargun.stats.Statistics;
+
+/**
+ * Stores the {@link Report} in a file where the statistics from each thread and the timeline from each node
+ * are kept in separate chunks; the rest of the report is small and it is stored in a header.
+ * When the report is read, the statistics and timelines are deserialized from memory-mapped chunks only
+ * when the reporter accesses them. Once deserialized, the chunk is kept in the list: reporters may modify
+ * the statistics (e.g. when merging them), and reading the chunk again would lose these changes.
+ *
+ * The file consists of magic number and version, chunks (4-byte length and serialized object, possibly
+ * compressed), header (4-byte length and serialized report with references to the chunks)
+ * and 8-byte offset of the header.
+ */
+public final class ColumnarReportFile implements Closeable {
+   private static final long MAGIC = 0x5247434F4C554D4EL; // RGCOLUMN
+   private static final int VERSION = 1;
+   private static final int PREFIX_LENGTH = 12;
+
+   private final FileChannel channel;
+   private final Report report;
+
+   private ColumnarReportFile(File file) throws IOException {
+      channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      try {
+         ByteBuffer prefix = read(channel, 0, PREFIX_LENGTH);
+         if (prefix.getLong() != MAGIC) {
+            throw new IOException(file + " is not a columnar report");
+         }
+         int version = prefix.getInt();
+         if (version != VERSION) {
+            throw new IOException("Unsupported version " + version + " of " + file);
+         }
+         long headerOffset = read(channel, channel.size() - 8, 8).getLong();
+         int headerLength = read(channel, headerOffset, 4).getInt();
+         ByteBuffer header = read(channel, headerOffset + 4, headerLength);
+         try (ChunkResolvingInputStream in = new ChunkResolvingInputStream(new ByteArrayInputStream(header.array()))) {
+            report = (Report) in.readObject();
+         } catch (ClassNotFoundException e) {
+            throw new IOException("Cannot read report from " + file, e);
+         }
+      } catch (IOException | RuntimeException e) {
+         channel.close();
+         throw e;
+      }
+   }
+
+   /**
+    * Opens the file and reads the header; the statistics and timelines are read later, on access.
+    * The file must not be closed while the report is in use.
+    */
+   public static ColumnarReportFile open(File file) throws IOException {
+      return new ColumnarReportFile(file);
+   }
+
+   /**
+    * @return True if the file starts with the magic number of columnar report.
+    */
+   public static boolean isColumnar(File file) {
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+         return channel.size() >= PREFIX_LENGTH && read(channel, 0, 8).getLong() == MAGIC;
+      } catch (IOException e) {
+         return false;
+      }
+   }
+
+   public static void write(Report report, File file) throws IOException {
+      try (FileChannel channel = FileChannel.open(file.toPath(),
+         StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+         ByteBuffer prefix = ByteBuffer.allocate(PREFIX_LENGTH).putLong(MAGIC).putInt(VERSION);
+         prefix.flip();
+         writeFully(channel, prefix);
+         ByteArrayOutputStream header = new ByteArrayOutputStream();
+         try (ChunkingOutputStream out = new ChunkingOutputStream(header, channel)) {
+            out.writeObject(report);
+         }
+         long headerOffset = channel.position();
+         ByteBuffer headerLength = ByteBuffer.allocate(4).putInt(header.size());
+         headerLength.flip();
+         writeFully(channel, headerLength);
+         writeFully(channel, ByteBuffer.wrap(header.toByteArray()));
+         ByteBuffer trailer = ByteBuffer.allocate(8).putLong(headerOffset);
+         trailer.flip();
+         writeFully(channel, trailer);
+      }
+   }
+
+   public Report getReport() {
+      return report;
+   }
+
+   @Override
+   public void close() throws IOException {
+      channel.close();
+   }
+
+   private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      while (buffer.hasRemaining()) {
+         if (channel.read(buffer, position + buffer.position()) < 0) {
+            throw new IOException("Unexpected end of file at " + (position + buffer.position()));
+         }
+      }
+      buffer.flip();
+      return buffer;
+   }
+
+   private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+      while (buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+   }
+
+   /**
+    * Writes lists of statistics and timelines into separate chunks and replaces them with references.
+    */
+   private static class ChunkingOutputStream extends ObjectOutputStream {
+      private final FileChannel channel;
+      private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+      ChunkingOutputStream(OutputStream out, FileChannel channel) throws IOException {
+         super(out);
+         this.channel = channel;
+         enableReplaceObject(true);
+      }
+
+      @Override
+      protected Object replaceObject(Object obj) throws IOException {
+         if (!(obj instanceof List) || ((List<?>) obj).isEmpty()) {
+            return obj;
+         }
+         List<?> list = (List<?>) obj;
+         if (!(list.get(0) instanceof Statistics) && !(list.get(0) instanceof Timeline)) {
+            return obj;
+         }
+         long[] offsets = new long[list.size()];
+         int[] lengths = new int[list.size()];
+         for (int i = 0; i < offsets.length; ++i) {
+            buffer.clear();
+            buffer = SerializationHelper.serializeObjectWithLength((Serializable) list.get(i), buffer);
+            buffer.flip();
+            offsets[i] = channel.position() + 4;
+            lengths[i] = buffer.getInt(0);
+            writeFully(channel, buffer);
+         }
+         return new ChunkReference(offsets, lengths);
+      }
+   }
+
+   private class ChunkResolvingInputStream extends ObjectInputStream {
+      ChunkResolvingInputStream(InputStream in) throws IOException {
+         super(in);
+         enableResolveObject(true);
+      }
+
+      @Override
+      protected Object resolveObject(Object obj) {
+         if (obj instanceof ChunkReference) {
+            ChunkReference reference = (ChunkReference) obj;
+            return new ChunkList<>(channel, reference.offsets, reference.lengths);
+         }
+         return obj;
+      }
+   }
+
+   private static class ChunkReference implements Serializable {
+      private final long[] offsets;
+      private final int[] lengths;
+
+      ChunkReference(long[] offsets, int[] lengths) {
+         this.offsets = offsets;
+         this.lengths = lengths;
+      }
+   }
+
+   /**
+    * List deserializing the elements from the file on access.
+    */
+   private static class ChunkList<T> extends AbstractList<T> implements RandomAccess, Serializable {
+      private final transient FileChannel channel;
+      private final long[] offsets;
+      private final int[] lengths;
+      private final transient Object[] elements;
+
+      ChunkList(FileChannel channel, long[] offsets, int[] lengths) {
+         this.channel = channel;
+         this.offsets = offsets;
+         this.lengths = lengths;
+         this.elements = new Object[offsets.length];
+      }
+
+      @Override
+      public synchronized T get(int index) {
+         T element = (T) elements[index];
+         if (element == null) {
+            try {
+               element = (T) SerializationHelper.deserialize(channel.map(FileChannel.MapMode.READ_ONLY, offsets[index], lengths[index]));
+            } catch (IOException e) {
+               throw new IllegalStateException("Cannot read chunk at " + offsets[index], e);
+            }
+            elements[index] = element;
+         }
+         return element;
+      }
+
+      @Override
+      public int size() {
+         return offsets.length;
+      }
+
+      private Object writeReplace() {
+         return new ArrayList<>(this);
+      }
+   }
+}
@@ -14,6 +14,7 @@ import java.util.Date;
 import java.util.List;
 
 import org.radargun.ShutDownHook;
+import org.radargun.config.DocumentedValue;
 import org.radargun.config.DomConfigParser;
 import org.radargun.config.InitHelper;
 import org.radargun.config.MainConfig;
@@ -28,6 +29,8 @@ import org.radargun.reporting.ReporterHelper;
 
 /**
  * Serializes all data from the report to disc, in order to create reports in the future.
+ * By default the reports are stored in {@link ColumnarReportFile columnar format}, which lets the reporters
+ * read the statistics and timelines lazily when the reports are generated from the files.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -37,6 +40,9 @@ public class SerializedReporter extends AbstractReporter {
    @Property(doc = "Directory where the results should be stored. Default is results/serialized.")
    protected String targetDir = "results" + File.separator + "serialized";
 
+   @Property(doc = "Format of the stored reports. Default is COLUMNAR.")
+   protected Format format = Format.COLUMNAR;
+
    @Override
    public void run(MainConfig mainConfig, Collection<Report> reports) {
       File dir = new File(targetDir);
@@ -45,11 +51,17 @@ public class SerializedReporter extends AbstractReporter {
       }
       DateFormat formatter = new SimpleDateFormat("yyyyMMdd-HHmmss");
       for (Report report : reports) {
-         String filename = String.format("%s-%s-%s-%s.bin", report.getConfiguration().name,
-            report.getCluster().getSize(), report.getCluster().getClusterIndex(), formatter.format(new Date()));
-         try (FileOutputStream fileOutputStream = new FileOutputStream(new File(dir, filename));
-              ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream)) {
-            objectOutputStream.writeObject(report);
+         String filename = String.format("%s-%s-%s-%s.%s", report.getConfiguration().name,
+            report.getCluster().getSize(), report.getCluster().getClusterIndex(), formatter.format(new Date()), format.extension);
+         try {
+            if (format == Format.COLUMNAR) {
+               ColumnarReportFile.write(report, new File(dir, filename));
+            } else {
+               try (FileOutputStream fileOutputStream = new FileOutputStream(new File(dir, filename));
+                    ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream)) {
+                  objectOutputStream.writeObject(report);
+               }
+            }
          } catch (IOException e) {
             log.error("Failed to write report to " + filename, e);
          }
@@ -77,7 +89,19 @@ public class SerializedReporter extends AbstractReporter {
       }
 
       List<Report> reports = new ArrayList<>();
+      List<ColumnarReportFile> columnarFiles = new ArrayList<>();
       for (File reportFile : new File(targetDir).listFiles()) {
+         if (ColumnarReportFile.isColumnar(reportFile)) {
+            try {
+               ColumnarReportFile columnarFile = ColumnarReportFile.open(reportFile);
+               columnarFiles.add(columnarFile);
+               reports.add(columnarFile.getReport());
+            } catch (IOException e) {
+               System.err.println("Failed to read " + reportFile);
+               e.printStackTrace();
+            }
+            continue;
+         }
          try (FileInputStream fileInputStream = new FileInputStream(reportFile); ObjectInputStream objectInputStream = new ObjectInputStream(fileInputStream)) {
             Object obj = objectInputStream.readObject();
             if (obj instanceof Report) {
@@ -112,6 +136,28 @@ public class SerializedReporter extends AbstractReporter {
          }
       }
 
+      for (ColumnarReportFile columnarFile : columnarFiles) {
+         try {
+            columnarFile.close();
+         } catch (IOException e) {
+            System.err.println("Failed to close report file");
+            e.printStackTrace();
+         }
+      }
+
       ShutDownHook.exit(0); // the shutdown is controlled
    }
+
+   public enum Format {
+      @DocumentedValue("Report split into chunks that are read lazily, see ColumnarReportFile.")
+      COLUMNAR("columnar"),
+      @DocumentedValue("Whole report serialized using Java serialization.")
+      JAVA("bin");
+
+      private final String extension;
+
+      Format(String extension) {
+         this.extension = extension;
+      }
+   }
 }
@@ -0,0 +1,89 @@
+package org.radargun.reporting.html;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.radargun.Operation;
+import org.radargun.config.Cluster;
+import org.radargun.config.Configuration;
+import org.radargun.config.MainConfig;
+import org.radargun.reporting.Report;
+import org.radargun.reporting.Timeline;
+import org.radargun.stats.BasicStatistics;
+import org.radargun.stats.Statistics;
+import org.radargun.utils.Utils;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class HtmlReporterTest {
+
+   @AfterTest
+   public void cleanup() {
+      Operation.clear();
+   }
+
+   public void testParallelGeneration() throws Exception {
+      Operation operation = Operation.register("HtmlReporterTest.Op");
+      File targetDir = Files.createTempDirectory("HtmlReporterTest").toFile();
+      try {
+         Report first = report(operation, 2);
+         Report second = report(operation, 3);
+
+         HtmlReporter reporter = new HtmlReporter();
+         Utils.setField(HtmlReporter.class, "targetDir", reporter, targetDir.getPath());
+         Utils.setField(HtmlReporter.class, "threads", reporter, 2);
+         Utils.setField(ReportDocument.Configuration.class, "combinedTests",
+            Utils.getField(HtmlReporter.class, reporter, "testReportConfig"), Collections.singletonList(Arrays.asList("b", "c")));
+         MainConfig mainConfig = new MainConfig(0, "localhost");
+         mainConfig.setMainConfigBytes(new byte[0]);
+         reporter.run(mainConfig, Arrays.asList(first, second));
+
+         assertTrue(new File(targetDir, "index.html").exists());
+         assertTrue(new File(targetDir, "test_a.html").exists());
+         assertTrue(new File(targetDir, "test_b_c.html").exists());
+         // combined tests do not have own page
+         assertFalse(new File(targetDir, "test_b.html").exists());
+         assertTrue(new File(targetDir, String.format("a_%1$s_mean_dev_%1$s.png", operation.name)).exists());
+         assertTrue(new File(targetDir, String.format("b_c_%1$s_throughput_net_%1$s.png", operation.name)).exists());
+         // charts are listed on the page after these are generated
+         assertTrue(new String(Files.readAllBytes(new File(targetDir, "test_a.html").toPath())).contains("_mean_dev_" + operation.name));
+         assertTrue(new File(targetDir, "SYSMONITOR_timeline_conf_1.html").exists());
+         assertTrue(new File(targetDir, "timeline_conf_1_v0_0.png").exists());
+      } finally {
+         Utils.deleteDirectory(targetDir);
+      }
+   }
+
+   private static Report report(Operation operation, int clusterSize) {
+      Cluster cluster = new Cluster();
+      cluster.setSize(clusterSize);
+      Report report = new Report(new Configuration("conf"), cluster);
+      report.addStage("stage");
+      for (String testName : new String[] {"a", "b", "c"}) {
+         Report.Test test = report.createTest(testName, null, true);
+         for (int worker = 0; worker < clusterSize; ++worker) {
+            test.addStatistics(0, worker, Collections.singletonList(statistics(operation)));
+         }
+      }
+      Timeline timeline = new Timeline(0);
+      timeline.addValue(Timeline.Category.sysCategory("value"), new Timeline.Value(0, 1));
+      timeline.addValue(Timeline.Category.sysCategory("value"), new Timeline.Value(1000, 2));
+      report.addTimelines(Collections.singletonList(timeline));
+      return report;
+   }
+
+   private static Statistics statistics(Operation operation) {
+      BasicStatistics statistics = new BasicStatistics();
+      statistics.setBegin(0);
+      statistics.record(0, 1000, true, operation);
+      statistics.record(0, 2000, true, operation);
+      statistics.setEnd(1000);
+      return statistics;
+   }
+}
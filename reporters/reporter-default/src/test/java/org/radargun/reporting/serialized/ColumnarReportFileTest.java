@@ -0,0 +1,106 @@
+package org.radargun.reporting.serialized;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.radargun.Operation;
+import org.radargun.config.Cluster;
+import org.radargun.config.Configuration;
+import org.radargun.reporting.Report;
+import org.radargun.reporting.Timeline;
+import org.radargun.stats.BasicStatistics;
+import org.radargun.stats.Statistics;
+import org.radargun.stats.representation.DefaultOutcome;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class ColumnarReportFileTest {
+
+   public void testRoundTrip() throws IOException {
+      Operation operation = Operation.register("ColumnarReportFileTest.Op");
+      Cluster cluster = new Cluster();
+      cluster.setSize(2);
+      Report report = new Report(new Configuration("conf"), cluster);
+      report.addStage("stage");
+      Report.Test test = report.createTest("test", null, true);
+      for (int iteration = 0; iteration < 2; ++iteration) {
+         for (int worker = 0; worker < 2; ++worker) {
+            test.addStatistics(iteration, worker, Arrays.asList(statistics(operation, 10 * iteration + worker), statistics(operation, 1)));
+         }
+      }
+      test.addResult(0, new Report.TestResult("result", Collections.emptyMap(), "42", false));
+      Timeline timeline = new Timeline(0);
+      timeline.addValue(Timeline.Category.sysCategory("value"), new Timeline.Value(1000, 3));
+      report.addTimelines(Collections.singletonList(timeline));
+
+      File dir = Files.createTempDirectory("ColumnarReportFileTest").toFile();
+      File file = new File(dir, "report.columnar");
+      File copy = new File(dir, "copy.columnar");
+      try {
+         ColumnarReportFile.write(report, file);
+         assertTrue(ColumnarReportFile.isColumnar(file));
+         try (ColumnarReportFile columnarFile = ColumnarReportFile.open(file)) {
+            Report read = columnarFile.getReport();
+            assertEquals(read.getConfiguration().name, "conf");
+            assertEquals(read.getStages().get(0).getName(), "stage");
+            Report.Test readTest = read.getTest("test");
+            assertEquals(readTest.getIterations().size(), 2);
+            assertEquals(readTest.getIterations().get(0).getResults().get("result").aggregatedValue, "42");
+            Report.TestIteration iteration = readTest.getIterations().get(1);
+            assertEquals(iteration.getThreadCount(), 4);
+            List<Statistics> statistics = iteration.getStatistics(1);
+            assertEquals(statistics.size(), 2);
+            assertEquals(statistics.get(0).getRepresentation(operation.name, DefaultOutcome.class).requests, 11);
+            assertEquals(statistics.get(1).getRepresentation(operation.name, DefaultOutcome.class).requests, 1);
+            // changes to the statistics must not be lost when these are accessed again
+            statistics.get(0).merge(statistics.get(1));
+            System.gc();
+            assertEquals(statistics.get(0).getRepresentation(operation.name, DefaultOutcome.class).requests, 12);
+            // the first timeline belongs to the main node
+            assertEquals(read.getTimelines().size(), 2);
+            assertEquals(read.getTimelines().get(1).getValues(Timeline.Category.sysCategory("value")).get(0).value, 3d);
+
+            // report read from the file can be stored again
+            ColumnarReportFile.write(read, copy);
+         }
+         try (ColumnarReportFile columnarFile = ColumnarReportFile.open(copy)) {
+            List<Statistics> statistics = columnarFile.getReport().getTest("test").getIterations().get(0).getStatistics(1);
+            assertEquals(statistics.get(0).getRepresentation(operation.name, DefaultOutcome.class).requests, 1);
+            statistics = columnarFile.getReport().getTest("test").getIterations().get(1).getStatistics(1);
+            assertEquals(statistics.get(0).getRepresentation(operation.name, DefaultOutcome.class).requests, 12);
+         }
+      } finally {
+         file.delete();
+         copy.delete();
+         dir.delete();
+      }
+   }
+
+   public void testNotColumnar() throws IOException {
+      File file = File.createTempFile("ColumnarReportFileTest", ".bin");
+      try {
+         Files.write(file.toPath(), new byte[] {(byte) 0xAC, (byte) 0xED, 0, 5});
+         assertFalse(ColumnarReportFile.isColumnar(file));
+      } finally {
+         file.delete();
+      }
+   }
+
+   private static Statistics statistics(Operation operation, int requests) {
+      BasicStatistics statistics = new BasicStatistics();
+      statistics.begin();
+      for (int i = 0; i < requests; ++i) {
+         statistics.record(0, 1000, true, operation);
+      }
+      statistics.end();
+      return statistics;
+   }
+}
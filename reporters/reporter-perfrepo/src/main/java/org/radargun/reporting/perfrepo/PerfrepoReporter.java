@@ -13,10 +13,12 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -176,24 +178,27 @@ public class PerfrepoReporter extends AbstractReporter {
             mrdMapping.put(mapping, new ArrayList<>());
          }
       }
-      iteration.getStatistics().stream().map(workerStats -> workerStats.getValue().stream().reduce(Statistics.MERGE)
-         .map(statistics -> addRepresentationValues(mrdMapping, statistics)))
-         .filter(Optional::isPresent).map(Optional::get).reduce(Statistics.MERGE).ifPresent(aggregatedStatistics -> {
-            long duration = TimeUnit.MILLISECONDS.toNanos(aggregatedStatistics.getEnd() - aggregatedStatistics.getBegin());
-            String iterationsName = iteration.test.iterationsName == null ? "Iteration" : iteration.test.iterationsName;
-            String iterationValue = iteration.getValue() == null ? String.valueOf(iteration.id) : iteration.getValue();
-            for (MetricNameMapping mapping : metricNameMapping) {
-               if (mapping.computeMRD) {
-                  List<Double> mrds = mrdMapping.get(mapping);
-                  if (!mrds.isEmpty()) {
-                     testExecutionBuilder.value(mapping.to, StatsUtils.calculateMrd(mrds), iterationsName, iterationValue);
-                  }
-               } else {
-                  double value = mapping.representation.getValue(aggregatedStatistics, mapping.operation, duration);
-                  testExecutionBuilder.value(mapping.to, value, iterationsName, iterationValue);
+      // statistics merged per worker are copies, these can be merged into each other in place
+      List<Statistics> workerStatistics = iteration.getStatistics().stream()
+         .map(workerStats -> StatsUtils.mergeHierarchically(workerStats.getValue(), StatsUtils.DEFAULT_MERGE_FAN_IN))
+         .filter(Objects::nonNull).map(statistics -> addRepresentationValues(mrdMapping, statistics))
+         .collect(Collectors.toList());
+      Optional.ofNullable(StatsUtils.merge(workerStatistics)).ifPresent(aggregatedStatistics -> {
+         long duration = TimeUnit.MILLISECONDS.toNanos(aggregatedStatistics.getEnd() - aggregatedStatistics.getBegin());
+         String iterationsName = iteration.test.iterationsName == null ? "Iteration" : iteration.test.iterationsName;
+         String iterationValue = iteration.getValue() == null ? String.valueOf(iteration.id) : iteration.getValue();
+         for (MetricNameMapping mapping : metricNameMapping) {
+            if (mapping.computeMRD) {
+               List<Double> mrds = mrdMapping.get(mapping);
+               if (!mrds.isEmpty()) {
+                  testExecutionBuilder.value(mapping.to, StatsUtils.calculateMrd(mrds), iterationsName, iterationValue);
                }
+            } else {
+               double value = mapping.representation.getValue(aggregatedStatistics, mapping.operation, duration);
+               testExecutionBuilder.value(mapping.to, value, iterationsName, iterationValue);
             }
-         });
+         }
+      });
    }
 
    private Statistics addRepresentationValues(Map<MetricNameMapping, List<Double>> mrdMapping, Statistics statistics) {